@@ -0,0 +1,808 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import java.time.Month;
+import java.time.Year;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TimeZone;
+import java.util.TreeSet;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.CGlobal;
+import com.helger.quartz.CronExpression.EType;
+
+/**
+ * The compiled, evaluation-only form of a {@link CronExpression}. Each field is
+ * stored as a bitset and all date arithmetic is done on primitive "wall clock"
+ * seconds (local date and time expressed as seconds since 1970-01-01T00:00 in
+ * the proleptic Gregorian calendar), so that evaluating an expression does not
+ * allocate any objects.<br>
+ * The algorithm is a one-to-one port of the original
+ * {@link GregorianCalendar} based implementation, including the lenient field
+ * handling and the way daylight saving gaps and overlaps are resolved, so the
+ * results are identical. Only for wall clock times that are within a day of a
+ * time zone offset transition, a {@link GregorianCalendar} is used to resolve
+ * the instant.<br>
+ * Instances are immutable and independent of the time zone, so they are shared
+ * between all {@link CronExpression} objects with the same expression string
+ * (see {@link CronExpressionCache}).
+ *
+ * @author Philip Helger
+ */
+@Immutable
+final class CompiledCronExpression
+{
+  /** Value returned if there is no matching time */
+  static final long NO_TIME = Long.MIN_VALUE;
+
+  /** Days from 0000-03-01 to 1970-01-01 */
+  private static final long DAYS_0000_TO_1970 = 719_468L;
+  private static final int DAYS_PER_CYCLE = 146_097;
+
+  /** All 60 seconds or minutes */
+  private static final long ALL_SIXTY = (1L << 60) - 1;
+
+  private final long m_nSeconds;
+  private final long m_nMinutes;
+  private final long m_nHours;
+  private final long m_nDaysOfMonth;
+  private final long m_nMonths;
+  private final long m_nDaysOfWeek;
+  private final int [] m_aYears;
+
+  private final boolean m_bDayOfMonthSpec;
+  private final boolean m_bDayOfWeekSpec;
+  private final boolean m_bLastdayOfWeek;
+  private final int m_nNthdayOfWeek;
+  private final boolean m_bLastdayOfMonth;
+  private final boolean m_bNearestWeekday;
+  private final int m_nLastdayOffset;
+
+  // The parsed field values incl. the '*' and '?' markers
+  private final SortedSet <Integer> m_aSecondSet;
+  private final SortedSet <Integer> m_aMinuteSet;
+  private final SortedSet <Integer> m_aHourSet;
+  private final SortedSet <Integer> m_aDayOfMonthSet;
+  private final SortedSet <Integer> m_aMonthSet;
+  private final SortedSet <Integer> m_aDayOfWeekSet;
+  private final SortedSet <Integer> m_aYearSet;
+
+  CompiledCronExpression (@NonNull final Set <Integer> aSeconds,
+                          @NonNull final Set <Integer> aMinutes,
+                          @NonNull final Set <Integer> aHours,
+                          @NonNull final Set <Integer> aDaysOfMonth,
+                          @NonNull final Set <Integer> aMonths,
+                          @NonNull final Set <Integer> aDaysOfWeek,
+                          @NonNull final Set <Integer> aYears,
+                          final boolean bDayOfMonthSpec,
+                          final boolean bDayOfWeekSpec,
+                          final boolean bLastdayOfWeek,
+                          final int nNthdayOfWeek,
+                          final boolean bLastdayOfMonth,
+                          final boolean bNearestWeekday,
+                          final int nLastdayOffset)
+  {
+    m_nSeconds = _toBits (aSeconds, 59);
+    m_nMinutes = _toBits (aMinutes, 59);
+    m_nHours = _toBits (aHours, 23);
+    m_nDaysOfMonth = _toBits (aDaysOfMonth, 31);
+    m_nMonths = _toBits (aMonths, 12);
+    m_nDaysOfWeek = _toBits (aDaysOfWeek, 7);
+    // The sets are sorted, so is the array
+    m_aYears = new int [aYears.size ()];
+    int nIndex = 0;
+    for (final Integer aYear : aYears)
+      m_aYears[nIndex++] = aYear.intValue ();
+    m_bDayOfMonthSpec = bDayOfMonthSpec;
+    m_bDayOfWeekSpec = bDayOfWeekSpec;
+    m_bLastdayOfWeek = bLastdayOfWeek;
+    m_nNthdayOfWeek = nNthdayOfWeek;
+    m_bLastdayOfMonth = bLastdayOfMonth;
+    m_bNearestWeekday = bNearestWeekday;
+    m_nLastdayOffset = nLastdayOffset;
+    m_aSecondSet = _toSortedSet (aSeconds);
+    m_aMinuteSet = _toSortedSet (aMinutes);
+    m_aHourSet = _toSortedSet (aHours);
+    m_aDayOfMonthSet = _toSortedSet (aDaysOfMonth);
+    m_aMonthSet = _toSortedSet (aMonths);
+    m_aDayOfWeekSet = _toSortedSet (aDaysOfWeek);
+    m_aYearSet = _toSortedSet (aYears);
+  }
+
+  @NonNull
+  private static SortedSet <Integer> _toSortedSet (@NonNull final Set <Integer> aSet)
+  {
+    return Collections.unmodifiableSortedSet (new TreeSet <> (aSet));
+  }
+
+  private static long _toBits (@NonNull final Set <Integer> aSet, final int nMax)
+  {
+    // Markers like '*' or '?' are outside of the range and not copied
+    long ret = 0;
+    for (final Integer aValue : aSet)
+    {
+      final int nValue = aValue.intValue ();
+      if (nValue >= 0 && nValue <= nMax)
+        ret |= 1L << nValue;
+    }
+    return ret;
+  }
+
+  /**
+   * @return The smallest value &ge; <code>nFrom</code> contained in the
+   *         provided bitset or -1 if there is no such value.
+   */
+  private static int _nextBit (final long nBits, final int nFrom)
+  {
+    final long nMasked = nBits & (-1L << nFrom);
+    return nMasked == 0 ? -1 : Long.numberOfTrailingZeros (nMasked);
+  }
+
+  private static int _firstBit (final long nBits)
+  {
+    return Long.numberOfTrailingZeros (nBits);
+  }
+
+  /**
+   * @return The largest value of the contiguous run of values in the provided
+   *         bitset, that starts at <code>nFrom</code>.
+   */
+  private static int _runEnd (final long nBits, final int nFrom)
+  {
+    return Long.numberOfTrailingZeros (~nBits & (-1L << nFrom)) - 1;
+  }
+
+  private int _nextYear (final int nFrom)
+  {
+    for (final int nYear : m_aYears)
+      if (nYear >= nFrom)
+        return nYear;
+    return -1;
+  }
+
+  boolean isLastdayOfWeek ()
+  {
+    return m_bLastdayOfWeek;
+  }
+
+  int getNthdayOfWeek ()
+  {
+    return m_nNthdayOfWeek;
+  }
+
+  boolean isLastdayOfMonth ()
+  {
+    return m_bLastdayOfMonth;
+  }
+
+  boolean isNearestWeekday ()
+  {
+    return m_bNearestWeekday;
+  }
+
+  int getLastdayOffset ()
+  {
+    return m_nLastdayOffset;
+  }
+
+  /**
+   * @param eType
+   *        The field to query. May not be <code>null</code>.
+   * @return The unmodifiable parsed values of the provided field, including
+   *         the markers for '*' and '?'. Never <code>null</code>.
+   */
+  @NonNull
+  SortedSet <Integer> getSet (@NonNull final EType eType)
+  {
+    switch (eType)
+    {
+      case SECOND:
+        return m_aSecondSet;
+      case MINUTE:
+        return m_aMinuteSet;
+      case HOUR:
+        return m_aHourSet;
+      case DAY_OF_MONTH:
+        return m_aDayOfMonthSet;
+      case MONTH:
+        return m_aMonthSet;
+      case DAY_OF_WEEK:
+        return m_aDayOfWeekSet;
+      case YEAR:
+        return m_aYearSet;
+    }
+    throw new IllegalStateException ("Unsupported type " + eType);
+  }
+
+  // Proleptic Gregorian calendar arithmetic on epoch days
+
+  private static long _toEpochDay (final long nYear, final int nMonth, final int nDay)
+  {
+    final long nY = nMonth <= 2 ? nYear - 1 : nYear;
+    final long nEra = Math.floorDiv (nY, 400);
+    final long nYearOfEra = nY - nEra * 400;
+    final long nDayOfYear = (153 * (nMonth > 2 ? nMonth - 3 : nMonth + 9) + 2) / 5 + nDay - 1;
+    final long nDayOfEra = nYearOfEra * 365 + nYearOfEra / 4 - nYearOfEra / 100 + nDayOfYear;
+    return nEra * DAYS_PER_CYCLE + nDayOfEra - DAYS_0000_TO_1970;
+  }
+
+  private static long _dayOfEra (final long nEpochDay)
+  {
+    return nEpochDay + DAYS_0000_TO_1970 - Math.floorDiv (nEpochDay + DAYS_0000_TO_1970, DAYS_PER_CYCLE) * DAYS_PER_CYCLE;
+  }
+
+  private static long _yearOfEra (final long nDayOfEra)
+  {
+    return (nDayOfEra - nDayOfEra / 1460 + nDayOfEra / 36524 - nDayOfEra / 146096) / 365;
+  }
+
+  /** @return the month index starting at March = 0 */
+  private static int _marchMonth (final long nEpochDay)
+  {
+    final long nDayOfEra = _dayOfEra (nEpochDay);
+    final long nYearOfEra = _yearOfEra (nDayOfEra);
+    final long nDayOfYear = nDayOfEra - (365 * nYearOfEra + nYearOfEra / 4 - nYearOfEra / 100);
+    return (int) ((5 * nDayOfYear + 2) / 153);
+  }
+
+  private static int _yearOf (final long nEpochDay)
+  {
+    final long nShifted = nEpochDay + DAYS_0000_TO_1970;
+    final long nYear = _yearOfEra (_dayOfEra (nEpochDay)) + Math.floorDiv (nShifted, DAYS_PER_CYCLE) * 400;
+    return (int) (_marchMonth (nEpochDay) >= 10 ? nYear + 1 : nYear);
+  }
+
+  /** @return the 1-based month */
+  private static int _monthOf (final long nEpochDay)
+  {
+    final int nMP = _marchMonth (nEpochDay);
+    return nMP < 10 ? nMP + 3 : nMP - 9;
+  }
+
+  /** @return the 1-based day of month */
+  private static int _dayOfMonthOf (final long nEpochDay)
+  {
+    final long nDayOfEra = _dayOfEra (nEpochDay);
+    final long nYearOfEra = _yearOfEra (nDayOfEra);
+    final long nDayOfYear = nDayOfEra - (365 * nYearOfEra + nYearOfEra / 4 - nYearOfEra / 100);
+    final long nMP = (5 * nDayOfYear + 2) / 153;
+    return (int) (nDayOfYear - (153 * nMP + 2) / 5 + 1);
+  }
+
+  /** @return the day of week as in {@link Calendar#DAY_OF_WEEK} */
+  private static int _dayOfWeekOf (final long nEpochDay)
+  {
+    // 1970-01-01 was a Thursday
+    return (int) Math.floorMod (nEpochDay + 4, 7) + 1;
+  }
+
+  private static int _getLastDayOfMonth (final int nMonth, final int nYear)
+  {
+    return Month.of (nMonth).length (Year.isLeap (nYear));
+  }
+
+  /**
+   * Compose wall clock seconds from the provided fields, that are all handled
+   * leniently like in {@link Calendar}.
+   */
+  private static long _wall (final int nYear, final int nMonth, final int nDay, final long nSecondOfDay)
+  {
+    final int nMonth0 = nMonth - 1;
+    final long nEpochDay = _toEpochDay (nYear + (long) Math.floorDiv (nMonth0, 12), Math.floorMod (nMonth0, 12) + 1, 1) +
+                           nDay -
+                           1;
+    return nEpochDay * CGlobal.SECONDS_PER_DAY + nSecondOfDay;
+  }
+
+  private static long _epochDay (final long nWall)
+  {
+    return Math.floorDiv (nWall, CGlobal.SECONDS_PER_DAY);
+  }
+
+  private static int _secondOfDay (final long nWall)
+  {
+    return (int) Math.floorMod (nWall, CGlobal.SECONDS_PER_DAY);
+  }
+
+  private static int _hourOf (final long nWall)
+  {
+    return _secondOfDay (nWall) / CGlobal.SECONDS_PER_HOUR;
+  }
+
+  // Time zone handling
+
+  /**
+   * Get the offset of the provided local time, if it is unambiguous and not
+   * close to any offset transition.
+   *
+   * @return The offset in milliseconds or {@link Integer#MIN_VALUE} if the
+   *         local time needs to be resolved by a {@link Calendar}.
+   */
+  private static int _getUniqueOffset (@NonNull final TimeZone aTZ, final long nLocalMillis)
+  {
+    final int nOffset = aTZ.getOffset (nLocalMillis - aTZ.getRawOffset ());
+    final long nUTC = nLocalMillis - nOffset;
+    if (aTZ.getOffset (nUTC) == nOffset &&
+        aTZ.getOffset (nUTC - CGlobal.MILLISECONDS_PER_DAY) == nOffset &&
+        aTZ.getOffset (nUTC + CGlobal.MILLISECONDS_PER_DAY) == nOffset)
+      return nOffset;
+    return Integer.MIN_VALUE;
+  }
+
+  /**
+   * Resolve a local time in a daylight saving gap or overlap exactly the way a
+   * lenient {@link GregorianCalendar} does it.
+   */
+  private static long _resolveByCalendar (@NonNull final TimeZone aTZ, final long nWall)
+  {
+    final long nEpochDay = _epochDay (nWall);
+    final int nSecondOfDay = _secondOfDay (nWall);
+    final Calendar aCal = new GregorianCalendar (aTZ, Locale.ROOT);
+    aCal.clear ();
+    aCal.set (_yearOf (nEpochDay),
+              _monthOf (nEpochDay) - 1,
+              _dayOfMonthOf (nEpochDay),
+              nSecondOfDay / CGlobal.SECONDS_PER_HOUR,
+              nSecondOfDay / CGlobal.SECONDS_PER_MINUTE % 60,
+              nSecondOfDay % CGlobal.SECONDS_PER_MINUTE);
+    return aCal.getTimeInMillis ();
+  }
+
+  /**
+   * @return the UTC milliseconds of the provided wall clock seconds
+   */
+  private static long _toEpochMillis (@NonNull final TimeZone aTZ, final long nWall)
+  {
+    final long nLocalMillis = nWall * 1000;
+    final int nOffset = _getUniqueOffset (aTZ, nLocalMillis);
+    if (nOffset != Integer.MIN_VALUE)
+      return nLocalMillis - nOffset;
+    return _resolveByCalendar (aTZ, nWall);
+  }
+
+  /**
+   * @return the wall clock seconds of the provided UTC milliseconds
+   */
+  private static long _toWall (@NonNull final TimeZone aTZ, final long nMillis)
+  {
+    return Math.floorDiv (nMillis + aTZ.getOffset (nMillis), 1000);
+  }
+
+  /**
+   * Equivalent of setting the fields of a {@link Calendar} and reading them
+   * again: the time of a daylight saving gap is moved forward.
+   *
+   * @return the canonical wall clock seconds
+   */
+  private static long _normalize (@NonNull final TimeZone aTZ, final long nWall)
+  {
+    if (_getUniqueOffset (aTZ, nWall * 1000) != Integer.MIN_VALUE)
+      return nWall;
+    return _toWall (aTZ, _resolveByCalendar (aTZ, nWall));
+  }
+
+  /**
+   * Advance to the particular hour paying particular attention to daylight
+   * saving problems.
+   *
+   * @param nPendingWall
+   *        the not yet normalized wall clock seconds with the hour already set
+   * @param nHour
+   *        the hour that was set
+   */
+  private static long _setHour (@NonNull final TimeZone aTZ, final long nPendingWall, final int nHour)
+  {
+    final long nWall = _normalize (aTZ, nPendingWall);
+    final int nActualHour = _hourOf (nWall);
+    if (nActualHour != nHour && nHour != 24)
+      return _normalize (aTZ, nWall + (nHour + 1 - nActualHour) * (long) CGlobal.SECONDS_PER_HOUR);
+    return nWall;
+  }
+
+  private static int _adjustToWeekday (final int nDayOfWeek, final int nDay, final int nLastDayOfMonth)
+  {
+    if (nDayOfWeek == Calendar.SATURDAY)
+      return nDay == 1 ? nDay + 2 : nDay - 1;
+    if (nDayOfWeek == Calendar.SUNDAY)
+      return nDay == nLastDayOfMonth ? nDay - 2 : nDay + 1;
+    return nDay;
+  }
+
+  /**
+   * Find the day of month that is the nearest weekday of the provided day, and
+   * check if that day with the provided time is before the start time.
+   *
+   * @return the day of month shifted left by one bit, with the lowest bit set
+   *         if the resulting time is before the start time
+   */
+  private static int _nearestWeekday (@NonNull final TimeZone aTZ,
+                                      final int nYear,
+                                      final int nMonth,
+                                      final int nDay,
+                                      final int nSecondOfDay,
+                                      final long nStartTime)
+  {
+    final long nDayStart = _normalize (aTZ, _wall (nYear, nMonth, nDay, 0));
+    final int nLastDayOfMonth = _getLastDayOfMonth (nMonth, nYear);
+    final int nWeekday = _adjustToWeekday (_dayOfWeekOf (_epochDay (nDayStart)), nDay, nLastDayOfMonth);
+
+    // The year of the normalized day start is used, in case the day overflowed
+    final long nTime = _toEpochMillis (aTZ,
+                                       _wall (_yearOf (_epochDay (nDayStart)), nMonth, nWeekday, nSecondOfDay));
+    return (nWeekday << 1) | (nTime < nStartTime ? 1 : 0);
+  }
+
+  /**
+   * Get the next time after the provided time, that satisfies the cron
+   * expression.
+   *
+   * @param aTZ
+   *        The time zone in which the expression is evaluated. May not be
+   *        <code>null</code>.
+   * @param nAfterTime
+   *        Milliseconds since the epoch of the time to start the search
+   *        after.
+   * @return The milliseconds since the epoch of the next matching time or
+   *         {@link #NO_TIME} if there is none.
+   */
+  long getTimeAfter (@NonNull final TimeZone aTZ, final long nAfterTime)
+  {
+    // move ahead one second, since we're computing the time *after* the
+    // given time
+    final long nStartTime = nAfterTime + 1000;
+    // CronTrigger does not deal with milliseconds
+    long nWall = _toWall (aTZ, nStartTime);
+
+    // loop until we've computed the next time, or we've past the endTime
+    while (true)
+    {
+      long nEpochDay = _epochDay (nWall);
+      if (_yearOf (nEpochDay) > CQuartz.MAX_YEAR)
+      {
+        // prevent endless loop...
+        return NO_TIME;
+      }
+
+      // get second.................................................
+      int nSecondOfDay = _secondOfDay (nWall);
+      final int nCurSec = nSecondOfDay % CGlobal.SECONDS_PER_MINUTE;
+      final int nNextSec = _nextBit (m_nSeconds, nCurSec);
+      final long nNewWall;
+      if (nNextSec >= 0)
+        nNewWall = nWall + nNextSec - nCurSec;
+      else
+        nNewWall = nWall + _firstBit (m_nSeconds) - nCurSec + CGlobal.SECONDS_PER_MINUTE;
+      if (nNewWall != nWall)
+      {
+        nWall = _normalize (aTZ, nNewWall);
+        nEpochDay = _epochDay (nWall);
+        nSecondOfDay = _secondOfDay (nWall);
+      }
+
+      // get minute.................................................
+      int nMin = nSecondOfDay / CGlobal.SECONDS_PER_MINUTE % 60;
+      int nHour = nSecondOfDay / CGlobal.SECONDS_PER_HOUR;
+      final int nNextMin = _nextBit (m_nMinutes, nMin);
+      if (nNextMin != nMin)
+      {
+        if (nNextMin >= 0)
+          nMin = nNextMin;
+        else
+        {
+          nMin = _firstBit (m_nMinutes);
+          nHour++;
+        }
+        final long nPendingWall = nEpochDay * CGlobal.SECONDS_PER_DAY +
+                                  nHour * (long) CGlobal.SECONDS_PER_HOUR +
+                                  nMin * CGlobal.SECONDS_PER_MINUTE;
+        nWall = _setHour (aTZ, nPendingWall, nHour);
+        continue;
+      }
+
+      // get hour...................................................
+      final int nNextHour = _nextBit (m_nHours, nHour);
+      if (nNextHour != nHour)
+      {
+        long nDayStart = nEpochDay * CGlobal.SECONDS_PER_DAY;
+        if (nNextHour >= 0)
+          nHour = nNextHour;
+        else
+        {
+          nHour = _firstBit (m_nHours);
+          nDayStart += CGlobal.SECONDS_PER_DAY;
+        }
+        nWall = _setHour (aTZ, nDayStart + nHour * (long) CGlobal.SECONDS_PER_HOUR, nHour);
+        continue;
+      }
+
+      // get day...................................................
+      int nDay = _dayOfMonthOf (nEpochDay);
+      int nMonth = _monthOf (nEpochDay);
+      int nYear = _yearOf (nEpochDay);
+      if (m_bDayOfMonthSpec && !m_bDayOfWeekSpec)
+      {
+        // get day by day of month rule
+        final int nOldDay = nDay;
+        final int nOldMonth = nMonth;
+        int nNewYear = nYear;
+        if (m_bLastdayOfMonth)
+        {
+          nDay = _getLastDayOfMonth (nMonth, nYear) - m_nLastdayOffset;
+          if (!m_bNearestWeekday)
+          {
+            if (nOldDay > nDay)
+            {
+              nMonth++;
+              if (nMonth > 12)
+              {
+                nMonth = 1;
+                nNewYear++;
+              }
+              nDay = 1;
+            }
+          }
+          else
+          {
+            final int nResult = _nearestWeekday (aTZ, nYear, nMonth, nDay, nSecondOfDay, nStartTime);
+            nDay = nResult >> 1;
+            if ((nResult & 1) != 0)
+            {
+              nDay = 1;
+              nMonth++;
+            }
+          }
+        }
+        else
+          if (m_bNearestWeekday)
+          {
+            final int nResult = _nearestWeekday (aTZ,
+                                                 nYear,
+                                                 nMonth,
+                                                 _firstBit (m_nDaysOfMonth),
+                                                 nSecondOfDay,
+                                                 nStartTime);
+            nDay = nResult >> 1;
+            if ((nResult & 1) != 0)
+            {
+              nDay = _firstBit (m_nDaysOfMonth);
+              nMonth++;
+            }
+          }
+          else
+          {
+            final int nNextDay = _nextBit (m_nDaysOfMonth, nDay);
+            // make sure we don't over-run a short month, such as february
+            if (nNextDay >= 0 && nNextDay <= _getLastDayOfMonth (nMonth, nYear))
+              nDay = nNextDay;
+            else
+            {
+              nDay = _firstBit (m_nDaysOfMonth);
+              nMonth++;
+            }
+          }
+
+        if (nDay != nOldDay || nMonth != nOldMonth || nNewYear != nYear)
+        {
+          nWall = _normalize (aTZ, _wall (nNewYear, nMonth, nDay, 0));
+          continue;
+        }
+      }
+      else
+        if (m_bDayOfWeekSpec && !m_bDayOfMonthSpec)
+        {
+          // get day by day of week rule
+          final int nCurDow = _dayOfWeekOf (nEpochDay);
+          if (m_bLastdayOfWeek)
+          {
+            // are we looking for the last XXX day of the month?
+            final int nDow = _firstBit (m_nDaysOfWeek);
+            int nDaysToAdd = Math.floorMod (nDow - nCurDow, 7);
+            final int nLastDay = _getLastDayOfMonth (nMonth, nYear);
+            if (nDay + nDaysToAdd > nLastDay)
+            {
+              // did we already miss the last one?
+              nWall = _normalize (aTZ, _wall (nYear, nMonth + 1, 1, 0));
+              continue;
+            }
+
+            // find date of last occurrence of this day in this month...
+            while (nDay + nDaysToAdd + 7 <= nLastDay)
+              nDaysToAdd += 7;
+
+            if (nDaysToAdd > 0)
+            {
+              nWall = _normalize (aTZ, _wall (nYear, nMonth, nDay + nDaysToAdd, 0));
+              continue;
+            }
+          }
+          else
+            if (m_nNthdayOfWeek != 0)
+            {
+              // are we looking for the Nth XXX day in the month?
+              final int nDow = _firstBit (m_nDaysOfWeek);
+              int nDaysToAdd = Math.floorMod (nDow - nCurDow, 7);
+              final boolean bDayShifted = nDaysToAdd > 0;
+              nDay += nDaysToAdd;
+              int nWeekOfMonth = nDay / 7;
+              if (nDay % 7 > 0)
+                nWeekOfMonth++;
+
+              nDaysToAdd = (m_nNthdayOfWeek - nWeekOfMonth) * 7;
+              nDay += nDaysToAdd;
+              if (nDaysToAdd < 0 || nDay > _getLastDayOfMonth (nMonth, nYear))
+              {
+                nWall = _normalize (aTZ, _wall (nYear, nMonth + 1, 1, 0));
+                continue;
+              }
+              if (nDaysToAdd > 0 || bDayShifted)
+              {
+                nWall = _normalize (aTZ, _wall (nYear, nMonth, nDay, 0));
+                continue;
+              }
+            }
+            else
+            {
+              int nDow = _nextBit (m_nDaysOfWeek, nCurDow);
+              if (nDow < 0)
+                nDow = _firstBit (m_nDaysOfWeek);
+              final int nDaysToAdd = Math.floorMod (nDow - nCurDow, 7);
+              if (nDay + nDaysToAdd > _getLastDayOfMonth (nMonth, nYear))
+              {
+                // will we pass the end of the month?
+                nWall = _normalize (aTZ, _wall (nYear, nMonth + 1, 1, 0));
+                continue;
+              }
+              if (nDaysToAdd > 0)
+              {
+                // are we switching days?
+                nWall = _normalize (aTZ, _wall (nYear, nMonth, nDay + nDaysToAdd, 0));
+                continue;
+              }
+            }
+        }
+        else
+        {
+          throw new UnsupportedOperationException ("Support for specifying both a day-of-week AND a day-of-month parameter is not implemented.");
+        }
+
+      // test for expressions that never generate a valid fire date,
+      // but keep looping...
+      if (nYear > CQuartz.MAX_YEAR)
+        return NO_TIME;
+
+      // get month...................................................
+      final int nNextMonth = _nextBit (m_nMonths, nMonth);
+      if (nNextMonth != nMonth)
+      {
+        if (nNextMonth >= 0)
+          nMonth = nNextMonth;
+        else
+        {
+          nMonth = _firstBit (m_nMonths);
+          nYear++;
+        }
+        nWall = _normalize (aTZ, _wall (nYear, nMonth, 1, 0));
+        continue;
+      }
+
+      // get year...................................................
+      final int nNextYear = _nextYear (nYear);
+      if (nNextYear < 0)
+      {
+        // ran out of years...
+        return NO_TIME;
+      }
+      if (nNextYear != nYear)
+      {
+        nWall = _normalize (aTZ, _wall (nNextYear, 1, 1, 0));
+        continue;
+      }
+
+      return _toEpochMillis (aTZ, nWall);
+    }
+  }
+
+  /**
+   * Check if the provided time satisfies the cron expression. Milliseconds
+   * are ignored.
+   *
+   * @param aTZ
+   *        The time zone in which the expression is evaluated. May not be
+   *        <code>null</code>.
+   * @param nTime
+   *        Milliseconds since the epoch of the time to check.
+   * @return <code>true</code> if it is satisfied
+   */
+  boolean isSatisfiedBy (@NonNull final TimeZone aTZ, final long nTime)
+  {
+    final long nOriginalTime = _toEpochMillis (aTZ, _toWall (aTZ, nTime));
+    return getTimeAfter (aTZ, nOriginalTime - 1000) == nOriginalTime;
+  }
+
+  /**
+   * Get the number of seconds following the provided wall clock time, that
+   * are guaranteed to satisfy the time of day fields of this expression as
+   * well, if the provided wall clock time itself does. Runs never cross a day
+   * boundary.
+   */
+  private int _getRunLength (final long nWall)
+  {
+    final int nSecondOfDay = _secondOfDay (nWall);
+    final int nSec = nSecondOfDay % CGlobal.SECONDS_PER_MINUTE;
+    final int nMin = nSecondOfDay / CGlobal.SECONDS_PER_MINUTE % 60;
+    final int nHour = nSecondOfDay / CGlobal.SECONDS_PER_HOUR;
+
+    if (m_nSeconds != ALL_SIXTY)
+      return _runEnd (m_nSeconds, nSec) - nSec;
+
+    // Every second of a matching minute matches
+    final int nRestOfMinute = 59 - nSec;
+    if (m_nMinutes != ALL_SIXTY)
+      return (_runEnd (m_nMinutes, nMin) - nMin) * CGlobal.SECONDS_PER_MINUTE + nRestOfMinute;
+
+    // Every second of a matching hour matches
+    final int nRestOfHour = (59 - nMin) * CGlobal.SECONDS_PER_MINUTE + nRestOfMinute;
+    return (_runEnd (m_nHours, nHour) - nHour) * CGlobal.SECONDS_PER_HOUR + nRestOfHour;
+  }
+
+  /**
+   * Get the next time after the provided time, that does <b>not</b> satisfy
+   * the cron expression. Instead of checking one second after the other, all
+   * seconds of a contiguous range of seconds, minutes and hours are skipped
+   * at once. Only close to offset transitions of the time zone, a single
+   * second is checked at a time.
+   *
+   * @param aTZ
+   *        The time zone in which the expression is evaluated. May not be
+   *        <code>null</code>.
+   * @param nTime
+   *        Milliseconds since the epoch of the time to start the search at.
+   *        Milliseconds are ignored.
+   * @return The milliseconds since the epoch of the next not matching time.
+   */
+  long getNextInvalidTimeAfter (@NonNull final TimeZone aTZ, final long nTime)
+  {
+    // move back to the nearest second so differences will be accurate
+    long nLastTime = _toEpochMillis (aTZ, _toWall (aTZ, nTime));
+    while (true)
+    {
+      final long nNewTime = getTimeAfter (aTZ, nLastTime);
+      if (nNewTime != nLastTime + 1000)
+      {
+        // No match or a gap - the last time of the range was found
+        break;
+      }
+      nLastTime = nNewTime;
+
+      // Skip the rest of the range, if there is no offset transition nearby
+      final long nWall = _toWall (aTZ, nLastTime);
+      if (_getUniqueOffset (aTZ, nWall * 1000) != Integer.MIN_VALUE)
+        nLastTime += _getRunLength (nWall) * 1000L;
+    }
+    return nLastTime + 1000;
+  }
+}
@@ -0,0 +1,589 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+
+/**
+ * A {@link JobDataMap} that is a layered, read-only view on one or more source
+ * maps until it is modified for the first time. Only then the content of all
+ * layers is copied into this map ("materialized"), and from then on it behaves
+ * like a regular {@link JobDataMap}. The layers are private copies that are
+ * never modified, so they can be shared between any number of views.
+ * Therefore cloning an unmodified instance, and merging unmodified instances,
+ * does not copy any data.
+ * <p>
+ * The layers are ordered by priority: values of a later layer override values
+ * with the same key in an earlier layer. This is used for the merged job data
+ * map of a job execution, where the trigger's map overrides the job's map.
+ * </p>
+ * <p>
+ * Like every other {@link JobDataMap}, instances of this class are not thread
+ * safe. The layers however may be accessed by multiple threads concurrently.
+ * </p>
+ *
+ * @author Philip Helger
+ */
+@NotThreadSafe
+public class CopyOnWriteJobDataMap extends JobDataMap
+{
+  private static final JobDataMap [] NO_LAYERS = new JobDataMap [0];
+
+  // null if materialized
+  private JobDataMap [] m_aLayers;
+
+  /**
+   * Create a new map that is a merged view of the provided sources, where
+   * values of a later source override the values of an earlier source.
+   * Unmodified {@link CopyOnWriteJobDataMap} sources are referenced directly,
+   * all other non-empty sources are copied once.
+   *
+   * @param aSources
+   *        The sources to merge, ordered by ascending priority. May be
+   *        <code>null</code> and may contain <code>null</code> elements.
+   */
+  @SafeVarargs
+  public CopyOnWriteJobDataMap (@Nullable final Map <String, ?>... aSources)
+  {
+    m_aLayers = _createLayers (aSources);
+  }
+
+  @NonNull
+  private static JobDataMap [] _createLayers (@Nullable final Map <String, ?> [] aSources)
+  {
+    if (aSources == null || aSources.length == 0)
+      return NO_LAYERS;
+
+    if (aSources.length == 1 &&
+        aSources[0] instanceof final CopyOnWriteJobDataMap aCOW &&
+        aCOW.m_aLayers != null)
+    {
+      // Most common case: a clone - share the layers array as well
+      return aCOW.m_aLayers;
+    }
+
+    JobDataMap [] ret = NO_LAYERS;
+    for (final Map <String, ?> aSource : aSources)
+    {
+      final JobDataMap [] aNew;
+      if (aSource instanceof final CopyOnWriteJobDataMap aCOW && aCOW.m_aLayers != null)
+        aNew = aCOW.m_aLayers;
+      else
+        if (aSource != null && !aSource.isEmpty ())
+          aNew = new JobDataMap [] { new JobDataMap (aSource) };
+        else
+          aNew = NO_LAYERS;
+
+      if (aNew.length > 0)
+      {
+        if (ret.length == 0)
+          ret = aNew;
+        else
+        {
+          final JobDataMap [] aMerged = new JobDataMap [ret.length + aNew.length];
+          System.arraycopy (ret, 0, aMerged, 0, ret.length);
+          System.arraycopy (aNew, 0, aMerged, ret.length, aNew.length);
+          ret = aMerged;
+        }
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * @return <code>true</code> if this map was modified and therefore contains
+   *         its own copy of the data, <code>false</code> if it is still a view
+   *         on the shared layers.
+   */
+  public final boolean isMaterialized ()
+  {
+    return m_aLayers == null;
+  }
+
+  /**
+   * Check if the two provided maps are guaranteed to contain the same data,
+   * because both are empty or both are unmodified views on the same layers.
+   * This check is cheap and never iterates the content.
+   *
+   * @param aMap1
+   *        The first map. May be <code>null</code>.
+   * @param aMap2
+   *        The second map. May be <code>null</code>.
+   * @return <code>true</code> if both maps contain the same data,
+   *         <code>false</code> if it is unknown.
+   */
+  public static boolean isSharingData (@Nullable final JobDataMap aMap1, @Nullable final JobDataMap aMap2)
+  {
+    if (aMap1 == aMap2)
+      return true;
+    if (aMap1 == null || aMap2 == null)
+      return false;
+    if (aMap1.isEmpty () && aMap2.isEmpty ())
+      return true;
+    if (!(aMap1 instanceof final CopyOnWriteJobDataMap aCOW1) || !(aMap2 instanceof final CopyOnWriteJobDataMap aCOW2))
+      return false;
+
+    final JobDataMap [] aLayers1 = aCOW1.m_aLayers;
+    final JobDataMap [] aLayers2 = aCOW2.m_aLayers;
+    if (aLayers1 == null || aLayers2 == null)
+      return false;
+    if (aLayers1 == aLayers2)
+      return true;
+    if (aLayers1.length != aLayers2.length)
+      return false;
+    for (int i = 0; i < aLayers1.length; ++i)
+      if (aLayers1[i] != aLayers2[i])
+        return false;
+    return true;
+  }
+
+  private void _materialize ()
+  {
+    final JobDataMap [] aLayers = m_aLayers;
+    if (aLayers != null)
+    {
+      m_aLayers = null;
+      for (final JobDataMap aLayer : aLayers)
+        super.putAll (aLayer);
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the key is contained in any layer above the
+   *         provided index, meaning that the value of the layer with the
+   *         provided index is hidden.
+   */
+  private boolean _isOverridden (final Object aKey, final int nLayerIndex)
+  {
+    for (int i = nLayerIndex + 1; i < m_aLayers.length; ++i)
+      if (m_aLayers[i].containsKey (aKey))
+        return true;
+    return false;
+  }
+
+  @Override
+  public int size ()
+  {
+    final JobDataMap [] aLayers = m_aLayers;
+    if (aLayers == null)
+      return super.size ();
+    if (aLayers.length == 1)
+      return aLayers[0].size ();
+
+    int ret = 0;
+    for (int i = 0; i < aLayers.length; ++i)
+      for (final String sKey : aLayers[i].keySet ())
+        if (!_isOverridden (sKey, i))
+          ret++;
+    return ret;
+  }
+
+  @Override
+  public boolean isEmpty ()
+  {
+    final JobDataMap [] aLayers = m_aLayers;
+    // Empty layers are never stored
+    return aLayers == null ? super.isEmpty () : aLayers.length == 0;
+  }
+
+  @Override
+  public Object get (final Object aKey)
+  {
+    final JobDataMap [] aLayers = m_aLayers;
+    if (aLayers == null)
+      return super.get (aKey);
+
+    for (int i = aLayers.length - 1; i >= 0; --i)
+    {
+      final Object ret = aLayers[i].get (aKey);
+      if (ret != null || aLayers[i].containsKey (aKey))
+        return ret;
+    }
+    return null;
+  }
+
+  @Override
+  public Object getOrDefault (final Object aKey, final Object aDefaultValue)
+  {
+    if (m_aLayers == null)
+      return super.getOrDefault (aKey, aDefaultValue);
+    return containsKey (aKey) ? get (aKey) : aDefaultValue;
+  }
+
+  @Override
+  public boolean containsKey (final Object aKey)
+  {
+    final JobDataMap [] aLayers = m_aLayers;
+    if (aLayers == null)
+      return super.containsKey (aKey);
+
+    for (final JobDataMap aLayer : aLayers)
+      if (aLayer.containsKey (aKey))
+        return true;
+    return false;
+  }
+
+  @Override
+  public boolean containsValue (final Object aValue)
+  {
+    if (m_aLayers == null)
+      return super.containsValue (aValue);
+    return values ().contains (aValue);
+  }
+
+  @Override
+  public void forEach (@NonNull final BiConsumer <? super String, ? super Object> aConsumer)
+  {
+    final JobDataMap [] aLayers = m_aLayers;
+    if (aLayers == null)
+      super.forEach (aConsumer);
+    else
+      for (int i = 0; i < aLayers.length; ++i)
+      {
+        final int nLayerIndex = i;
+        aLayers[i].forEach ( (k, v) -> {
+          if (!_isOverridden (k, nLayerIndex))
+            aConsumer.accept (k, v);
+        });
+      }
+  }
+
+  /**
+   * Iterator over the visible entries of all layers. Modifications via the
+   * iterator or the entries materialize the map, the iteration itself continues
+   * on the layers.
+   */
+  private final class LayeredEntryIterator implements Iterator <Map.Entry <String, Object>>
+  {
+    private final JobDataMap [] m_aIterLayers = m_aLayers;
+    private int m_nLayerIndex = -1;
+    private Iterator <Map.Entry <String, Object>> m_aLayerIt;
+    private Map.Entry <String, Object> m_aNext;
+    private Map.Entry <String, Object> m_aLast;
+
+    LayeredEntryIterator ()
+    {
+      _advance ();
+    }
+
+    private void _advance ()
+    {
+      m_aNext = null;
+      while (true)
+      {
+        while (m_aLayerIt != null && m_aLayerIt.hasNext ())
+        {
+          final Map.Entry <String, Object> aEntry = m_aLayerIt.next ();
+          boolean bOverridden = false;
+          for (int i = m_nLayerIndex + 1; i < m_aIterLayers.length; ++i)
+            if (m_aIterLayers[i].containsKey (aEntry.getKey ()))
+            {
+              bOverridden = true;
+              break;
+            }
+          if (!bOverridden)
+          {
+            m_aNext = aEntry;
+            return;
+          }
+        }
+        if (++m_nLayerIndex >= m_aIterLayers.length)
+          return;
+        m_aLayerIt = m_aIterLayers[m_nLayerIndex].entrySet ().iterator ();
+      }
+    }
+
+    public boolean hasNext ()
+    {
+      return m_aNext != null;
+    }
+
+    public Map.Entry <String, Object> next ()
+    {
+      if (m_aNext == null)
+        throw new NoSuchElementException ();
+      final Map.Entry <String, Object> aEntry = m_aNext;
+      _advance ();
+      // Never expose the entry of a layer, as it is modifiable
+      m_aLast = new AbstractMap.SimpleEntry <> (aEntry)
+      {
+        @Override
+        public Object setValue (final Object aValue)
+        {
+          super.setValue (aValue);
+          return CopyOnWriteJobDataMap.this.put (getKey (), aValue);
+        }
+      };
+      return m_aLast;
+    }
+
+    public void remove ()
+    {
+      if (m_aLast == null)
+        throw new IllegalStateException ();
+      CopyOnWriteJobDataMap.this.remove (m_aLast.getKey ());
+      m_aLast = null;
+    }
+  }
+
+  @Override
+  public Set <Map.Entry <String, Object>> entrySet ()
+  {
+    if (m_aLayers == null)
+      return super.entrySet ();
+
+    return new AbstractSet <> ()
+    {
+      @Override
+      public Iterator <Map.Entry <String, Object>> iterator ()
+      {
+        return m_aLayers == null ? CopyOnWriteJobDataMap.super.entrySet ().iterator () : new LayeredEntryIterator ();
+      }
+
+      @Override
+      public int size ()
+      {
+        return CopyOnWriteJobDataMap.this.size ();
+      }
+    };
+  }
+
+  @Override
+  public Set <String> keySet ()
+  {
+    if (m_aLayers == null)
+      return super.keySet ();
+
+    return new AbstractSet <> ()
+    {
+      @Override
+      public Iterator <String> iterator ()
+      {
+        final Iterator <Map.Entry <String, Object>> it = entrySet ().iterator ();
+        return new Iterator <> ()
+        {
+          public boolean hasNext ()
+          {
+            return it.hasNext ();
+          }
+
+          public String next ()
+          {
+            return it.next ().getKey ();
+          }
+
+          public void remove ()
+          {
+            it.remove ();
+          }
+        };
+      }
+
+      @Override
+      public int size ()
+      {
+        return CopyOnWriteJobDataMap.this.size ();
+      }
+
+      @Override
+      public boolean contains (final Object aKey)
+      {
+        return containsKey (aKey);
+      }
+
+      @Override
+      public boolean remove (final Object aKey)
+      {
+        if (!containsKey (aKey))
+          return false;
+        CopyOnWriteJobDataMap.this.remove (aKey);
+        return true;
+      }
+    };
+  }
+
+  @Override
+  public Collection <Object> values ()
+  {
+    if (m_aLayers == null)
+      return super.values ();
+
+    return new AbstractCollection <> ()
+    {
+      @Override
+      public Iterator <Object> iterator ()
+      {
+        final Iterator <Map.Entry <String, Object>> it = entrySet ().iterator ();
+        return new Iterator <> ()
+        {
+          public boolean hasNext ()
+          {
+            return it.hasNext ();
+          }
+
+          public Object next ()
+          {
+            return it.next ().getValue ();
+          }
+
+          public void remove ()
+          {
+            it.remove ();
+          }
+        };
+      }
+
+      @Override
+      public int size ()
+      {
+        return CopyOnWriteJobDataMap.this.size ();
+      }
+    };
+  }
+
+  @Override
+  public Object put (final String aKey, final Object aValue)
+  {
+    _materialize ();
+    return super.put (aKey, aValue);
+  }
+
+  @Override
+  public void putAll (final Map <? extends String, ? extends Object> aMap)
+  {
+    _materialize ();
+    super.putAll (aMap);
+  }
+
+  @Override
+  public Object remove (final Object aKey)
+  {
+    _materialize ();
+    return super.remove (aKey);
+  }
+
+  @Override
+  public boolean remove (final Object aKey, final Object aValue)
+  {
+    _materialize ();
+    return super.remove (aKey, aValue);
+  }
+
+  @Override
+  public void clear ()
+  {
+    // No need to copy anything
+    m_aLayers = null;
+    super.clear ();
+  }
+
+  @Override
+  public Object putIfAbsent (final String aKey, final Object aValue)
+  {
+    _materialize ();
+    return super.putIfAbsent (aKey, aValue);
+  }
+
+  @Override
+  public boolean replace (final String aKey, final Object aOldValue, final Object aNewValue)
+  {
+    _materialize ();
+    return super.replace (aKey, aOldValue, aNewValue);
+  }
+
+  @Override
+  public Object replace (final String aKey, final Object aValue)
+  {
+    _materialize ();
+    return super.replace (aKey, aValue);
+  }
+
+  @Override
+  public void replaceAll (final BiFunction <? super String, ? super Object, ? extends Object> aFunction)
+  {
+    _materialize ();
+    super.replaceAll (aFunction);
+  }
+
+  @Override
+  public Object computeIfAbsent (final String aKey, final Function <? super String, ? extends Object> aMappingFunction)
+  {
+    _materialize ();
+    return super.computeIfAbsent (aKey, aMappingFunction);
+  }
+
+  @Override
+  public Object computeIfPresent (final String aKey,
+                                  final BiFunction <? super String, ? super Object, ? extends Object> aRemappingFunction)
+  {
+    _materialize ();
+    return super.computeIfPresent (aKey, aRemappingFunction);
+  }
+
+  @Override
+  public Object compute (final String aKey,
+                         final BiFunction <? super String, ? super Object, ? extends Object> aRemappingFunction)
+  {
+    _materialize ();
+    return super.compute (aKey, aRemappingFunction);
+  }
+
+  @Override
+  public Object merge (final String aKey,
+                       final Object aValue,
+                       final BiFunction <? super Object, ? super Object, ? extends Object> aRemappingFunction)
+  {
+    _materialize ();
+    return super.merge (aKey, aValue, aRemappingFunction);
+  }
+
+  @Override
+  public Object clone ()
+  {
+    return getClone ();
+  }
+
+  /**
+   * @return A new copy-on-write map. If this map was not yet modified, no data
+   *         is copied.
+   */
+  @Override
+  @NonNull
+  @ReturnsMutableCopy
+  public CopyOnWriteJobDataMap getClone ()
+  {
+    return new CopyOnWriteJobDataMap (this);
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import java.text.ParseException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.concurrent.SimpleLock;
+import com.helger.base.enforce.ValueEnforcer;
+
+/**
+ * A bounded, least-recently-used cache of parsed cron expressions. Every
+ * {@link CronExpression} created with the same expression string shares the
+ * same immutable {@link CompiledCronExpression}, so each distinct expression is
+ * only parsed once. Because the compiled form is independent of the time zone,
+ * the cache key is the upper cased expression string only. Expressions that
+ * fail to parse are not cached.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public final class CronExpressionCache
+{
+  /** The default maximum number of cached expressions */
+  public static final int DEFAULT_MAX_SIZE = 1000;
+
+  private static final SimpleLock LOCK = new SimpleLock ();
+  @GuardedBy ("LOCK")
+  private static int s_nMaxSize = DEFAULT_MAX_SIZE;
+  @GuardedBy ("LOCK")
+  private static final Map <String, CompiledCronExpression> CACHE = new LinkedHashMap <> (16, 0.75f, true)
+  {
+    @Override
+    protected boolean removeEldestEntry (final Map.Entry <String, CompiledCronExpression> aEldest)
+    {
+      return size () > s_nMaxSize;
+    }
+  };
+
+  private CronExpressionCache ()
+  {}
+
+  /**
+   * Get the compiled form of the provided expression, parsing it only if it is
+   * not yet contained in the cache.
+   *
+   * @param sCronExpression
+   *        The upper case cron expression. May not be <code>null</code>.
+   * @return The shared compiled expression. Never <code>null</code>.
+   * @throws ParseException
+   *         if the string expression cannot be parsed into a valid cron
+   *         expression
+   */
+  @NonNull
+  static CompiledCronExpression getCompiled (@NonNull final String sCronExpression) throws ParseException
+  {
+    final CompiledCronExpression aCached = LOCK.lockedGet ( () -> CACHE.get (sCronExpression));
+    if (aCached != null)
+      return aCached;
+
+    // Parse outside of the lock - if two threads parse the same expression
+    // concurrently, the first one stored wins
+    final CompiledCronExpression aCompiled = CronExpressionParser.parse (sCronExpression);
+    return LOCK.lockedGet ( () -> CACHE.computeIfAbsent (sCronExpression, k -> aCompiled));
+  }
+
+  /**
+   * @return The maximum number of cached expressions. Always &gt; 0.
+   */
+  public static int getMaxSize ()
+  {
+    return LOCK.lockedInt ( () -> s_nMaxSize);
+  }
+
+  /**
+   * Set the maximum number of cached expressions. If the cache currently
+   * contains more entries, the least recently used ones are removed.
+   *
+   * @param nMaxSize
+   *        The new maximum size. Must be &gt; 0.
+   */
+  public static void setMaxSize (final int nMaxSize)
+  {
+    ValueEnforcer.isGT0 (nMaxSize, "MaxSize");
+    LOCK.locked ( () -> {
+      s_nMaxSize = nMaxSize;
+      final Iterator <CompiledCronExpression> aIt = CACHE.values ().iterator ();
+      while (CACHE.size () > nMaxSize)
+      {
+        aIt.next ();
+        aIt.remove ();
+      }
+    });
+  }
+
+  /**
+   * @return The number of currently cached expressions. Always &ge; 0.
+   */
+  public static int getSize ()
+  {
+    return LOCK.lockedInt (CACHE::size);
+  }
+
+  /**
+   * Remove all cached expressions.
+   */
+  public static void clearCache ()
+  {
+    LOCK.locked (CACHE::clear);
+  }
+}
@@ -0,0 +1,835 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import java.text.ParseException;
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.TreeSet;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.cache.regex.RegExHelper;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.quartz.CronExpression.EType;
+
+/**
+ * Parser for the string representation of a {@link CronExpression}. The
+ * result is the immutable {@link CompiledCronExpression}. See
+ * {@link CronExpression} for the syntax.
+ *
+ * @author Sharada Jambula, James House
+ * @author Contributions from Mads Henderson
+ * @author Refactoring from CronTrigger to CronExpression by Aaron Craven
+ */
+@NotThreadSafe
+final class CronExpressionParser
+{
+  private static final class ValueSet
+  {
+    final int m_nValue;
+    final int m_nPos;
+
+    public ValueSet (final int nValue, final int nPos)
+    {
+      m_nValue = nValue;
+      m_nPos = nPos;
+    }
+  }
+
+  // '*'
+  private static final int ALL_SPEC_INT = 99;
+  // '?'
+  private static final int NO_SPEC_INT = 98;
+  static final Integer ALL_SPEC = Integer.valueOf (ALL_SPEC_INT);
+  static final Integer NO_SPEC = Integer.valueOf (NO_SPEC_INT);
+
+  private static final ICommonsMap <String, Integer> MONTH_MAP = new CommonsHashMap <> (12);
+  private static final ICommonsMap <String, Integer> DAY_OF_WEEK_MAP = new CommonsHashMap <> (7);
+  static
+  {
+    for (final Month e : Month.values ())
+      MONTH_MAP.put (e.getDisplayName (TextStyle.SHORT, Locale.US).toUpperCase (Locale.US),
+                     Integer.valueOf (e.getValue () - 1));
+
+    for (final DayOfWeek e : DayOfWeek.values ())
+      DAY_OF_WEEK_MAP.put (e.getDisplayName (TextStyle.SHORT, Locale.US).toUpperCase (Locale.US),
+                           Integer.valueOf (e.getValue ()));
+  }
+
+  private final TreeSet <Integer> m_aSeconds = new TreeSet <> ();
+  private final TreeSet <Integer> m_aMinutes = new TreeSet <> ();
+  private final TreeSet <Integer> m_aHours = new TreeSet <> ();
+  private final TreeSet <Integer> m_aDaysOfMonth = new TreeSet <> ();
+  private final TreeSet <Integer> m_aMonths = new TreeSet <> ();
+  private final TreeSet <Integer> m_aDaysOfWeek = new TreeSet <> ();
+  private final TreeSet <Integer> m_aYears = new TreeSet <> ();
+
+  private boolean m_bLastdayOfWeek = false;
+  private int m_nNthdayOfWeek = 0;
+  private boolean m_bLastdayOfMonth = false;
+  private boolean m_bNearestWeekday = false;
+  private int m_nLastdayOffset = 0;
+
+  private CompiledCronExpression m_aResult;
+
+  private CronExpressionParser ()
+  {}
+
+  /**
+   * Parse the provided cron expression.
+   *
+   * @param sCronExpression
+   *        The upper case cron expression to parse. May not be
+   *        <code>null</code>.
+   * @return The compiled expression and never <code>null</code>.
+   * @throws ParseException
+   *         if the string expression cannot be parsed into a valid cron
+   *         expression
+   */
+  @NonNull
+  static CompiledCronExpression parse (@NonNull final String sCronExpression) throws ParseException
+  {
+    final CronExpressionParser aParser = new CronExpressionParser ();
+    aParser._buildExpression (sCronExpression);
+    return aParser.m_aResult;
+  }
+
+  private void _buildExpression (@NonNull final String expression) throws ParseException
+  {
+    try
+    {
+      final StringTokenizer exprsTok = new StringTokenizer (expression, " \t", false);
+
+      EType eLastType = null;
+      for (final EType exprOn : EType.values ())
+      {
+        if (!exprsTok.hasMoreTokens ())
+          break;
+
+        final String expr = exprsTok.nextToken ().trim ();
+
+        // throw an exception if L is used with other days of the month
+        if (exprOn == EType.DAY_OF_MONTH)
+        {
+          if (expr.indexOf ('L') != -1 && expr.length () > 1 && expr.indexOf (',') >= 0)
+            throw new ParseException ("Support for specifying 'L' and 'LW' with other days of the month is not implemented",
+                                      -1);
+        }
+        if (exprOn == EType.DAY_OF_WEEK)
+        {
+          // throw an exception if L is used with other days of the week
+          if (expr.indexOf ('L') >= 0 && expr.length () > 1 && expr.indexOf (',') >= 0)
+          {
+            throw new ParseException ("Support for specifying 'L' with other days of the week is not implemented", -1);
+          }
+          if (expr.indexOf ('#') >= 0 && expr.indexOf ('#', expr.indexOf ('#') + 1) != -1)
+          {
+            throw new ParseException ("Support for specifying multiple \"nth\" days is not implemented.", -1);
+          }
+        }
+
+        final StringTokenizer vTok = new StringTokenizer (expr, ",");
+        while (vTok.hasMoreTokens ())
+        {
+          final String v = vTok.nextToken ();
+          _storeExpressionVals (0, v, exprOn);
+        }
+        eLastType = exprOn;
+      }
+
+      if (eLastType.ordinal () < EType.DAY_OF_WEEK.ordinal ())
+        throw new ParseException ("Unexpected end of expression.", expression.length ());
+      if (eLastType.ordinal () < EType.YEAR.ordinal ())
+        _storeExpressionVals (0, "*", EType.YEAR);
+
+      final Set <Integer> dow = _getSet (EType.DAY_OF_WEEK);
+      final Set <Integer> dom = _getSet (EType.DAY_OF_MONTH);
+
+      // Copying the logic from the UnsupportedOperationException below
+      final boolean dayOfMSpec = !dom.contains (NO_SPEC);
+      final boolean dayOfWSpec = !dow.contains (NO_SPEC);
+
+      if (dayOfMSpec && dayOfWSpec)
+      {
+        throw new ParseException ("Support for specifying both a day-of-week AND a day-of-month parameter is not implemented.",
+                                  0);
+      }
+
+      m_aResult = new CompiledCronExpression (m_aSeconds,
+                                              m_aMinutes,
+                                              m_aHours,
+                                              m_aDaysOfMonth,
+                                              m_aMonths,
+                                              m_aDaysOfWeek,
+                                              m_aYears,
+                                              dayOfMSpec,
+                                              dayOfWSpec,
+                                              m_bLastdayOfWeek,
+                                              m_nNthdayOfWeek,
+                                              m_bLastdayOfMonth,
+                                              m_bNearestWeekday,
+                                              m_nLastdayOffset);
+    }
+    catch (final ParseException pe)
+    {
+      throw pe;
+    }
+    catch (final Exception e)
+    {
+      throw new ParseException ("Illegal cron expression format (" + e.toString () + ")", 0);
+    }
+  }
+
+  private int _storeExpressionVals (final int pos, final String s, final EType type) throws ParseException
+  {
+    int i = _skipWhiteSpace (pos, s);
+    if (i >= s.length ())
+      return i;
+
+    int incr = 0;
+    char c = s.charAt (i);
+    if (c >= 'A' &&
+        c <= 'Z' &&
+        !s.equals ("L") &&
+        !s.equals ("LW") &&
+        !RegExHelper.stringMatchesPattern ("^L-[0-9]*[W]?", s))
+    {
+      String sub = s.substring (i, i + 3);
+      int sval = -1;
+      int eval = -1;
+      if (type == EType.MONTH)
+      {
+        sval = _getMonthNumber (sub) + 1;
+        if (sval <= 0)
+        {
+          throw new ParseException ("Invalid Month value: '" + sub + "'", i);
+        }
+        if (s.length () > i + 3)
+        {
+          c = s.charAt (i + 3);
+          if (c == '-')
+          {
+            i += 4;
+            sub = s.substring (i, i + 3);
+            eval = _getMonthNumber (sub) + 1;
+            if (eval <= 0)
+            {
+              throw new ParseException ("Invalid Month value: '" + sub + "'", i);
+            }
+          }
+        }
+      }
+      else
+        if (type == EType.DAY_OF_WEEK)
+        {
+          sval = _getDayOfWeekNumber (sub);
+          if (sval < 0)
+            throw new ParseException ("Invalid Day-of-Week value: '" + sub + "'", i);
+          if (s.length () > i + 3)
+          {
+            c = s.charAt (i + 3);
+            if (c == '-')
+            {
+              i += 4;
+              sub = s.substring (i, i + 3);
+              eval = _getDayOfWeekNumber (sub);
+              if (eval < 0)
+              {
+                throw new ParseException ("Invalid Day-of-Week value: '" + sub + "'", i);
+              }
+            }
+            else
+              if (c == '#')
+              {
+                try
+                {
+                  i += 4;
+                  m_nNthdayOfWeek = Integer.parseInt (s.substring (i));
+                  if (m_nNthdayOfWeek < 1 || m_nNthdayOfWeek > 5)
+                    throw new Exception ();
+                }
+                catch (final Exception e)
+                {
+                  throw new ParseException ("A numeric value between 1 and 5 must follow the '#' option", i);
+                }
+              }
+              else
+                if (c == 'L')
+                {
+                  m_bLastdayOfWeek = true;
+                  i++;
+                }
+          }
+
+        }
+        else
+        {
+          throw new ParseException ("Illegal characters for this position: '" + sub + "'", i);
+        }
+      if (eval != -1)
+        incr = 1;
+      _addToSet (sval, eval, incr, type);
+      return i + 3;
+    }
+
+    if (c == '?')
+    {
+      i++;
+      if ((i + 1) < s.length () && (s.charAt (i) != ' ' && s.charAt (i + 1) != '\t'))
+        throw new ParseException ("Illegal character after '?': " + s.charAt (i), i);
+      if (type != EType.DAY_OF_WEEK && type != EType.DAY_OF_MONTH)
+        throw new ParseException ("'?' can only be specfied for Day-of-Month or Day-of-Week.", i);
+      if (type == EType.DAY_OF_WEEK && !m_bLastdayOfMonth)
+      {
+        final int val = m_aDaysOfMonth.last ().intValue ();
+        if (val == NO_SPEC_INT)
+          throw new ParseException ("'?' can only be specfied for Day-of-Month -OR- Day-of-Week.", i);
+      }
+
+      _addToSet (NO_SPEC_INT, -1, 0, type);
+      return i;
+    }
+
+    if (c == '*' || c == '/')
+    {
+      if (c == '*' && (i + 1) >= s.length ())
+      {
+        _addToSet (ALL_SPEC_INT, -1, incr, type);
+        return i + 1;
+      }
+      else
+        if (c == '/' && ((i + 1) >= s.length () || s.charAt (i + 1) == ' ' || s.charAt (i + 1) == '\t'))
+        {
+          throw new ParseException ("'/' must be followed by an integer.", i);
+        }
+        else
+          if (c == '*')
+          {
+            i++;
+          }
+      c = s.charAt (i);
+      if (c == '/')
+      {
+        // is an increment specified?
+        i++;
+        if (i >= s.length ())
+          throw new ParseException ("Unexpected end of string.", i);
+
+        incr = _getNumericValue (s, i);
+
+        i++;
+        if (incr > 10)
+          i++;
+
+        if (incr > 59 && (type == EType.SECOND || type == EType.MINUTE))
+          throw new ParseException ("Increment > 60 : " + incr, i);
+        else
+          if (incr > 23 && type == EType.HOUR)
+            throw new ParseException ("Increment > 24 : " + incr, i);
+          else
+            if (incr > 31 && type == EType.DAY_OF_MONTH)
+              throw new ParseException ("Increment > 31 : " + incr, i);
+            else
+              if (incr > 7 && type == EType.DAY_OF_WEEK)
+                throw new ParseException ("Increment > 7 : " + incr, i);
+              else
+                if (incr > 12 && type == EType.MONTH)
+                  throw new ParseException ("Increment > 12 : " + incr, i);
+      }
+      else
+      {
+        incr = 1;
+      }
+
+      _addToSet (ALL_SPEC_INT, -1, incr, type);
+      return i;
+    }
+
+    if (c == 'L')
+    {
+      // "last"
+      i++;
+      if (type == EType.DAY_OF_MONTH)
+      {
+        m_bLastdayOfMonth = true;
+      }
+      if (type == EType.DAY_OF_WEEK)
+      {
+        _addToSet (7, 7, 0, type);
+      }
+      if (type == EType.DAY_OF_MONTH && s.length () > i)
+      {
+        c = s.charAt (i);
+        if (c == '-')
+        {
+          final ValueSet vs = _getValue (0, s, i + 1);
+          m_nLastdayOffset = vs.m_nValue;
+          if (m_nLastdayOffset > 30)
+            throw new ParseException ("Offset from last day must be <= 30", i + 1);
+          i = vs.m_nPos;
+        }
+        if (s.length () > i)
+        {
+          c = s.charAt (i);
+          if (c == 'W')
+          {
+            m_bNearestWeekday = true;
+            i++;
+          }
+        }
+      }
+      return i;
+    }
+
+    if (c >= '0' && c <= '9')
+    {
+      int val = Integer.parseInt (String.valueOf (c));
+      i++;
+      if (i >= s.length ())
+      {
+        _addToSet (val, -1, -1, type);
+      }
+      else
+      {
+        c = s.charAt (i);
+        if (c >= '0' && c <= '9')
+        {
+          final ValueSet vs = _getValue (val, s, i);
+          val = vs.m_nValue;
+          i = vs.m_nPos;
+        }
+        i = _checkNext (i, s, val, type);
+      }
+      return i;
+    }
+
+    throw new ParseException ("Unexpected character: " + c, i);
+  }
+
+  private int _checkNext (final int pos, final String s, final int val, final EType type) throws ParseException
+  {
+    int end = -1;
+    int i = pos;
+
+    if (i >= s.length ())
+    {
+      _addToSet (val, end, -1, type);
+      return i;
+    }
+
+    char c = s.charAt (pos);
+    if (c == 'L')
+    {
+      if (type == EType.DAY_OF_WEEK)
+      {
+        if (val < 1 || val > 7)
+          throw new ParseException ("Day-of-Week values must be between 1 and 7", -1);
+        m_bLastdayOfWeek = true;
+      }
+      else
+      {
+        throw new ParseException ("'L' option is not valid here. (pos=" + i + ")", i);
+      }
+      final Set <Integer> set = _getSet (type);
+      set.add (Integer.valueOf (val));
+      i++;
+      return i;
+    }
+
+    if (c == 'W')
+    {
+      if (type == EType.DAY_OF_MONTH)
+      {
+        m_bNearestWeekday = true;
+      }
+      else
+      {
+        throw new ParseException ("'W' option is not valid here. (pos=" + i + ")", i);
+      }
+      if (val > 31)
+        throw new ParseException ("The 'W' option does not make sense with values larger than 31 (max number of days in a month)",
+                                  i);
+      final Set <Integer> set = _getSet (type);
+      set.add (Integer.valueOf (val));
+      i++;
+      return i;
+    }
+
+    if (c == '#')
+    {
+      if (type != EType.DAY_OF_WEEK)
+      {
+        throw new ParseException ("'#' option is not valid here. (pos=" + i + ")", i);
+      }
+      i++;
+      try
+      {
+        m_nNthdayOfWeek = Integer.parseInt (s.substring (i));
+        if (m_nNthdayOfWeek < 1 || m_nNthdayOfWeek > 5)
+        {
+          throw new Exception ();
+        }
+      }
+      catch (final Exception e)
+      {
+        throw new ParseException ("A numeric value between 1 and 5 must follow the '#' option", i);
+      }
+
+      final Set <Integer> set = _getSet (type);
+      set.add (Integer.valueOf (val));
+      i++;
+      return i;
+    }
+
+    if (c == '-')
+    {
+      i++;
+      c = s.charAt (i);
+      final int v = Integer.parseInt (String.valueOf (c));
+      end = v;
+      i++;
+      if (i >= s.length ())
+      {
+        _addToSet (val, end, 1, type);
+        return i;
+      }
+      c = s.charAt (i);
+      if (c >= '0' && c <= '9')
+      {
+        final ValueSet vs = _getValue (v, s, i);
+        end = vs.m_nValue;
+        i = vs.m_nPos;
+      }
+      if (i < s.length () && s.charAt (i) == '/')
+      {
+        i++;
+        c = s.charAt (i);
+        final int v2 = Integer.parseInt (String.valueOf (c));
+        i++;
+        if (i >= s.length ())
+        {
+          _addToSet (val, end, v2, type);
+          return i;
+        }
+        c = s.charAt (i);
+        if (c >= '0' && c <= '9')
+        {
+          final ValueSet vs = _getValue (v2, s, i);
+          final int v3 = vs.m_nValue;
+          _addToSet (val, end, v3, type);
+          i = vs.m_nPos;
+          return i;
+        }
+        _addToSet (val, end, v2, type);
+        return i;
+      }
+      _addToSet (val, end, 1, type);
+      return i;
+    }
+
+    if (c == '/')
+    {
+      i++;
+      c = s.charAt (i);
+      final int v2 = Integer.parseInt (String.valueOf (c));
+      i++;
+      if (i >= s.length ())
+      {
+        _addToSet (val, end, v2, type);
+        return i;
+      }
+      c = s.charAt (i);
+      if (c >= '0' && c <= '9')
+      {
+        final ValueSet vs = _getValue (v2, s, i);
+        final int v3 = vs.m_nValue;
+        _addToSet (val, end, v3, type);
+        i = vs.m_nPos;
+        return i;
+      }
+      throw new ParseException ("Unexpected character '" + c + "' after '/'", i);
+    }
+
+    _addToSet (val, end, 0, type);
+    i++;
+    return i;
+  }
+
+  private static int _skipWhiteSpace (final int i, final String s)
+  {
+    int nIndex = i;
+    final int nMax = s.length ();
+    while (nIndex < nMax)
+    {
+      if (!Character.isWhitespace (s.charAt (i)))
+        break;
+      nIndex++;
+    }
+
+    return nIndex;
+  }
+
+  private static int _findNextWhiteSpace (final int i, final String s)
+  {
+    int nIndex = i;
+    final int nMax = s.length ();
+    while (nIndex < nMax)
+    {
+      if (Character.isWhitespace (s.charAt (i)))
+        break;
+      nIndex++;
+    }
+
+    return nIndex;
+  }
+
+  private void _addToSet (final int val, final int end, final int nIncr, final EType type) throws ParseException
+  {
+    int incr = nIncr;
+    final Set <Integer> set = _getSet (type);
+
+    if (type == EType.SECOND || type == EType.MINUTE)
+    {
+      if ((val < 0 || val > 59 || end > 59) && (val != ALL_SPEC_INT))
+        throw new ParseException ("Minute and Second values must be between 0 and 59", -1);
+    }
+    else
+      if (type == EType.HOUR)
+      {
+        if ((val < 0 || val > 23 || end > 23) && (val != ALL_SPEC_INT))
+          throw new ParseException ("Hour values must be between 0 and 23", -1);
+      }
+      else
+        if (type == EType.DAY_OF_MONTH)
+        {
+          if ((val < 1 || val > 31 || end > 31) && (val != ALL_SPEC_INT) && (val != NO_SPEC_INT))
+            throw new ParseException ("Day of month values must be between 1 and 31", -1);
+        }
+        else
+          if (type == EType.MONTH)
+          {
+            if ((val < 1 || val > 12 || end > 12) && (val != ALL_SPEC_INT))
+              throw new ParseException ("Month values must be between 1 and 12", -1);
+          }
+          else
+            if (type == EType.DAY_OF_WEEK)
+            {
+              if ((val < 1 || val > 7 || end > 7) && (val != ALL_SPEC_INT) && (val != NO_SPEC_INT))
+                throw new ParseException ("Day-of-Week values must be between 1 and 7", -1);
+            }
+
+    if ((incr == 0 || incr == -1) && val != ALL_SPEC_INT)
+    {
+      if (val != -1)
+        set.add (Integer.valueOf (val));
+      else
+        set.add (NO_SPEC);
+      return;
+    }
+
+    int startAt = val;
+    int stopAt = end;
+
+    if (val == ALL_SPEC_INT && incr <= 0)
+    {
+      incr = 1;
+      set.add (ALL_SPEC); // put in a marker, but also fill values
+    }
+
+    if (type == EType.SECOND || type == EType.MINUTE)
+    {
+      if (stopAt == -1)
+        stopAt = 59;
+      if (startAt == -1 || startAt == ALL_SPEC_INT)
+        startAt = 0;
+    }
+    else
+      if (type == EType.HOUR)
+      {
+        if (stopAt == -1)
+          stopAt = 23;
+        if (startAt == -1 || startAt == ALL_SPEC_INT)
+          startAt = 0;
+      }
+      else
+        if (type == EType.DAY_OF_MONTH)
+        {
+          if (stopAt == -1)
+            stopAt = 31;
+          if (startAt == -1 || startAt == ALL_SPEC_INT)
+            startAt = 1;
+        }
+        else
+          if (type == EType.MONTH)
+          {
+            if (stopAt == -1)
+              stopAt = 12;
+            if (startAt == -1 || startAt == ALL_SPEC_INT)
+              startAt = 1;
+          }
+          else
+            if (type == EType.DAY_OF_WEEK)
+            {
+              if (stopAt == -1)
+                stopAt = 7;
+              if (startAt == -1 || startAt == ALL_SPEC_INT)
+                startAt = 1;
+            }
+            else
+              if (type == EType.YEAR)
+              {
+                if (stopAt == -1)
+                  stopAt = CQuartz.MAX_YEAR;
+                if (startAt == -1 || startAt == ALL_SPEC_INT)
+                  startAt = 1970;
+              }
+
+    // if the end of the range is before the start, then we need to overflow
+    // into the next day, month etc. This is done by adding the maximum amount
+    // for
+    // that type, and using modulus max to determine the value being added.
+    int max = -1;
+    if (stopAt < startAt)
+    {
+      switch (type)
+      {
+        case SECOND:
+          max = 60;
+          break;
+        case MINUTE:
+          max = 60;
+          break;
+        case HOUR:
+          max = 24;
+          break;
+        case MONTH:
+          max = 12;
+          break;
+        case DAY_OF_WEEK:
+          max = 7;
+          break;
+        case DAY_OF_MONTH:
+          max = 31;
+          break;
+        case YEAR:
+          throw new IllegalArgumentException ("Start year must be less than stop year");
+        default:
+          throw new IllegalArgumentException ("Unexpected type encountered");
+      }
+      stopAt += max;
+    }
+
+    for (int i = startAt; i <= stopAt; i += incr)
+    {
+      if (max == -1)
+      {
+        // ie: there's no max to overflow over
+        set.add (Integer.valueOf (i));
+      }
+      else
+      {
+        // take the modulus to get the real value
+        int i2 = i % max;
+
+        // 1-indexed ranges should not include 0, and should include their max
+        if (i2 == 0 && (type == EType.MONTH || type == EType.DAY_OF_WEEK || type == EType.DAY_OF_MONTH))
+        {
+          i2 = max;
+        }
+
+        set.add (Integer.valueOf (i2));
+      }
+    }
+  }
+
+  @NonNull
+  private TreeSet <Integer> _getSet (@NonNull final EType type)
+  {
+    switch (type)
+    {
+      case SECOND:
+        return m_aSeconds;
+      case MINUTE:
+        return m_aMinutes;
+      case HOUR:
+        return m_aHours;
+      case DAY_OF_MONTH:
+        return m_aDaysOfMonth;
+      case MONTH:
+        return m_aMonths;
+      case DAY_OF_WEEK:
+        return m_aDaysOfWeek;
+      case YEAR:
+        return m_aYears;
+    }
+    throw new IllegalStateException ("oops");
+  }
+
+  @NonNull
+  private static ValueSet _getValue (final int v, final String s, final int nI)
+  {
+    int nIndex = nI;
+    char c = s.charAt (nIndex);
+    final StringBuilder aNums = new StringBuilder ();
+    aNums.append (Integer.toString (v));
+    while (c >= '0' && c <= '9')
+    {
+      aNums.append (c);
+      nIndex++;
+      if (nIndex >= s.length ())
+        break;
+      c = s.charAt (nIndex);
+    }
+    return new ValueSet (Integer.parseInt (aNums.toString ()), nIndex < s.length () ? nIndex : nIndex + 1);
+  }
+
+  private static int _getNumericValue (final String s, final int i)
+  {
+    final int endOfVal = _findNextWhiteSpace (i, s);
+    final String val = s.substring (i, endOfVal);
+    return Integer.parseInt (val);
+  }
+
+  private static int _getMonthNumber (final String s)
+  {
+    final Integer integer = MONTH_MAP.get (s);
+
+    if (integer == null)
+      return -1;
+
+    return integer.intValue ();
+  }
+
+  private static int _getDayOfWeekNumber (final String s)
+  {
+    final Integer integer = DAY_OF_WEEK_MAP.get (s);
+
+    if (integer == null)
+      return -1;
+
+    return integer.intValue ();
+  }
+}
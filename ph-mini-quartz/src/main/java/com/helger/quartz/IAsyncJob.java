@@ -0,0 +1,85 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A <code>{@link IJob}</code> that performs its work asynchronously. The
+ * scheduler invokes {@link #executeAsync(IJobExecutionContext)} on a pool
+ * thread and releases that thread as soon as the method returns. The
+ * completion of the job (job and trigger listeners, the trigger's completion
+ * instruction, the update of the job store and refires) is performed when the
+ * returned future completes, on the thread completing it.
+ * <p>
+ * A future that completes exceptionally is treated like a
+ * <code>{@link JobExecutionException}</code> thrown from a synchronous job.
+ * Until the future completes, the job is listed in
+ * {@link IScheduler#getCurrentlyExecutingJobs()}. Interrupting an asynchronous
+ * job that does not implement <code>{@link IInterruptableJob}</code> cancels
+ * the pending future.
+ * </p>
+ *
+ * @author Philip Helger
+ */
+public interface IAsyncJob extends IJob
+{
+  /**
+   * Start the execution of the job. This method should not block.
+   *
+   * @param context
+   *        The execution context. Never <code>null</code>.
+   * @return The future that completes when the job is done. May be
+   *         <code>null</code> if the job completed synchronously.
+   * @throws JobExecutionException
+   *         if the job could not be started.
+   */
+  @Nullable
+  CompletableFuture <?> executeAsync (@NonNull IJobExecutionContext context) throws JobExecutionException;
+
+  /**
+   * Synchronous fallback, blocking until the future returned by
+   * {@link #executeAsync(IJobExecutionContext)} completes. The scheduler itself
+   * does not call this method.
+   */
+  default void execute (@NonNull final IJobExecutionContext context) throws JobExecutionException
+  {
+    final CompletableFuture <?> aFuture = executeAsync (context);
+    if (aFuture != null)
+      try
+      {
+        aFuture.join ();
+      }
+      catch (final CompletionException ex)
+      {
+        if (ex.getCause () instanceof final JobExecutionException aJobEx)
+          throw aJobEx;
+        throw new JobExecutionException (ex.getCause () != null ? ex.getCause () : ex);
+      }
+      catch (final CancellationException ex)
+      {
+        throw new JobExecutionException ("Asynchronous job execution was cancelled", ex);
+      }
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import java.util.List;
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.collection.commons.CommonsArrayList;
+
+/**
+ * A <code>{@link IJob}</code> that can handle multiple fires at once. When
+ * several triggers of jobs with the same batch job class fire within the same
+ * batch of acquired triggers, the scheduler creates a single job instance and
+ * passes the execution contexts of all of them to one invocation of
+ * {@link #executeBatch(List)}, using a single pool thread.
+ * <p>
+ * Listeners are notified per context, and every trigger is completed
+ * individually in the job store, exactly as if it had been executed on its
+ * own. Because the job instance is shared, the job data needs to be read from
+ * {@link IJobExecutionContext#getMergedJobDataMap()} of each context, and not
+ * from bean properties of the job.
+ * </p>
+ *
+ * @author Philip Helger
+ */
+public interface IBatchJob extends IJob
+{
+  /**
+   * Execute the job for all provided contexts.
+   *
+   * @param contexts
+   *        The execution contexts of all fires in this batch. Neither
+   *        <code>null</code> nor empty.
+   * @return The contexts whose execution failed, with the respective exception.
+   *         All contexts not contained are considered successful. May be
+   *         <code>null</code> if all executions were successful.
+   * @throws JobExecutionException
+   *         if the execution of the whole batch failed.
+   */
+  @Nullable
+  Map <IJobExecutionContext, JobExecutionException> executeBatch (@NonNull List <IJobExecutionContext> contexts) throws JobExecutionException;
+
+  /**
+   * Execute a single fire as a batch of size 1.
+   */
+  default void execute (@NonNull final IJobExecutionContext context) throws JobExecutionException
+  {
+    final Map <IJobExecutionContext, JobExecutionException> aFailures = executeBatch (new CommonsArrayList <> (context));
+    if (aFailures != null)
+    {
+      final JobExecutionException ex = aFailures.get (context);
+      if (ex != null)
+        throw ex;
+    }
+  }
+}
@@ -22,6 +22,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsSet;
@@ -330,6 +331,45 @@ public interface IScheduler
    */
   ICommonsList <IJobExecutionContext> getCurrentlyExecutingJobs () throws SchedulerException;
 
+  /**
+   * Return a list of <code>JobExecutionContext</code> objects that represent
+   * all currently executing instances of the provided job in this Scheduler
+   * instance. This uses an index and does not scan all executing jobs.
+   *
+   * @param jobKey
+   *        The job key to check. May not be <code>null</code>.
+   * @see #getCurrentlyExecutingJobs()
+   */
+  ICommonsList <IJobExecutionContext> getCurrentlyExecutingJobs (JobKey jobKey) throws SchedulerException;
+
+  /**
+   * @param jobKey
+   *        The job key to check. May not be <code>null</code>.
+   * @return The number of currently executing instances of the provided job in
+   *         this Scheduler instance.
+   */
+  int getNumberOfCurrentlyExecutingJobs (JobKey jobKey) throws SchedulerException;
+
+  /**
+   * @param groupName
+   *        The job group to check. May not be <code>null</code>.
+   * @return The number of currently executing jobs of the provided group in
+   *         this Scheduler instance.
+   */
+  int getNumberOfCurrentlyExecutingJobsInGroup (String groupName) throws SchedulerException;
+
+  /**
+   * Invoke the provided consumer for all currently executing Jobs in this
+   * Scheduler instance, without copying them into a list first. Jobs starting
+   * or finishing during the iteration may or may not be visited.
+   *
+   * @param consumer
+   *        The consumer to invoke for each executing job. May not be
+   *        <code>null</code>.
+   * @see #getCurrentlyExecutingJobs()
+   */
+  void forEachCurrentlyExecutingJob (Consumer <? super IJobExecutionContext> consumer) throws SchedulerException;
+
   /**
    * Set the <code>JobFactory</code> that will be responsible for producing
    * instances of <code>Job</code> classes.
@@ -729,6 +769,32 @@ public interface IScheduler
    */
   ICommonsList <? extends ITrigger> getTriggersOfJob (JobKey jobKey) throws SchedulerException;
 
+  /**
+   * Get read-only views of all <code>{@link ITrigger}</code> s that are
+   * associated with the identified
+   * <code>{@link com.helger.quartz.IJobDetail}</code>.
+   * <p>
+   * In contrast to {@link #getTriggersOfJob(JobKey)} the stored triggers are not
+   * cloned, which makes this the method of choice for monitoring code. If you
+   * wish to modify a trigger, call {@link ITrigger#getClone()} on it and re-store
+   * the clone afterward.
+   * </p>
+   */
+  ICommonsList <? extends ITrigger> getTriggerSnapshotsOfJob (JobKey jobKey) throws SchedulerException;
+
+  /**
+   * Get read-only views of all <code>{@link ITrigger}</code> s in the matching
+   * groups, without cloning them.
+   *
+   * @param matcher
+   *        Matcher to evaluate against known groups
+   * @return List of all matching triggers
+   * @throws SchedulerException
+   *         On error
+   * @see #getTriggerSnapshotsOfJob(JobKey)
+   */
+  ICommonsList <? extends ITrigger> getTriggerSnapshots (GroupMatcher <TriggerKey> matcher) throws SchedulerException;
+
   /**
    * Get the names of all known <code>{@link ITrigger}</code> groups.
    */
@@ -761,6 +827,14 @@ public interface IScheduler
    */
   IJobDetail getJobDetail (JobKey jobKey) throws SchedulerException;
 
+  /**
+   * Get a read-only view of the <code>{@link IJobDetail}</code> for the
+   * <code>Job</code> instance with the given key, without cloning it. If you
+   * wish to modify the JobDetail, call {@link IJobDetail#getClone()} on it and
+   * re-store the clone afterward.
+   */
+  IJobDetail getJobDetailSnapshot (JobKey jobKey) throws SchedulerException;
+
   /**
    * Get the <code>{@link ITrigger}</code> instance with the given key.
    * <p>
@@ -771,6 +845,13 @@ public interface IScheduler
    */
   ITrigger getTrigger (TriggerKey triggerKey) throws SchedulerException;
 
+  /**
+   * Get a read-only view of the <code>{@link ITrigger}</code> instance with the
+   * given key, without cloning it. If you wish to modify the trigger, call
+   * {@link ITrigger#getClone()} on it and re-store the clone afterward.
+   */
+  ITrigger getTriggerSnapshot (TriggerKey triggerKey) throws SchedulerException;
+
   /**
    * Get the current state of the identified <code>{@link ITrigger}</code>.
    *
@@ -228,6 +228,14 @@ public interface ITrigger extends Comparable <ITrigger>
    */
   int DEFAULT_PRIORITY = 5;
 
+  /**
+   * The value of the millisecond based fire time accessors (e.g.
+   * {@link com.helger.quartz.spi.IOperableTrigger#getNextFireTimeMillis()})
+   * representing "no time" - the equivalent of a <code>null</code>
+   * {@link Date}. It sorts after every real point in time.
+   */
+  long NO_FIRE_TIME = Long.MAX_VALUE;
+
   @Nullable
   TriggerKey getKey ();
 
@@ -72,11 +72,16 @@ public class JobDataMap extends AttributeContainerAny <String>
     super (map);
   }
 
+  /**
+   * @return A {@link CopyOnWriteJobDataMap} with the content of this map. The
+   *         data is copied once, further clones of the returned map don't copy
+   *         any data until they are modified.
+   */
   @Override
   @NonNull
   @ReturnsMutableCopy
   public JobDataMap getClone ()
   {
-    return new JobDataMap (this);
+    return new CopyOnWriteJobDataMap (this);
   }
 }
@@ -0,0 +1,162 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+
+/**
+ * Shares one {@link String} instance per distinct group name. A job store may
+ * contain millions of {@link JobKey}s and {@link TriggerKey}s but usually only
+ * a handful of groups, so interning the groups of all stored keys saves one
+ * string per key. Names are not interned, as they are usually unique.
+ * <p>
+ * Groups are interned by the setters of jobs and triggers and by the job store
+ * codec. Interning can be disabled globally via {@link #setEnabled(boolean)}.
+ * At most {@link #getMaxGroups()} distinct groups are remembered - further
+ * groups are used as they are, so that groups used as unique identifiers cannot
+ * exhaust the heap.
+ * </p>
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+public final class KeyInterner
+{
+  /** The default maximum number of interned groups */
+  public static final int DEFAULT_MAX_GROUPS = 10_000;
+
+  private static final ConcurrentHashMap <String, String> GROUPS = new ConcurrentHashMap <> ();
+  private static volatile boolean s_bEnabled = true;
+  private static volatile int s_nMaxGroups = DEFAULT_MAX_GROUPS;
+
+  private KeyInterner ()
+  {}
+
+  /**
+   * @return <code>true</code> if group names are interned (the default),
+   *         <code>false</code> if not.
+   */
+  public static boolean isEnabled ()
+  {
+    return s_bEnabled;
+  }
+
+  /**
+   * @param bEnabled
+   *        <code>true</code> to intern group names, <code>false</code> to
+   *        use them as they are. Disabling also clears all interned groups.
+   */
+  public static void setEnabled (final boolean bEnabled)
+  {
+    s_bEnabled = bEnabled;
+    if (!bEnabled)
+      GROUPS.clear ();
+  }
+
+  /**
+   * @return The maximum number of interned groups. Always &gt; 0.
+   */
+  public static int getMaxGroups ()
+  {
+    return s_nMaxGroups;
+  }
+
+  /**
+   * Set the maximum number of interned groups. Already interned groups are
+   * kept.
+   *
+   * @param nMaxGroups
+   *        The new maximum. Must be &gt; 0.
+   */
+  public static void setMaxGroups (final int nMaxGroups)
+  {
+    ValueEnforcer.isGT0 (nMaxGroups, "MaxGroups");
+    s_nMaxGroups = nMaxGroups;
+  }
+
+  /**
+   * @return The number of currently interned groups. Always &ge; 0.
+   */
+  public static int getGroupCount ()
+  {
+    return GROUPS.size ();
+  }
+
+  /**
+   * Get the shared instance of the provided group name.
+   *
+   * @param sGroup
+   *        The group name. May be <code>null</code>.
+   * @return The shared instance equal to the parameter, or the parameter
+   *         itself if interning is disabled or the maximum number of groups is
+   *         reached. <code>null</code> if the parameter is <code>null</code>.
+   */
+  @Nullable
+  public static String internGroup (@Nullable final String sGroup)
+  {
+    if (sGroup == null || !s_bEnabled)
+      return sGroup;
+
+    final String ret = GROUPS.get (sGroup);
+    if (ret != null)
+      return ret;
+    if (GROUPS.size () >= s_nMaxGroups)
+      return sGroup;
+    final String sPrev = GROUPS.putIfAbsent (sGroup, sGroup);
+    return sPrev != null ? sPrev : sGroup;
+  }
+
+  /**
+   * Get a job key with the shared instance of its group name.
+   *
+   * @param aKey
+   *        The key to intern. May not be <code>null</code>.
+   * @return The parameter itself if its group is already the shared instance,
+   *         an equal key using the shared instance otherwise. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public static JobKey intern (@NonNull final JobKey aKey)
+  {
+    final String sGroup = internGroup (aKey.getGroup ());
+    return sGroup == aKey.getGroup () ? aKey : new JobKey (aKey.getName (), sGroup);
+  }
+
+  /**
+   * Get a trigger key with the shared instance of its group name.
+   *
+   * @param aKey
+   *        The key to intern. May not be <code>null</code>.
+   * @return The parameter itself if its group is already the shared instance,
+   *         an equal key using the shared instance otherwise. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public static TriggerKey intern (@NonNull final TriggerKey aKey)
+  {
+    final String sGroup = internGroup (aKey.getGroup ());
+    return sGroup == aKey.getGroup () ? aKey : new TriggerKey (aKey.getName (), sGroup);
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.quartz.ITrigger.EMisfireInstruction;
+import com.helger.quartz.impl.triggers.OneShotTrigger;
+
+/**
+ * <code>OneShotScheduleBuilder</code> is a {@link IScheduleBuilder} that
+ * defines a schedule which fires exactly once, at the start time of the
+ * <code>Trigger</code>. It is the compact alternative to a
+ * {@link SimpleScheduleBuilder} with a repeat count of <code>0</code>, for
+ * applications that use the scheduler as a delayed task engine.
+ * <p>
+ * Client code can use the DSL to write code such as this:
+ * </p>
+ *
+ * <pre>
+ * Trigger trigger = newTrigger ().withIdentity (triggerKey ("myTrigger", "myTriggerGroup"))
+ *                                .withSchedule (oneShotSchedule ())
+ *                                .startAt (futureDate (10, MINUTES))
+ *                                .build ();
+ * </pre>
+ *
+ * @see OneShotTrigger
+ * @see SimpleScheduleBuilder
+ * @see IScheduleBuilder
+ * @see TriggerBuilder
+ */
+public class OneShotScheduleBuilder implements IScheduleBuilder <OneShotTrigger>
+{
+  private EMisfireInstruction m_eMisfireInstruction = EMisfireInstruction.MISFIRE_INSTRUCTION_SMART_POLICY;
+
+  protected OneShotScheduleBuilder ()
+  {}
+
+  /**
+   * Create a OneShotScheduleBuilder.
+   *
+   * @return the new OneShotScheduleBuilder
+   */
+  @NonNull
+  public static OneShotScheduleBuilder oneShotSchedule ()
+  {
+    return new OneShotScheduleBuilder ();
+  }
+
+  /**
+   * Build the actual Trigger -- NOT intended to be invoked by end users, but
+   * will rather be invoked by a TriggerBuilder which this ScheduleBuilder is
+   * given to.
+   *
+   * @see TriggerBuilder#withSchedule(IScheduleBuilder)
+   */
+  @Override
+  @NonNull
+  public OneShotTrigger build ()
+  {
+    final OneShotTrigger ret = new OneShotTrigger ();
+    ret.setMisfireInstruction (m_eMisfireInstruction);
+    return ret;
+  }
+
+  /**
+   * If the Trigger misfires, use the
+   * {@link EMisfireInstruction#MISFIRE_INSTRUCTION_IGNORE_MISFIRE_POLICY}
+   * instruction.
+   *
+   * @return the updated OneShotScheduleBuilder
+   * @see EMisfireInstruction#MISFIRE_INSTRUCTION_IGNORE_MISFIRE_POLICY
+   */
+  @NonNull
+  public OneShotScheduleBuilder withMisfireHandlingInstructionIgnoreMisfires ()
+  {
+    m_eMisfireInstruction = EMisfireInstruction.MISFIRE_INSTRUCTION_IGNORE_MISFIRE_POLICY;
+    return this;
+  }
+
+  /**
+   * If the Trigger misfires, use the
+   * {@link EMisfireInstruction#MISFIRE_INSTRUCTION_FIRE_ONCE_NOW} instruction.
+   * This is also what the smart policy does.
+   *
+   * @return the updated OneShotScheduleBuilder
+   * @see EMisfireInstruction#MISFIRE_INSTRUCTION_FIRE_ONCE_NOW
+   */
+  @NonNull
+  public OneShotScheduleBuilder withMisfireHandlingInstructionFireNow ()
+  {
+    m_eMisfireInstruction = EMisfireInstruction.MISFIRE_INSTRUCTION_FIRE_ONCE_NOW;
+    return this;
+  }
+
+  /**
+   * If the Trigger misfires, use the
+   * {@link EMisfireInstruction#MISFIRE_INSTRUCTION_RESCHEDULE_NEXT_WITH_REMAINING_COUNT}
+   * instruction. As there is no next fire time, the misfired trigger is
+   * discarded without firing.
+   *
+   * @return the updated OneShotScheduleBuilder
+   * @see EMisfireInstruction#MISFIRE_INSTRUCTION_RESCHEDULE_NEXT_WITH_REMAINING_COUNT
+   */
+  @NonNull
+  public OneShotScheduleBuilder withMisfireHandlingInstructionDiscard ()
+  {
+    m_eMisfireInstruction = EMisfireInstruction.MISFIRE_INSTRUCTION_RESCHEDULE_NEXT_WITH_REMAINING_COUNT;
+    return this;
+  }
+}
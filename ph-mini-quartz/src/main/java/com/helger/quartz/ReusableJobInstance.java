@@ -0,0 +1,49 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * An annotation that marks a stateless {@link IJob} class, of which a single
+ * instance can be used for all executions. The scheduler then asks the
+ * {@link com.helger.quartz.spi.IJobFactory} only once per job class for an
+ * instance and reuses it for every fire, also concurrently.
+ * <p>
+ * A reusable job must therefore not keep any per-execution state in fields and
+ * must read its data from
+ * {@link IJobExecutionContext#getMergedJobDataMap()} instead of relying on
+ * bean properties set by the job factory. Interrupting a reusable
+ * {@link IInterruptableJob} affects all its running executions.
+ * </p>
+ *
+ * @see DisallowConcurrentExecution
+ * @author Philip Helger
+ */
+@Documented
+@Retention (RetentionPolicy.RUNTIME)
+@Target (ElementType.TYPE)
+public @interface ReusableJobInstance
+{
+
+}
@@ -21,6 +21,7 @@ package com.helger.quartz;
 import java.util.Date;
 
 import com.helger.base.compare.IComparator;
+import com.helger.quartz.spi.IOperableTrigger;
 
 /**
  * A Comparator that compares trigger's next fire times, or in other words,
@@ -30,38 +31,41 @@ import com.helger.base.compare.IComparator;
  */
 public class TriggerTimeComparator implements IComparator <ITrigger>
 {
-  // This static method exists for comparator in TC clustered quartz
-  static int compare (final Date nextFireTime1,
-                      final int priority1,
-                      final TriggerKey key1,
-                      final Date nextFireTime2,
-                      final int priority2,
-                      final TriggerKey key2)
+  /**
+   * Compare two triggers by their primitive next fire times, with
+   * {@link ITrigger#NO_FIRE_TIME} sorting last, then by priority and key.
+   */
+  public static int compare (final long nNextFireTime1,
+                             final int priority1,
+                             final TriggerKey key1,
+                             final long nNextFireTime2,
+                             final int priority2,
+                             final TriggerKey key2)
   {
-    if (nextFireTime1 != null || nextFireTime2 != null)
+    int comp = Long.compare (nNextFireTime1, nNextFireTime2);
+    if (comp == 0)
     {
-      if (nextFireTime1 == null)
-        return 1;
-      if (nextFireTime2 == null)
-        return -1;
-      if (nextFireTime1.before (nextFireTime2))
-        return -1;
-      if (nextFireTime1.after (nextFireTime2))
-        return 1;
+      comp = priority2 - priority1;
+      if (comp == 0)
+        comp = key1.compareTo (key2);
     }
-
-    int comp = priority2 - priority1;
-    if (comp == 0)
-      comp = key1.compareTo (key2);
     return comp;
   }
 
+  private static long _getNextFireTimeMillis (final ITrigger aTrigger)
+  {
+    if (aTrigger instanceof IOperableTrigger)
+      return ((IOperableTrigger) aTrigger).getNextFireTimeMillis ();
+    final Date aNextFireTime = aTrigger.getNextFireTime ();
+    return aNextFireTime == null ? ITrigger.NO_FIRE_TIME : aNextFireTime.getTime ();
+  }
+
   public int compare (final ITrigger t1, final ITrigger t2)
   {
-    return compare (t1.getNextFireTime (),
+    return compare (_getNextFireTimeMillis (t1),
                     t1.getPriority (),
                     t1.getKey (),
-                    t2.getNextFireTime (),
+                    _getNextFireTimeMillis (t2),
                     t2.getPriority (),
                     t2.getKey ());
   }
@@ -0,0 +1,101 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.core;
+
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.quartz.IBatchJob;
+import com.helger.quartz.IJobExecutionContext;
+import com.helger.quartz.JobExecutionException;
+
+/**
+ * Executes the fires of multiple {@link JobRunShell}s sharing one
+ * {@link IBatchJob} instance with a single invocation of
+ * {@link IBatchJob#executeBatch(java.util.List)}. Beginning and completion
+ * (listeners, trigger and job store update) are still handled per shell.
+ *
+ * @author Philip Helger
+ */
+final class BatchJobRunShell implements Runnable
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (BatchJobRunShell.class);
+
+  private final IBatchJob m_aJob;
+  private final ICommonsList <JobRunShell> m_aShells;
+
+  BatchJobRunShell (@NonNull final IBatchJob aJob, @NonNull final ICommonsList <JobRunShell> aShells)
+  {
+    ValueEnforcer.notNull (aJob, "Job");
+    ValueEnforcer.notEmptyNoNullValue (aShells, "Shells");
+    m_aJob = aJob;
+    m_aShells = aShells;
+  }
+
+  public void run ()
+  {
+    final ICommonsList <JobRunShell> aRunning = new CommonsArrayList <> (m_aShells.size ());
+    final ICommonsList <IJobExecutionContext> aContexts = new CommonsArrayList <> (m_aShells.size ());
+    for (final JobRunShell aShell : m_aShells)
+      if (aShell.beginBatchExecution ())
+      {
+        aRunning.add (aShell);
+        aContexts.add (aShell.m_aJEC);
+      }
+
+    if (aRunning.isEmpty ())
+      return;
+
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("Calling executeBatch with " + aContexts.size () + " contexts on job " + m_aJob.getClass ().getName ());
+
+    final long nStartTime = System.currentTimeMillis ();
+    Map <IJobExecutionContext, JobExecutionException> aFailures = null;
+    JobExecutionException aBatchEx = null;
+    try
+    {
+      aFailures = m_aJob.executeBatch (aContexts);
+    }
+    catch (final Exception ex)
+    {
+      aBatchEx = aRunning.getFirstOrNull ().createJobExecutionException (ex);
+    }
+    final long nRunTime = System.currentTimeMillis () - nStartTime;
+
+    for (final JobRunShell aShell : aRunning)
+    {
+      JobExecutionException aEx = null;
+      if (aBatchEx != null)
+      {
+        // Each fire gets its own exception, as listeners may modify it
+        aEx = new JobExecutionException (aBatchEx.getMessage (), aBatchEx.getCause (), aBatchEx.refireImmediately ());
+      }
+      else
+        if (aFailures != null)
+          aEx = aFailures.get (aShell.m_aJEC);
+      aShell.finishBatchExecution (aEx, nRunTime);
+    }
+  }
+}
@@ -50,4 +50,16 @@ public interface IJobRunShellFactory
    * </p>
    */
   JobRunShell createJobRunShell (TriggerFiredBundle bundle) throws SchedulerException;
+
+  /**
+   * Called by the <code>{@link QuartzScheduler}</code> when a shell created by
+   * this factory finished its execution and was passivated. The factory may
+   * reuse it for a later {@link #createJobRunShell(TriggerFiredBundle)} call.
+   * The default implementation does nothing.
+   *
+   * @param shell
+   *        The passivated shell. Never <code>null</code>.
+   */
+  default void returnJobRunShell (final JobRunShell shell)
+  {}
 }
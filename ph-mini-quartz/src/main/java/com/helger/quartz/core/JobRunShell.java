@@ -18,9 +18,17 @@
  */
 package com.helger.quartz.core;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.quartz.IAsyncJob;
+import com.helger.quartz.IBatchJob;
 import com.helger.quartz.IJob;
 import com.helger.quartz.IJobDetail;
 import com.helger.quartz.IJobExecutionContext;
@@ -92,7 +100,7 @@ public class JobRunShell implements Runnable, ISchedulerListener
 
     try
     {
-      job = sched.getJobFactory ().newJob (m_aFiredTriggerBundle, m_aScheduler);
+      job = sched.getJobInstance (m_aFiredTriggerBundle, m_aScheduler);
     }
     catch (final SchedulerException se)
     {
@@ -119,6 +127,27 @@ public class JobRunShell implements Runnable, ISchedulerListener
     m_aJEC = new JobExecutionContext (m_aScheduler, m_aFiredTriggerBundle, job);
   }
 
+  /**
+   * Initialize this shell with a job instance that is shared with other shells
+   * of the same {@link IBatchJob} batch.
+   *
+   * @param sched
+   *        The scheduler. May not be <code>null</code>.
+   * @param job
+   *        The job instance to use. May not be <code>null</code>.
+   */
+  void initialize (@NonNull final QuartzScheduler sched, @NonNull final IJob job)
+  {
+    m_aQS = sched;
+    m_aJEC = new JobExecutionContext (m_aScheduler, m_aFiredTriggerBundle, job);
+  }
+
+  @Nullable
+  IJob getJobInstance ()
+  {
+    return m_aJEC == null ? null : m_aJEC.getJobInstance ();
+  }
+
   public void requestShutdown ()
   {
     m_bShutdownRequested = true;
@@ -126,161 +155,311 @@ public class JobRunShell implements Runnable, ISchedulerListener
 
   public void run ()
   {
-    m_aQS.addInternalSchedulerListener (this);
+    m_aQS.registerActiveJobRunShell (this);
 
+    boolean bAsyncPending = false;
     try
     {
-      final IOperableTrigger trigger = (IOperableTrigger) m_aJEC.getTrigger ();
-      final IJobDetail jobDetail = m_aJEC.getJobDetail ();
+      bAsyncPending = _execute ();
+    }
+    finally
+    {
+      // An asynchronous job unregisters when its future completes
+      if (!bAsyncPending)
+        m_aQS.unregisterActiveJobRunShell (this);
+    }
+  }
 
-      do
-      {
+  /**
+   * Execute the job until it needs no refire.
+   *
+   * @return <code>true</code> if the execution of an {@link IAsyncJob} is
+   *         still pending. The completion is then handled by
+   *         {@link #_finishExecution(JobExecutionException, long)}.
+   */
+  private boolean _execute ()
+  {
+    final IJobDetail jobDetail = m_aJEC.getJobDetail ();
 
-        JobExecutionException jobExEx = null;
-        final IJob job = m_aJEC.getJobInstance ();
+    do
+    {
+      JobExecutionException jobExEx = null;
+      final IJob job = m_aJEC.getJobInstance ();
 
-        try
-        {
-          begin ();
-        }
-        catch (final SchedulerException se)
-        {
-          m_aQS.notifySchedulerListenersError ("Error executing Job (" +
-                                               m_aJEC.getJobDetail ().getKey () +
-                                               ": couldn't begin execution.",
-                                               se);
-          break;
-        }
+      if (!_prepareExecution ())
+        break;
 
-        // notify job & trigger listeners...
-        try
-        {
-          if (!_notifyListenersBeginning (m_aJEC))
-          {
-            break;
-          }
-        }
-        catch (final VetoedException ve)
+      final long startTime = System.currentTimeMillis ();
+      long endTime = startTime;
+
+      // execute the job
+      try
+      {
+        if (LOGGER.isDebugEnabled ())
+          LOGGER.debug ("Calling execute on job " + jobDetail.getKey ());
+        if (job instanceof final IAsyncJob aAsyncJob)
         {
-          try
+          final CompletableFuture <?> aFuture = aAsyncJob.executeAsync (m_aJEC);
+          if (aFuture != null)
           {
-            final ECompletedExecutionInstruction instCode = trigger.executionComplete (m_aJEC, null);
-            m_aQS.notifyJobStoreJobVetoed (trigger, jobDetail, instCode);
-
-            // QTZ-205
-            // Even if trigger got vetoed, we still needs to check to see if
-            // it's the trigger's finalized run or not.
-            if (m_aJEC.getTrigger ().getNextFireTime () == null)
+            if (!aFuture.isDone ())
             {
-              m_aQS.notifySchedulerListenersFinalized (m_aJEC.getTrigger ());
+              // Release the current thread - the rest happens on completion
+              m_aJEC.setPendingAsyncResult (aFuture);
+              aFuture.whenComplete ( (aResult,
+                                      aError) -> _finishExecution (aError == null ? null
+                                                                                  : _getJobExecutionException (aError),
+                                                                   System.currentTimeMillis () - startTime));
+              return true;
             }
-
-            complete (true);
+            aFuture.join ();
           }
-          catch (final SchedulerException se)
-          {
-            m_aQS.notifySchedulerListenersError ("Error during veto of Job (" +
-                                                 m_aJEC.getJobDetail ().getKey () +
-                                                 ": couldn't finalize execution.",
-                                                 se);
-          }
-          break;
         }
+        else
+          job.execute (m_aJEC);
+        endTime = System.currentTimeMillis ();
+      }
+      catch (final Exception ex)
+      {
+        endTime = System.currentTimeMillis ();
+        jobExEx = _getJobExecutionException (ex);
+      }
+
+      if (!_completeExecution (jobExEx, endTime - startTime))
+        break;
+    } while (true);
+    return false;
+  }
 
-        final long startTime = System.currentTimeMillis ();
-        long endTime = startTime;
+  /**
+   * Begin the execution and notify the listeners.
+   *
+   * @return <code>true</code> if the job should be executed,
+   *         <code>false</code> if it was vetoed or could not be started.
+   */
+  private boolean _prepareExecution ()
+  {
+    final IOperableTrigger trigger = (IOperableTrigger) m_aJEC.getTrigger ();
+    final IJobDetail jobDetail = m_aJEC.getJobDetail ();
 
-        // execute the job
-        try
-        {
-          if (LOGGER.isDebugEnabled ())
-            LOGGER.debug ("Calling execute on job " + jobDetail.getKey ());
-          job.execute (m_aJEC);
-          endTime = System.currentTimeMillis ();
-        }
-        catch (final JobExecutionException jee)
-        {
-          endTime = System.currentTimeMillis ();
-          jobExEx = jee;
-          LOGGER.info ("Job " + jobDetail.getKey () + " threw a JobExecutionException: ", jobExEx);
-        }
-        catch (final Exception ex)
-        {
-          endTime = System.currentTimeMillis ();
-          LOGGER.error ("Job " + jobDetail.getKey () + " threw an unhandled Exception: ", ex);
-          final SchedulerException se = new SchedulerException ("Job threw an unhandled exception.", ex);
-          m_aQS.notifySchedulerListenersError ("Job (" + m_aJEC.getJobDetail ().getKey () + " threw an exception.", se);
-          jobExEx = new JobExecutionException (se, false);
-        }
+    try
+    {
+      begin ();
+    }
+    catch (final SchedulerException se)
+    {
+      m_aQS.notifySchedulerListenersError ("Error executing Job (" +
+                                           m_aJEC.getJobDetail ().getKey () +
+                                           ": couldn't begin execution.",
+                                           se);
+      return false;
+    }
 
-        m_aJEC.setJobRunTime (endTime - startTime);
+    // notify job & trigger listeners...
+    try
+    {
+      if (!_notifyListenersBeginning (m_aJEC))
+      {
+        return false;
+      }
+    }
+    catch (final VetoedException ve)
+    {
+      try
+      {
+        final ECompletedExecutionInstruction instCode = trigger.executionComplete (m_aJEC, null);
+        m_aQS.notifyJobStoreJobVetoed (trigger, jobDetail, instCode);
 
-        // notify all job listeners
-        if (!_notifyJobListenersComplete (m_aJEC, jobExEx))
+        // QTZ-205
+        // Even if trigger got vetoed, we still needs to check to see if
+        // it's the trigger's finalized run or not.
+        if (m_aJEC.getTrigger ().getNextFireTime () == null)
         {
-          break;
+          m_aQS.notifySchedulerListenersFinalized (m_aJEC.getTrigger ());
         }
 
-        ECompletedExecutionInstruction instCode = ECompletedExecutionInstruction.NOOP;
+        complete (true);
+      }
+      catch (final SchedulerException se)
+      {
+        m_aQS.notifySchedulerListenersError ("Error during veto of Job (" +
+                                             m_aJEC.getJobDetail ().getKey () +
+                                             ": couldn't finalize execution.",
+                                             se);
+      }
+      return false;
+    }
+    return true;
+  }
 
-        // update the trigger
-        try
-        {
-          instCode = trigger.executionComplete (m_aJEC, jobExEx);
-        }
-        catch (final Exception e)
-        {
-          // If this happens, there's a bug in the trigger...
-          final SchedulerException se = new SchedulerException ("Trigger threw an unhandled exception.", e);
-          m_aQS.notifySchedulerListenersError ("Please report this error to the Quartz developers.", se);
-        }
+  /**
+   * Complete an execution that did not happen inside {@link #_execute()}, as
+   * for an {@link IAsyncJob} or an {@link IBatchJob}, and unregister the shell
+   * afterwards.
+   *
+   * @param jobExEx
+   *        The exception of the job execution. May be <code>null</code>.
+   * @param nJobRunTime
+   *        The execution duration in milliseconds
+   */
+  private void _finishExecution (@Nullable final JobExecutionException jobExEx, final long nJobRunTime)
+  {
+    boolean bAsyncPending = false;
+    try
+    {
+      m_aJEC.setPendingAsyncResult (null);
+      if (_completeExecution (jobExEx, nJobRunTime))
+      {
+        // Refire
+        bAsyncPending = _execute ();
+      }
+    }
+    catch (final RuntimeException ex)
+    {
+      m_aQS.notifySchedulerListenersError ("Error completing Job (" + m_aJEC.getJobDetail ().getKey () + ")",
+                                           new SchedulerException ("Unexpected exception", ex));
+    }
+    finally
+    {
+      if (!bAsyncPending)
+        m_aQS.unregisterActiveJobRunShell (this);
+    }
+  }
 
-        // notify all trigger listeners
-        if (!_notifyTriggerListenersComplete (m_aJEC, instCode))
-        {
-          break;
-        }
+  /**
+   * Register this shell and notify the listeners as the first part of an
+   * {@link IBatchJob} execution.
+   *
+   * @return <code>true</code> if the context of this shell is to be part of
+   *         the batch, <code>false</code> if it was vetoed or could not be
+   *         started.
+   */
+  boolean beginBatchExecution ()
+  {
+    m_aQS.registerActiveJobRunShell (this);
+    if (_prepareExecution ())
+      return true;
+    m_aQS.unregisterActiveJobRunShell (this);
+    return false;
+  }
 
-        // update job/trigger or re-execute job
-        if (instCode == ECompletedExecutionInstruction.RE_EXECUTE_JOB)
-        {
-          m_aJEC.incrementRefireCount ();
-          try
-          {
-            complete (false);
-          }
-          catch (final SchedulerException se)
-          {
-            m_aQS.notifySchedulerListenersError ("Error executing Job (" +
-                                                 m_aJEC.getJobDetail ().getKey () +
-                                                 ": couldn't finalize execution.",
-                                                 se);
-          }
-          continue;
-        }
+  /**
+   * Complete this shell's part of an {@link IBatchJob} execution. A refire is
+   * executed directly as a batch of one.
+   *
+   * @param jobExEx
+   *        The exception for this context. May be <code>null</code>.
+   * @param nJobRunTime
+   *        The execution duration of the batch in milliseconds
+   */
+  void finishBatchExecution (@Nullable final JobExecutionException jobExEx, final long nJobRunTime)
+  {
+    _finishExecution (jobExEx, nJobRunTime);
+  }
 
-        try
-        {
-          complete (true);
-        }
-        catch (final SchedulerException se)
-        {
-          m_aQS.notifySchedulerListenersError ("Error executing Job (" +
-                                               m_aJEC.getJobDetail ().getKey () +
-                                               ": couldn't finalize execution.",
-                                               se);
-          continue;
-        }
+  @NonNull
+  JobExecutionException createJobExecutionException (@NonNull final Throwable aThrowable)
+  {
+    return _getJobExecutionException (aThrowable);
+  }
 
-        m_aQS.notifyJobStoreJobComplete (trigger, jobDetail, instCode);
-        break;
-      } while (true);
+  @NonNull
+  private JobExecutionException _getJobExecutionException (@NonNull final Throwable aThrowable)
+  {
+    final IJobDetail jobDetail = m_aJEC.getJobDetail ();
+    Throwable t = aThrowable;
+    if (t instanceof CompletionException && t.getCause () != null)
+      t = t.getCause ();
 
+    if (t instanceof final JobExecutionException jee)
+    {
+      LOGGER.info ("Job " + jobDetail.getKey () + " threw a JobExecutionException: ", jee);
+      return jee;
     }
-    finally
+    if (t instanceof CancellationException)
+    {
+      LOGGER.info ("Asynchronous execution of Job " + jobDetail.getKey () + " was cancelled");
+      return new JobExecutionException ("Asynchronous job execution was cancelled", t, false);
+    }
+
+    LOGGER.error ("Job " + jobDetail.getKey () + " threw an unhandled Exception: ", t);
+    final SchedulerException se = new SchedulerException ("Job threw an unhandled exception.", t);
+    m_aQS.notifySchedulerListenersError ("Job (" + jobDetail.getKey () + " threw an exception.", se);
+    return new JobExecutionException (se, false);
+  }
+
+  /**
+   * Perform everything after the job was executed: notify the listeners,
+   * update the trigger and the job store.
+   *
+   * @return <code>true</code> if the job needs to be executed again
+   */
+  private boolean _completeExecution (@Nullable final JobExecutionException jobExEx, final long nJobRunTime)
+  {
+    final IOperableTrigger trigger = (IOperableTrigger) m_aJEC.getTrigger ();
+    final IJobDetail jobDetail = m_aJEC.getJobDetail ();
+
+    m_aJEC.setJobRunTime (nJobRunTime);
+
+    // notify all job listeners
+    if (!_notifyJobListenersComplete (m_aJEC, jobExEx))
+    {
+      return false;
+    }
+
+    ECompletedExecutionInstruction instCode = ECompletedExecutionInstruction.NOOP;
+
+    // update the trigger
+    try
     {
-      m_aQS.removeInternalSchedulerListener (this);
+      instCode = trigger.executionComplete (m_aJEC, jobExEx);
     }
+    catch (final Exception e)
+    {
+      // If this happens, there's a bug in the trigger...
+      final SchedulerException se = new SchedulerException ("Trigger threw an unhandled exception.", e);
+      m_aQS.notifySchedulerListenersError ("Please report this error to the Quartz developers.", se);
+    }
+
+    // notify all trigger listeners
+    if (!_notifyTriggerListenersComplete (m_aJEC, instCode))
+    {
+      return false;
+    }
+
+    // update job/trigger or re-execute job
+    if (instCode == ECompletedExecutionInstruction.RE_EXECUTE_JOB)
+    {
+      m_aJEC.incrementRefireCount ();
+      try
+      {
+        complete (false);
+      }
+      catch (final SchedulerException se)
+      {
+        m_aQS.notifySchedulerListenersError ("Error executing Job (" +
+                                             m_aJEC.getJobDetail ().getKey () +
+                                             ": couldn't finalize execution.",
+                                             se);
+      }
+      return true;
+    }
+
+    try
+    {
+      complete (true);
+    }
+    catch (final SchedulerException se)
+    {
+      m_aQS.notifySchedulerListenersError ("Error executing Job (" +
+                                           m_aJEC.getJobDetail ().getKey () +
+                                           ": couldn't finalize execution.",
+                                           se);
+      return true;
+    }
+
+    m_aQS.notifyJobStoreJobComplete (trigger, jobDetail, instCode);
+    return false;
   }
 
   /**
@@ -303,6 +482,20 @@ public class JobRunShell implements Runnable, ISchedulerListener
   {
     m_aJEC = null;
     m_aQS = null;
+    m_aFiredTriggerBundle = null;
+  }
+
+  /**
+   * Prepare a passivated shell for the execution of another fired trigger.
+   * {@link #initialize(QuartzScheduler)} needs to be called afterwards.
+   *
+   * @param bndle
+   *        The new fired trigger bundle. May not be <code>null</code>.
+   */
+  public void reuse (@NonNull final TriggerFiredBundle bndle)
+  {
+    m_aFiredTriggerBundle = bndle;
+    m_bShutdownRequested = false;
   }
 
   private boolean _notifyListenersBeginning (final IJobExecutionContext jobExCtxt) throws VetoedException
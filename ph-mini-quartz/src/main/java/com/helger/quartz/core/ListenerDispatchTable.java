@@ -0,0 +1,254 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.core;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.quartz.IJobListener;
+import com.helger.quartz.IMatcher;
+import com.helger.quartz.ISchedulerListener;
+import com.helger.quartz.ITriggerListener;
+import com.helger.quartz.JobKey;
+import com.helger.quartz.TriggerKey;
+import com.helger.quartz.impl.matchers.EverythingMatcher;
+import com.helger.quartz.utils.Key;
+
+/**
+ * An immutable snapshot of all listeners of a scheduler including their
+ * matchers. It is built by {@link QuartzScheduler} whenever the listeners or
+ * matchers changed, and resolves the listeners to notify for a job or trigger
+ * key without locking and - once a key is cached - without allocating.
+ * <p>
+ * Matchers are expected to be stateless, so that the result for a key can be
+ * cached. All built-in matchers fulfil this.
+ * </p>
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+final class ListenerDispatchTable
+{
+  /** The maximum number of keys, for which the resolved listeners are cached */
+  static final int MAX_CACHED_KEYS = 10_000;
+
+  /**
+   * Resolves the listeners matching a key.
+   *
+   * @param <K>
+   *        Key type
+   * @param <L>
+   *        Listener type
+   */
+  private static final class Resolver <K extends Key <K>, L>
+  {
+    private final L [] m_aListeners;
+    // Index aligned with m_aListeners; null means "match all"
+    private final ICommonsList <ICommonsList <IMatcher <K>>> m_aMatchers;
+    // Not null if all listeners match all keys
+    private final L [] m_aAllMatching;
+    private final IntFunction <L []> m_aArrayFactory;
+    private final ConcurrentHashMap <K, L []> m_aCache = new ConcurrentHashMap <> ();
+
+    Resolver (@NonNull final List <L> aListeners,
+              @NonNull final Function <L, List <IMatcher <K>>> aMatcherProvider,
+              @NonNull final IntFunction <L []> aArrayFactory)
+    {
+      m_aListeners = aListeners.toArray (aArrayFactory.apply (aListeners.size ()));
+      m_aMatchers = new CommonsArrayList <> (m_aListeners.length);
+      boolean bAllMatching = true;
+      for (final L aListener : m_aListeners)
+      {
+        final List <IMatcher <K>> aMatchers = aMatcherProvider.apply (aListener);
+        if (_isMatchingAll (aMatchers))
+          m_aMatchers.add (null);
+        else
+        {
+          m_aMatchers.add (new CommonsArrayList <> (aMatchers));
+          bAllMatching = false;
+        }
+      }
+      m_aAllMatching = bAllMatching ? m_aListeners : null;
+      m_aArrayFactory = aArrayFactory;
+    }
+
+    private static boolean _isMatchingAll (@Nullable final List <? extends IMatcher <?>> aMatchers)
+    {
+      if (aMatchers == null)
+        return true;
+      for (final IMatcher <?> aMatcher : aMatchers)
+        if (aMatcher.getClass () == EverythingMatcher.class)
+          return true;
+      return false;
+    }
+
+    @NonNull
+    private L [] _resolve (@NonNull final K aKey)
+    {
+      final ICommonsList <L> ret = new CommonsArrayList <> (m_aListeners.length);
+      for (int i = 0; i < m_aListeners.length; ++i)
+      {
+        final ICommonsList <IMatcher <K>> aMatchers = m_aMatchers.get (i);
+        boolean bMatch = aMatchers == null;
+        if (!bMatch)
+          for (final IMatcher <K> aMatcher : aMatchers)
+            if (aMatcher.isMatch (aKey))
+            {
+              bMatch = true;
+              break;
+            }
+        if (bMatch)
+          ret.add (m_aListeners[i]);
+      }
+      return ret.size () == m_aListeners.length ? m_aListeners : ret.toArray (m_aArrayFactory.apply (ret.size ()));
+    }
+
+    @NonNull
+    L [] getListeners (@NonNull final K aKey)
+    {
+      if (m_aAllMatching != null)
+        return m_aAllMatching;
+
+      L [] ret = m_aCache.get (aKey);
+      if (ret == null)
+      {
+        ret = _resolve (aKey);
+        // Keys of one-shot triggers are never seen again - start over instead
+        // of growing endlessly
+        if (m_aCache.size () >= MAX_CACHED_KEYS)
+          m_aCache.clear ();
+        m_aCache.put (aKey, ret);
+      }
+      return ret;
+    }
+
+    int getCachedKeyCount ()
+    {
+      return m_aCache.size ();
+    }
+  }
+
+  private final int m_nManagerRevision;
+  private final int m_nInternalRevision;
+  private final Resolver <JobKey, IJobListener> m_aJobListeners;
+  private final Resolver <TriggerKey, ITriggerListener> m_aTriggerListeners;
+  private final ISchedulerListener [] m_aSchedulerListeners;
+
+  /**
+   * Constructor
+   *
+   * @param nManagerRevision
+   *        The revision of the listener manager, that was read before the
+   *        listeners were read.
+   * @param nInternalRevision
+   *        The revision of the internal listeners, that was read before the
+   *        listeners were read.
+   * @param aListenerManager
+   *        The listener manager to take the listeners and matchers from.
+   * @param aJobListeners
+   *        All job listeners, global ones first.
+   * @param aTriggerListeners
+   *        All trigger listeners, global ones first.
+   * @param aSchedulerListeners
+   *        All scheduler listeners, global ones first.
+   */
+  ListenerDispatchTable (final int nManagerRevision,
+                         final int nInternalRevision,
+                         @NonNull final ListenerManager aListenerManager,
+                         @NonNull final List <IJobListener> aJobListeners,
+                         @NonNull final List <ITriggerListener> aTriggerListeners,
+                         @NonNull final List <ISchedulerListener> aSchedulerListeners)
+  {
+    m_nManagerRevision = nManagerRevision;
+    m_nInternalRevision = nInternalRevision;
+    m_aJobListeners = new Resolver <> (aJobListeners,
+                                       x -> aListenerManager.getJobListenerMatchers (x.getName ()),
+                                       IJobListener []::new);
+    m_aTriggerListeners = new Resolver <> (aTriggerListeners,
+                                           x -> aListenerManager.getTriggerListenerMatchers (x.getName ()),
+                                           ITriggerListener []::new);
+    m_aSchedulerListeners = aSchedulerListeners.toArray (new ISchedulerListener [aSchedulerListeners.size ()]);
+  }
+
+  /**
+   * Check if this table was built from the provided revisions.
+   *
+   * @param nManagerRevision
+   *        Current revision of the listener manager
+   * @param nInternalRevision
+   *        Current revision of the internal listeners
+   * @return <code>true</code> if the table can still be used.
+   */
+  boolean isUpToDate (final int nManagerRevision, final int nInternalRevision)
+  {
+    return m_nManagerRevision == nManagerRevision && m_nInternalRevision == nInternalRevision;
+  }
+
+  /**
+   * @param aJobKey
+   *        Job key to resolve. May not be <code>null</code>.
+   * @return The job listeners to be notified for the provided job. Never
+   *         <code>null</code>. The array must not be modified.
+   */
+  @NonNull
+  IJobListener [] getJobListeners (@NonNull final JobKey aJobKey)
+  {
+    return m_aJobListeners.getListeners (aJobKey);
+  }
+
+  /**
+   * @param aTriggerKey
+   *        Trigger key to resolve. May not be <code>null</code>.
+   * @return The trigger listeners to be notified for the provided trigger.
+   *         Never <code>null</code>. The array must not be modified.
+   */
+  @NonNull
+  ITriggerListener [] getTriggerListeners (@NonNull final TriggerKey aTriggerKey)
+  {
+    return m_aTriggerListeners.getListeners (aTriggerKey);
+  }
+
+  /**
+   * @return All scheduler listeners. Never <code>null</code>. The array must
+   *         not be modified.
+   */
+  @NonNull
+  ISchedulerListener [] getSchedulerListeners ()
+  {
+    return m_aSchedulerListeners;
+  }
+
+  int getCachedJobKeyCount ()
+  {
+    return m_aJobListeners.getCachedKeyCount ();
+  }
+
+  int getCachedTriggerKeyCount ()
+  {
+    return m_aTriggerListeners.getCachedKeyCount ();
+  }
+}
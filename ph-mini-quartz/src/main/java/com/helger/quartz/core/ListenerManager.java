@@ -21,6 +21,7 @@ package com.helger.quartz.core;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jspecify.annotations.NonNull;
 
@@ -45,6 +46,18 @@ public class ListenerManager implements IListenerManager
   private final ICommonsMap <String, List <IMatcher <JobKey>>> m_aGlobalJobListenersMatchers = new CommonsLinkedHashMap <> (10);
   private final ICommonsMap <String, List <IMatcher <TriggerKey>>> m_aGlobalTriggerListenersMatchers = new CommonsLinkedHashMap <> (10);
   private final ICommonsList <ISchedulerListener> m_aSchedulerListeners = new CommonsArrayList <> (10);
+  // Incremented on every change of listeners or matchers
+  private final AtomicInteger m_aRevision = new AtomicInteger (0);
+
+  /**
+   * @return The revision of this listener manager, which changes whenever a
+   *         listener or a matcher is added, removed or changed. Reading it
+   *         does not lock.
+   */
+  public int getRevision ()
+  {
+    return m_aRevision.get ();
+  }
 
   @SafeVarargs
   public final void addJobListener (final IJobListener aJobListener, final IMatcher <JobKey>... matchers)
@@ -67,6 +80,7 @@ public class ListenerManager implements IListenerManager
         matchersL.add (EverythingMatcher.allJobs ());
 
       m_aGlobalJobListenersMatchers.put (jobListener.getName (), matchersL);
+      m_aRevision.incrementAndGet ();
     }
   }
 
@@ -90,6 +104,7 @@ public class ListenerManager implements IListenerManager
         matchersL.add (EverythingMatcher.allJobs ());
 
       m_aGlobalJobListenersMatchers.put (jobListener.getName (), matchersL);
+      m_aRevision.incrementAndGet ();
     }
   }
 
@@ -104,6 +119,7 @@ public class ListenerManager implements IListenerManager
       if (matchers == null)
         return false;
       matchers.add (matcher);
+      m_aRevision.incrementAndGet ();
       return true;
     }
   }
@@ -118,7 +134,10 @@ public class ListenerManager implements IListenerManager
       final List <IMatcher <JobKey>> matchers = m_aGlobalJobListenersMatchers.get (listenerName);
       if (matchers == null)
         return false;
-      return matchers.remove (matcher);
+      if (!matchers.remove (matcher))
+        return false;
+      m_aRevision.incrementAndGet ();
+      return true;
     }
   }
 
@@ -142,7 +161,8 @@ public class ListenerManager implements IListenerManager
       final List <IMatcher <JobKey>> oldMatchers = m_aGlobalJobListenersMatchers.get (listenerName);
       if (oldMatchers == null)
         return false;
-      m_aGlobalJobListenersMatchers.put (listenerName, matchers);
+      m_aGlobalJobListenersMatchers.put (listenerName, new CommonsArrayList <> (matchers));
+      m_aRevision.incrementAndGet ();
       return true;
     }
   }
@@ -151,7 +171,10 @@ public class ListenerManager implements IListenerManager
   {
     synchronized (m_aGlobalJobListeners)
     {
-      return m_aGlobalJobListeners.remove (name) != null;
+      if (m_aGlobalJobListeners.remove (name) == null)
+        return false;
+      m_aRevision.incrementAndGet ();
+      return true;
     }
   }
 
@@ -195,6 +218,7 @@ public class ListenerManager implements IListenerManager
         matchersL.add (EverythingMatcher.allTriggers ());
 
       m_aGlobalTriggerListenersMatchers.put (triggerListener.getName (), matchersL);
+      m_aRevision.incrementAndGet ();
     }
   }
 
@@ -217,6 +241,7 @@ public class ListenerManager implements IListenerManager
       final List <IMatcher <TriggerKey>> matchers = new ArrayList <> ();
       matchers.add (matcher);
       m_aGlobalTriggerListenersMatchers.put (triggerListener.getName (), matchers);
+      m_aRevision.incrementAndGet ();
     }
   }
 
@@ -231,6 +256,7 @@ public class ListenerManager implements IListenerManager
       if (matchers == null)
         return false;
       matchers.add (matcher);
+      m_aRevision.incrementAndGet ();
       return true;
     }
   }
@@ -245,7 +271,10 @@ public class ListenerManager implements IListenerManager
       final List <IMatcher <TriggerKey>> matchers = m_aGlobalTriggerListenersMatchers.get (listenerName);
       if (matchers == null)
         return false;
-      return matchers.remove (matcher);
+      if (!matchers.remove (matcher))
+        return false;
+      m_aRevision.incrementAndGet ();
+      return true;
     }
   }
 
@@ -270,7 +299,8 @@ public class ListenerManager implements IListenerManager
       final List <IMatcher <TriggerKey>> oldMatchers = m_aGlobalTriggerListenersMatchers.get (listenerName);
       if (oldMatchers == null)
         return false;
-      m_aGlobalTriggerListenersMatchers.put (listenerName, matchers);
+      m_aGlobalTriggerListenersMatchers.put (listenerName, new CommonsArrayList <> (matchers));
+      m_aRevision.incrementAndGet ();
       return true;
     }
   }
@@ -279,7 +309,10 @@ public class ListenerManager implements IListenerManager
   {
     synchronized (m_aGlobalTriggerListeners)
     {
-      return m_aGlobalTriggerListeners.remove (name) != null;
+      if (m_aGlobalTriggerListeners.remove (name) == null)
+        return false;
+      m_aRevision.incrementAndGet ();
+      return true;
     }
   }
 
@@ -304,6 +337,7 @@ public class ListenerManager implements IListenerManager
     synchronized (m_aSchedulerListeners)
     {
       m_aSchedulerListeners.add (schedulerListener);
+      m_aRevision.incrementAndGet ();
     }
   }
 
@@ -311,7 +345,10 @@ public class ListenerManager implements IListenerManager
   {
     synchronized (m_aSchedulerListeners)
     {
-      return m_aSchedulerListeners.remove (schedulerListener);
+      if (!m_aSchedulerListeners.remove (schedulerListener))
+        return false;
+      m_aRevision.incrementAndGet ();
+      return true;
     }
   }
 
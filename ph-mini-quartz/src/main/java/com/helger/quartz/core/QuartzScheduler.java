@@ -25,7 +25,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -48,6 +51,7 @@ import com.helger.io.rt.PropertiesLoader;
 import com.helger.quartz.*;
 import com.helger.quartz.ITrigger.ECompletedExecutionInstruction;
 import com.helger.quartz.ITrigger.ETriggerState;
+import com.helger.quartz.impl.JobExecutionContext;
 import com.helger.quartz.impl.SchedulerRepository;
 import com.helger.quartz.impl.matchers.GroupMatcher;
 import com.helger.quartz.simpl.PropertySettingJobFactory;
@@ -56,6 +60,8 @@ import com.helger.quartz.spi.IOperableTrigger;
 import com.helger.quartz.spi.ISchedulerPlugin;
 import com.helger.quartz.spi.ISchedulerSignaler;
 import com.helger.quartz.spi.IThreadExecutor;
+import com.helger.quartz.spi.TriggerFiredBundle;
+import com.helger.quartz.utils.ClassUtils;
 import com.helger.quartz.utils.Key;
 
 /**
@@ -109,15 +115,35 @@ public class QuartzScheduler implements IQuartzScheduler
     VERSION_ITERATION = sIter;
   }
 
+  private static final ClassValue <Boolean> REUSABLE_JOB_CLASS = new ClassValue <> ()
+  {
+    @Override
+    protected Boolean computeValue (final Class <?> aClass)
+    {
+      return Boolean.valueOf (ClassUtils.isAnnotationPresent (aClass, ReusableJobInstance.class));
+    }
+  };
+
   private final QuartzSchedulerResources m_aResources;
-  private final QuartzSchedulerThread m_aSchedThread;
+  private final ICommonsList <QuartzSchedulerThread> m_aSchedThreads;
   private ThreadGroup m_aThreadGroup;
   private final SchedulerContext m_aContext = new SchedulerContext ();
-  private final IListenerManager m_aListenerManager = new ListenerManager ();
+  private final ListenerManager m_aListenerManager = new ListenerManager ();
   private final ICommonsMap <String, IJobListener> m_aInternalJobListeners = new CommonsHashMap <> (10);
   private final ICommonsMap <String, ITriggerListener> m_aInternalTriggerListeners = new CommonsHashMap <> (10);
   private final ICommonsList <ISchedulerListener> m_aInternalSchedulerListeners = new CommonsArrayList <> (10);
+  // Incremented on every change of the internal listeners
+  private final AtomicInteger m_aInternalListenerRevision = new AtomicInteger (0);
+  private volatile ListenerDispatchTable m_aListenerDispatchTable;
+  // The shells of all currently running jobs - notified directly on shutdown
+  private final Set <JobRunShell> m_aActiveJobRunShells = ConcurrentHashMap.newKeySet ();
+  // Pool threads reserved by the scheduler threads for acquired triggers, that
+  // were not yet handed to the thread pool
+  private final Object m_aThreadReservationLock = new Object ();
+  private int m_nReservedThreads;
   private IJobFactory m_aJobFactory = new PropertySettingJobFactory ();
+  // The shared instances of @ReusableJobInstance job classes
+  private final Map <Class <?>, IJob> m_aReusableJobInstances = new ConcurrentHashMap <> ();
   private final ExecutingJobsManager m_aJobMgr;
   private final ErrorLogger m_aErrLogger;
   private final ISchedulerSignaler m_aSignaler;
@@ -141,12 +167,19 @@ public class QuartzScheduler implements IQuartzScheduler
     if (resources.getJobStore () instanceof final IJobListener aJobListener)
       addInternalJobListener (aJobListener);
 
-    m_aSchedThread = new QuartzSchedulerThread (this, resources);
+    // One scheduler thread per job store shard
+    final int nShardCount = resources.getJobStore ().getShardCount ();
+    m_aSchedThreads = new CommonsArrayList <> (nShardCount);
     final IThreadExecutor schedThreadExecutor = resources.getThreadExecutor ();
-    schedThreadExecutor.execute (m_aSchedThread);
-    if (idleWaitTime > 0)
+    for (int i = 0; i < nShardCount; ++i)
     {
-      m_aSchedThread.setIdleWaitTime (idleWaitTime);
+      final QuartzSchedulerThread aSchedThread = new QuartzSchedulerThread (this, resources, i);
+      schedThreadExecutor.execute (aSchedThread);
+      if (idleWaitTime > 0)
+      {
+        aSchedThread.setIdleWaitTime (idleWaitTime);
+      }
+      m_aSchedThreads.add (aSchedThread);
     }
 
     m_aJobMgr = new ExecutingJobsManager ();
@@ -154,7 +187,7 @@ public class QuartzScheduler implements IQuartzScheduler
     m_aErrLogger = new ErrorLogger ();
     addInternalSchedulerListener (m_aErrLogger);
 
-    m_aSignaler = new SchedulerSignaler (this, m_aSchedThread);
+    m_aSignaler = new SchedulerSignaler (this, m_aSchedThreads);
 
     LOGGER.info ("Mini Quartz Scheduler v." + getVersion () + " created.");
   }
@@ -315,7 +348,8 @@ public class QuartzScheduler implements IQuartzScheduler
       m_aResources.getJobStore ().schedulerResumed ();
     }
 
-    m_aSchedThread.togglePause (false);
+    for (final QuartzSchedulerThread aSchedThread : m_aSchedThreads)
+      aSchedThread.togglePause (false);
 
     LOGGER.info ("Scheduler " + m_aResources.getUniqueIdentifier () + " started.");
 
@@ -362,7 +396,8 @@ public class QuartzScheduler implements IQuartzScheduler
   public void standby ()
   {
     m_aResources.getJobStore ().schedulerPaused ();
-    m_aSchedThread.togglePause (true);
+    for (final QuartzSchedulerThread aSchedThread : m_aSchedThreads)
+      aSchedThread.togglePause (true);
     LOGGER.info ("Scheduler " + m_aResources.getUniqueIdentifier () + " paused.");
     notifySchedulerListenersInStandbyMode ();
   }
@@ -374,7 +409,7 @@ public class QuartzScheduler implements IQuartzScheduler
    */
   public boolean isInStandbyMode ()
   {
-    return m_aSchedThread.isPaused ();
+    return m_aSchedThreads.get (0).isPaused ();
   }
 
   public Date runningSince ()
@@ -454,7 +489,12 @@ public class QuartzScheduler implements IQuartzScheduler
 
     standby ();
 
-    m_aSchedThread.halt (waitForJobsToComplete);
+    // First signal all threads, then wait for them
+    for (final QuartzSchedulerThread aSchedThread : m_aSchedThreads)
+      aSchedThread.halt (false);
+    if (waitForJobsToComplete)
+      for (final QuartzSchedulerThread aSchedThread : m_aSchedThreads)
+        aSchedThread.halt (true);
 
     notifySchedulerListenersShuttingdown ();
 
@@ -464,10 +504,10 @@ public class QuartzScheduler implements IQuartzScheduler
       final ICommonsList <IJobExecutionContext> jobs = getCurrentlyExecutingJobs ();
       for (final IJobExecutionContext job : jobs)
       {
-        if (job.getJobInstance () instanceof final IInterruptableJob aInterruptableJob)
+        if (job.getJobInstance () instanceof IInterruptableJob || job.getJobInstance () instanceof IAsyncJob)
           try
           {
-            aInterruptableJob.interrupt ();
+            _interruptJob (job);
           }
           catch (final Exception e)
           {
@@ -481,6 +521,8 @@ public class QuartzScheduler implements IQuartzScheduler
     }
 
     m_aResources.getThreadPool ().shutdown (waitForJobsToComplete);
+    if (waitForJobsToComplete)
+      _waitForActiveJobRunShells ();
 
     m_bClosed = true;
 
@@ -497,6 +539,27 @@ public class QuartzScheduler implements IQuartzScheduler
     LOGGER.info ("Scheduler " + m_aResources.getUniqueIdentifier () + " shutdown complete.");
   }
 
+  /**
+   * Wait until all active job run shells are done. Asynchronous jobs may still
+   * be running without occupying a thread of the pool.
+   */
+  private void _waitForActiveJobRunShells ()
+  {
+    synchronized (m_aActiveJobRunShells)
+    {
+      while (!m_aActiveJobRunShells.isEmpty ())
+        try
+        {
+          m_aActiveJobRunShells.wait (100);
+        }
+        catch (final InterruptedException ex)
+        {
+          Thread.currentThread ().interrupt ();
+          return;
+        }
+    }
+  }
+
   /**
    * <p>
    * Reports whether the <code>Scheduler</code> has been shutdown.
@@ -546,6 +609,51 @@ public class QuartzScheduler implements IQuartzScheduler
     return m_aJobMgr.getExecutingJobs ();
   }
 
+  /**
+   * @param jobKey
+   *        The job key to check. May not be <code>null</code>.
+   * @return A list of all currently executing instances of the provided job.
+   *         Never <code>null</code>.
+   */
+  public ICommonsList <IJobExecutionContext> getCurrentlyExecutingJobs (@NonNull final JobKey jobKey)
+  {
+    return m_aJobMgr.getExecutingJobs (jobKey);
+  }
+
+  /**
+   * @param jobKey
+   *        The job key to check. May not be <code>null</code>.
+   * @return The number of currently executing instances of the provided job.
+   */
+  public int getNumberOfCurrentlyExecutingJobs (@NonNull final JobKey jobKey)
+  {
+    return m_aJobMgr.getNumJobsCurrentlyExecuting (jobKey);
+  }
+
+  /**
+   * @param groupName
+   *        The job group to check. May not be <code>null</code>.
+   * @return The number of currently executing jobs of the provided group.
+   */
+  public int getNumberOfCurrentlyExecutingJobsInGroup (@NonNull final String groupName)
+  {
+    return m_aJobMgr.getNumJobsCurrentlyExecutingInGroup (groupName);
+  }
+
+  /**
+   * Invoke the provided consumer for all currently executing jobs, without
+   * creating a copy. Jobs starting or finishing during the iteration may or
+   * may not be visited.
+   *
+   * @param consumer
+   *        The consumer to invoke. May not be <code>null</code>.
+   */
+  public void forEachCurrentlyExecutingJob (@NonNull final Consumer <? super IJobExecutionContext> consumer)
+  {
+    ValueEnforcer.notNull (consumer, "Consumer");
+    m_aJobMgr.forEachExecutingJob (consumer);
+  }
+
   ///////////////////////////////////////////////////////////////////////////
   ///
   /// Scheduling-related Methods
@@ -616,7 +724,7 @@ public class QuartzScheduler implements IQuartzScheduler
 
     m_aResources.getJobStore ().storeJobAndTrigger (jobDetail, trig);
     notifySchedulerListenersJobAdded (jobDetail);
-    notifySchedulerThread (trigger.getNextFireTime ().getTime ());
+    notifySchedulerThread (trig.getNextFireTimeMillis ());
     notifySchedulerListenersSchduled (trigger);
 
     return ft;
@@ -664,7 +772,7 @@ public class QuartzScheduler implements IQuartzScheduler
     }
 
     m_aResources.getJobStore ().storeTrigger (trig, false);
-    notifySchedulerThread (trigger.getNextFireTime ().getTime ());
+    notifySchedulerThread (trig.getNextFireTimeMillis ());
     notifySchedulerListenersSchduled (trigger);
 
     return ft;
@@ -899,7 +1007,7 @@ public class QuartzScheduler implements IQuartzScheduler
 
     if (m_aResources.getJobStore ().replaceTrigger (triggerKey, trig))
     {
-      notifySchedulerThread (newTrigger.getNextFireTime ().getTime ());
+      notifySchedulerThread (trig.getNextFireTimeMillis ());
       notifySchedulerListenersUnscheduled (triggerKey);
       notifySchedulerListenersSchduled (newTrigger);
     }
@@ -953,7 +1061,7 @@ public class QuartzScheduler implements IQuartzScheduler
       }
     }
 
-    notifySchedulerThread (trig.getNextFireTime ().getTime ());
+    notifySchedulerThread (trig.getNextFireTimeMillis ());
     notifySchedulerListenersSchduled (trig);
   }
 
@@ -982,7 +1090,7 @@ public class QuartzScheduler implements IQuartzScheduler
       }
     }
 
-    notifySchedulerThread (trig.getNextFireTime ().getTime ());
+    notifySchedulerThread (trig.getNextFireTimeMillis ());
     notifySchedulerListenersSchduled (trig);
   }
 
@@ -1224,6 +1332,31 @@ public class QuartzScheduler implements IQuartzScheduler
     return m_aResources.getJobStore ().getTriggersForJob (jobKey);
   }
 
+  /**
+   * <p>
+   * Get read-only views of all <code>{@link ITrigger}</code> s that are associated with the
+   * identified <code>{@link com.helger.quartz.IJobDetail}</code>.
+   * </p>
+   */
+  public ICommonsList <? extends ITrigger> getTriggerSnapshotsOfJob (final JobKey jobKey) throws SchedulerException
+  {
+    validateState ();
+
+    return m_aResources.getJobStore ().getTriggerSnapshotsForJob (jobKey);
+  }
+
+  /**
+   * <p>
+   * Get read-only views of all <code>{@link ITrigger}</code> s in the matching groups.
+   * </p>
+   */
+  public ICommonsList <? extends ITrigger> getTriggerSnapshots (final GroupMatcher <TriggerKey> matcher) throws SchedulerException
+  {
+    validateState ();
+
+    return m_aResources.getJobStore ().getTriggerSnapshots (_getOrDefault (matcher));
+  }
+
   /**
    * <p>
    * Get the names of all known <code>{@link com.helger.quartz.ITrigger}</code> groups.
@@ -1262,6 +1395,19 @@ public class QuartzScheduler implements IQuartzScheduler
     return m_aResources.getJobStore ().retrieveJob (jobKey);
   }
 
+  /**
+   * <p>
+   * Get a read-only view of the <code>{@link IJobDetail}</code> for the <code>Job</code> instance
+   * with the given name and group.
+   * </p>
+   */
+  public IJobDetail getJobDetailSnapshot (final JobKey jobKey) throws SchedulerException
+  {
+    validateState ();
+
+    return m_aResources.getJobStore ().retrieveJobSnapshot (jobKey);
+  }
+
   /**
    * <p>
    * Get the <code>{@link ITrigger}</code> instance with the given name and group.
@@ -1274,6 +1420,19 @@ public class QuartzScheduler implements IQuartzScheduler
     return m_aResources.getJobStore ().retrieveTrigger (triggerKey);
   }
 
+  /**
+   * <p>
+   * Get a read-only view of the <code>{@link ITrigger}</code> instance with the given name and
+   * group.
+   * </p>
+   */
+  public ITrigger getTriggerSnapshot (final TriggerKey triggerKey) throws SchedulerException
+  {
+    validateState ();
+
+    return m_aResources.getJobStore ().retrieveTriggerSnapshot (triggerKey);
+  }
+
   /**
    * Determine whether a {@link IJob} with the given identifier already exists within the scheduler.
    *
@@ -1416,6 +1575,7 @@ public class QuartzScheduler implements IQuartzScheduler
     synchronized (m_aInternalJobListeners)
     {
       m_aInternalJobListeners.put (jobListener.getName (), jobListener);
+      m_aInternalListenerRevision.incrementAndGet ();
     }
   }
 
@@ -1431,7 +1591,10 @@ public class QuartzScheduler implements IQuartzScheduler
   {
     synchronized (m_aInternalJobListeners)
     {
-      return (m_aInternalJobListeners.remove (name) != null);
+      if (m_aInternalJobListeners.remove (name) == null)
+        return false;
+      m_aInternalListenerRevision.incrementAndGet ();
+      return true;
     }
   }
 
@@ -1480,6 +1643,7 @@ public class QuartzScheduler implements IQuartzScheduler
     synchronized (m_aInternalTriggerListeners)
     {
       m_aInternalTriggerListeners.put (triggerListener.getName (), triggerListener);
+      m_aInternalListenerRevision.incrementAndGet ();
     }
   }
 
@@ -1495,7 +1659,10 @@ public class QuartzScheduler implements IQuartzScheduler
   {
     synchronized (m_aInternalTriggerListeners)
     {
-      return m_aInternalTriggerListeners.remove (name) != null;
+      if (m_aInternalTriggerListeners.remove (name) == null)
+        return false;
+      m_aInternalListenerRevision.incrementAndGet ();
+      return true;
     }
   }
 
@@ -1540,6 +1707,7 @@ public class QuartzScheduler implements IQuartzScheduler
     synchronized (m_aInternalSchedulerListeners)
     {
       m_aInternalSchedulerListeners.add (schedulerListener);
+      m_aInternalListenerRevision.incrementAndGet ();
     }
   }
 
@@ -1555,7 +1723,10 @@ public class QuartzScheduler implements IQuartzScheduler
   {
     synchronized (m_aInternalSchedulerListeners)
     {
-      return m_aInternalSchedulerListeners.remove (schedulerListener);
+      if (!m_aInternalSchedulerListeners.remove (schedulerListener))
+        return false;
+      m_aInternalListenerRevision.incrementAndGet ();
+      return true;
     }
   }
 
@@ -1573,94 +1744,181 @@ public class QuartzScheduler implements IQuartzScheduler
     }
   }
 
-  protected void notifyJobStoreJobComplete (final IOperableTrigger trigger,
-                                            final IJobDetail detail,
-                                            final ECompletedExecutionInstruction instCode)
+  /**
+   * Register the shell of a job that starts executing. Registered shells are
+   * notified when the scheduler is shutting down. This is lock free and does
+   * not affect the scheduler listeners.
+   *
+   * @param aShell
+   *        The shell to register. May not be <code>null</code>.
+   */
+  void registerActiveJobRunShell (@NonNull final JobRunShell aShell)
   {
-    m_aResources.getJobStore ().triggeredJobComplete (trigger, detail, instCode);
+    m_aActiveJobRunShells.add (aShell);
+    // Started while the shutdown notification was already sent
+    if (m_bShuttingDown)
+      aShell.requestShutdown ();
   }
 
-  protected void notifyJobStoreJobVetoed (final IOperableTrigger trigger,
-                                          final IJobDetail detail,
-                                          final ECompletedExecutionInstruction instCode)
+  /**
+   * Unregister the shell of a job that finished executing. The shell is then
+   * passivated and handed back to the {@link IJobRunShellFactory} for reuse.
+   *
+   * @param aShell
+   *        The shell to unregister. May not be <code>null</code>.
+   */
+  void unregisterActiveJobRunShell (@NonNull final JobRunShell aShell)
   {
-    m_aResources.getJobStore ().triggeredJobComplete (trigger, detail, instCode);
+    if (m_aActiveJobRunShells.remove (aShell))
+    {
+      if (m_bShuttingDown)
+        synchronized (m_aActiveJobRunShells)
+        {
+          m_aActiveJobRunShells.notifyAll ();
+        }
+
+      // The execution is done - the shell may be reused
+      aShell.passivate ();
+      m_aResources.getJobRunShellFactory ().returnJobRunShell (aShell);
+    }
   }
 
-  protected void notifySchedulerThread (final long candidateNewNextFireTime)
+  /**
+   * @return The number of job run shells currently executing a job.
+   */
+  public int getActiveJobRunShellCount ()
   {
-    if (isSignalOnSchedulingChange ())
+    return m_aActiveJobRunShells.size ();
+  }
+
+  /**
+   * Reserve threads of the thread pool for triggers to be acquired. All
+   * scheduler threads (one per job store shard) share the same thread pool, so
+   * the free threads reported by the pool must not be used by more than one
+   * of them.
+   *
+   * @param nAvailable
+   *        The number of free threads as reported by the thread pool.
+   * @param nMax
+   *        The maximum number of threads to reserve.
+   * @return The number of reserved threads. May be 0 if all free threads are
+   *         reserved by other scheduler threads.
+   * @see #releaseThreads(int)
+   */
+  int reserveThreads (final int nAvailable, final int nMax)
+  {
+    synchronized (m_aThreadReservationLock)
     {
-      m_aSignaler.signalSchedulingChange (candidateNewNextFireTime);
+      final int ret = Math.max (0, Math.min (nAvailable - m_nReservedThreads, nMax));
+      m_nReservedThreads += ret;
+      return ret;
     }
   }
 
-  private ICommonsList <ITriggerListener> _buildTriggerListenerList ()
+  /**
+   * Release threads previously reserved via {@link #reserveThreads(int, int)},
+   * after the acquired triggers were handed to the thread pool or released.
+   *
+   * @param nCount
+   *        The number of threads to release.
+   */
+  void releaseThreads (final int nCount)
   {
-    final ICommonsList <ITriggerListener> allListeners = new CommonsLinkedList <> ();
-    allListeners.addAll (getListenerManager ().getTriggerListeners ());
-    allListeners.addAll (getInternalTriggerListeners ());
-
-    return allListeners;
+    synchronized (m_aThreadReservationLock)
+    {
+      m_nReservedThreads -= nCount;
+      m_aThreadReservationLock.notifyAll ();
+    }
   }
 
-  private ICommonsList <IJobListener> _buildJobListenerList ()
+  /**
+   * Wait until another scheduler thread releases its reserved threads, but at
+   * most one second.
+   */
+  void awaitReleasedThreads ()
   {
-    final ICommonsList <IJobListener> allListeners = new CommonsLinkedList <> ();
-    allListeners.addAll (getListenerManager ().getJobListeners ());
-    allListeners.addAll (getInternalJobListeners ());
-
-    return allListeners;
+    synchronized (m_aThreadReservationLock)
+    {
+      if (m_nReservedThreads > 0)
+        try
+        {
+          m_aThreadReservationLock.wait (1000L);
+        }
+        catch (final InterruptedException ignore)
+        {
+          // Only called from the scheduler thread loop, which signals halting
+          // via a flag: re-asserting the interrupt flag would make the next
+          // wait() throw immediately, producing a busy spin.
+        }
+    }
   }
 
-  private ICommonsList <ISchedulerListener> _buildSchedulerListenerList ()
+  protected void notifyJobStoreJobComplete (final IOperableTrigger trigger,
+                                            final IJobDetail detail,
+                                            final ECompletedExecutionInstruction instCode)
   {
-    final ICommonsList <ISchedulerListener> allListeners = new CommonsArrayList <> ();
-    allListeners.addAll (getListenerManager ().getSchedulerListeners ());
-    allListeners.addAll (getInternalSchedulerListeners ());
-
-    return allListeners;
+    m_aResources.getJobStore ().triggeredJobComplete (trigger, detail, instCode);
   }
 
-  private boolean _matchJobListener (final IJobListener listener, final JobKey key)
+  protected void notifyJobStoreJobVetoed (final IOperableTrigger trigger,
+                                          final IJobDetail detail,
+                                          final ECompletedExecutionInstruction instCode)
   {
-    final ICommonsList <IMatcher <JobKey>> matchers = getListenerManager ().getJobListenerMatchers (listener.getName ());
-    if (matchers == null)
-      return true;
+    m_aResources.getJobStore ().triggeredJobComplete (trigger, detail, instCode);
+  }
 
-    for (final IMatcher <JobKey> matcher : matchers)
-      if (matcher.isMatch (key))
-        return true;
-    return false;
+  protected void notifySchedulerThread (final long candidateNewNextFireTime)
+  {
+    if (isSignalOnSchedulingChange ())
+    {
+      m_aSignaler.signalSchedulingChange (candidateNewNextFireTime);
+    }
   }
 
-  private boolean _matchTriggerListener (final ITriggerListener listener, final TriggerKey key)
+  /**
+   * @return The current listener dispatch table. It is rebuilt if any listener
+   *         or matcher changed since it was built. Never <code>null</code>.
+   */
+  @NonNull
+  private ListenerDispatchTable _getListenerDispatchTable ()
   {
-    final ICommonsList <IMatcher <TriggerKey>> matchers = getListenerManager ().getTriggerListenerMatchers (listener.getName ());
-    if (matchers == null)
-      return true;
-    for (final IMatcher <TriggerKey> matcher : matchers)
+    // Read the revisions before the listeners, so that a concurrent change
+    // leads to another rebuild upon the next call
+    final int nManagerRevision = m_aListenerManager.getRevision ();
+    final int nInternalRevision = m_aInternalListenerRevision.get ();
+    ListenerDispatchTable ret = m_aListenerDispatchTable;
+    if (ret == null || !ret.isUpToDate (nManagerRevision, nInternalRevision))
     {
-      if (matcher.isMatch (key))
-        return true;
+      final ICommonsList <IJobListener> aJobListeners = m_aListenerManager.getJobListeners ();
+      aJobListeners.addAll (getInternalJobListeners ());
+      final ICommonsList <ITriggerListener> aTriggerListeners = m_aListenerManager.getTriggerListeners ();
+      aTriggerListeners.addAll (getInternalTriggerListeners ());
+      final ICommonsList <ISchedulerListener> aSchedulerListeners = m_aListenerManager.getSchedulerListeners ();
+      aSchedulerListeners.addAll (getInternalSchedulerListeners ());
+
+      ret = new ListenerDispatchTable (nManagerRevision,
+                                       nInternalRevision,
+                                       m_aListenerManager,
+                                       aJobListeners,
+                                       aTriggerListeners,
+                                       aSchedulerListeners);
+      m_aListenerDispatchTable = ret;
     }
-    return false;
+    return ret;
   }
 
   public boolean notifyTriggerListenersFired (final IJobExecutionContext jec) throws SchedulerException
   {
     boolean vetoedExecution = false;
 
-    // build a list of all trigger listeners that are to be notified...
-    final ICommonsList <ITriggerListener> triggerListeners = _buildTriggerListenerList ();
+    // resolve all trigger listeners that are to be notified...
+    final ITriggerListener [] triggerListeners = _getListenerDispatchTable ().getTriggerListeners (jec.getTrigger ().getKey ());
 
     // notify all trigger listeners in the list
     for (final ITriggerListener tl : triggerListeners)
     {
       try
       {
-        if (!_matchTriggerListener (tl, jec.getTrigger ().getKey ()))
-          continue;
         tl.triggerFired (jec.getTrigger (), jec);
 
         if (tl.vetoJobExecution (jec.getTrigger (), jec))
@@ -1679,16 +1937,14 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifyTriggerListenersMisfired (final ITrigger trigger) throws SchedulerException
   {
-    // build a list of all trigger listeners that are to be notified...
-    final ICommonsList <ITriggerListener> triggerListeners = _buildTriggerListenerList ();
+    // resolve all trigger listeners that are to be notified...
+    final ITriggerListener [] triggerListeners = _getListenerDispatchTable ().getTriggerListeners (trigger.getKey ());
 
     // notify all trigger listeners in the list
     for (final ITriggerListener tl : triggerListeners)
     {
       try
       {
-        if (!_matchTriggerListener (tl, trigger.getKey ()))
-          continue;
         tl.triggerMisfired (trigger);
       }
       catch (final Exception e)
@@ -1701,16 +1957,14 @@ public class QuartzScheduler implements IQuartzScheduler
   public void notifyTriggerListenersComplete (final IJobExecutionContext jec,
                                               final ECompletedExecutionInstruction instCode) throws SchedulerException
   {
-    // build a list of all trigger listeners that are to be notified...
-    final ICommonsList <ITriggerListener> triggerListeners = _buildTriggerListenerList ();
+    // resolve all trigger listeners that are to be notified...
+    final ITriggerListener [] triggerListeners = _getListenerDispatchTable ().getTriggerListeners (jec.getTrigger ().getKey ());
 
     // notify all trigger listeners in the list
     for (final ITriggerListener tl : triggerListeners)
     {
       try
       {
-        if (!_matchTriggerListener (tl, jec.getTrigger ().getKey ()))
-          continue;
         tl.triggerComplete (jec.getTrigger (), jec, instCode);
       }
       catch (final Exception e)
@@ -1722,16 +1976,14 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifyJobListenersToBeExecuted (final IJobExecutionContext jec) throws SchedulerException
   {
-    // build a list of all job listeners that are to be notified...
-    final ICommonsList <IJobListener> jobListeners = _buildJobListenerList ();
+    // resolve all job listeners that are to be notified...
+    final IJobListener [] jobListeners = _getListenerDispatchTable ().getJobListeners (jec.getJobDetail ().getKey ());
 
     // notify all job listeners
     for (final IJobListener jl : jobListeners)
     {
       try
       {
-        if (!_matchJobListener (jl, jec.getJobDetail ().getKey ()))
-          continue;
         jl.jobToBeExecuted (jec);
       }
       catch (final Exception e)
@@ -1743,16 +1995,14 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifyJobListenersWasVetoed (final IJobExecutionContext jec) throws SchedulerException
   {
-    // build a list of all job listeners that are to be notified...
-    final ICommonsList <IJobListener> jobListeners = _buildJobListenerList ();
+    // resolve all job listeners that are to be notified...
+    final IJobListener [] jobListeners = _getListenerDispatchTable ().getJobListeners (jec.getJobDetail ().getKey ());
 
     // notify all job listeners
     for (final IJobListener jl : jobListeners)
     {
       try
       {
-        if (!_matchJobListener (jl, jec.getJobDetail ().getKey ()))
-          continue;
         jl.jobExecutionVetoed (jec);
       }
       catch (final Exception e)
@@ -1765,16 +2015,14 @@ public class QuartzScheduler implements IQuartzScheduler
   public void notifyJobListenersWasExecuted (final IJobExecutionContext jec, final JobExecutionException je)
                                                                                                              throws SchedulerException
   {
-    // build a list of all job listeners that are to be notified...
-    final ICommonsList <IJobListener> jobListeners = _buildJobListenerList ();
+    // resolve all job listeners that are to be notified...
+    final IJobListener [] jobListeners = _getListenerDispatchTable ().getJobListeners (jec.getJobDetail ().getKey ());
 
     // notify all job listeners
     for (final IJobListener jl : jobListeners)
     {
       try
       {
-        if (!_matchJobListener (jl, jec.getJobDetail ().getKey ()))
-          continue;
         jl.jobWasExecuted (jec, je);
       }
       catch (final Exception e)
@@ -1786,8 +2034,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersError (final String msg, final SchedulerException se)
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -1806,8 +2054,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersSchduled (final ITrigger trigger)
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -1825,8 +2073,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersUnscheduled (final TriggerKey triggerKey)
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -1850,8 +2098,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersFinalized (final ITrigger trigger)
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -1870,8 +2118,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersPausedTrigger (final TriggerKey triggerKey)
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -1889,8 +2137,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersPausedTriggers (final String group)
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -1908,8 +2156,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersResumedTrigger (final TriggerKey key)
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -1927,8 +2175,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersResumedTriggers (final String group)
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -1946,8 +2194,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersPausedJob (final JobKey key)
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -1965,8 +2213,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersPausedJobs (final String group)
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -1984,8 +2232,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersResumedJob (final JobKey key)
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -2003,8 +2251,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersResumedJobs (final String group)
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -2022,8 +2270,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersInStandbyMode ()
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -2041,8 +2289,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersStarted ()
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -2060,8 +2308,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersStarting ()
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -2079,8 +2327,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersShutdown ()
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -2098,8 +2346,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersShuttingdown ()
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -2113,12 +2361,25 @@ public class QuartzScheduler implements IQuartzScheduler
         LOGGER.error ("Error while notifying SchedulerListener of shutdown.", e);
       }
     }
+
+    // notify all running jobs
+    for (final JobRunShell aShell : m_aActiveJobRunShells)
+    {
+      try
+      {
+        aShell.schedulerShuttingdown ();
+      }
+      catch (final Exception e)
+      {
+        LOGGER.error ("Error while notifying JobRunShell of shutdown.", e);
+      }
+    }
   }
 
   public void notifySchedulerListenersJobAdded (final IJobDetail jobDetail)
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -2136,8 +2397,8 @@ public class QuartzScheduler implements IQuartzScheduler
 
   public void notifySchedulerListenersJobDeleted (final JobKey jobKey)
   {
-    // build a list of all scheduler listeners that are to be notified...
-    final ICommonsList <ISchedulerListener> schedListeners = _buildSchedulerListenerList ();
+    // get all scheduler listeners that are to be notified...
+    final ISchedulerListener [] schedListeners = _getListenerDispatchTable ().getSchedulerListeners ();
 
     // notify all scheduler listeners
     for (final ISchedulerListener sl : schedListeners)
@@ -2164,6 +2425,37 @@ public class QuartzScheduler implements IQuartzScheduler
     ValueEnforcer.notNull (aFactory, "JobFactory");
     LOGGER.info ("JobFactory set to: " + aFactory.toString ());
     m_aJobFactory = aFactory;
+    // Instances were created by the old factory
+    m_aReusableJobInstances.clear ();
+  }
+
+  /**
+   * Get the job instance to execute a fired trigger. For job classes annotated
+   * with {@link ReusableJobInstance} the instance created by the job factory
+   * for the first fire is reused.
+   *
+   * @param aBundle
+   *        The fired trigger bundle. May not be <code>null</code>.
+   * @param aScheduler
+   *        The scheduler to pass to the job factory. May not be
+   *        <code>null</code>.
+   * @return The job instance to use. Never <code>null</code>.
+   * @throws SchedulerException
+   *         if the job factory failed
+   */
+  @NonNull
+  IJob getJobInstance (@NonNull final TriggerFiredBundle aBundle, @NonNull final IScheduler aScheduler) throws SchedulerException
+  {
+    final Class <? extends IJob> aJobClass = aBundle.getJobDetail ().getJobClass ();
+    if (!REUSABLE_JOB_CLASS.get (aJobClass).booleanValue ())
+      return m_aJobFactory.newJob (aBundle, aScheduler);
+
+    final IJob ret = m_aReusableJobInstances.get (aJobClass);
+    if (ret != null)
+      return ret;
+    final IJob aNewJob = m_aJobFactory.newJob (aBundle, aScheduler);
+    final IJob aOldJob = m_aReusableJobInstances.putIfAbsent (aJobClass, aNewJob);
+    return aOldJob != null ? aOldJob : aNewJob;
   }
 
   public IJobFactory getJobFactory ()
@@ -2183,35 +2475,12 @@ public class QuartzScheduler implements IQuartzScheduler
    */
   public boolean interrupt (final JobKey jobKey) throws UnableToInterruptJobException
   {
-    final ICommonsList <IJobExecutionContext> jobs = getCurrentlyExecutingJobs ();
-
-    IJobDetail jobDetail = null;
-    IJob job = null;
-
-    boolean bInterrupted = false;
+    final ICommonsList <IJobExecutionContext> jobs = m_aJobMgr.getExecutingJobs (jobKey);
 
     for (final IJobExecutionContext jec : jobs)
-    {
-      jobDetail = jec.getJobDetail ();
-      if (jobKey.equals (jobDetail.getKey ()))
-      {
-        job = jec.getJobInstance ();
-        if (job instanceof final IInterruptableJob aInterruptableJob)
-        {
-          aInterruptableJob.interrupt ();
-          bInterrupted = true;
-        }
-        else
-        {
-          throw new UnableToInterruptJobException ("Job " +
-                                                   jobDetail.getKey () +
-                                                   " can not be interrupted, since it does not implement " +
-                                                   IInterruptableJob.class.getName ());
-        }
-      }
-    }
+      _interruptJob (jec);
 
-    return bInterrupted;
+    return jobs.isNotEmpty ();
   }
 
   /**
@@ -2225,28 +2494,40 @@ public class QuartzScheduler implements IQuartzScheduler
    */
   public boolean interrupt (final String fireInstanceId) throws UnableToInterruptJobException
   {
-    final ICommonsList <IJobExecutionContext> jobs = getCurrentlyExecutingJobs ();
+    final IJobExecutionContext jec = m_aJobMgr.getExecutingJob (fireInstanceId);
+    if (jec == null)
+      return false;
 
-    IJob job = null;
+    _interruptJob (jec);
+    return true;
+  }
 
-    for (final IJobExecutionContext jec : jobs)
+  /**
+   * Interrupt a single executing job. An {@link IInterruptableJob} is
+   * interrupted, the pending future of any other {@link IAsyncJob} is
+   * cancelled.
+   */
+  private static void _interruptJob (@NonNull final IJobExecutionContext jec) throws UnableToInterruptJobException
+  {
+    final IJob job = jec.getJobInstance ();
+    if (job instanceof final IInterruptableJob aInterruptableJob)
     {
-      if (jec.getFireInstanceId ().equals (fireInstanceId))
+      aInterruptableJob.interrupt ();
+      return;
+    }
+    if (job instanceof IAsyncJob && jec instanceof final JobExecutionContext aJEC)
+    {
+      final CompletableFuture <?> aFuture = aJEC.getPendingAsyncResult ();
+      if (aFuture != null)
       {
-        job = jec.getJobInstance ();
-        if (job instanceof final IInterruptableJob aInterruptableJob)
-        {
-          aInterruptableJob.interrupt ();
-          return true;
-        }
-        throw new UnableToInterruptJobException ("Job " +
-                                                 jec.getJobDetail ().getKey () +
-                                                 " can not be interrupted, since it does not implement " +
-                                                 IInterruptableJob.class.getName ());
+        aFuture.cancel (true);
+        return;
       }
     }
-
-    return false;
+    throw new UnableToInterruptJobException ("Job " +
+                                             jec.getJobDetail ().getKey () +
+                                             " can not be interrupted, since it does not implement " +
+                                             IInterruptableJob.class.getName ());
   }
 
   private void _shutdownPlugins ()
@@ -2276,7 +2557,11 @@ class ErrorLogger implements ISchedulerListener
 
 class ExecutingJobsManager implements IJobListener
 {
-  private final ICommonsMap <String, IJobExecutionContext> m_aExecutingJobs = new CommonsHashMap <> ();
+  // Key: fire instance ID
+  private final Map <String, IJobExecutionContext> m_aExecutingJobs = new ConcurrentHashMap <> ();
+  // Secondary index - key: job key; value: map from fire instance ID
+  private final Map <JobKey, Map <String, IJobExecutionContext>> m_aExecutingJobsByKey = new ConcurrentHashMap <> ();
+  private final Map <String, AtomicInteger> m_aExecutingJobsPerGroup = new ConcurrentHashMap <> ();
   private final AtomicInteger m_aNumJobsFired = new AtomicInteger (0);
 
   ExecutingJobsManager ()
@@ -2289,10 +2574,19 @@ class ExecutingJobsManager implements IJobListener
 
   public int getNumJobsCurrentlyExecuting ()
   {
-    synchronized (m_aExecutingJobs)
-    {
-      return m_aExecutingJobs.size ();
-    }
+    return m_aExecutingJobs.size ();
+  }
+
+  public int getNumJobsCurrentlyExecuting (@NonNull final JobKey aJobKey)
+  {
+    final Map <String, IJobExecutionContext> aMap = m_aExecutingJobsByKey.get (aJobKey);
+    return aMap == null ? 0 : aMap.size ();
+  }
+
+  public int getNumJobsCurrentlyExecutingInGroup (@NonNull final String sGroup)
+  {
+    final AtomicInteger aCount = m_aExecutingJobsPerGroup.get (sGroup);
+    return aCount == null ? 0 : aCount.get ();
   }
 
   @Override
@@ -2300,18 +2594,34 @@ class ExecutingJobsManager implements IJobListener
   {
     m_aNumJobsFired.incrementAndGet ();
 
-    synchronized (m_aExecutingJobs)
+    final String sFireInstanceId = ((IOperableTrigger) context.getTrigger ()).getFireInstanceId ();
+    // A refire of the same context is already contained
+    if (m_aExecutingJobs.put (sFireInstanceId, context) == null)
     {
-      m_aExecutingJobs.put (((IOperableTrigger) context.getTrigger ()).getFireInstanceId (), context);
+      final JobKey aJobKey = context.getJobDetail ().getKey ();
+      m_aExecutingJobsByKey.compute (aJobKey, (k, v) -> {
+        final Map <String, IJobExecutionContext> ret = v != null ? v : new ConcurrentHashMap <> ();
+        ret.put (sFireInstanceId, context);
+        return ret;
+      });
+      m_aExecutingJobsPerGroup.computeIfAbsent (aJobKey.getGroup (), k -> new AtomicInteger ()).incrementAndGet ();
     }
   }
 
   @Override
   public void jobWasExecuted (final IJobExecutionContext context, final JobExecutionException jobException)
   {
-    synchronized (m_aExecutingJobs)
+    final String sFireInstanceId = ((IOperableTrigger) context.getTrigger ()).getFireInstanceId ();
+    if (m_aExecutingJobs.remove (sFireInstanceId) != null)
     {
-      m_aExecutingJobs.remove (((IOperableTrigger) context.getTrigger ()).getFireInstanceId ());
+      final JobKey aJobKey = context.getJobDetail ().getKey ();
+      m_aExecutingJobsByKey.computeIfPresent (aJobKey, (k, v) -> {
+        v.remove (sFireInstanceId);
+        return v.isEmpty () ? null : v;
+      });
+      final AtomicInteger aCount = m_aExecutingJobsPerGroup.get (aJobKey.getGroup ());
+      if (aCount != null)
+        aCount.decrementAndGet ();
     }
   }
 
@@ -2320,12 +2630,35 @@ class ExecutingJobsManager implements IJobListener
     return m_aNumJobsFired.get ();
   }
 
+  @NonNull
+  @ReturnsMutableCopy
   public ICommonsList <IJobExecutionContext> getExecutingJobs ()
   {
-    synchronized (m_aExecutingJobs)
-    {
-      return new CommonsArrayList <> (m_aExecutingJobs.values ());
-    }
+    return new CommonsArrayList <> (m_aExecutingJobs.values ());
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <IJobExecutionContext> getExecutingJobs (@NonNull final JobKey aJobKey)
+  {
+    final Map <String, IJobExecutionContext> aMap = m_aExecutingJobsByKey.get (aJobKey);
+    return aMap == null ? new CommonsArrayList <> () : new CommonsArrayList <> (aMap.values ());
+  }
+
+  @Nullable
+  public IJobExecutionContext getExecutingJob (@NonNull final String sFireInstanceId)
+  {
+    return m_aExecutingJobs.get (sFireInstanceId);
+  }
+
+  /**
+   * Iterate all executing jobs without copying. The iteration is weakly
+   * consistent: jobs starting or finishing concurrently may or may not be
+   * visited.
+   */
+  public void forEachExecutingJob (@NonNull final Consumer <? super IJobExecutionContext> aConsumer)
+  {
+    m_aExecutingJobs.values ().forEach (aConsumer);
   }
 
   @Override
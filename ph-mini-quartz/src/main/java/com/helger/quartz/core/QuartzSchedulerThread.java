@@ -22,11 +22,16 @@ import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsLinkedHashMap;
 import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.quartz.IBatchJob;
 import com.helger.quartz.ITrigger;
 import com.helger.quartz.JobPersistenceException;
 import com.helger.quartz.SchedulerException;
@@ -49,6 +54,7 @@ public class QuartzSchedulerThread extends Thread
 
   private QuartzScheduler m_aQS;
   private QuartzSchedulerResources m_aQSRsrcs;
+  private final int m_nShardID;
   private final Object m_aSigLock = new Object ();
   private boolean m_bSignaled;
   private long m_nSignaledNextFireTime;
@@ -66,7 +72,17 @@ public class QuartzSchedulerThread extends Thread
    */
   QuartzSchedulerThread (final QuartzScheduler qs, final QuartzSchedulerResources qsRsrcs)
   {
-    this (qs, qsRsrcs, qsRsrcs.getMakeSchedulerThreadDaemon (), Thread.NORM_PRIORITY);
+    this (qs, qsRsrcs, 0);
+  }
+
+  /**
+   * Construct a new <code>QuartzSchedulerThread</code> for the given <code>QuartzScheduler</code>
+   * that only fires the triggers of the provided job store shard, as a non-daemon
+   * <code>Thread</code> with normal priority.
+   */
+  QuartzSchedulerThread (final QuartzScheduler qs, final QuartzSchedulerResources qsRsrcs, final int nShardID)
+  {
+    this (qs, qsRsrcs, qsRsrcs.getMakeSchedulerThreadDaemon (), Thread.NORM_PRIORITY, nShardID);
   }
 
   /**
@@ -78,9 +94,25 @@ public class QuartzSchedulerThread extends Thread
                          final boolean setDaemon,
                          final int threadPrio)
   {
-    super (qs.getSchedulerThreadGroup (), qsRsrcs.getThreadName ());
+    this (qs, qsRsrcs, setDaemon, threadPrio, 0);
+  }
+
+  /**
+   * Construct a new <code>QuartzSchedulerThread</code> for the given <code>QuartzScheduler</code>
+   * that only fires the triggers of the provided job store shard, as a <code>Thread</code> with
+   * the given attributes.
+   */
+  QuartzSchedulerThread (final QuartzScheduler qs,
+                         final QuartzSchedulerResources qsRsrcs,
+                         final boolean setDaemon,
+                         final int threadPrio,
+                         final int nShardID)
+  {
+    super (qs.getSchedulerThreadGroup (),
+           nShardID == 0 ? qsRsrcs.getThreadName () : qsRsrcs.getThreadName () + "-" + nShardID);
     m_aQS = qs;
     m_aQSRsrcs = qsRsrcs;
+    m_nShardID = nShardID;
     setDaemon (setDaemon);
     if (qsRsrcs.isThreadsInheritInitializersClassLoadContext ())
     {
@@ -182,6 +214,16 @@ public class QuartzSchedulerThread extends Thread
     return m_bPaused;
   }
 
+  /**
+   * @return The ID of the job store shard this thread fires the triggers of. 0 if the job store is
+   *         not sharded.
+   * @see com.helger.quartz.spi.IJobStore#getShardCount()
+   */
+  public int getShardID ()
+  {
+    return m_nShardID;
+  }
+
   /**
    * <p>
    * Signals the main processing loop that a change in scheduling has been made - in order to
@@ -269,180 +311,214 @@ public class QuartzSchedulerThread extends Thread
         }
 
         final int availThreadCount = m_aQSRsrcs.getThreadPool ().blockForAvailableThreads ();
-        if (availThreadCount > 0)
-        { // will always be true, due to semantics of
-          // blockForAvailableThreads...
+        // All shards share the thread pool, so only acquire triggers for the
+        // threads that no other shard reserved
+        final int nReservedThreads = availThreadCount > 0 ? m_aQS.reserveThreads (availThreadCount,
+                                                                                   m_aQSRsrcs.getMaxBatchSize ())
+                                                           : 0;
+        if (nReservedThreads > 0)
+        {
+          // The number of threads currently reserved by this shard
+          int nHeldThreads = nReservedThreads;
+          try
+          {
 
-          ICommonsList <IOperableTrigger> triggers = null;
+            ICommonsList <IOperableTrigger> triggers = null;
 
-          long now = System.currentTimeMillis ();
+            long now = System.currentTimeMillis ();
 
-          clearSignaledSchedulingChange ();
-          try
-          {
-            triggers = m_aQSRsrcs.getJobStore ()
-                                 .acquireNextTriggers (now + m_nIdleWaitTime,
-                                                       Math.min (availThreadCount, m_aQSRsrcs.getMaxBatchSize ()),
-                                                       m_aQSRsrcs.getBatchTimeWindow ());
-            lastAcquireFailed = false;
-            if (LOGGER.isDebugEnabled ())
-              LOGGER.debug ("batch acquisition of " + (triggers == null ? 0 : triggers.size ()) + " triggers");
-          }
-          catch (final JobPersistenceException jpe)
-          {
-            if (!lastAcquireFailed)
+            clearSignaledSchedulingChange ();
+            try
             {
-              m_aQS.notifySchedulerListenersError ("An error occurred while scanning for the next triggers to fire.",
-                                                   jpe);
+              triggers = m_aQSRsrcs.getJobStore ()
+                                   .acquireNextTriggers (m_nShardID,
+                                                         now + m_nIdleWaitTime,
+                                                         nReservedThreads,
+                                                         m_aQSRsrcs.getBatchTimeWindow ());
+              lastAcquireFailed = false;
+              if (LOGGER.isDebugEnabled ())
+                LOGGER.debug ("batch acquisition of " + (triggers == null ? 0 : triggers.size ()) + " triggers");
             }
-            lastAcquireFailed = true;
-            continue;
-          }
-          catch (final RuntimeException e)
-          {
-            if (!lastAcquireFailed)
+            catch (final JobPersistenceException jpe)
             {
-              LOGGER.error ("quartzSchedulerThreadLoop: RuntimeException " + e.getMessage (), e);
+              if (!lastAcquireFailed)
+              {
+                m_aQS.notifySchedulerListenersError ("An error occurred while scanning for the next triggers to fire.",
+                                                     jpe);
+              }
+              lastAcquireFailed = true;
+              continue;
+            }
+            catch (final RuntimeException e)
+            {
+              if (!lastAcquireFailed)
+              {
+                LOGGER.error ("quartzSchedulerThreadLoop: RuntimeException " + e.getMessage (), e);
+              }
+              lastAcquireFailed = true;
+              continue;
             }
-            lastAcquireFailed = true;
-            continue;
-          }
-
-          if (triggers != null && !triggers.isEmpty ())
-          {
 
-            now = System.currentTimeMillis ();
-            final long triggerTime = triggers.get (0).getNextFireTime ().getTime ();
-            long timeUntilTrigger = triggerTime - now;
-            while (timeUntilTrigger > 2)
+            if (triggers != null && !triggers.isEmpty ())
             {
-              synchronized (m_aSigLock)
+
+              now = System.currentTimeMillis ();
+              final long triggerTime = triggers.get (0).getNextFireTimeMillis ();
+              long timeUntilTrigger = triggerTime - now;
+              if (timeUntilTrigger > 2)
               {
-                if (m_aHalted.get ())
-                {
-                  break;
-                }
-                if (!_isCandidateNewTimeEarlierWithinReason (triggerTime, false))
+                // Don't block the other shards while waiting
+                m_aQS.releaseThreads (nHeldThreads);
+                nHeldThreads = 0;
+              }
+              while (timeUntilTrigger > 2)
+              {
+                synchronized (m_aSigLock)
                 {
-                  try
+                  if (m_aHalted.get ())
                   {
-                    // we could have blocked a long while
-                    // on 'synchronize', so we must recompute
-                    now = System.currentTimeMillis ();
-                    timeUntilTrigger = triggerTime - now;
-                    if (timeUntilTrigger >= 1)
-                      m_aSigLock.wait (timeUntilTrigger);
+                    break;
                   }
-                  catch (final InterruptedException ignore)
+                  if (!_isCandidateNewTimeEarlierWithinReason (triggerTime, false))
                   {
-                    // See the comment on the paused-wait catch above:
-                    // do not re-assert the interrupt flag here.
+                    try
+                    {
+                      // we could have blocked a long while
+                      // on 'synchronize', so we must recompute
+                      now = System.currentTimeMillis ();
+                      timeUntilTrigger = triggerTime - now;
+                      if (timeUntilTrigger >= 1)
+                        m_aSigLock.wait (timeUntilTrigger);
+                    }
+                    catch (final InterruptedException ignore)
+                    {
+                      // See the comment on the paused-wait catch above:
+                      // do not re-assert the interrupt flag here.
+                    }
                   }
                 }
+                if (_releaseIfScheduleChangedSignificantly (triggers, triggerTime))
+                {
+                  break;
+                }
+                now = System.currentTimeMillis ();
+                timeUntilTrigger = triggerTime - now;
               }
-              if (_releaseIfScheduleChangedSignificantly (triggers, triggerTime))
+
+              // this happens if releaseIfScheduleChangedSignificantly decided to
+              // release triggers
+              if (triggers.isEmpty ())
+                continue;
+
+              if (nHeldThreads == 0 && !m_aHalted.get ())
               {
-                break;
+                // Reserve the threads again - triggers without a thread are
+                // released
+                final int nAvail = m_aQSRsrcs.getThreadPool ().blockForAvailableThreads ();
+                nHeldThreads = m_aQS.reserveThreads (nAvail, triggers.size ());
+                while (triggers.size () > nHeldThreads)
+                  m_aQSRsrcs.getJobStore ().releaseAcquiredTrigger (triggers.remove (triggers.size () - 1));
+                if (triggers.isEmpty ())
+                  continue;
               }
-              now = System.currentTimeMillis ();
-              timeUntilTrigger = triggerTime - now;
-            }
-
-            // this happens if releaseIfScheduleChangedSignificantly decided to
-            // release triggers
-            if (triggers.isEmpty ())
-              continue;
 
-            // set triggers to 'executing'
-            ICommonsList <TriggerFiredResult> bndles = new CommonsArrayList <> ();
+              // set triggers to 'executing'
+              ICommonsList <TriggerFiredResult> bndles = new CommonsArrayList <> ();
 
-            boolean goAhead = true;
-            synchronized (m_aSigLock)
-            {
-              goAhead = !m_aHalted.get ();
-            }
-            if (goAhead)
-            {
-              try
+              boolean goAhead = true;
+              synchronized (m_aSigLock)
               {
-                final ICommonsList <TriggerFiredResult> res = m_aQSRsrcs.getJobStore ().triggersFired (triggers);
-                if (res != null)
-                  bndles = res;
+                goAhead = !m_aHalted.get ();
               }
-              catch (final SchedulerException se)
+              if (goAhead)
               {
-                m_aQS.notifySchedulerListenersError ("An error occurred while firing triggers '" + triggers + "'", se);
-                // QTZ-179 : a problem occurred interacting with the triggers
-                // from the db
-                // we release them and loop again
-                for (final IOperableTrigger trigger : triggers)
+                try
                 {
-                  m_aQSRsrcs.getJobStore ().releaseAcquiredTrigger (trigger);
+                  final ICommonsList <TriggerFiredResult> res = m_aQSRsrcs.getJobStore ().triggersFired (triggers);
+                  if (res != null)
+                    bndles = res;
+                }
+                catch (final SchedulerException se)
+                {
+                  m_aQS.notifySchedulerListenersError ("An error occurred while firing triggers '" + triggers + "'", se);
+                  // QTZ-179 : a problem occurred interacting with the triggers
+                  // from the db
+                  // we release them and loop again
+                  for (final IOperableTrigger trigger : triggers)
+                  {
+                    m_aQSRsrcs.getJobStore ().releaseAcquiredTrigger (trigger);
+                  }
+                  continue;
                 }
-                continue;
-              }
 
-            }
+              }
 
-            for (int i = 0; i < bndles.size (); i++)
-            {
-              final TriggerFiredResult result = bndles.get (i);
-              final TriggerFiredBundle bndle = result.getTriggerFiredBundle ();
-              final Exception exception = result.getException ();
+              // Fires of batch jobs are grouped by job class
+              final ICommonsMap <Class <?>, ICommonsList <Integer>> aBatchIndices = _getBatchJobIndices (bndles);
 
-              if (exception instanceof RuntimeException)
+              for (int i = 0; i < bndles.size (); i++)
               {
-                LOGGER.error ("RuntimeException while firing trigger " + triggers.get (i), exception);
-                m_aQSRsrcs.getJobStore ().releaseAcquiredTrigger (triggers.get (i));
-                continue;
-              }
+                final TriggerFiredResult result = bndles.get (i);
+                final TriggerFiredBundle bndle = result.getTriggerFiredBundle ();
+                final Exception exception = result.getException ();
 
-              // it's possible to get 'null' if the triggers was paused,
-              // blocked, or other similar occurrences that prevent it being
-              // fired at this time... or if the scheduler was shutdown (halted)
-              if (bndle == null)
-              {
-                m_aQSRsrcs.getJobStore ().releaseAcquiredTrigger (triggers.get (i));
-                continue;
-              }
+                if (exception instanceof RuntimeException)
+                {
+                  LOGGER.error ("RuntimeException while firing trigger " + triggers.get (i), exception);
+                  m_aQSRsrcs.getJobStore ().releaseAcquiredTrigger (triggers.get (i));
+                  continue;
+                }
 
-              JobRunShell shell = null;
-              try
-              {
-                shell = m_aQSRsrcs.getJobRunShellFactory ().createJobRunShell (bndle);
-                shell.initialize (m_aQS);
-              }
-              catch (final SchedulerException se)
-              {
-                m_aQSRsrcs.getJobStore ()
-                          .triggeredJobComplete (triggers.get (i),
-                                                 bndle.getJobDetail (),
-                                                 ITrigger.ECompletedExecutionInstruction.SET_ALL_JOB_TRIGGERS_ERROR);
-                continue;
-              }
+                // it's possible to get 'null' if the triggers was paused,
+                // blocked, or other similar occurrences that prevent it being
+                // fired at this time... or if the scheduler was shutdown (halted)
+                if (bndle == null)
+                {
+                  m_aQSRsrcs.getJobStore ().releaseAcquiredTrigger (triggers.get (i));
+                  continue;
+                }
 
-              if (!m_aQSRsrcs.getThreadPool ().runInThread (shell))
-              {
-                // this case should never happen, as it is indicative of the
-                // scheduler being shutdown or a bug in the thread pool or
-                // a thread pool being used concurrently - which the docs
-                // say not to do...
-                LOGGER.error ("ThreadPool.runInThread() return false!");
-                m_aQSRsrcs.getJobStore ()
-                          .triggeredJobComplete (triggers.get (i),
-                                                 bndle.getJobDetail (),
-                                                 ITrigger.ECompletedExecutionInstruction.SET_ALL_JOB_TRIGGERS_ERROR);
+                // Run later as part of the batch
+                if (aBatchIndices != null && aBatchIndices.containsKey (bndle.getJobDetail ().getJobClass ()))
+                  continue;
+
+                JobRunShell shell = null;
+                try
+                {
+                  shell = m_aQSRsrcs.getJobRunShellFactory ().createJobRunShell (bndle);
+                  shell.initialize (m_aQS);
+                }
+                catch (final SchedulerException se)
+                {
+                  m_aQSRsrcs.getJobStore ()
+                            .triggeredJobComplete (triggers.get (i),
+                                                   bndle.getJobDetail (),
+                                                   ITrigger.ECompletedExecutionInstruction.SET_ALL_JOB_TRIGGERS_ERROR);
+                  continue;
+                }
+
+                _runInThread (shell, triggers.get (i), bndle);
               }
 
-            }
+              if (aBatchIndices != null)
+                for (final ICommonsList <Integer> aIndices : aBatchIndices.values ())
+                  _runBatch (triggers, bndles, aIndices);
 
-            continue; // while (!halted)
+              continue; // while (!halted)
+            }
+          }
+          finally
+          {
+            // The acquired triggers were handed to the thread pool or released
+            m_aQS.releaseThreads (nHeldThreads);
           }
         }
         else
-        { // if(availThreadCount > 0)
-          // should never happen, if threadPool.blockForAvailableThreads()
-          // follows contract
+        { // if(nReservedThreads > 0)
+          // All free threads are reserved by other shards - or the thread
+          // pool is shut down
+          if (availThreadCount > 0)
+            m_aQS.awaitReleasedThreads ();
           continue; // while (!halted)
         }
 
@@ -497,6 +573,114 @@ public class QuartzSchedulerThread extends Thread
     m_aQSRsrcs = null;
   }
 
+  /**
+   * Find all fired bundles of {@link IBatchJob}s, of which more than one fired
+   * for the same job class.
+   *
+   * @return The indices of these bundles grouped by job class or
+   *         <code>null</code> if there are none.
+   */
+  @Nullable
+  private static ICommonsMap <Class <?>, ICommonsList <Integer>> _getBatchJobIndices (@NonNull final List <TriggerFiredResult> aResults)
+  {
+    ICommonsMap <Class <?>, ICommonsList <Integer>> ret = null;
+    for (int i = 0; i < aResults.size (); i++)
+    {
+      final TriggerFiredBundle aBundle = aResults.get (i).getTriggerFiredBundle ();
+      if (aBundle != null && aResults.get (i).getException () == null)
+      {
+        final Class <?> aJobClass = aBundle.getJobDetail ().getJobClass ();
+        if (IBatchJob.class.isAssignableFrom (aJobClass))
+        {
+          if (ret == null)
+            ret = new CommonsLinkedHashMap <> ();
+          ret.computeIfAbsent (aJobClass, k -> new CommonsArrayList <> ()).add (Integer.valueOf (i));
+        }
+      }
+    }
+    if (ret != null)
+      ret.values ().removeIf (x -> x.size () < 2);
+    return ret == null || ret.isEmpty () ? null : ret;
+  }
+
+  private void _runInThread (@NonNull final Runnable aRunnable,
+                             @NonNull final IOperableTrigger aTrigger,
+                             @NonNull final TriggerFiredBundle aBundle)
+  {
+    if (!m_aQSRsrcs.getThreadPool ().runInThread (aRunnable))
+    {
+      // this case should never happen, as it is indicative of the
+      // scheduler being shutdown or a bug in the thread pool. The scheduler
+      // threads of all shards share the thread pool, but they only acquire
+      // triggers for the threads reserved via QuartzScheduler.reserveThreads
+      LOGGER.error ("ThreadPool.runInThread() return false!");
+      m_aQSRsrcs.getJobStore ()
+                .triggeredJobComplete (aTrigger,
+                                       aBundle.getJobDetail (),
+                                       ITrigger.ECompletedExecutionInstruction.SET_ALL_JOB_TRIGGERS_ERROR);
+    }
+  }
+
+  /**
+   * Run all fires of the same {@link IBatchJob} class with a single job
+   * instance in a single thread.
+   */
+  private void _runBatch (@NonNull final List <IOperableTrigger> aTriggers,
+                          @NonNull final List <TriggerFiredResult> aResults,
+                          @NonNull final ICommonsList <Integer> aIndices)
+  {
+    final ICommonsList <JobRunShell> aShells = new CommonsArrayList <> (aIndices.size ());
+    IBatchJob aJob = null;
+    for (final Integer aIndex : aIndices)
+    {
+      final int i = aIndex.intValue ();
+      final TriggerFiredBundle aBundle = aResults.get (i).getTriggerFiredBundle ();
+      try
+      {
+        final JobRunShell aShell = m_aQSRsrcs.getJobRunShellFactory ().createJobRunShell (aBundle);
+        if (aJob == null)
+        {
+          // The first shell creates the shared job instance
+          aShell.initialize (m_aQS);
+          if (aShell.getJobInstance () instanceof final IBatchJob aBatchJob)
+            aJob = aBatchJob;
+          else
+          {
+            // Job factory created something else - run on its own
+            _runInThread (aShell, aTriggers.get (i), aBundle);
+            continue;
+          }
+        }
+        else
+          aShell.initialize (m_aQS, aJob);
+        aShells.add (aShell);
+      }
+      catch (final SchedulerException se)
+      {
+        m_aQSRsrcs.getJobStore ()
+                  .triggeredJobComplete (aTriggers.get (i),
+                                         aBundle.getJobDetail (),
+                                         ITrigger.ECompletedExecutionInstruction.SET_ALL_JOB_TRIGGERS_ERROR);
+      }
+    }
+
+    if (aShells.isEmpty ())
+      return;
+
+    if (!m_aQSRsrcs.getThreadPool ().runInThread (new BatchJobRunShell (aJob, aShells)))
+    {
+      LOGGER.error ("ThreadPool.runInThread() return false!");
+      for (final JobRunShell aShell : aShells)
+      {
+        final TriggerFiredBundle aBundle = aShell.m_aFiredTriggerBundle;
+        m_aQSRsrcs.getJobStore ()
+                  .triggeredJobComplete (aBundle.getTrigger (),
+                                         aBundle.getJobDetail (),
+                                         ITrigger.ECompletedExecutionInstruction.SET_ALL_JOB_TRIGGERS_ERROR);
+      }
+    }
+  }
+
   private boolean _releaseIfScheduleChangedSignificantly (final List <IOperableTrigger> triggers,
                                                           final long triggerTime)
   {
@@ -21,6 +21,8 @@ package com.helger.quartz.core;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
 import com.helger.quartz.ITrigger;
 import com.helger.quartz.JobKey;
 import com.helger.quartz.SchedulerException;
@@ -37,12 +39,17 @@ public class SchedulerSignaler implements ISchedulerSignaler
   private static final Logger LOGGER = LoggerFactory.getLogger (SchedulerSignaler.class);
 
   protected QuartzScheduler m_aScheduler;
-  protected QuartzSchedulerThread m_aSchedulerThread;
+  protected ICommonsList <QuartzSchedulerThread> m_aSchedulerThreads;
 
   public SchedulerSignaler (final QuartzScheduler sched, final QuartzSchedulerThread schedThread)
+  {
+    this (sched, new CommonsArrayList <> (schedThread));
+  }
+
+  public SchedulerSignaler (final QuartzScheduler sched, final ICommonsList <QuartzSchedulerThread> schedThreads)
   {
     m_aScheduler = sched;
-    m_aSchedulerThread = schedThread;
+    m_aSchedulerThreads = schedThreads;
 
     LOGGER.info ("Initialized Scheduler Signaller of type: " + getClass ());
   }
@@ -67,7 +74,10 @@ public class SchedulerSignaler implements ISchedulerSignaler
 
   public void signalSchedulingChange (final long candidateNewNextFireTime)
   {
-    m_aSchedulerThread.signalSchedulingChange (candidateNewNextFireTime);
+    // The shard of the changed trigger is not known, so all scheduler threads
+    // are signaled
+    for (final QuartzSchedulerThread aThread : m_aSchedulerThreads)
+      aThread.signalSchedulingChange (candidateNewNextFireTime);
   }
 
   public void notifySchedulerListenersJobDeleted (final JobKey jobKey)
@@ -31,6 +31,7 @@ import com.helger.quartz.IScheduler;
 import com.helger.quartz.JobBuilder;
 import com.helger.quartz.JobDataMap;
 import com.helger.quartz.JobKey;
+import com.helger.quartz.KeyInterner;
 import com.helger.quartz.PersistJobDataAfterExecution;
 import com.helger.quartz.QCloneUtils;
 import com.helger.quartz.utils.ClassUtils;
@@ -145,7 +146,10 @@ public class JobDetail implements IJobDetail
     if (group == null)
       m_sGroup = IScheduler.DEFAULT_GROUP;
     else
-      m_sGroup = group;
+    {
+      // Groups are few but shared by many jobs
+      m_sGroup = KeyInterner.internGroup (group);
+    }
     m_aKey = null;
   }
 
@@ -178,7 +182,7 @@ public class JobDetail implements IJobDetail
 
     setName (key.getName ());
     setGroup (key.getGroup ());
-    m_aKey = key;
+    m_aKey = KeyInterner.intern (key);
   }
 
   public final String getDescription ()
@@ -0,0 +1,157 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.impl;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.quartz.IJob;
+import com.helger.quartz.IJobDetail;
+import com.helger.quartz.JobBuilder;
+import com.helger.quartz.JobDataMap;
+import com.helger.quartz.JobKey;
+import com.helger.quartz.QCloneUtils;
+
+/**
+ * A read-only {@link IJobDetail} that is handed out by the job store instead of
+ * a deep clone of the stored job detail. Job stores never modify a stored job
+ * detail but replace it as a whole, so this view is stable.
+ * <p>
+ * {@link #getJobDataMap()} returns a private copy of the stored map that is
+ * created on first access, and {@link #getClone()} returns a fully mutable job
+ * detail that can be re-stored via
+ * {@link com.helger.quartz.IScheduler#addJob(IJobDetail, boolean)}.
+ * </p>
+ *
+ * @see com.helger.quartz.spi.IJobStore#retrieveJobSnapshot(JobKey)
+ * @author Philip Helger
+ */
+@ThreadSafe
+public final class JobDetailSnapshot implements IJobDetail
+{
+  private final IJobDetail m_aJobDetail;
+  private JobDataMap m_aJobDataMap;
+
+  /**
+   * Constructor.
+   *
+   * @param aJobDetail
+   *        The stored job detail to wrap. May not be <code>null</code>.
+   */
+  public JobDetailSnapshot (@NonNull final IJobDetail aJobDetail)
+  {
+    ValueEnforcer.notNull (aJobDetail, "JobDetail");
+    m_aJobDetail = aJobDetail;
+  }
+
+  @Nullable
+  public JobKey getKey ()
+  {
+    return m_aJobDetail.getKey ();
+  }
+
+  @Nullable
+  public String getDescription ()
+  {
+    return m_aJobDetail.getDescription ();
+  }
+
+  public Class <? extends IJob> getJobClass ()
+  {
+    return m_aJobDetail.getJobClass ();
+  }
+
+  /**
+   * @return A private copy of the job data map of the stored job detail,
+   *         created on first access. Modifications are not reflected in the job
+   *         store.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public synchronized JobDataMap getJobDataMap ()
+  {
+    if (m_aJobDataMap == null)
+      m_aJobDataMap = QCloneUtils.getClone (m_aJobDetail.getJobDataMap ());
+    return m_aJobDataMap;
+  }
+
+  public boolean isDurable ()
+  {
+    return m_aJobDetail.isDurable ();
+  }
+
+  public boolean isPersistJobDataAfterExecution ()
+  {
+    return m_aJobDetail.isPersistJobDataAfterExecution ();
+  }
+
+  public boolean isConcurrentExectionDisallowed ()
+  {
+    return m_aJobDetail.isConcurrentExectionDisallowed ();
+  }
+
+  public boolean requestsRecovery ()
+  {
+    return m_aJobDetail.requestsRecovery ();
+  }
+
+  public JobBuilder getJobBuilder ()
+  {
+    // JobBuilder copies the job data map
+    return m_aJobDetail.getJobBuilder ();
+  }
+
+  /**
+   * @return A new mutable deep copy of the stored job detail. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public IJobDetail getClone ()
+  {
+    return m_aJobDetail.getClone ();
+  }
+
+  @Override
+  public boolean equals (final Object o)
+  {
+    if (o == this)
+      return true;
+    if (o == null || !getClass ().equals (o.getClass ()))
+      return false;
+
+    final JobDetailSnapshot rhs = (JobDetailSnapshot) o;
+    return m_aJobDetail.getKey ().equals (rhs.m_aJobDetail.getKey ());
+  }
+
+  @Override
+  public int hashCode ()
+  {
+    return m_aJobDetail.getKey ().hashCode ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return "JobDetailSnapshot '" + getKey () + "':  jobClass: '" + getJobClass ().getName () + "'";
+  }
+}
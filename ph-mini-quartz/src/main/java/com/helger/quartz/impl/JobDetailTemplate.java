@@ -0,0 +1,153 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.impl;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.quartz.DisallowConcurrentExecution;
+import com.helger.quartz.IJob;
+import com.helger.quartz.IJobDetail;
+import com.helger.quartz.JobDataMap;
+import com.helger.quartz.JobKey;
+import com.helger.quartz.PersistJobDataAfterExecution;
+import com.helger.quartz.utils.ClassUtils;
+
+/**
+ * The immutable part of a <code>JobDetail</code> that is shared by many jobs:
+ * the job class, the description, the durability and the recovery flag. The
+ * annotations of the job class are evaluated once. Use
+ * {@link #createJobDetail(JobKey, JobDataMap)} to create the per job
+ * {@link IJobDetail} objects, which only carry their key and their
+ * {@link JobDataMap}.
+ *
+ * @see TemplatedJobDetail
+ * @author Philip Helger
+ */
+@Immutable
+public final class JobDetailTemplate
+{
+  private final Class <? extends IJob> m_aJobClass;
+  private final String m_sDescription;
+  private final boolean m_bDurability;
+  private final boolean m_bShouldRecover;
+  private final boolean m_bPersistJobDataAfterExecution;
+  private final boolean m_bConcurrentExectionDisallowed;
+
+  /**
+   * Constructor
+   *
+   * @param aJobClass
+   *        The job class to execute. May not be <code>null</code>.
+   * @param sDescription
+   *        The optional job description. May be <code>null</code>.
+   * @param bDurability
+   *        Whether the jobs should remain stored after they are orphaned.
+   * @param bShouldRecover
+   *        Whether the jobs should be re-executed in a 'recovery' situation.
+   */
+  public JobDetailTemplate (@NonNull final Class <? extends IJob> aJobClass,
+                            @Nullable final String sDescription,
+                            final boolean bDurability,
+                            final boolean bShouldRecover)
+  {
+    ValueEnforcer.notNull (aJobClass, "JobClass");
+    m_aJobClass = aJobClass;
+    m_sDescription = sDescription;
+    m_bDurability = bDurability;
+    m_bShouldRecover = bShouldRecover;
+    m_bPersistJobDataAfterExecution = ClassUtils.isAnnotationPresent (aJobClass, PersistJobDataAfterExecution.class);
+    m_bConcurrentExectionDisallowed = ClassUtils.isAnnotationPresent (aJobClass, DisallowConcurrentExecution.class);
+  }
+
+  @NonNull
+  public Class <? extends IJob> getJobClass ()
+  {
+    return m_aJobClass;
+  }
+
+  @Nullable
+  public String getDescription ()
+  {
+    return m_sDescription;
+  }
+
+  public boolean isDurable ()
+  {
+    return m_bDurability;
+  }
+
+  public boolean requestsRecovery ()
+  {
+    return m_bShouldRecover;
+  }
+
+  public boolean isPersistJobDataAfterExecution ()
+  {
+    return m_bPersistJobDataAfterExecution;
+  }
+
+  public boolean isConcurrentExectionDisallowed ()
+  {
+    return m_bConcurrentExectionDisallowed;
+  }
+
+  /**
+   * Create a new job detail based on this template.
+   *
+   * @param aKey
+   *        The key of the new job. May not be <code>null</code>.
+   * @param aJobDataMap
+   *        The job data map of the new job. It is not copied. May be
+   *        <code>null</code>.
+   * @return The new job detail. Never <code>null</code>.
+   */
+  @NonNull
+  public TemplatedJobDetail createJobDetail (@NonNull final JobKey aKey, @Nullable final JobDataMap aJobDataMap)
+  {
+    return new TemplatedJobDetail (this, aKey, aJobDataMap);
+  }
+
+  @NonNull
+  public static JobDetailTemplate create (@NonNull final Class <? extends IJob> aJobClass)
+  {
+    return new JobDetailTemplate (aJobClass, null, false, false);
+  }
+
+  /**
+   * Create a template with the shared settings of the provided job detail. Its
+   * key and job data map are ignored.
+   *
+   * @param aJobDetail
+   *        The job detail to take the settings from. May not be
+   *        <code>null</code>.
+   * @return The new template. Never <code>null</code>.
+   */
+  @NonNull
+  public static JobDetailTemplate createFrom (@NonNull final IJobDetail aJobDetail)
+  {
+    ValueEnforcer.notNull (aJobDetail, "JobDetail");
+    return new JobDetailTemplate (aJobDetail.getJobClass (),
+                                  aJobDetail.getDescription (),
+                                  aJobDetail.isDurable (),
+                                  aJobDetail.requestsRecovery ());
+  }
+}
@@ -21,7 +21,9 @@ package com.helger.quartz.impl;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import com.helger.quartz.CopyOnWriteJobDataMap;
 import com.helger.quartz.ICalendar;
 import com.helger.quartz.IJob;
 import com.helger.quartz.IJobDetail;
@@ -50,6 +52,7 @@ public class JobExecutionContext implements IJobExecutionContext
   private long m_nJobRunTime = -1;
   private Object m_aResult;
   private final Map <Object, Object> m_aData = new HashMap <> ();
+  private volatile CompletableFuture <?> m_aPendingAsyncResult;
 
   /**
    * Create a JobExcecutionContext with the given context data.
@@ -67,9 +70,8 @@ public class JobExecutionContext implements IJobExecutionContext
     m_aPrevFireTime = firedBundle.getPrevFireTime ();
     m_aNextFireTime = firedBundle.getNextFireTime ();
 
-    m_aJobDataMap = new JobDataMap ();
-    m_aJobDataMap.putAll (m_aJobDetail.getJobDataMap ());
-    m_aJobDataMap.putAll (m_aTrigger.getJobDataMap ());
+    // Trigger data overrides job data - only copied when modified
+    m_aJobDataMap = new CopyOnWriteJobDataMap (m_aJobDetail.getJobDataMap (), m_aTrigger.getJobDataMap ());
   }
 
   /*
@@ -244,6 +246,26 @@ public class JobExecutionContext implements IJobExecutionContext
     m_nJobRunTime = jobRunTime;
   }
 
+  /**
+   * @return The not yet completed future of an
+   *         {@link com.helger.quartz.IAsyncJob} being executed. May be
+   *         <code>null</code>.
+   */
+  public CompletableFuture <?> getPendingAsyncResult ()
+  {
+    return m_aPendingAsyncResult;
+  }
+
+  /**
+   * @param aPendingAsyncResult
+   *        The future of the asynchronous job execution that is awaited. May
+   *        be <code>null</code>.
+   */
+  public void setPendingAsyncResult (final CompletableFuture <?> aPendingAsyncResult)
+  {
+    m_aPendingAsyncResult = aPendingAsyncResult;
+  }
+
   /**
    * {@inheritDoc}
    */
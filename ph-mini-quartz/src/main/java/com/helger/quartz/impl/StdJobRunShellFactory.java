@@ -18,6 +18,9 @@
  */
 package com.helger.quartz.impl;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
 import com.helger.quartz.IScheduler;
 import com.helger.quartz.SchedulerException;
 import com.helger.quartz.core.IJobRunShellFactory;
@@ -35,7 +38,11 @@ import com.helger.quartz.spi.TriggerFiredBundle;
  */
 public class StdJobRunShellFactory implements IJobRunShellFactory
 {
+  /** The maximum number of passivated shells kept for reuse */
+  public static final int MAX_POOLED_SHELLS = 256;
+
   private IScheduler m_aScheduler;
+  private final BlockingQueue <JobRunShell> m_aPool = new ArrayBlockingQueue <> (MAX_POOLED_SHELLS);
 
   /**
    * Initialize the factory, providing a handle to the {@link IScheduler} that
@@ -55,6 +62,25 @@ public class StdJobRunShellFactory implements IJobRunShellFactory
    */
   public JobRunShell createJobRunShell (final TriggerFiredBundle bndle) throws SchedulerException
   {
-    return new JobRunShell (m_aScheduler, bndle);
+    final JobRunShell ret = m_aPool.poll ();
+    if (ret == null)
+      return new JobRunShell (m_aScheduler, bndle);
+    ret.reuse (bndle);
+    return ret;
+  }
+
+  public void returnJobRunShell (final JobRunShell shell)
+  {
+    // Only exact shells created by this class - dropped if the pool is full
+    if (shell.getClass () == JobRunShell.class)
+      m_aPool.offer (shell);
+  }
+
+  /**
+   * @return The number of passivated shells currently available for reuse.
+   */
+  public int getPooledShellCount ()
+  {
+    return m_aPool.size ();
   }
 }
@@ -22,6 +22,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsSet;
@@ -229,6 +230,46 @@ public class StdScheduler implements IScheduler
     return m_aSched.getCurrentlyExecutingJobs ();
   }
 
+  /**
+   * <p>
+   * Calls the equivalent method on the 'proxied' <code>QuartzScheduler</code>.
+   * </p>
+   */
+  public ICommonsList <IJobExecutionContext> getCurrentlyExecutingJobs (final JobKey jobKey)
+  {
+    return m_aSched.getCurrentlyExecutingJobs (jobKey);
+  }
+
+  /**
+   * <p>
+   * Calls the equivalent method on the 'proxied' <code>QuartzScheduler</code>.
+   * </p>
+   */
+  public int getNumberOfCurrentlyExecutingJobs (final JobKey jobKey)
+  {
+    return m_aSched.getNumberOfCurrentlyExecutingJobs (jobKey);
+  }
+
+  /**
+   * <p>
+   * Calls the equivalent method on the 'proxied' <code>QuartzScheduler</code>.
+   * </p>
+   */
+  public int getNumberOfCurrentlyExecutingJobsInGroup (final String groupName)
+  {
+    return m_aSched.getNumberOfCurrentlyExecutingJobsInGroup (groupName);
+  }
+
+  /**
+   * <p>
+   * Calls the equivalent method on the 'proxied' <code>QuartzScheduler</code>.
+   * </p>
+   */
+  public void forEachCurrentlyExecutingJob (final Consumer <? super IJobExecutionContext> consumer)
+  {
+    m_aSched.forEachCurrentlyExecutingJob (consumer);
+  }
+
   /// Scheduling-related Methods
 
   /**
@@ -479,6 +520,26 @@ public class StdScheduler implements IScheduler
     return m_aSched.getTriggersOfJob (jobKey);
   }
 
+  /**
+   * <p>
+   * Calls the equivalent method on the 'proxied' <code>QuartzScheduler</code>.
+   * </p>
+   */
+  public ICommonsList <? extends ITrigger> getTriggerSnapshotsOfJob (final JobKey jobKey) throws SchedulerException
+  {
+    return m_aSched.getTriggerSnapshotsOfJob (jobKey);
+  }
+
+  /**
+   * <p>
+   * Calls the equivalent method on the 'proxied' <code>QuartzScheduler</code>.
+   * </p>
+   */
+  public ICommonsList <? extends ITrigger> getTriggerSnapshots (final GroupMatcher <TriggerKey> matcher) throws SchedulerException
+  {
+    return m_aSched.getTriggerSnapshots (matcher);
+  }
+
   /**
    * <p>
    * Calls the equivalent method on the 'proxied' <code>QuartzScheduler</code>.
@@ -519,6 +580,16 @@ public class StdScheduler implements IScheduler
     return m_aSched.getJobDetail (jobKey);
   }
 
+  /**
+   * <p>
+   * Calls the equivalent method on the 'proxied' <code>QuartzScheduler</code>.
+   * </p>
+   */
+  public IJobDetail getJobDetailSnapshot (final JobKey jobKey) throws SchedulerException
+  {
+    return m_aSched.getJobDetailSnapshot (jobKey);
+  }
+
   /**
    * <p>
    * Calls the equivalent method on the 'proxied' <code>QuartzScheduler</code>.
@@ -529,6 +600,16 @@ public class StdScheduler implements IScheduler
     return m_aSched.getTrigger (triggerKey);
   }
 
+  /**
+   * <p>
+   * Calls the equivalent method on the 'proxied' <code>QuartzScheduler</code>.
+   * </p>
+   */
+  public ITrigger getTriggerSnapshot (final TriggerKey triggerKey) throws SchedulerException
+  {
+    return m_aSched.getTriggerSnapshot (triggerKey);
+  }
+
   /**
    * <p>
    * Calls the equivalent method on the 'proxied' <code>QuartzScheduler</code>.
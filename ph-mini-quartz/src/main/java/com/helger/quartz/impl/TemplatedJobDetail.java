@@ -0,0 +1,165 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.impl;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.hashcode.HashCodeGenerator;
+import com.helger.quartz.IJob;
+import com.helger.quartz.IJobDetail;
+import com.helger.quartz.JobBuilder;
+import com.helger.quartz.JobDataMap;
+import com.helger.quartz.JobKey;
+import com.helger.quartz.KeyInterner;
+import com.helger.quartz.QCloneUtils;
+
+/**
+ * A compact {@link IJobDetail} that only stores its key and its
+ * {@link JobDataMap}. All other properties are taken from a shared
+ * {@link JobDetailTemplate}. Use this instead of {@link JobDetail} if many jobs
+ * of the same kind are scheduled - e.g. one job per delayed task.
+ *
+ * @see JobDetailTemplate#createJobDetail(JobKey, JobDataMap)
+ * @author Philip Helger
+ */
+public class TemplatedJobDetail implements IJobDetail
+{
+  private final JobDetailTemplate m_aTemplate;
+  private final JobKey m_aKey;
+  private JobDataMap m_aJobDataMap;
+
+  public TemplatedJobDetail (@NonNull final TemplatedJobDetail aOther)
+  {
+    ValueEnforcer.notNull (aOther, "Other");
+    m_aTemplate = aOther.m_aTemplate;
+    m_aKey = aOther.m_aKey;
+    m_aJobDataMap = QCloneUtils.getClone (aOther.m_aJobDataMap);
+  }
+
+  public TemplatedJobDetail (@NonNull final JobDetailTemplate aTemplate,
+                             @NonNull final JobKey aKey,
+                             @Nullable final JobDataMap aJobDataMap)
+  {
+    ValueEnforcer.notNull (aTemplate, "Template");
+    ValueEnforcer.notNull (aKey, "Key");
+    m_aTemplate = aTemplate;
+    m_aKey = KeyInterner.intern (aKey);
+    m_aJobDataMap = aJobDataMap;
+  }
+
+  /**
+   * @return The shared template this job detail is based on. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public final JobDetailTemplate getTemplate ()
+  {
+    return m_aTemplate;
+  }
+
+  @NonNull
+  public final JobKey getKey ()
+  {
+    return m_aKey;
+  }
+
+  @Nullable
+  public final String getDescription ()
+  {
+    return m_aTemplate.getDescription ();
+  }
+
+  @NonNull
+  public final Class <? extends IJob> getJobClass ()
+  {
+    return m_aTemplate.getJobClass ();
+  }
+
+  @NonNull
+  public JobDataMap getJobDataMap ()
+  {
+    if (m_aJobDataMap == null)
+      m_aJobDataMap = new JobDataMap ();
+    return m_aJobDataMap;
+  }
+
+  public boolean isDurable ()
+  {
+    return m_aTemplate.isDurable ();
+  }
+
+  public boolean isPersistJobDataAfterExecution ()
+  {
+    return m_aTemplate.isPersistJobDataAfterExecution ();
+  }
+
+  public boolean isConcurrentExectionDisallowed ()
+  {
+    return m_aTemplate.isConcurrentExectionDisallowed ();
+  }
+
+  public boolean requestsRecovery ()
+  {
+    return m_aTemplate.requestsRecovery ();
+  }
+
+  @NonNull
+  public JobBuilder getJobBuilder ()
+  {
+    return JobBuilder.newJob ()
+                     .ofType (getJobClass ())
+                     .requestRecovery (requestsRecovery ())
+                     .storeDurably (isDurable ())
+                     .usingJobData (getJobDataMap ())
+                     .withDescription (getDescription ())
+                     .withIdentity (getKey ());
+  }
+
+  @NonNull
+  public TemplatedJobDetail getClone ()
+  {
+    return new TemplatedJobDetail (this);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return "TemplatedJobDetail '" + m_aKey + "':  jobClass: '" + getJobClass ().getName () + "'";
+  }
+
+  @Override
+  public boolean equals (final Object o)
+  {
+    if (o == this)
+      return true;
+    if (o == null || !getClass ().equals (o.getClass ()))
+      return false;
+
+    final TemplatedJobDetail rhs = (TemplatedJobDetail) o;
+    return m_aKey.equals (rhs.m_aKey);
+  }
+
+  @Override
+  public int hashCode ()
+  {
+    return new HashCodeGenerator (this).append (m_aKey).getHashCode ();
+  }
+}
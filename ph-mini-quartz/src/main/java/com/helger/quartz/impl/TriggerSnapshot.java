@@ -0,0 +1,631 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.impl;
+
+import java.text.ParseException;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.TimeZone;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.annotation.style.ReturnsMutableObject;
+import com.helger.base.compare.CompareHelper;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.quartz.EIntervalUnit;
+import com.helger.quartz.ICalendarIntervalTrigger;
+import com.helger.quartz.ICronTrigger;
+import com.helger.quartz.IDailyTimeIntervalTrigger;
+import com.helger.quartz.IScheduleBuilder;
+import com.helger.quartz.ISimpleTrigger;
+import com.helger.quartz.ITrigger;
+import com.helger.quartz.JobDataMap;
+import com.helger.quartz.JobKey;
+import com.helger.quartz.TriggerBuilder;
+import com.helger.quartz.TriggerKey;
+import com.helger.quartz.impl.triggers.CalendarIntervalTrigger;
+import com.helger.quartz.impl.triggers.CronTrigger;
+import com.helger.quartz.impl.triggers.DailyTimeIntervalTrigger;
+import com.helger.quartz.impl.triggers.OneShotTrigger;
+import com.helger.quartz.impl.triggers.SimpleTrigger;
+import com.helger.quartz.spi.IMutableTrigger;
+import com.helger.quartz.spi.IOperableTrigger;
+
+/**
+ * An immutable {@link ITrigger} that is handed out by the job store instead of
+ * the stored trigger. It is created while the job store holds its lock and
+ * captures the scalar and immutable fields of the stored trigger, so later
+ * changes of the stored trigger (firing, misfire handling, replacement) are
+ * never visible and no reads of the stored trigger happen afterwards. Only
+ * trigger types that are not part of this library are copied as a whole.
+ * <p>
+ * Use {@link #create(IOperableTrigger)} to create an instance: for the
+ * standard trigger types the returned snapshot also implements the respective
+ * {@link ICronTrigger}, {@link ISimpleTrigger}, {@link ICalendarIntervalTrigger}
+ * or {@link IDailyTimeIntervalTrigger} interface. {@link #getJobDataMap()}
+ * returns a private copy-on-write view of the stored job data, and
+ * {@link #getClone()} creates a fully mutable trigger that can be re-stored via
+ * {@link com.helger.quartz.IScheduler#rescheduleJob(TriggerKey, ITrigger)}.
+ * </p>
+ *
+ * @see com.helger.quartz.spi.IJobStore#retrieveTriggerSnapshot(TriggerKey)
+ * @author Philip Helger
+ */
+@ThreadSafe
+public class TriggerSnapshot implements ITrigger
+{
+  // Private copy for unknown trigger types only - only accessed while
+  // synchronized, as some getters initialize fields lazily
+  private final IOperableTrigger m_aCopy;
+  private final TriggerKey m_aKey;
+  private final JobKey m_aJobKey;
+  private final String m_sDescription;
+  private final String m_sCalendarName;
+  private final int m_nPriority;
+  private final long m_nStartTime;
+  private final long m_nEndTime;
+  private final long m_nNextFireTime;
+  private final long m_nPreviousFireTime;
+  private final EMisfireInstruction m_eMisfireInstruction;
+  private final JobDataMap m_aJobDataMap;
+  // Created on demand for the schedule calculations
+  private IOperableTrigger m_aTrigger;
+
+  /**
+   * Constructor. Must be called while the stored trigger is guarded by the
+   * lock of the owning job store, so that the captured state is consistent.
+   *
+   * @param aTrigger
+   *        The stored trigger to capture. May not be <code>null</code>.
+   * @param bRecreatable
+   *        <code>true</code> if {@link #createTrigger()} can create a new
+   *        trigger of the same type from the captured fields,
+   *        <code>false</code> if a private copy of the trigger must be kept.
+   */
+  protected TriggerSnapshot (@NonNull final IOperableTrigger aTrigger, final boolean bRecreatable)
+  {
+    ValueEnforcer.notNull (aTrigger, "Trigger");
+    m_aCopy = bRecreatable ? null : aTrigger.getClone ();
+    m_aKey = aTrigger.getKey ();
+    m_aJobKey = aTrigger.getJobKey ();
+    m_sDescription = aTrigger.getDescription ();
+    m_sCalendarName = aTrigger.getCalendarName ();
+    m_nPriority = aTrigger.getPriority ();
+    m_nStartTime = _toMillis (aTrigger.getStartTime ());
+    m_nEndTime = _toMillis (aTrigger.getEndTime ());
+    m_nNextFireTime = aTrigger.getNextFireTimeMillis ();
+    m_nPreviousFireTime = aTrigger.getPreviousFireTimeMillis ();
+    m_eMisfireInstruction = aTrigger.getMisfireInstruction ();
+    // Shares the data of the stored map until modified
+    m_aJobDataMap = m_aCopy != null ? m_aCopy.getJobDataMap () : aTrigger.getJobDataMap ().getClone ();
+  }
+
+  private static long _toMillis (@Nullable final Date aDate)
+  {
+    return aDate == null ? NO_FIRE_TIME : aDate.getTime ();
+  }
+
+  @Nullable
+  private static Date _toDate (final long nTime)
+  {
+    return nTime == NO_FIRE_TIME ? null : new Date (nTime);
+  }
+
+  /**
+   * Create a new trigger of the type of the stored trigger with the type
+   * specific fields of this snapshot. The common fields are set by the caller.
+   * Only invoked if this snapshot was created as recreatable.
+   *
+   * @return A new mutable trigger. Never <code>null</code>.
+   */
+  @NonNull
+  protected IOperableTrigger createTrigger ()
+  {
+    throw new IllegalStateException ("This snapshot cannot recreate triggers of type " + getClass ().getName ());
+  }
+
+  /**
+   * @return A trigger equivalent to the stored trigger, to be used for the
+   *         schedule calculations. Only to be accessed while synchronized on
+   *         this and never to be modified.
+   */
+  @NonNull
+  protected final IOperableTrigger getTrigger ()
+  {
+    if (m_aCopy != null)
+      return m_aCopy;
+    if (m_aTrigger == null)
+      m_aTrigger = getClone ();
+    return m_aTrigger;
+  }
+
+  @Nullable
+  public TriggerKey getKey ()
+  {
+    return m_aKey;
+  }
+
+  @Nullable
+  public JobKey getJobKey ()
+  {
+    return m_aJobKey;
+  }
+
+  @Nullable
+  public String getDescription ()
+  {
+    return m_sDescription;
+  }
+
+  @Nullable
+  public String getCalendarName ()
+  {
+    return m_sCalendarName;
+  }
+
+  /**
+   * @return The private copy-on-write view of the job data map of the stored
+   *         trigger. Modifications are not reflected in the job store.
+   */
+  @NonNull
+  @ReturnsMutableObject
+  public synchronized JobDataMap getJobDataMap ()
+  {
+    return m_aJobDataMap;
+  }
+
+  public int getPriority ()
+  {
+    return m_nPriority;
+  }
+
+  public boolean mayFireAgain ()
+  {
+    return m_nNextFireTime != NO_FIRE_TIME;
+  }
+
+  @Nullable
+  public Date getStartTime ()
+  {
+    return _toDate (m_nStartTime);
+  }
+
+  @Nullable
+  public Date getEndTime ()
+  {
+    return _toDate (m_nEndTime);
+  }
+
+  /**
+   * @return The next fire time as it was when this snapshot was created.
+   */
+  @Nullable
+  public Date getNextFireTime ()
+  {
+    return _toDate (m_nNextFireTime);
+  }
+
+  /**
+   * @return The next fire time in milliseconds as it was when this snapshot was
+   *         created, or {@link #NO_FIRE_TIME}.
+   */
+  public long getNextFireTimeMillis ()
+  {
+    return m_nNextFireTime;
+  }
+
+  /**
+   * @return The previous fire time as it was when this snapshot was created.
+   */
+  @Nullable
+  public Date getPreviousFireTime ()
+  {
+    return _toDate (m_nPreviousFireTime);
+  }
+
+  /**
+   * @return The previous fire time in milliseconds as it was when this snapshot
+   *         was created, or {@link #NO_FIRE_TIME}.
+   */
+  public long getPreviousFireTimeMillis ()
+  {
+    return m_nPreviousFireTime;
+  }
+
+  public synchronized Date getFireTimeAfter (final Date afterTime)
+  {
+    return getTrigger ().getFireTimeAfter (afterTime);
+  }
+
+  public synchronized Date getFinalFireTime ()
+  {
+    return getTrigger ().getFinalFireTime ();
+  }
+
+  public EMisfireInstruction getMisfireInstruction ()
+  {
+    return m_eMisfireInstruction;
+  }
+
+  public TriggerBuilder <? extends ITrigger> getTriggerBuilder ()
+  {
+    // The builder takes over the passed job data map, so work on a copy
+    return getClone ().getTriggerBuilder ();
+  }
+
+  public synchronized IScheduleBuilder <? extends IMutableTrigger> getScheduleBuilder ()
+  {
+    return getTrigger ().getScheduleBuilder ();
+  }
+
+  public int compareTo (@NonNull final ITrigger aOther)
+  {
+    return CompareHelper.compare (getKey (), aOther.getKey (), false);
+  }
+
+  /**
+   * @return A new mutable trigger that is equal to the stored trigger as it was
+   *         when this snapshot was created. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public synchronized IOperableTrigger getClone ()
+  {
+    if (m_aCopy != null)
+      return m_aCopy.getClone ();
+
+    final IOperableTrigger ret = createTrigger ();
+    ret.setKey (m_aKey);
+    ret.setJobKey (m_aJobKey);
+    ret.setDescription (m_sDescription);
+    ret.setCalendarName (m_sCalendarName);
+    ret.setPriority (m_nPriority);
+    // Start time first, as the end time is validated against it
+    if (m_nStartTime != NO_FIRE_TIME)
+      ret.setStartTime (new Date (m_nStartTime));
+    ret.setEndTime (_toDate (m_nEndTime));
+    ret.setMisfireInstruction (m_eMisfireInstruction);
+    ret.setJobDataMap (m_aJobDataMap.getClone ());
+    ret.setNextFireTimeMillis (m_nNextFireTime);
+    ret.setPreviousFireTimeMillis (m_nPreviousFireTime);
+    return ret;
+  }
+
+  @Override
+  public boolean equals (final Object o)
+  {
+    if (o == this)
+      return true;
+    if (o == null || !getClass ().equals (o.getClass ()))
+      return false;
+
+    final TriggerSnapshot rhs = (TriggerSnapshot) o;
+    return m_aKey.equals (rhs.m_aKey);
+  }
+
+  @Override
+  public int hashCode ()
+  {
+    return m_aKey.hashCode ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return "TriggerSnapshot '" + getKey () + "':  nextFireTime: " + getNextFireTime ();
+  }
+
+  /**
+   * Create a snapshot of a stored trigger. Must be called while the stored
+   * trigger is guarded by the lock of the owning job store.
+   *
+   * @param aTrigger
+   *        The stored trigger. May not be <code>null</code>.
+   * @return A snapshot implementing the typed trigger interface of the provided
+   *         trigger, if it is one of the standard types. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public static TriggerSnapshot create (@NonNull final IOperableTrigger aTrigger)
+  {
+    // Sub classes may contain additional state, so only the exact classes can
+    // be recreated
+    final Class <?> aClass = aTrigger.getClass ();
+    if (aTrigger instanceof ICronTrigger)
+      return new CronTriggerSnapshot (aTrigger, aClass == CronTrigger.class);
+    if (aTrigger instanceof ISimpleTrigger)
+      return new SimpleTriggerSnapshot (aTrigger, aClass == SimpleTrigger.class || aClass == OneShotTrigger.class);
+    if (aTrigger instanceof ICalendarIntervalTrigger)
+      return new CalendarIntervalTriggerSnapshot (aTrigger, aClass == CalendarIntervalTrigger.class);
+    if (aTrigger instanceof IDailyTimeIntervalTrigger)
+      return new DailyTimeIntervalTriggerSnapshot (aTrigger, aClass == DailyTimeIntervalTrigger.class);
+    return new TriggerSnapshot (aTrigger, false);
+  }
+
+  private static final class CronTriggerSnapshot extends TriggerSnapshot implements ICronTrigger
+  {
+    private final String m_sCronExpression;
+    private final TimeZone m_aTimeZone;
+
+    CronTriggerSnapshot (@NonNull final IOperableTrigger aTrigger, final boolean bRecreatable)
+    {
+      super (aTrigger, bRecreatable);
+      final ICronTrigger aCronTrigger = (ICronTrigger) aTrigger;
+      m_sCronExpression = aCronTrigger.getCronExpression ();
+      m_aTimeZone = (TimeZone) aCronTrigger.getTimeZone ().clone ();
+    }
+
+    @Override
+    protected IOperableTrigger createTrigger ()
+    {
+      final CronTrigger ret = new CronTrigger ();
+      ret.setTimeZone (getTimeZone ());
+      if (m_sCronExpression != null)
+        try
+        {
+          ret.setCronExpression (m_sCronExpression);
+        }
+        catch (final ParseException ex)
+        {
+          throw new IllegalStateException ("Stored cron expression '" + m_sCronExpression + "' is invalid", ex);
+        }
+      return ret;
+    }
+
+    public String getCronExpression ()
+    {
+      return m_sCronExpression;
+    }
+
+    public TimeZone getTimeZone ()
+    {
+      return (TimeZone) m_aTimeZone.clone ();
+    }
+
+    public synchronized String getExpressionSummary ()
+    {
+      return ((ICronTrigger) getTrigger ()).getExpressionSummary ();
+    }
+
+    @Override
+    public TriggerBuilder <? extends ICronTrigger> getTriggerBuilder ()
+    {
+      return ((ICronTrigger) getClone ()).getTriggerBuilder ();
+    }
+  }
+
+  private static final class SimpleTriggerSnapshot extends TriggerSnapshot implements ISimpleTrigger
+  {
+    private final int m_nRepeatCount;
+    private final long m_nRepeatInterval;
+    private final int m_nTimesTriggered;
+    private final boolean m_bOneShot;
+
+    SimpleTriggerSnapshot (@NonNull final IOperableTrigger aTrigger, final boolean bRecreatable)
+    {
+      super (aTrigger, bRecreatable);
+      final ISimpleTrigger aSimpleTrigger = (ISimpleTrigger) aTrigger;
+      m_nRepeatCount = aSimpleTrigger.getRepeatCount ();
+      m_nRepeatInterval = aSimpleTrigger.getRepeatInterval ();
+      m_nTimesTriggered = aSimpleTrigger.getTimesTriggered ();
+      m_bOneShot = aTrigger instanceof OneShotTrigger;
+    }
+
+    @Override
+    protected IOperableTrigger createTrigger ()
+    {
+      if (m_bOneShot)
+        return new OneShotTrigger ();
+
+      final SimpleTrigger ret = new SimpleTrigger ();
+      ret.setRepeatCount (m_nRepeatCount);
+      ret.setRepeatInterval (m_nRepeatInterval);
+      ret.setTimesTriggered (m_nTimesTriggered);
+      return ret;
+    }
+
+    public int getRepeatCount ()
+    {
+      return m_nRepeatCount;
+    }
+
+    public long getRepeatInterval ()
+    {
+      return m_nRepeatInterval;
+    }
+
+    public int getTimesTriggered ()
+    {
+      return m_nTimesTriggered;
+    }
+
+    @Override
+    public TriggerBuilder <? extends ISimpleTrigger> getTriggerBuilder ()
+    {
+      return ((ISimpleTrigger) getClone ()).getTriggerBuilder ();
+    }
+  }
+
+  private static final class CalendarIntervalTriggerSnapshot extends TriggerSnapshot implements
+                                                               ICalendarIntervalTrigger
+  {
+    private final EIntervalUnit m_eRepeatIntervalUnit;
+    private final int m_nRepeatInterval;
+    private final int m_nTimesTriggered;
+    private final TimeZone m_aTimeZone;
+    private final boolean m_bPreserveHourOfDayAcrossDaylightSavings;
+    private final boolean m_bSkipDayIfHourDoesNotExist;
+
+    CalendarIntervalTriggerSnapshot (@NonNull final IOperableTrigger aTrigger, final boolean bRecreatable)
+    {
+      super (aTrigger, bRecreatable);
+      final ICalendarIntervalTrigger aCalTrigger = (ICalendarIntervalTrigger) aTrigger;
+      m_eRepeatIntervalUnit = aCalTrigger.getRepeatIntervalUnit ();
+      m_nRepeatInterval = aCalTrigger.getRepeatInterval ();
+      m_nTimesTriggered = aCalTrigger.getTimesTriggered ();
+      m_aTimeZone = (TimeZone) aCalTrigger.getTimeZone ().clone ();
+      m_bPreserveHourOfDayAcrossDaylightSavings = aCalTrigger.isPreserveHourOfDayAcrossDaylightSavings ();
+      m_bSkipDayIfHourDoesNotExist = aCalTrigger.isSkipDayIfHourDoesNotExist ();
+    }
+
+    @Override
+    protected IOperableTrigger createTrigger ()
+    {
+      final CalendarIntervalTrigger ret = new CalendarIntervalTrigger ();
+      ret.setRepeatIntervalUnit (m_eRepeatIntervalUnit);
+      ret.setRepeatInterval (m_nRepeatInterval);
+      ret.setTimesTriggered (m_nTimesTriggered);
+      ret.setTimeZone (getTimeZone ());
+      ret.setPreserveHourOfDayAcrossDaylightSavings (m_bPreserveHourOfDayAcrossDaylightSavings);
+      ret.setSkipDayIfHourDoesNotExist (m_bSkipDayIfHourDoesNotExist);
+      return ret;
+    }
+
+    public EIntervalUnit getRepeatIntervalUnit ()
+    {
+      return m_eRepeatIntervalUnit;
+    }
+
+    public int getRepeatInterval ()
+    {
+      return m_nRepeatInterval;
+    }
+
+    public int getTimesTriggered ()
+    {
+      return m_nTimesTriggered;
+    }
+
+    public TimeZone getTimeZone ()
+    {
+      return (TimeZone) m_aTimeZone.clone ();
+    }
+
+    public boolean isPreserveHourOfDayAcrossDaylightSavings ()
+    {
+      return m_bPreserveHourOfDayAcrossDaylightSavings;
+    }
+
+    public boolean isSkipDayIfHourDoesNotExist ()
+    {
+      return m_bSkipDayIfHourDoesNotExist;
+    }
+
+    @Override
+    public TriggerBuilder <? extends ICalendarIntervalTrigger> getTriggerBuilder ()
+    {
+      return ((ICalendarIntervalTrigger) getClone ()).getTriggerBuilder ();
+    }
+  }
+
+  private static final class DailyTimeIntervalTriggerSnapshot extends TriggerSnapshot implements
+                                                                IDailyTimeIntervalTrigger
+  {
+    private final EIntervalUnit m_eRepeatIntervalUnit;
+    private final int m_nRepeatCount;
+    private final int m_nRepeatInterval;
+    private final LocalTime m_aStartTimeOfDay;
+    private final LocalTime m_aEndTimeOfDay;
+    private final Set <DayOfWeek> m_aDaysOfWeek;
+    private final int m_nTimesTriggered;
+    private final boolean m_bComplete;
+
+    DailyTimeIntervalTriggerSnapshot (@NonNull final IOperableTrigger aTrigger, final boolean bRecreatable)
+    {
+      super (aTrigger, bRecreatable);
+      final IDailyTimeIntervalTrigger aDailyTrigger = (IDailyTimeIntervalTrigger) aTrigger;
+      m_eRepeatIntervalUnit = aDailyTrigger.getRepeatIntervalUnit ();
+      m_nRepeatCount = aDailyTrigger.getRepeatCount ();
+      m_nRepeatInterval = aDailyTrigger.getRepeatInterval ();
+      m_aStartTimeOfDay = aDailyTrigger.getStartTimeOfDay ();
+      m_aEndTimeOfDay = aDailyTrigger.getEndTimeOfDay ();
+      final Set <DayOfWeek> aDays = aDailyTrigger.getDaysOfWeek ();
+      m_aDaysOfWeek = Collections.unmodifiableSet (aDays.isEmpty () ? EnumSet.noneOf (DayOfWeek.class)
+                                                                     : EnumSet.copyOf (aDays));
+      m_nTimesTriggered = aDailyTrigger.getTimesTriggered ();
+      m_bComplete = aTrigger instanceof final DailyTimeIntervalTrigger aDTIT && aDTIT.isComplete ();
+    }
+
+    @Override
+    protected IOperableTrigger createTrigger ()
+    {
+      final DailyTimeIntervalTrigger ret = new DailyTimeIntervalTrigger ();
+      ret.setRepeatIntervalUnit (m_eRepeatIntervalUnit);
+      ret.setRepeatCount (m_nRepeatCount);
+      ret.setRepeatInterval (m_nRepeatInterval);
+      if (!m_aDaysOfWeek.isEmpty ())
+        ret.setDaysOfWeek (m_aDaysOfWeek);
+      if (m_aStartTimeOfDay != null)
+        ret.setStartTimeOfDay (m_aStartTimeOfDay);
+      if (m_aEndTimeOfDay != null)
+        ret.setEndTimeOfDay (m_aEndTimeOfDay);
+      ret.setTimesTriggered (m_nTimesTriggered);
+      ret.setComplete (m_bComplete);
+      return ret;
+    }
+
+    public EIntervalUnit getRepeatIntervalUnit ()
+    {
+      return m_eRepeatIntervalUnit;
+    }
+
+    public int getRepeatCount ()
+    {
+      return m_nRepeatCount;
+    }
+
+    public int getRepeatInterval ()
+    {
+      return m_nRepeatInterval;
+    }
+
+    public LocalTime getStartTimeOfDay ()
+    {
+      return m_aStartTimeOfDay;
+    }
+
+    public LocalTime getEndTimeOfDay ()
+    {
+      return m_aEndTimeOfDay;
+    }
+
+    public Set <DayOfWeek> getDaysOfWeek ()
+    {
+      return m_aDaysOfWeek;
+    }
+
+    public int getTimesTriggered ()
+    {
+      return m_nTimesTriggered;
+    }
+
+    @Override
+    public TriggerBuilder <? extends IDailyTimeIntervalTrigger> getTriggerBuilder ()
+    {
+      return ((IDailyTimeIntervalTrigger) getClone ()).getTriggerBuilder ();
+    }
+  }
+}
@@ -19,6 +19,7 @@
 package com.helger.quartz.impl.calendar;
 
 import java.text.NumberFormat;
+import java.time.LocalTime;
 import java.util.Calendar;
 import java.util.Locale;
 import java.util.Locale.Category;
@@ -639,6 +640,30 @@ public class DailyCalendar extends AbstractCalendar <DailyCalendar>
     return rangeEndingTime.getTime ().getTime ();
   }
 
+  /**
+   * @return The time of day the time range starts. Never <code>null</code>.
+   */
+  @NonNull
+  public LocalTime getRangeStartingTimeOfDay ()
+  {
+    return LocalTime.of (m_nRangeStartingHourOfDay,
+                         m_nRangeStartingMinute,
+                         m_nRangeStartingSecond,
+                         m_nRangeStartingMillis * 1_000_000);
+  }
+
+  /**
+   * @return The time of day the time range ends. Never <code>null</code>.
+   */
+  @NonNull
+  public LocalTime getRangeEndingTimeOfDay ()
+  {
+    return LocalTime.of (m_nRangeEndingHourOfDay,
+                         m_nRangeEndingMinute,
+                         m_nRangeEndingSecond,
+                         m_nRangeEndingMillis * 1_000_000);
+  }
+
   /**
    * Indicates whether the time range represents an inverted time range (see
    * class description).
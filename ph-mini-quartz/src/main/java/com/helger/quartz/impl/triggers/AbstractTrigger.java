@@ -18,6 +18,9 @@
  */
 package com.helger.quartz.impl.triggers;
 
+import java.util.Calendar;
+import java.util.Date;
+
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
@@ -26,6 +29,9 @@ import com.helger.base.compare.CompareHelper;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.equals.EqualsHelper;
 import com.helger.base.hashcode.HashCodeGenerator;
+import com.helger.datetime.helper.PDTFactory;
+import com.helger.quartz.CQuartz;
+import com.helger.quartz.ICalendar;
 import com.helger.quartz.IJobExecutionContext;
 import com.helger.quartz.IScheduleBuilder;
 import com.helger.quartz.IScheduler;
@@ -33,6 +39,7 @@ import com.helger.quartz.ITrigger;
 import com.helger.quartz.JobDataMap;
 import com.helger.quartz.JobExecutionException;
 import com.helger.quartz.JobKey;
+import com.helger.quartz.KeyInterner;
 import com.helger.quartz.QCloneUtils;
 import com.helger.quartz.SchedulerException;
 import com.helger.quartz.TriggerBuilder;
@@ -76,6 +83,9 @@ public abstract class AbstractTrigger <IMPLTYPE extends AbstractTrigger <IMPLTYP
   private String m_sFireInstanceId;
   private EMisfireInstruction m_eMisfireInstruction = EMisfireInstruction.MISFIRE_INSTRUCTION_SMART_POLICY;
   private int m_nPriority = DEFAULT_PRIORITY;
+  // Fire times are kept as primitives, the Date accessors are only views
+  private long m_nNextFireTime = NO_FIRE_TIME;
+  private long m_nPreviousFireTime = NO_FIRE_TIME;
   private transient TriggerKey m_aKey;
 
   /**
@@ -100,6 +110,8 @@ public abstract class AbstractTrigger <IMPLTYPE extends AbstractTrigger <IMPLTYP
     m_sFireInstanceId = aOther.m_sFireInstanceId;
     m_eMisfireInstruction = aOther.m_eMisfireInstruction;
     m_nPriority = aOther.m_nPriority;
+    m_nNextFireTime = aOther.m_nNextFireTime;
+    m_nPreviousFireTime = aOther.m_nPreviousFireTime;
     m_aKey = aOther.m_aKey;
   }
 
@@ -222,7 +234,10 @@ public abstract class AbstractTrigger <IMPLTYPE extends AbstractTrigger <IMPLTYP
     if (group == null)
       m_sGroup = IScheduler.DEFAULT_GROUP;
     else
-      m_sGroup = group;
+    {
+      // Groups are few but shared by many triggers
+      m_sGroup = KeyInterner.internGroup (group);
+    }
     m_aKey = null;
   }
 
@@ -230,7 +245,7 @@ public abstract class AbstractTrigger <IMPLTYPE extends AbstractTrigger <IMPLTYP
   {
     setName (key.getName ());
     setGroup (key.getGroup ());
-    m_aKey = key;
+    m_aKey = KeyInterner.intern (key);
   }
 
   /**
@@ -287,7 +302,7 @@ public abstract class AbstractTrigger <IMPLTYPE extends AbstractTrigger <IMPLTYP
     if (jobGroup == null)
       m_sJobGroup = IScheduler.DEFAULT_GROUP;
     else
-      m_sJobGroup = jobGroup;
+      m_sJobGroup = KeyInterner.internGroup (jobGroup);
   }
 
   public final void setJobKey (@NonNull final JobKey key)
@@ -382,6 +397,141 @@ public abstract class AbstractTrigger <IMPLTYPE extends AbstractTrigger <IMPLTYP
     m_nPriority = priority;
   }
 
+  @Nullable
+  static Date toDate (final long nTime)
+  {
+    return nTime == NO_FIRE_TIME ? null : new Date (nTime);
+  }
+
+  static long toMillis (@Nullable final Date aDate)
+  {
+    return aDate == null ? NO_FIRE_TIME : aDate.getTime ();
+  }
+
+  /**
+   * @param nTime
+   *        Time in milliseconds since the epoch.
+   * @return <code>true</code> if the provided time is after
+   *         {@link CQuartz#MAX_YEAR}, at which point scheduling gives up.
+   */
+  protected static boolean isAfterMaxYear (final long nTime)
+  {
+    final Calendar c = PDTFactory.createCalendar ();
+    c.setTimeInMillis (nTime);
+    return c.get (Calendar.YEAR) > CQuartz.MAX_YEAR;
+  }
+
+  /**
+   * Returns the next time at which the trigger is scheduled to fire. If the
+   * trigger will not fire again, <code>null</code> will be returned. This is
+   * only a view on {@link #getNextFireTimeMillis()} and a new object is
+   * returned on every call.
+   */
+  @Nullable
+  public Date getNextFireTime ()
+  {
+    return toDate (getNextFireTimeMillis ());
+  }
+
+  /**
+   * Set the next time at which the trigger should fire.<br>
+   * <b>This method should not be invoked by client code.</b>
+   */
+  public void setNextFireTime (@Nullable final Date nextFireTime)
+  {
+    setNextFireTimeMillis (toMillis (nextFireTime));
+  }
+
+  public long getNextFireTimeMillis ()
+  {
+    return m_nNextFireTime;
+  }
+
+  public void setNextFireTimeMillis (final long nNextFireTime)
+  {
+    m_nNextFireTime = nNextFireTime;
+  }
+
+  /**
+   * Returns the previous time at which the trigger fired. If the trigger has
+   * not yet fired, <code>null</code> will be returned. This is only a view on
+   * {@link #getPreviousFireTimeMillis()} and a new object is returned on every
+   * call.
+   */
+  @Nullable
+  public Date getPreviousFireTime ()
+  {
+    return toDate (getPreviousFireTimeMillis ());
+  }
+
+  /**
+   * Set the previous time at which the trigger fired.<br>
+   * <b>This method should not be invoked by client code.</b>
+   */
+  public void setPreviousFireTime (@Nullable final Date previousFireTime)
+  {
+    setPreviousFireTimeMillis (toMillis (previousFireTime));
+  }
+
+  public long getPreviousFireTimeMillis ()
+  {
+    return m_nPreviousFireTime;
+  }
+
+  public void setPreviousFireTimeMillis (final long nPreviousFireTime)
+  {
+    m_nPreviousFireTime = nPreviousFireTime;
+  }
+
+  /**
+   * Primitive variant of {@link #getFireTimeAfter(Date)}. This default
+   * implementation delegates to the {@link Date} based version and should be
+   * overridden by triggers that can compute their fire times without
+   * allocation.
+   *
+   * @param nAfterTime
+   *        The time in milliseconds since the epoch after which the next fire
+   *        time is searched, or {@link #NO_FIRE_TIME} for "now".
+   * @return The next fire time or {@link #NO_FIRE_TIME} if the trigger will
+   *         not fire after the given time.
+   */
+  protected long getFireTimeAfterMillis (final long nAfterTime)
+  {
+    return toMillis (getFireTimeAfter (toDate (nAfterTime)));
+  }
+
+  /**
+   * Get the next fire time after the provided time that is included in the
+   * provided calendar. Gives up after {@link CQuartz#MAX_YEAR}.
+   *
+   * @param nAfterTime
+   *        The time after which to search or {@link #NO_FIRE_TIME} for "now".
+   * @param aCalendar
+   *        The calendar to check. May be <code>null</code>.
+   * @return {@link #NO_FIRE_TIME} if there is no such time
+   */
+  protected final long getIncludedFireTimeAfterMillis (final long nAfterTime, @Nullable final ICalendar aCalendar)
+  {
+    long ret = getFireTimeAfterMillis (nAfterTime);
+    while (ret != NO_FIRE_TIME && aCalendar != null && !aCalendar.isTimeIncluded (ret))
+    {
+      ret = getFireTimeAfterMillis (ret);
+
+      // avoid infinite loop
+      if (ret != NO_FIRE_TIME && isAfterMaxYear (ret))
+        ret = NO_FIRE_TIME;
+    }
+    return ret;
+  }
+
+  /**
+   * Determines whether or not the trigger will occur again.
+   */
+  public boolean mayFireAgain ()
+  {
+    return m_nNextFireTime != NO_FIRE_TIME;
+  }
+
   /**
    * This method should not be used by the Quartz client.<br>
    * Called after the <code>{@link IScheduler}</code> has executed the
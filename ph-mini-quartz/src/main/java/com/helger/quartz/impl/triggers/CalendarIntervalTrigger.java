@@ -71,8 +71,6 @@ public class CalendarIntervalTrigger extends AbstractTrigger <CalendarIntervalTr
 {
   private Date m_aStartTime;
   private Date m_aEndTime;
-  private Date m_aNextFireTime;
-  private Date m_aPreviousFireTime;
   private int m_nRepeatInterval = 0;
   private EIntervalUnit m_eRepeatIntervalUnit = EIntervalUnit.DAY;
   private TimeZone m_aTimeZone;
@@ -86,8 +84,6 @@ public class CalendarIntervalTrigger extends AbstractTrigger <CalendarIntervalTr
     super (aOther);
     m_aStartTime = QCloneUtils.getClone (aOther.m_aStartTime);
     m_aEndTime = QCloneUtils.getClone (aOther.m_aEndTime);
-    m_aNextFireTime = QCloneUtils.getClone (aOther.m_aNextFireTime);
-    m_aPreviousFireTime = QCloneUtils.getClone (aOther.m_aPreviousFireTime);
     m_nRepeatInterval = aOther.m_nRepeatInterval;
     m_eRepeatIntervalUnit = aOther.m_eRepeatIntervalUnit;
     m_aTimeZone = QCloneUtils.getClone (aOther.m_aTimeZone);
@@ -420,7 +416,7 @@ public class CalendarIntervalTrigger extends AbstractTrigger <CalendarIntervalTr
       case MISFIRE_INSTRUCTION_FIRE_ONCE_NOW:
       {
         // fire once now...
-        setNextFireTime (new Date ());
+        setNextFireTimeMillis (System.currentTimeMillis ());
         // the new fire time afterward will magically preserve the original
         // time of day for firing for day/week/month interval triggers,
         // because of the way getFireTimeAfter() works - in its always
@@ -430,12 +426,7 @@ public class CalendarIntervalTrigger extends AbstractTrigger <CalendarIntervalTr
       }
       case MISFIRE_INSTRUCTION_DO_NOTHING:
       {
-        Date newFireTime = getFireTimeAfter (new Date ());
-        while (newFireTime != null && cal != null && !cal.isTimeIncluded (newFireTime.getTime ()))
-        {
-          newFireTime = getFireTimeAfter (newFireTime);
-        }
-        setNextFireTime (newFireTime);
+        setNextFireTimeMillis (getIncludedFireTimeAfterMillis (System.currentTimeMillis (), cal));
         break;
       }
     }
@@ -453,25 +444,9 @@ public class CalendarIntervalTrigger extends AbstractTrigger <CalendarIntervalTr
   public void triggered (final com.helger.quartz.ICalendar calendar)
   {
     m_nTimesTriggered++;
-    m_aPreviousFireTime = m_aNextFireTime;
-    m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
-
-    while (m_aNextFireTime != null && calendar != null && !calendar.isTimeIncluded (m_aNextFireTime.getTime ()))
-    {
-
-      m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
-
-      if (m_aNextFireTime == null)
-        break;
-
-      // avoid infinite loop
-      final Calendar c = PDTFactory.createCalendar ();
-      c.setTime (m_aNextFireTime);
-      if (c.get (Calendar.YEAR) > CQuartz.MAX_YEAR)
-      {
-        m_aNextFireTime = null;
-      }
-    }
+    final long nNextFireTime = getNextFireTimeMillis ();
+    setPreviousFireTimeMillis (nNextFireTime);
+    setNextFireTimeMillis (getIncludedFireTimeAfterMillis (nNextFireTime, calendar));
   }
 
   /**
@@ -480,39 +455,30 @@ public class CalendarIntervalTrigger extends AbstractTrigger <CalendarIntervalTr
    */
   public void updateWithNewCalendar (final com.helger.quartz.ICalendar calendar, final long misfireThreshold)
   {
-    m_aNextFireTime = getFireTimeAfter (m_aPreviousFireTime);
-
-    if (m_aNextFireTime == null || calendar == null)
-    {
-      return;
-    }
+    long nNextFireTime = getFireTimeAfterMillis (getPreviousFireTimeMillis ());
 
-    final Date now = new Date ();
-    while (m_aNextFireTime != null && !calendar.isTimeIncluded (m_aNextFireTime.getTime ()))
+    if (nNextFireTime != NO_FIRE_TIME && calendar != null)
     {
-
-      m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
-
-      if (m_aNextFireTime == null)
-        break;
-
-      // avoid infinite loop
-      final Calendar c = PDTFactory.createCalendar ();
-      c.setTime (m_aNextFireTime);
-      if (c.get (Calendar.YEAR) > CQuartz.MAX_YEAR)
+      final long now = System.currentTimeMillis ();
+      while (nNextFireTime != NO_FIRE_TIME && !calendar.isTimeIncluded (nNextFireTime))
       {
-        m_aNextFireTime = null;
-      }
+        nNextFireTime = getFireTimeAfterMillis (nNextFireTime);
+        if (nNextFireTime == NO_FIRE_TIME)
+          break;
 
-      if (m_aNextFireTime != null && m_aNextFireTime.before (now))
-      {
-        final long diff = now.getTime () - m_aNextFireTime.getTime ();
-        if (diff >= misfireThreshold)
+        // avoid infinite loop
+        if (isAfterMaxYear (nNextFireTime))
         {
-          m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
+          nNextFireTime = NO_FIRE_TIME;
         }
+        else
+          if (nNextFireTime < now && now - nNextFireTime >= misfireThreshold)
+          {
+            nNextFireTime = getFireTimeAfterMillis (nNextFireTime);
+          }
       }
     }
+    setNextFireTimeMillis (nNextFireTime);
   }
 
   /**
@@ -532,79 +498,24 @@ public class CalendarIntervalTrigger extends AbstractTrigger <CalendarIntervalTr
   @Override
   public Date computeFirstFireTime (final com.helger.quartz.ICalendar calendar)
   {
-    m_aNextFireTime = getStartTime ();
+    long nNextFireTime = toMillis (getStartTime ());
 
-    while (m_aNextFireTime != null && calendar != null && !calendar.isTimeIncluded (m_aNextFireTime.getTime ()))
+    while (nNextFireTime != NO_FIRE_TIME && calendar != null && !calendar.isTimeIncluded (nNextFireTime))
     {
-      m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
-
-      if (m_aNextFireTime == null)
+      nNextFireTime = getFireTimeAfterMillis (nNextFireTime);
+      if (nNextFireTime == NO_FIRE_TIME)
         break;
 
       // avoid infinite loop
-      final Calendar c = PDTFactory.createCalendar ();
-      c.setTime (m_aNextFireTime);
-      if (c.get (Calendar.YEAR) > CQuartz.MAX_YEAR)
+      if (isAfterMaxYear (nNextFireTime))
       {
+        setNextFireTimeMillis (nNextFireTime);
         return null;
       }
     }
 
-    return m_aNextFireTime;
-  }
-
-  /**
-   * <p>
-   * Returns the next time at which the <code>Trigger</code> is scheduled to fire. If the trigger
-   * will not fire again, <code>null</code> will be returned. Note that the time returned can
-   * possibly be in the past, if the time that was computed for the trigger to next fire has already
-   * arrived, but the scheduler has not yet been able to fire the trigger (which would likely be due
-   * to lack of resources e.g. threads).
-   * </p>
-   * <p>
-   * The value returned is not guaranteed to be valid until after the <code>Trigger</code> has been
-   * added to the scheduler.
-   * </p>
-   */
-  public Date getNextFireTime ()
-  {
-    return m_aNextFireTime;
-  }
-
-  /**
-   * <p>
-   * Returns the previous time at which the <code>DateIntervalTrigger</code> fired. If the trigger
-   * has not yet fired, <code>null</code> will be returned.
-   */
-  public Date getPreviousFireTime ()
-  {
-    return m_aPreviousFireTime;
-  }
-
-  /**
-   * <p>
-   * Set the next time at which the <code>DateIntervalTrigger</code> should fire.
-   * </p>
-   * <p>
-   * <b>This method should not be invoked by client code.</b>
-   * </p>
-   */
-  public void setNextFireTime (final Date nextFireTime)
-  {
-    m_aNextFireTime = nextFireTime;
-  }
-
-  /**
-   * <p>
-   * Set the previous time at which the <code>DateIntervalTrigger</code> fired.
-   * </p>
-   * <p>
-   * <b>This method should not be invoked by client code.</b>
-   * </p>
-   */
-  public void setPreviousFireTime (final Date previousFireTime)
-  {
-    m_aPreviousFireTime = previousFireTime;
+    setNextFireTimeMillis (nNextFireTime);
+    return getNextFireTime ();
   }
 
   /**
@@ -883,16 +794,6 @@ public class CalendarIntervalTrigger extends AbstractTrigger <CalendarIntervalTr
     return lTime.getTime ();
   }
 
-  /**
-   * <p>
-   * Determines whether or not the <code>DateIntervalTrigger</code> will occur again.
-   * </p>
-   */
-  public boolean mayFireAgain ()
-  {
-    return getNextFireTime () != null;
-  }
-
   /**
    * <p>
    * Validates whether the properties of the <code>JobDetail</code> are valid for submission into a
@@ -53,8 +53,6 @@ public class CronTrigger extends AbstractTrigger <CronTrigger> implements ICronT
   private CronExpression m_aCronEx;
   private Date m_aStartTime;
   private Date m_aEndTime;
-  private Date m_aNextFireTime;
-  private Date m_aPreviousFireTime;
   private transient TimeZone m_aTimeZone;
 
   public CronTrigger (@NonNull final CronTrigger aOther)
@@ -63,8 +61,6 @@ public class CronTrigger extends AbstractTrigger <CronTrigger> implements ICronT
     m_aCronEx = QCloneUtils.getClone (aOther.m_aCronEx);
     m_aStartTime = QCloneUtils.getClone (aOther.m_aStartTime);
     m_aEndTime = QCloneUtils.getClone (aOther.m_aEndTime);
-    m_aNextFireTime = QCloneUtils.getClone (aOther.m_aNextFireTime);
-    m_aPreviousFireTime = QCloneUtils.getClone (aOther.m_aPreviousFireTime);
     m_aTimeZone = QCloneUtils.getClone (aOther.m_aTimeZone);
   }
 
@@ -145,26 +141,6 @@ public class CronTrigger extends AbstractTrigger <CronTrigger> implements ICronT
     m_aEndTime = endTime;
   }
 
-  public Date getNextFireTime ()
-  {
-    return m_aNextFireTime;
-  }
-
-  public void setNextFireTime (final Date nextFireTime)
-  {
-    m_aNextFireTime = nextFireTime;
-  }
-
-  public Date getPreviousFireTime ()
-  {
-    return m_aPreviousFireTime;
-  }
-
-  public void setPreviousFireTime (final Date previousFireTime)
-  {
-    m_aPreviousFireTime = previousFireTime;
-  }
-
   @NonNull
   public TimeZone getTimeZone ()
   {
@@ -208,24 +184,33 @@ public class CronTrigger extends AbstractTrigger <CronTrigger> implements ICronT
    */
   public Date getFireTimeAfter (@Nullable final Date aAfterTime)
   {
-    Date afterTime = aAfterTime;
-    if (afterTime == null)
-      afterTime = new Date ();
+    return toDate (getFireTimeAfterMillis (toMillis (aAfterTime)));
+  }
+
+  @Override
+  protected long getFireTimeAfterMillis (final long nAfterTime)
+  {
+    long afterTime = nAfterTime == NO_FIRE_TIME ? System.currentTimeMillis () : nAfterTime;
 
-    if (getStartTime ().after (afterTime))
+    final long nStartTime = m_aStartTime.getTime ();
+    if (nStartTime > afterTime)
     {
-      afterTime = new Date (getStartTime ().getTime () - 1000l);
+      afterTime = nStartTime - 1000l;
     }
 
-    if (getEndTime () != null && (afterTime.compareTo (getEndTime ()) >= 0))
+    final long nEndTime = m_aEndTime == null ? NO_FIRE_TIME : m_aEndTime.getTime ();
+    if (afterTime >= nEndTime)
     {
-      return null;
+      return NO_FIRE_TIME;
     }
 
-    final Date pot = getTimeAfter (afterTime);
-    if (getEndTime () != null && pot != null && pot.after (getEndTime ()))
+    if (m_aCronEx == null)
+      return NO_FIRE_TIME;
+
+    final long pot = m_aCronEx.getTimeAfter (afterTime);
+    if (pot != NO_FIRE_TIME && pot > nEndTime)
     {
-      return null;
+      return NO_FIRE_TIME;
     }
 
     return pot;
@@ -255,14 +240,6 @@ public class CronTrigger extends AbstractTrigger <CronTrigger> implements ICronT
     return resultTime;
   }
 
-  /**
-   * Determines whether or not the <code>CronTrigger</code> will occur again.
-   */
-  public boolean mayFireAgain ()
-  {
-    return getNextFireTime () != null;
-  }
-
   @Override
   protected boolean validateMisfireInstruction (final EMisfireInstruction misfireInstruction)
   {
@@ -308,17 +285,12 @@ public class CronTrigger extends AbstractTrigger <CronTrigger> implements ICronT
         return;
       case MISFIRE_INSTRUCTION_FIRE_ONCE_NOW:
       {
-        setNextFireTime (new Date ());
+        setNextFireTimeMillis (System.currentTimeMillis ());
         break;
       }
       case MISFIRE_INSTRUCTION_DO_NOTHING:
       {
-        Date newFireTime = getFireTimeAfter (new Date ());
-        while (newFireTime != null && cal != null && !cal.isTimeIncluded (newFireTime.getTime ()))
-        {
-          newFireTime = getFireTimeAfter (newFireTime);
-        }
-        setNextFireTime (newFireTime);
+        setNextFireTimeMillis (getIncludedFireTimeAfterMillis (System.currentTimeMillis (), cal));
         break;
       }
     }
@@ -416,13 +388,9 @@ public class CronTrigger extends AbstractTrigger <CronTrigger> implements ICronT
   @Override
   public void triggered (final ICalendar calendar)
   {
-    m_aPreviousFireTime = m_aNextFireTime;
-    m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
-
-    while (m_aNextFireTime != null && calendar != null && !calendar.isTimeIncluded (m_aNextFireTime.getTime ()))
-    {
-      m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
-    }
+    final long nNextFireTime = getNextFireTimeMillis ();
+    setPreviousFireTimeMillis (nNextFireTime);
+    setNextFireTimeMillis (getIncludedFireTimeAfterMillis (nNextFireTime, calendar));
   }
 
   /**
@@ -430,40 +398,31 @@ public class CronTrigger extends AbstractTrigger <CronTrigger> implements ICronT
    */
   public void updateWithNewCalendar (final ICalendar calendar, final long misfireThreshold)
   {
-    m_aNextFireTime = getFireTimeAfter (m_aPreviousFireTime);
+    long nNextFireTime = getFireTimeAfterMillis (getPreviousFireTimeMillis ());
 
-    if (m_aNextFireTime == null || calendar == null)
+    if (nNextFireTime != NO_FIRE_TIME && calendar != null)
     {
-      return;
-    }
-
-    final Date now = new Date ();
-    while (m_aNextFireTime != null && !calendar.isTimeIncluded (m_aNextFireTime.getTime ()))
-    {
-
-      m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
-
-      if (m_aNextFireTime == null)
-        break;
-
-      // avoid infinite loop
-      // Use gregorian only because the constant is based on Gregorian
-      final Calendar c = PDTFactory.createCalendar ();
-      c.setTime (m_aNextFireTime);
-      if (c.get (Calendar.YEAR) > YEAR_TO_GIVEUP_SCHEDULING_AT)
+      final long now = System.currentTimeMillis ();
+      while (nNextFireTime != NO_FIRE_TIME && !calendar.isTimeIncluded (nNextFireTime))
       {
-        m_aNextFireTime = null;
-      }
+        nNextFireTime = getFireTimeAfterMillis (nNextFireTime);
 
-      if (m_aNextFireTime != null && m_aNextFireTime.before (now))
-      {
-        final long diff = now.getTime () - m_aNextFireTime.getTime ();
-        if (diff >= misfireThreshold)
+        if (nNextFireTime == NO_FIRE_TIME)
+          break;
+
+        // avoid infinite loop
+        if (isAfterMaxYear (nNextFireTime))
         {
-          m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
+          nNextFireTime = NO_FIRE_TIME;
         }
+        else
+          if (nNextFireTime < now && now - nNextFireTime >= misfireThreshold)
+          {
+            nNextFireTime = getFireTimeAfterMillis (nNextFireTime);
+          }
       }
     }
+    setNextFireTimeMillis (nNextFireTime);
   }
 
   /**
@@ -485,14 +444,8 @@ public class CronTrigger extends AbstractTrigger <CronTrigger> implements ICronT
   @Override
   public Date computeFirstFireTime (final ICalendar calendar)
   {
-    m_aNextFireTime = getFireTimeAfter (new Date (getStartTime ().getTime () - 1000l));
-
-    while (m_aNextFireTime != null && calendar != null && !calendar.isTimeIncluded (m_aNextFireTime.getTime ()))
-    {
-      m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
-    }
-
-    return m_aNextFireTime;
+    setNextFireTimeMillis (getIncludedFireTimeAfterMillis (getStartTime ().getTime () - 1000l, calendar));
+    return getNextFireTime ();
   }
 
   public String getExpressionSummary ()
@@ -102,8 +102,6 @@ public class DailyTimeIntervalTrigger extends AbstractTrigger <DailyTimeInterval
 {
   private Date m_aStartTime;
   private Date m_aEndTime;
-  private Date m_aNextFireTime;
-  private Date m_aPreviousFireTime;
   private int m_nRepeatCount = REPEAT_INDEFINITELY;
   private int m_nRepeatInterval = 1;
   private EIntervalUnit m_eRepeatIntervalUnit = EIntervalUnit.MINUTE;
@@ -118,8 +116,6 @@ public class DailyTimeIntervalTrigger extends AbstractTrigger <DailyTimeInterval
     super (aOther);
     m_aStartTime = QCloneUtils.getClone (aOther.m_aStartTime);
     m_aEndTime = QCloneUtils.getClone (aOther.m_aEndTime);
-    m_aNextFireTime = QCloneUtils.getClone (aOther.m_aNextFireTime);
-    m_aPreviousFireTime = QCloneUtils.getClone (aOther.m_aPreviousFireTime);
     m_nRepeatCount = aOther.m_nRepeatCount;
     m_nRepeatInterval = aOther.m_nRepeatInterval;
     m_eRepeatIntervalUnit = aOther.m_eRepeatIntervalUnit;
@@ -422,6 +418,27 @@ public class DailyTimeIntervalTrigger extends AbstractTrigger <DailyTimeInterval
     m_nTimesTriggered = timesTriggered;
   }
 
+  /**
+   * @return <code>true</code> if the trigger fired for the last time and will
+   *         never fire again.
+   */
+  public boolean isComplete ()
+  {
+    return m_bComplete;
+  }
+
+  /**
+   * Set whether the trigger fired for the last time. Only needed to restore the
+   * state of a trigger.
+   *
+   * @param bComplete
+   *        <code>true</code> if the trigger will never fire again.
+   */
+  public void setComplete (final boolean bComplete)
+  {
+    m_bComplete = bComplete;
+  }
+
   @Override
   protected boolean validateMisfireInstruction (final EMisfireInstruction misfireInstruction)
   {
@@ -468,7 +485,7 @@ public class DailyTimeIntervalTrigger extends AbstractTrigger <DailyTimeInterval
       case MISFIRE_INSTRUCTION_FIRE_ONCE_NOW:
       {
         // fire once now...
-        setNextFireTime (new Date ());
+        setNextFireTimeMillis (System.currentTimeMillis ());
         // the new fire time afterward will magically preserve the original
         // time of day for firing for day/week/month interval triggers,
         // because of the way getFireTimeAfter() works - in its always
@@ -478,12 +495,7 @@ public class DailyTimeIntervalTrigger extends AbstractTrigger <DailyTimeInterval
       }
       case MISFIRE_INSTRUCTION_DO_NOTHING:
       {
-        Date newFireTime = getFireTimeAfter (new Date ());
-        while (newFireTime != null && cal != null && !cal.isTimeIncluded (newFireTime.getTime ()))
-        {
-          newFireTime = getFireTimeAfter (newFireTime);
-        }
-        setNextFireTime (newFireTime);
+        setNextFireTimeMillis (getIncludedFireTimeAfterMillis (System.currentTimeMillis (), cal));
         break;
       }
     }
@@ -502,25 +514,11 @@ public class DailyTimeIntervalTrigger extends AbstractTrigger <DailyTimeInterval
   public void triggered (final ICalendar calendar)
   {
     m_nTimesTriggered++;
-    m_aPreviousFireTime = m_aNextFireTime;
-    m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
-
-    while (m_aNextFireTime != null && calendar != null && !calendar.isTimeIncluded (m_aNextFireTime.getTime ()))
-    {
-      m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
-      if (m_aNextFireTime == null)
-        break;
-
-      // avoid infinite loop
-      final Calendar c = PDTFactory.createCalendar ();
-      c.setTime (m_aNextFireTime);
-      if (c.get (Calendar.YEAR) > CQuartz.MAX_YEAR)
-      {
-        m_aNextFireTime = null;
-      }
-    }
+    final long nNextFireTime = getNextFireTimeMillis ();
+    setPreviousFireTimeMillis (nNextFireTime);
+    setNextFireTimeMillis (getIncludedFireTimeAfterMillis (nNextFireTime, calendar));
 
-    if (m_aNextFireTime == null)
+    if (getNextFireTimeMillis () == NO_FIRE_TIME)
       m_bComplete = true;
   }
 
@@ -530,34 +528,30 @@ public class DailyTimeIntervalTrigger extends AbstractTrigger <DailyTimeInterval
    */
   public void updateWithNewCalendar (final ICalendar calendar, final long misfireThreshold)
   {
-    m_aNextFireTime = getFireTimeAfter (m_aPreviousFireTime);
-    if (m_aNextFireTime == null || calendar == null)
-      return;
+    long nNextFireTime = getFireTimeAfterMillis (getPreviousFireTimeMillis ());
 
-    final Date now = new Date ();
-    while (m_aNextFireTime != null && !calendar.isTimeIncluded (m_aNextFireTime.getTime ()))
+    if (nNextFireTime != NO_FIRE_TIME && calendar != null)
     {
-      m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
-      if (m_aNextFireTime == null)
-        break;
-
-      // avoid infinite loop
-      final Calendar c = PDTFactory.createCalendar ();
-      c.setTime (m_aNextFireTime);
-      if (c.get (Calendar.YEAR) > CQuartz.MAX_YEAR)
+      final long now = System.currentTimeMillis ();
+      while (nNextFireTime != NO_FIRE_TIME && !calendar.isTimeIncluded (nNextFireTime))
       {
-        m_aNextFireTime = null;
-      }
+        nNextFireTime = getFireTimeAfterMillis (nNextFireTime);
+        if (nNextFireTime == NO_FIRE_TIME)
+          break;
 
-      if (m_aNextFireTime != null && m_aNextFireTime.before (now))
-      {
-        final long diff = now.getTime () - m_aNextFireTime.getTime ();
-        if (diff >= misfireThreshold)
+        // avoid infinite loop
+        if (isAfterMaxYear (nNextFireTime))
         {
-          m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
+          nNextFireTime = NO_FIRE_TIME;
         }
+        else
+          if (nNextFireTime < now && now - nNextFireTime >= misfireThreshold)
+          {
+            nNextFireTime = getFireTimeAfterMillis (nNextFireTime);
+          }
       }
     }
+    setNextFireTimeMillis (nNextFireTime);
   }
 
   /**
@@ -579,25 +573,25 @@ public class DailyTimeIntervalTrigger extends AbstractTrigger <DailyTimeInterval
   @Override
   public Date computeFirstFireTime (final ICalendar calendar)
   {
-    m_aNextFireTime = getFireTimeAfter (new Date (getStartTime ().getTime () - 1000L));
+    long nNextFireTime = getFireTimeAfterMillis (getStartTime ().getTime () - 1000L);
 
     // Check calendar for date-time exclusion
-    while (m_aNextFireTime != null && calendar != null && !calendar.isTimeIncluded (m_aNextFireTime.getTime ()))
+    while (nNextFireTime != NO_FIRE_TIME && calendar != null && !calendar.isTimeIncluded (nNextFireTime))
     {
-      m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
-      if (m_aNextFireTime == null)
+      nNextFireTime = getFireTimeAfterMillis (nNextFireTime);
+      if (nNextFireTime == NO_FIRE_TIME)
         break;
 
       // avoid infinite loop
-      final Calendar c = PDTFactory.createCalendar ();
-      c.setTime (m_aNextFireTime);
-      if (c.get (Calendar.YEAR) > CQuartz.MAX_YEAR)
+      if (isAfterMaxYear (nNextFireTime))
       {
+        setNextFireTimeMillis (nNextFireTime);
         return null;
       }
     }
 
-    return m_aNextFireTime;
+    setNextFireTimeMillis (nNextFireTime);
+    return getNextFireTime ();
   }
 
   @NonNull
@@ -608,64 +602,6 @@ public class DailyTimeIntervalTrigger extends AbstractTrigger <DailyTimeInterval
     return cal;
   }
 
-  /**
-   * <p>
-   * Returns the next time at which the <code>Trigger</code> is scheduled to
-   * fire. If the trigger will not fire again, <code>null</code> will be
-   * returned. Note that the time returned can possibly be in the past, if the
-   * time that was computed for the trigger to next fire has already arrived,
-   * but the scheduler has not yet been able to fire the trigger (which would
-   * likely be due to lack of resources e.g. threads).
-   * </p>
-   * <p>
-   * The value returned is not guaranteed to be valid until after the
-   * <code>Trigger</code> has been added to the scheduler.
-   * </p>
-   */
-  public Date getNextFireTime ()
-  {
-    return m_aNextFireTime;
-  }
-
-  /**
-   * <p>
-   * Returns the previous time at which the
-   * <code>DailyTimeIntervalTrigger</code> fired. If the trigger has not yet
-   * fired, <code>null</code> will be returned.
-   */
-  public Date getPreviousFireTime ()
-  {
-    return m_aPreviousFireTime;
-  }
-
-  /**
-   * <p>
-   * Set the next time at which the <code>DailyTimeIntervalTrigger</code> should
-   * fire.
-   * </p>
-   * <p>
-   * <b>This method should not be invoked by client code.</b>
-   * </p>
-   */
-  public void setNextFireTime (final Date nextFireTime)
-  {
-    m_aNextFireTime = nextFireTime;
-  }
-
-  /**
-   * <p>
-   * Set the previous time at which the <code>DailyTimeIntervalTrigger</code>
-   * fired.
-   * </p>
-   * <p>
-   * <b>This method should not be invoked by client code.</b>
-   * </p>
-   */
-  public void setPreviousFireTime (final Date previousFireTime)
-  {
-    m_aPreviousFireTime = previousFireTime;
-  }
-
   /**
    * <p>
    * Returns the next time at which the <code>DailyTimeIntervalTrigger</code>
@@ -869,17 +805,6 @@ public class DailyTimeIntervalTrigger extends AbstractTrigger <DailyTimeInterval
     return eTime;
   }
 
-  /**
-   * <p>
-   * Determines whether or not the <code>DailyTimeIntervalTrigger</code> will
-   * occur again.
-   * </p>
-   */
-  public boolean mayFireAgain ()
-  {
-    return (getNextFireTime () != null);
-  }
-
   /**
    * <p>
    * Validates whether the properties of the <code>JobDetail</code> are valid
@@ -0,0 +1,287 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.impl.triggers;
+
+import java.util.Date;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.quartz.ICalendar;
+import com.helger.quartz.IScheduleBuilder;
+import com.helger.quartz.ISimpleTrigger;
+import com.helger.quartz.OneShotScheduleBuilder;
+
+/**
+ * <p>
+ * A concrete <code>{@link com.helger.quartz.ITrigger}</code> that is used to
+ * fire a <code>{@link com.helger.quartz.IJobDetail}</code> exactly once, at its
+ * start time. It behaves like a {@link SimpleTrigger} with a repeat count of
+ * <code>0</code>, but keeps all times as primitives and has no repeat state,
+ * which makes it the representation of choice if millions of delayed tasks
+ * are scheduled.
+ * </p>
+ *
+ * @see OneShotScheduleBuilder
+ * @see SimpleTrigger
+ * @author Philip Helger
+ */
+public class OneShotTrigger extends AbstractTrigger <OneShotTrigger> implements ISimpleTrigger
+{
+  private long m_nStartTime = NO_FIRE_TIME;
+  private long m_nEndTime = NO_FIRE_TIME;
+
+  public OneShotTrigger (@NonNull final OneShotTrigger aOther)
+  {
+    super (aOther);
+    m_nStartTime = aOther.m_nStartTime;
+    m_nEndTime = aOther.m_nEndTime;
+  }
+
+  /**
+   * Create a <code>OneShotTrigger</code> with no settings.
+   */
+  public OneShotTrigger ()
+  {}
+
+  @Nullable
+  public final Date getStartTime ()
+  {
+    return toDate (m_nStartTime);
+  }
+
+  /**
+   * @return The start time, which is also the only fire time, in milliseconds
+   *         since the epoch or {@link #NO_FIRE_TIME} if it was not yet set.
+   */
+  public final long getStartTimeMillis ()
+  {
+    return m_nStartTime;
+  }
+
+  public void setStartTime (@NonNull final Date startTime)
+  {
+    ValueEnforcer.notNull (startTime, "StartTime");
+    setStartTimeMillis (startTime.getTime ());
+  }
+
+  /**
+   * Set the start time, which is also the only fire time.
+   *
+   * @param nStartTime
+   *        Time in milliseconds since the epoch.
+   */
+  public void setStartTimeMillis (final long nStartTime)
+  {
+    if (m_nEndTime != NO_FIRE_TIME && m_nEndTime < nStartTime)
+      throw new IllegalArgumentException ("End time cannot be before start time");
+
+    m_nStartTime = nStartTime;
+  }
+
+  @Nullable
+  public final Date getEndTime ()
+  {
+    return toDate (m_nEndTime);
+  }
+
+  public final void setEndTime (@Nullable final Date endTime)
+  {
+    final long nEndTime = toMillis (endTime);
+    if (m_nStartTime != NO_FIRE_TIME && nEndTime != NO_FIRE_TIME && m_nStartTime > nEndTime)
+      throw new IllegalArgumentException ("End time cannot be before start time");
+
+    m_nEndTime = nEndTime;
+  }
+
+  /**
+   * @return Always <code>0</code>.
+   */
+  public int getRepeatCount ()
+  {
+    return 0;
+  }
+
+  /**
+   * @return Always <code>0</code>.
+   */
+  public long getRepeatInterval ()
+  {
+    return 0;
+  }
+
+  /**
+   * @return <code>1</code> if the trigger already fired, <code>0</code>
+   *         otherwise.
+   */
+  public int getTimesTriggered ()
+  {
+    return getPreviousFireTimeMillis () == NO_FIRE_TIME ? 0 : 1;
+  }
+
+  @Override
+  protected boolean validateMisfireInstruction (final EMisfireInstruction misfireInstruction)
+  {
+    switch (misfireInstruction)
+    {
+      case MISFIRE_INSTRUCTION_IGNORE_MISFIRE_POLICY:
+      case MISFIRE_INSTRUCTION_SMART_POLICY:
+      case MISFIRE_INSTRUCTION_FIRE_ONCE_NOW:
+      case MISFIRE_INSTRUCTION_RESCHEDULE_NEXT_WITH_REMAINING_COUNT:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * <p>
+   * Updates the <code>OneShotTrigger</code>'s state based on the
+   * MISFIRE_INSTRUCTION_XXX that was selected when the
+   * <code>OneShotTrigger</code> was created.
+   * </p>
+   * <p>
+   * If the misfire instruction is set to MISFIRE_INSTRUCTION_SMART_POLICY, then
+   * it will be interpreted as <code>MISFIRE_INSTRUCTION_FIRE_NOW</code>.
+   * MISFIRE_INSTRUCTION_RESCHEDULE_NEXT_WITH_REMAINING_COUNT discards the
+   * trigger, because there is no next fire time.
+   * </p>
+   */
+  public void updateAfterMisfire (final ICalendar cal)
+  {
+    switch (getMisfireInstruction ())
+    {
+      case MISFIRE_INSTRUCTION_IGNORE_MISFIRE_POLICY:
+        return;
+      case MISFIRE_INSTRUCTION_RESCHEDULE_NEXT_WITH_REMAINING_COUNT:
+        setNextFireTimeMillis (NO_FIRE_TIME);
+        break;
+      default:
+        setNextFireTimeMillis (System.currentTimeMillis ());
+        break;
+    }
+  }
+
+  @Override
+  public void triggered (final ICalendar calendar)
+  {
+    setPreviousFireTimeMillis (getNextFireTimeMillis ());
+    setNextFireTimeMillis (NO_FIRE_TIME);
+  }
+
+  public void updateWithNewCalendar (final ICalendar calendar, final long misfireThreshold)
+  {
+    long nNextFireTime = getFireTimeAfterMillis (getPreviousFireTimeMillis ());
+    if (nNextFireTime != NO_FIRE_TIME && calendar != null && !calendar.isTimeIncluded (nNextFireTime))
+      nNextFireTime = NO_FIRE_TIME;
+    setNextFireTimeMillis (nNextFireTime);
+  }
+
+  /**
+   * <p>
+   * Called by the scheduler at the time a <code>Trigger</code> is first added
+   * to the scheduler. The first and only fire time is the start time, unless
+   * it is excluded by the provided calendar in which case the trigger will
+   * never fire.
+   * </p>
+   */
+  @Override
+  public Date computeFirstFireTime (final ICalendar calendar)
+  {
+    long nNextFireTime = m_nStartTime;
+    if (nNextFireTime != NO_FIRE_TIME && calendar != null && !calendar.isTimeIncluded (nNextFireTime))
+      nNextFireTime = NO_FIRE_TIME;
+    setNextFireTimeMillis (nNextFireTime);
+    return getNextFireTime ();
+  }
+
+  public Date getFireTimeAfter (@Nullable final Date aAfterTime)
+  {
+    return toDate (getFireTimeAfterMillis (toMillis (aAfterTime)));
+  }
+
+  @Override
+  protected long getFireTimeAfterMillis (final long nAfterTime)
+  {
+    if (getPreviousFireTimeMillis () != NO_FIRE_TIME)
+      return NO_FIRE_TIME;
+
+    final long afterMillis = nAfterTime == NO_FIRE_TIME ? System.currentTimeMillis () : nAfterTime;
+    return afterMillis < m_nStartTime ? m_nStartTime : NO_FIRE_TIME;
+  }
+
+  /**
+   * @return The start time, as it is the only fire time. Note that the return
+   *         time may be in the past.
+   */
+  public Date getFinalFireTime ()
+  {
+    return getStartTime ();
+  }
+
+  /**
+   * Get a {@link IScheduleBuilder} that is configured to produce a schedule
+   * identical to this trigger's schedule.
+   *
+   * @see #getTriggerBuilder()
+   */
+  @Override
+  public IScheduleBuilder <OneShotTrigger> getScheduleBuilder ()
+  {
+    final OneShotScheduleBuilder sb = OneShotScheduleBuilder.oneShotSchedule ();
+    switch (getMisfireInstruction ())
+    {
+      case MISFIRE_INSTRUCTION_IGNORE_MISFIRE_POLICY:
+        sb.withMisfireHandlingInstructionIgnoreMisfires ();
+        break;
+      case MISFIRE_INSTRUCTION_FIRE_ONCE_NOW:
+        sb.withMisfireHandlingInstructionFireNow ();
+        break;
+      case MISFIRE_INSTRUCTION_RESCHEDULE_NEXT_WITH_REMAINING_COUNT:
+        sb.withMisfireHandlingInstructionDiscard ();
+        break;
+    }
+    return sb;
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  public OneShotTrigger getClone ()
+  {
+    return new OneShotTrigger (this);
+  }
+
+  @NonNull
+  public static OneShotTrigger create (@NonNull final String name,
+                                       @Nullable final String group,
+                                       @NonNull final String jobName,
+                                       @Nullable final String jobGroup,
+                                       final long nFireTime)
+  {
+    final OneShotTrigger ret = new OneShotTrigger ();
+    ret.setName (name);
+    ret.setGroup (group);
+    ret.setJobName (jobName);
+    ret.setJobGroup (jobGroup);
+    ret.setStartTimeMillis (nFireTime);
+    return ret;
+  }
+}
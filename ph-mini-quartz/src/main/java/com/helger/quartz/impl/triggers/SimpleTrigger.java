@@ -18,7 +18,6 @@
  */
 package com.helger.quartz.impl.triggers;
 
-import java.util.Calendar;
 import java.util.Date;
 
 import org.jspecify.annotations.NonNull;
@@ -26,8 +25,6 @@ import org.jspecify.annotations.Nullable;
 
 import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.base.enforce.ValueEnforcer;
-import com.helger.datetime.helper.PDTFactory;
-import com.helger.quartz.CQuartz;
 import com.helger.quartz.ICalendar;
 import com.helger.quartz.IScheduleBuilder;
 import com.helger.quartz.ISimpleTrigger;
@@ -52,8 +49,6 @@ public class SimpleTrigger extends AbstractTrigger <SimpleTrigger> implements IS
 {
   private Date m_aStartTime;
   private Date m_aEndTime;
-  private Date m_aNextFireTime;
-  private Date m_aPreviousFireTime;
   private int m_nRepeatCount = 0;
   private long m_nRepeatInterval = 0;
   private int m_nTimesTriggered = 0;
@@ -63,8 +58,6 @@ public class SimpleTrigger extends AbstractTrigger <SimpleTrigger> implements IS
     super (aOther);
     m_aStartTime = QCloneUtils.getClone (aOther.m_aStartTime);
     m_aEndTime = QCloneUtils.getClone (aOther.m_aEndTime);
-    m_aNextFireTime = QCloneUtils.getClone (aOther.m_aNextFireTime);
-    m_aPreviousFireTime = QCloneUtils.getClone (aOther.m_aPreviousFireTime);
     m_nRepeatCount = aOther.m_nRepeatCount;
     m_nRepeatInterval = aOther.m_nRepeatInterval;
     m_nTimesTriggered = aOther.m_nTimesTriggered;
@@ -251,55 +244,24 @@ public class SimpleTrigger extends AbstractTrigger <SimpleTrigger> implements IS
         return;
       case MISFIRE_INSTRUCTION_FIRE_ONCE_NOW:
       {
-        setNextFireTime (new Date ());
+        setNextFireTimeMillis (System.currentTimeMillis ());
         break;
       }
       case MISFIRE_INSTRUCTION_RESCHEDULE_NEXT_WITH_EXISTING_COUNT:
       {
-        Date newFireTime = getFireTimeAfter (new Date ());
-        while (newFireTime != null && cal != null && !cal.isTimeIncluded (newFireTime.getTime ()))
-        {
-          newFireTime = getFireTimeAfter (newFireTime);
-
-          if (newFireTime == null)
-            break;
-
-          // avoid infinite loop
-          final Calendar c = PDTFactory.createCalendar ();
-          c.setTime (newFireTime);
-          if (c.get (Calendar.YEAR) > CQuartz.MAX_YEAR)
-          {
-            newFireTime = null;
-          }
-        }
-        setNextFireTime (newFireTime);
+        setNextFireTimeMillis (getIncludedFireTimeAfterMillis (System.currentTimeMillis (), cal));
         break;
       }
       case MISFIRE_INSTRUCTION_RESCHEDULE_NEXT_WITH_REMAINING_COUNT:
       {
-        Date newFireTime = getFireTimeAfter (new Date ());
-        while (newFireTime != null && cal != null && !cal.isTimeIncluded (newFireTime.getTime ()))
-        {
-          newFireTime = getFireTimeAfter (newFireTime);
-
-          if (newFireTime == null)
-            break;
-
-          // avoid infinite loop
-          final Calendar c = PDTFactory.createCalendar ();
-          c.setTime (newFireTime);
-          if (c.get (Calendar.YEAR) > CQuartz.MAX_YEAR)
-          {
-            newFireTime = null;
-          }
-        }
-        if (newFireTime != null)
+        final long newFireTime = getIncludedFireTimeAfterMillis (System.currentTimeMillis (), cal);
+        if (newFireTime != NO_FIRE_TIME)
         {
-          final int timesMissed = computeNumTimesFiredBetween (m_aNextFireTime, newFireTime);
+          final int timesMissed = _computeNumTimesFiredBetween (getNextFireTimeMillis (), newFireTime);
           setTimesTriggered (getTimesTriggered () + timesMissed);
         }
 
-        setNextFireTime (newFireTime);
+        setNextFireTimeMillis (newFireTime);
         break;
       }
       case MISFIRE_INSTRUCTION_RESCHEDULE_NOW_WITH_EXISTING_REPEAT_COUNT:
@@ -326,7 +288,7 @@ public class SimpleTrigger extends AbstractTrigger <SimpleTrigger> implements IS
       {
         final Date newFireTime = new Date ();
 
-        final int timesMissed = computeNumTimesFiredBetween (m_aNextFireTime, newFireTime);
+        final int timesMissed = _computeNumTimesFiredBetween (getNextFireTimeMillis (), newFireTime.getTime ());
 
         if (m_nRepeatCount != 0 && m_nRepeatCount != REPEAT_INDEFINITELY)
         {
@@ -366,25 +328,9 @@ public class SimpleTrigger extends AbstractTrigger <SimpleTrigger> implements IS
   public void triggered (final ICalendar calendar)
   {
     m_nTimesTriggered++;
-    m_aPreviousFireTime = m_aNextFireTime;
-    m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
-
-    while (m_aNextFireTime != null && calendar != null && !calendar.isTimeIncluded (m_aNextFireTime.getTime ()))
-    {
-
-      m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
-
-      if (m_aNextFireTime == null)
-        break;
-
-      // avoid infinite loop
-      final Calendar c = PDTFactory.createCalendar ();
-      c.setTime (m_aNextFireTime);
-      if (c.get (Calendar.YEAR) > CQuartz.MAX_YEAR)
-      {
-        m_aNextFireTime = null;
-      }
-    }
+    final long nNextFireTime = getNextFireTimeMillis ();
+    setPreviousFireTimeMillis (nNextFireTime);
+    setNextFireTimeMillis (getIncludedFireTimeAfterMillis (nNextFireTime, calendar));
   }
 
   /**
@@ -393,39 +339,31 @@ public class SimpleTrigger extends AbstractTrigger <SimpleTrigger> implements IS
    */
   public void updateWithNewCalendar (final ICalendar calendar, final long misfireThreshold)
   {
-    m_aNextFireTime = getFireTimeAfter (m_aPreviousFireTime);
-
-    if (m_aNextFireTime == null || calendar == null)
-    {
-      return;
-    }
+    long nNextFireTime = getFireTimeAfterMillis (getPreviousFireTimeMillis ());
 
-    final Date now = new Date ();
-    while (m_aNextFireTime != null && !calendar.isTimeIncluded (m_aNextFireTime.getTime ()))
+    if (nNextFireTime != NO_FIRE_TIME && calendar != null)
     {
-
-      m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
-
-      if (m_aNextFireTime == null)
-        break;
-
-      // avoid infinite loop
-      final Calendar c = PDTFactory.createCalendar ();
-      c.setTime (m_aNextFireTime);
-      if (c.get (Calendar.YEAR) > CQuartz.MAX_YEAR)
+      final long now = System.currentTimeMillis ();
+      while (nNextFireTime != NO_FIRE_TIME && !calendar.isTimeIncluded (nNextFireTime))
       {
-        m_aNextFireTime = null;
-      }
+        nNextFireTime = getFireTimeAfterMillis (nNextFireTime);
 
-      if (m_aNextFireTime != null && m_aNextFireTime.before (now))
-      {
-        final long diff = now.getTime () - m_aNextFireTime.getTime ();
-        if (diff >= misfireThreshold)
+        if (nNextFireTime == NO_FIRE_TIME)
+          break;
+
+        // avoid infinite loop
+        if (isAfterMaxYear (nNextFireTime))
         {
-          m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
+          nNextFireTime = NO_FIRE_TIME;
         }
+        else
+          if (nNextFireTime < now && now - nNextFireTime >= misfireThreshold)
+          {
+            nNextFireTime = getFireTimeAfterMillis (nNextFireTime);
+          }
       }
     }
+    setNextFireTimeMillis (nNextFireTime);
   }
 
   /**
@@ -447,74 +385,25 @@ public class SimpleTrigger extends AbstractTrigger <SimpleTrigger> implements IS
   @Override
   public Date computeFirstFireTime (final ICalendar calendar)
   {
-    m_aNextFireTime = getStartTime ();
+    long nNextFireTime = toMillis (getStartTime ());
 
-    while (m_aNextFireTime != null && calendar != null && !calendar.isTimeIncluded (m_aNextFireTime.getTime ()))
+    while (nNextFireTime != NO_FIRE_TIME && calendar != null && !calendar.isTimeIncluded (nNextFireTime))
     {
-      m_aNextFireTime = getFireTimeAfter (m_aNextFireTime);
+      nNextFireTime = getFireTimeAfterMillis (nNextFireTime);
 
-      if (m_aNextFireTime == null)
+      if (nNextFireTime == NO_FIRE_TIME)
         break;
 
       // avoid infinite loop
-      final Calendar c = PDTFactory.createCalendar ();
-      c.setTime (m_aNextFireTime);
-      if (c.get (Calendar.YEAR) > CQuartz.MAX_YEAR)
+      if (isAfterMaxYear (nNextFireTime))
       {
+        setNextFireTimeMillis (nNextFireTime);
         return null;
       }
     }
 
-    return m_aNextFireTime;
-  }
-
-  /**
-   * <p>
-   * Returns the next time at which the <code>Trigger</code> is scheduled to
-   * fire. If the trigger will not fire again, <code>null</code> will be
-   * returned. Note that the time returned can possibly be in the past, if the
-   * time that was computed for the trigger to next fire has already arrived,
-   * but the scheduler has not yet been able to fire the trigger (which would
-   * likely be due to lack of resources e.g. threads).
-   * </p>
-   * <p>
-   * The value returned is not guaranteed to be valid until after the
-   * <code>Trigger</code> has been added to the scheduler.
-   * </p>
-   *
-   * @see com.helger.quartz.TriggerUtils#computeFireTimesBetween(com.helger.quartz.spi.IOperableTrigger,
-   *      ICalendar, Date, Date)
-   */
-  public Date getNextFireTime ()
-  {
-    return m_aNextFireTime;
-  }
-
-  /**
-   * Returns the previous time at which the <code>SimpleTrigger</code> fired. If
-   * the trigger has not yet fired, <code>null</code> will be returned.
-   */
-  public Date getPreviousFireTime ()
-  {
-    return m_aPreviousFireTime;
-  }
-
-  /**
-   * Set the next time at which the <code>SimpleTrigger</code> should fire.<br>
-   * <b>This method should not be invoked by client code.</b>
-   */
-  public void setNextFireTime (final Date nextFireTime)
-  {
-    m_aNextFireTime = nextFireTime;
-  }
-
-  /**
-   * Set the previous time at which the <code>SimpleTrigger</code> fired.<br>
-   * <b>This method should not be invoked by client code.</b>
-   */
-  public void setPreviousFireTime (final Date previousFireTime)
-  {
-    m_aPreviousFireTime = previousFireTime;
+    setNextFireTimeMillis (nNextFireTime);
+    return getNextFireTime ();
   }
 
   /**
@@ -528,35 +417,38 @@ public class SimpleTrigger extends AbstractTrigger <SimpleTrigger> implements IS
    *        After time. May be <code>null</code>
    */
   public Date getFireTimeAfter (@Nullable final Date aAfterTime)
+  {
+    return toDate (getFireTimeAfterMillis (toMillis (aAfterTime)));
+  }
+
+  @Override
+  protected long getFireTimeAfterMillis (final long nAfterTime)
   {
     if ((m_nTimesTriggered > m_nRepeatCount) && (m_nRepeatCount != REPEAT_INDEFINITELY))
-      return null;
+      return NO_FIRE_TIME;
 
-    Date afterTime = aAfterTime;
-    if (afterTime == null)
-      afterTime = new Date ();
+    final long startMillis = m_aStartTime.getTime ();
+    final long afterMillis = nAfterTime == NO_FIRE_TIME ? System.currentTimeMillis () : nAfterTime;
 
-    if (m_nRepeatCount == 0 && afterTime.compareTo (getStartTime ()) >= 0)
-      return null;
+    if (m_nRepeatCount == 0 && afterMillis >= startMillis)
+      return NO_FIRE_TIME;
 
-    final long startMillis = getStartTime ().getTime ();
-    final long afterMillis = afterTime.getTime ();
-    final long endMillis = (getEndTime () == null) ? Long.MAX_VALUE : getEndTime ().getTime ();
+    final long endMillis = m_aEndTime == null ? Long.MAX_VALUE : m_aEndTime.getTime ();
 
     if (endMillis <= afterMillis)
-      return null;
+      return NO_FIRE_TIME;
 
     if (afterMillis < startMillis)
-      return new Date (startMillis);
+      return startMillis;
 
     final long numberOfTimesExecuted = ((afterMillis - startMillis) / m_nRepeatInterval) + 1;
 
     if ((numberOfTimesExecuted > m_nRepeatCount) && (m_nRepeatCount != REPEAT_INDEFINITELY))
-      return null;
+      return NO_FIRE_TIME;
 
-    final Date time = new Date (startMillis + (numberOfTimesExecuted * m_nRepeatInterval));
-    if (endMillis <= time.getTime ())
-      return null;
+    final long time = startMillis + (numberOfTimesExecuted * m_nRepeatInterval);
+    if (endMillis <= time)
+      return NO_FIRE_TIME;
     return time;
   }
 
@@ -581,15 +473,17 @@ public class SimpleTrigger extends AbstractTrigger <SimpleTrigger> implements IS
 
   public int computeNumTimesFiredBetween (final Date start, final Date end)
   {
+    return _computeNumTimesFiredBetween (start.getTime (), end.getTime ());
+  }
 
+  private int _computeNumTimesFiredBetween (final long nStart, final long nEnd)
+  {
     if (m_nRepeatInterval < 1)
     {
       return 0;
     }
 
-    final long time = end.getTime () - start.getTime ();
-
-    return (int) (time / m_nRepeatInterval);
+    return (int) ((nEnd - nStart) / m_nRepeatInterval);
   }
 
   /**
@@ -622,16 +516,6 @@ public class SimpleTrigger extends AbstractTrigger <SimpleTrigger> implements IS
     return getFireTimeBefore (getEndTime ());
   }
 
-  /**
-   * <p>
-   * Determines whether or not the <code>SimpleTrigger</code> will occur again.
-   * </p>
-   */
-  public boolean mayFireAgain ()
-  {
-    return (getNextFireTime () != null);
-  }
-
   /**
    * <p>
    * Validates whether the properties of the <code>JobDetail</code> are valid
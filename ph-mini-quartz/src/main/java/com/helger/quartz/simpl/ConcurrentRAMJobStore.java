@@ -0,0 +1,1800 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.simpl;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonempty;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsCollection;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsSet;
+import com.helger.quartz.CopyOnWriteJobDataMap;
+import com.helger.quartz.ICalendar;
+import com.helger.quartz.IJobDetail;
+import com.helger.quartz.ITrigger;
+import com.helger.quartz.ITrigger.ECompletedExecutionInstruction;
+import com.helger.quartz.ITrigger.EMisfireInstruction;
+import com.helger.quartz.ITrigger.ETriggerState;
+import com.helger.quartz.JobDataMap;
+import com.helger.quartz.JobKey;
+import com.helger.quartz.JobPersistenceException;
+import com.helger.quartz.ObjectAlreadyExistsException;
+import com.helger.quartz.QCloneUtils;
+import com.helger.quartz.TriggerKey;
+import com.helger.quartz.impl.JobDetailSnapshot;
+import com.helger.quartz.impl.TriggerSnapshot;
+import com.helger.quartz.impl.matchers.GroupMatcher;
+import com.helger.quartz.impl.matchers.StringMatcher.EStringOperatorName;
+import com.helger.quartz.spi.IClassLoadHelper;
+import com.helger.quartz.spi.IJobStore;
+import com.helger.quartz.spi.IOperableTrigger;
+import com.helger.quartz.spi.ISchedulerSignaler;
+import com.helger.quartz.spi.TriggerFiredBundle;
+import com.helger.quartz.spi.TriggerFiredResult;
+import com.helger.quartz.utils.Key;
+
+/**
+ * A volatile {@link IJobStore} with the same semantics as {@link RAMJobStore},
+ * but without a single global lock:
+ * <ul>
+ * <li>All maps are concurrent, so pure lookups (e.g.
+ * {@link #checkExists(TriggerKey)}, {@link #getTriggerState(TriggerKey)},
+ * {@link #getJobKeys(GroupMatcher)}) don't lock at all.</li>
+ * <li>Modifications of a job and its triggers are guarded by one of a fixed
+ * set of locks, selected by the hash code of the job key. Modifications of
+ * unrelated jobs therefore usually proceed in parallel.</li>
+ * <li>The time index is guarded by its own lock, which is only held for the
+ * duration of a single index operation. So trigger acquisition by the
+ * scheduler thread only contends with operations on the same job.</li>
+ * <li>Optionally the triggers can be partitioned into several shards by the
+ * hash code of the trigger key (see {@link #setShardCount(int)}), each with
+ * its own time index. The scheduler then runs one scheduler thread per
+ * shard.</li>
+ * <li>Operations spanning multiple groups or calendars (e.g. pausing a group,
+ * storing a calendar) are rare and take an exclusive structure lock.</li>
+ * </ul>
+ * The lock order is: structure lock, job lock(s), time index lock.
+ *
+ * @author Philip Helger
+ */
+public class ConcurrentRAMJobStore implements IJobStore
+{
+  /** The default number of job locks */
+  public static final int DEFAULT_LOCK_STRIPES = 64;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (ConcurrentRAMJobStore.class);
+  private static final AtomicLong FIRED_TRIGGER_RECORD_COUNTER = new AtomicLong (System.currentTimeMillis ());
+
+  private final Map <JobKey, JobWrapper> m_aJobsByKey = new ConcurrentHashMap <> (1000);
+  private final Map <TriggerKey, TriggerWrapper> m_aTriggersByKey = new ConcurrentHashMap <> (1000);
+  private final Map <String, Map <JobKey, JobWrapper>> m_aJobsByGroup = new ConcurrentHashMap <> (25);
+  private final Map <String, Map <TriggerKey, TriggerWrapper>> m_aTriggersByGroup = new ConcurrentHashMap <> (25);
+  // Inner maps are only accessed while holding the respective job lock
+  private final Map <JobKey, ICommonsMap <TriggerKey, TriggerWrapper>> m_aTriggersByJob = new ConcurrentHashMap <> (1000);
+  // Inner maps are only modified atomically via compute
+  private final Map <String, ICommonsMap <TriggerKey, TriggerWrapper>> m_aTriggersByCalendar = new ConcurrentHashMap <> (25);
+  private final Map <String, ICalendar> m_aCalendarsByName = new ConcurrentHashMap <> (25);
+  private final Set <String> m_aPausedTriggerGroups = ConcurrentHashMap.newKeySet ();
+  private final Set <String> m_aPausedJobGroups = ConcurrentHashMap.newKeySet ();
+  private final Set <JobKey> m_aBlockedJobs = ConcurrentHashMap.newKeySet ();
+
+  private final ReentrantReadWriteLock m_aStructureLock = new ReentrantReadWriteLock ();
+  private ReentrantLock [] m_aJobLocks;
+  // One time index per shard. Each index is guarded by its own monitor. The
+  // array is only replaced while holding the exclusive structure lock.
+  private volatile ITriggerTimeIndex [] m_aTimeTriggers = { new TreeSetTriggerTimeIndex () };
+  private String m_sTimeIndex = RAMJobStore.TIME_INDEX_TREE;
+  private final TriggerWrapperComparator m_aTimeComparator = new TriggerWrapperComparator ();
+
+  private volatile long m_nMisfireThreshold = 5000L;
+  private ISchedulerSignaler m_aSignaler;
+
+  public ConcurrentRAMJobStore ()
+  {
+    setLockStripes (DEFAULT_LOCK_STRIPES);
+  }
+
+  public void initialize (final IClassLoadHelper loadHelper, final ISchedulerSignaler schedSignaler)
+  {
+    m_aSignaler = schedSignaler;
+    LOGGER.info ("ConcurrentRAMJobStore initialized with " + m_aJobLocks.length + " job locks.");
+  }
+
+  public void schedulerStarted ()
+  {
+    // nothing to do
+  }
+
+  public void schedulerPaused ()
+  {
+    // nothing to do
+  }
+
+  public void schedulerResumed ()
+  {
+    // nothing to do
+  }
+
+  public long getMisfireThreshold ()
+  {
+    return m_nMisfireThreshold;
+  }
+
+  /**
+   * The number of milliseconds by which a trigger must have missed its
+   * next-fire-time, in order for it to be considered "misfired" and thus have
+   * its misfire instruction applied.
+   *
+   * @param misfireThreshold
+   *        the new misfire threshold
+   */
+  public void setMisfireThreshold (final long misfireThreshold)
+  {
+    if (misfireThreshold < 1)
+      throw new IllegalArgumentException ("Misfire threshold must be larger than 0");
+    m_nMisfireThreshold = misfireThreshold;
+  }
+
+  public int getLockStripes ()
+  {
+    return m_aJobLocks.length;
+  }
+
+  /**
+   * Set the number of locks used for jobs. Must be called before the job store
+   * is used. Configurable via <code>org.quartz.jobStore.lockStripes</code>.
+   *
+   * @param nLockStripes
+   *        The number of locks. Must be &gt; 0. Is rounded up to the next power
+   *        of 2.
+   */
+  public final void setLockStripes (final int nLockStripes)
+  {
+    ValueEnforcer.isGT0 (nLockStripes, "LockStripes");
+    final int nCount = Integer.highestOneBit (nLockStripes) == nLockStripes ? nLockStripes
+                                                                          : Integer.highestOneBit (nLockStripes) << 1;
+    final ReentrantLock [] aLocks = new ReentrantLock [nCount];
+    for (int i = 0; i < nCount; ++i)
+      aLocks[i] = new ReentrantLock ();
+    m_aJobLocks = aLocks;
+  }
+
+  @NonNull
+  public String getTimeIndex ()
+  {
+    return m_sTimeIndex;
+  }
+
+  /**
+   * Set the data structure used to order the waiting triggers by their next
+   * fire time. Configurable via <code>org.quartz.jobStore.timeIndex</code>.
+   *
+   * @param sTimeIndex
+   *        One of {@link RAMJobStore#TIME_INDEX_TREE} or
+   *        {@link RAMJobStore#TIME_INDEX_WHEEL}. May not be <code>null</code>.
+   * @see RAMJobStore#setTimeIndex(String)
+   */
+  public void setTimeIndex (@NonNull final String sTimeIndex)
+  {
+    ValueEnforcer.notNull (sTimeIndex, "TimeIndex");
+    // Check for validity
+    RAMJobStore.createTimeIndex (sTimeIndex);
+
+    _lockStructureExclusive ();
+    try
+    {
+      m_sTimeIndex = sTimeIndex;
+      _rebuildTimeIndices (m_aTimeTriggers.length);
+    }
+    finally
+    {
+      _unlockStructureExclusive ();
+    }
+  }
+
+  public int getShardCount ()
+  {
+    return m_aTimeTriggers.length;
+  }
+
+  /**
+   * Set the number of shards the triggers are partitioned into. Each shard has
+   * its own time index and is served by its own scheduler thread, so that
+   * firing throughput scales with the number of cores. Must be set before the
+   * scheduler is created. Configurable via
+   * <code>org.quartz.jobStore.shardCount</code>.
+   *
+   * @param nShardCount
+   *        The number of shards. Must be &gt; 0. Default is 1.
+   */
+  public void setShardCount (final int nShardCount)
+  {
+    ValueEnforcer.isGT0 (nShardCount, "ShardCount");
+
+    _lockStructureExclusive ();
+    try
+    {
+      _rebuildTimeIndices (nShardCount);
+    }
+    finally
+    {
+      _unlockStructureExclusive ();
+    }
+  }
+
+  private void _rebuildTimeIndices (final int nShardCount)
+  {
+    final ITriggerTimeIndex [] aNewIndices = new ITriggerTimeIndex [nShardCount];
+    for (int i = 0; i < nShardCount; ++i)
+      aNewIndices[i] = RAMJobStore.createTimeIndex (m_sTimeIndex);
+    for (final ITriggerTimeIndex aOldIndex : m_aTimeTriggers)
+      synchronized (aOldIndex)
+      {
+        for (final TriggerWrapper tw : aOldIndex.getAllSorted ())
+          aNewIndices[_getShardID (tw.m_aKey, nShardCount)].add (tw);
+        aOldIndex.clear ();
+      }
+    m_aTimeTriggers = aNewIndices;
+  }
+
+  private static int _getShardID (@NonNull final TriggerKey aTriggerKey, final int nShardCount)
+  {
+    final int h = aTriggerKey.hashCode ();
+    return Math.floorMod (h ^ (h >>> 16), nShardCount);
+  }
+
+  @NonNull
+  private ITriggerTimeIndex _getTimeIndex (@NonNull final TriggerWrapper tw)
+  {
+    final ITriggerTimeIndex [] aIndices = m_aTimeTriggers;
+    return aIndices.length == 1 ? aIndices[0] : aIndices[_getShardID (tw.m_aKey, aIndices.length)];
+  }
+
+  public void shutdown ()
+  {}
+
+  public boolean supportsPersistence ()
+  {
+    return false;
+  }
+
+  // Locking helpers
+
+  private int _getJobLockIndex (@NonNull final JobKey aJobKey)
+  {
+    final int h = aJobKey.hashCode ();
+    return (h ^ (h >>> 16)) & (m_aJobLocks.length - 1);
+  }
+
+  @NonNull
+  private ReentrantLock _getJobLock (@NonNull final JobKey aJobKey)
+  {
+    return m_aJobLocks[_getJobLockIndex (aJobKey)];
+  }
+
+  private void _lockStructureShared ()
+  {
+    m_aStructureLock.readLock ().lock ();
+  }
+
+  private void _unlockStructureShared ()
+  {
+    m_aStructureLock.readLock ().unlock ();
+  }
+
+  private void _lockStructureExclusive ()
+  {
+    m_aStructureLock.writeLock ().lock ();
+  }
+
+  private void _unlockStructureExclusive ()
+  {
+    m_aStructureLock.writeLock ().unlock ();
+  }
+
+  /**
+   * Lock the job of the provided trigger.
+   *
+   * @param aTriggerKey
+   *        Trigger key
+   * @return <code>null</code> if no such trigger exists and nothing was
+   *         locked. Otherwise the current wrapper with the job lock being held.
+   */
+  @Nullable
+  private TriggerWrapper _lockTrigger (@NonNull final TriggerKey aTriggerKey)
+  {
+    while (true)
+    {
+      final TriggerWrapper tw = m_aTriggersByKey.get (aTriggerKey);
+      if (tw == null)
+        return null;
+      final Lock aLock = _getJobLock (tw.m_aJobKey);
+      aLock.lock ();
+      if (m_aTriggersByKey.get (aTriggerKey) == tw)
+        return tw;
+      // Replaced in the meantime
+      aLock.unlock ();
+    }
+  }
+
+  private void _lockJobs (@NonNull final JobKey aJobKey1, @Nullable final JobKey aJobKey2)
+  {
+    // Always lock the stripe with the lower index first to avoid deadlocks
+    final int nIndex1 = _getJobLockIndex (aJobKey1);
+    final int nIndex2 = aJobKey2 == null ? nIndex1 : _getJobLockIndex (aJobKey2);
+    m_aJobLocks[Math.min (nIndex1, nIndex2)].lock ();
+    if (nIndex1 != nIndex2)
+      m_aJobLocks[Math.max (nIndex1, nIndex2)].lock ();
+  }
+
+  private void _unlockJobs (@NonNull final JobKey aJobKey1, @Nullable final JobKey aJobKey2)
+  {
+    final ReentrantLock aLock1 = _getJobLock (aJobKey1);
+    final ReentrantLock aLock2 = aJobKey2 == null ? aLock1 : _getJobLock (aJobKey2);
+    aLock1.unlock ();
+    if (aLock2 != aLock1)
+      aLock2.unlock ();
+  }
+
+  private void _timeAdd (@NonNull final TriggerWrapper tw)
+  {
+    final ITriggerTimeIndex aIndex = _getTimeIndex (tw);
+    synchronized (aIndex)
+    {
+      aIndex.add (tw);
+    }
+  }
+
+  private boolean _timeRemove (@NonNull final TriggerWrapper tw)
+  {
+    final ITriggerTimeIndex aIndex = _getTimeIndex (tw);
+    synchronized (aIndex)
+    {
+      return aIndex.remove (tw);
+    }
+  }
+
+  @Nullable
+  private static TriggerWrapper _timePollFirst (@NonNull final ITriggerTimeIndex aIndex)
+  {
+    synchronized (aIndex)
+    {
+      return aIndex.pollFirst ();
+    }
+  }
+
+  @Nullable
+  private TriggerWrapper _timePollFirstOfAllShards ()
+  {
+    final ITriggerTimeIndex [] aIndices = m_aTimeTriggers;
+    if (aIndices.length == 1)
+      return _timePollFirst (aIndices[0]);
+
+    while (true)
+    {
+      // Find the shard with the earliest trigger
+      ITriggerTimeIndex aBestIndex = null;
+      TriggerWrapper aBest = null;
+      for (final ITriggerTimeIndex aIndex : aIndices)
+      {
+        final TriggerWrapper aFirst;
+        synchronized (aIndex)
+        {
+          aFirst = aIndex.first ();
+        }
+        if (aFirst != null && (aBest == null || m_aTimeComparator.compare (aFirst, aBest) < 0))
+        {
+          aBestIndex = aIndex;
+          aBest = aFirst;
+        }
+      }
+      if (aBest == null)
+        return null;
+
+      synchronized (aBestIndex)
+      {
+        // Only take it, if it was not removed concurrently
+        if (aBestIndex.remove (aBest))
+          return aBest;
+      }
+    }
+  }
+
+  // Index helpers
+
+  private static <K, V> void _addToGroup (@NonNull final Map <String, Map <K, V>> aGroupMap,
+                                          @NonNull final String sGroup,
+                                          @NonNull final K aKey,
+                                          @NonNull final V aValue)
+  {
+    aGroupMap.compute (sGroup, (g, aMap) -> {
+      final Map <K, V> ret = aMap != null ? aMap : new ConcurrentHashMap <> (100);
+      ret.put (aKey, aValue);
+      return ret;
+    });
+  }
+
+  private static <K, V> void _removeFromGroup (@NonNull final Map <String, Map <K, V>> aGroupMap,
+                                               @NonNull final String sGroup,
+                                               @NonNull final K aKey)
+  {
+    aGroupMap.computeIfPresent (sGroup, (g, aMap) -> {
+      aMap.remove (aKey);
+      return aMap.isEmpty () ? null : aMap;
+    });
+  }
+
+  private static <K> void _addToIndex (@NonNull final Map <K, ICommonsMap <TriggerKey, TriggerWrapper>> aIndex,
+                                       @NonNull final K aIndexKey,
+                                       @NonNull final TriggerWrapper tw)
+  {
+    aIndex.compute (aIndexKey, (k, aMap) -> {
+      final ICommonsMap <TriggerKey, TriggerWrapper> ret = aMap != null ? aMap : new CommonsLinkedHashMap <> ();
+      ret.put (tw.m_aKey, tw);
+      return ret;
+    });
+  }
+
+  private static <K> void _removeFromIndex (@NonNull final Map <K, ICommonsMap <TriggerKey, TriggerWrapper>> aIndex,
+                                            @NonNull final K aIndexKey,
+                                            @NonNull final TriggerKey aTriggerKey)
+  {
+    aIndex.computeIfPresent (aIndexKey, (k, aMap) -> {
+      aMap.remove (aTriggerKey);
+      return aMap.isEmpty () ? null : aMap;
+    });
+  }
+
+  @NonNull
+  private ICommonsList <TriggerWrapper> _getTriggerWrappersForJob (@NonNull final JobKey jobKey)
+  {
+    final ICommonsMap <TriggerKey, TriggerWrapper> aJobMap = m_aTriggersByJob.get (jobKey);
+    return aJobMap == null ? new CommonsArrayList <> () : aJobMap.copyOfValues ();
+  }
+
+  /**
+   * Clear (delete!) all scheduling data - all {@link com.helger.quartz.IJob}s,
+   * {@link ITrigger}s {@link ICalendar}s.
+   *
+   * @throws JobPersistenceException
+   *         on error
+   */
+  public void clearAllSchedulingData () throws JobPersistenceException
+  {
+    _lockStructureExclusive ();
+    try
+    {
+      // unschedule jobs (delete triggers)
+      for (final TriggerKey key : new CommonsArrayList <> (m_aTriggersByKey.keySet ()))
+        removeTrigger (key);
+      // delete jobs
+      for (final JobKey key : new CommonsArrayList <> (m_aJobsByKey.keySet ()))
+        removeJob (key);
+      // delete calendars
+      for (final String name : getCalendarNames ())
+        removeCalendar (name);
+    }
+    finally
+    {
+      _unlockStructureExclusive ();
+    }
+  }
+
+  public void storeJobAndTrigger (final IJobDetail newJob,
+                                  final IOperableTrigger newTrigger) throws JobPersistenceException
+  {
+    if (!newJob.getKey ().equals (newTrigger.getJobKey ()))
+    {
+      // The trigger references another job - nothing to make atomic
+      storeJob (newJob, false);
+      storeTrigger (newTrigger, false);
+      return;
+    }
+
+    final JobWrapper jw = new JobWrapper (newJob.getClone ());
+    final TriggerWrapper tw = new TriggerWrapper (newTrigger.getClone ());
+    _lockStructureShared ();
+    try
+    {
+      while (true)
+      {
+        // Make the combination atomic for the job. The existing trigger may
+        // belong to another job, so both are locked in the right order.
+        final TriggerWrapper aExisting = m_aTriggersByKey.get (tw.m_aKey);
+        final JobKey aExistingJobKey = aExisting == null ? null : aExisting.m_aJobKey;
+        _lockJobs (jw.m_aKey, aExistingJobKey);
+        try
+        {
+          if (m_aTriggersByKey.get (tw.m_aKey) != aExisting)
+          {
+            // Modified concurrently - try again
+            continue;
+          }
+          if (aExisting != null)
+            throw new ObjectAlreadyExistsException (newTrigger);
+          _storeJobLocked (jw, newJob, false);
+          if (_storeTriggerLocked (tw, newTrigger, null, false))
+            return;
+        }
+        finally
+        {
+          _unlockJobs (jw.m_aKey, aExistingJobKey);
+        }
+      }
+    }
+    finally
+    {
+      _unlockStructureShared ();
+    }
+  }
+
+  /**
+   * Store a job. The job lock must be held.
+   */
+  private void _storeJobLocked (@NonNull final JobWrapper jw,
+                                @NonNull final IJobDetail newJob,
+                                final boolean bReplaceExisting) throws ObjectAlreadyExistsException
+  {
+    final JobWrapper orig = m_aJobsByKey.get (jw.m_aKey);
+    if (orig != null)
+    {
+      if (!bReplaceExisting)
+        throw new ObjectAlreadyExistsException (newJob);
+      // update job detail - already cloned
+      orig.setJobDetail (jw.getJobDetail ());
+    }
+    else
+    {
+      _addToGroup (m_aJobsByGroup, jw.m_aKey.getGroup (), jw.m_aKey, jw);
+      m_aJobsByKey.put (jw.m_aKey, jw);
+    }
+  }
+
+  public void storeJob (final IJobDetail newJob, final boolean bReplaceExisting) throws ObjectAlreadyExistsException
+  {
+    final JobWrapper jw = new JobWrapper (newJob.getClone ());
+    _lockStructureShared ();
+    try
+    {
+      _lockJobs (jw.m_aKey, null);
+      try
+      {
+        _storeJobLocked (jw, newJob, bReplaceExisting);
+      }
+      finally
+      {
+        _unlockJobs (jw.m_aKey, null);
+      }
+    }
+    finally
+    {
+      _unlockStructureShared ();
+    }
+  }
+
+  public boolean removeJob (final JobKey jobKey)
+  {
+    _lockStructureShared ();
+    try
+    {
+      _lockJobs (jobKey, null);
+      try
+      {
+        boolean bFound = false;
+        for (final TriggerWrapper tw : _getTriggerWrappersForJob (jobKey))
+        {
+          _removeTriggerLocked (tw, false);
+          bFound = true;
+        }
+
+        if (m_aJobsByKey.remove (jobKey) != null)
+        {
+          _removeFromGroup (m_aJobsByGroup, jobKey.getGroup (), jobKey);
+          bFound = true;
+        }
+        return bFound;
+      }
+      finally
+      {
+        _unlockJobs (jobKey, null);
+      }
+    }
+    finally
+    {
+      _unlockStructureShared ();
+    }
+  }
+
+  public boolean removeJobs (final List <JobKey> jobKeys) throws JobPersistenceException
+  {
+    boolean allFound = true;
+    _lockStructureExclusive ();
+    try
+    {
+      for (final JobKey key : jobKeys)
+        allFound = removeJob (key) && allFound;
+    }
+    finally
+    {
+      _unlockStructureExclusive ();
+    }
+    return allFound;
+  }
+
+  public boolean removeTriggers (final List <TriggerKey> triggerKeys) throws JobPersistenceException
+  {
+    boolean allFound = true;
+    _lockStructureExclusive ();
+    try
+    {
+      for (final TriggerKey key : triggerKeys)
+        allFound = removeTrigger (key) && allFound;
+    }
+    finally
+    {
+      _unlockStructureExclusive ();
+    }
+    return allFound;
+  }
+
+  public void storeJobsAndTriggers (final Map <IJobDetail, Set <? extends ITrigger>> triggersAndJobs,
+                                    final boolean replace) throws JobPersistenceException
+  {
+    _lockStructureExclusive ();
+    try
+    {
+      // make sure there are no collisions...
+      if (!replace)
+      {
+        for (final Entry <IJobDetail, Set <? extends ITrigger>> e : triggersAndJobs.entrySet ())
+        {
+          if (checkExists (e.getKey ().getKey ()))
+            throw new ObjectAlreadyExistsException (e.getKey ());
+          for (final ITrigger trigger : e.getValue ())
+            if (checkExists (trigger.getKey ()))
+              throw new ObjectAlreadyExistsException (trigger);
+        }
+      }
+      // do bulk add...
+      for (final Entry <IJobDetail, Set <? extends ITrigger>> e : triggersAndJobs.entrySet ())
+      {
+        storeJob (e.getKey (), true);
+        for (final ITrigger trigger : e.getValue ())
+          storeTrigger ((IOperableTrigger) trigger, true);
+      }
+    }
+    finally
+    {
+      _unlockStructureExclusive ();
+    }
+  }
+
+  /**
+   * Store a trigger. The locks of the trigger's job and of the job of the
+   * existing trigger must be held.
+   *
+   * @return <code>false</code> if the trigger key was stored concurrently and
+   *         the caller needs to try again.
+   */
+  private boolean _storeTriggerLocked (@NonNull final TriggerWrapper tw,
+                                       @NonNull final IOperableTrigger newTrigger,
+                                       @Nullable final TriggerWrapper aExisting,
+                                       final boolean bReplaceExisting) throws JobPersistenceException
+  {
+    if (aExisting != null)
+    {
+      if (!bReplaceExisting)
+        throw new ObjectAlreadyExistsException (newTrigger);
+      _removeTriggerLocked (aExisting, false);
+    }
+
+    if (!m_aJobsByKey.containsKey (tw.m_aJobKey))
+      throw new JobPersistenceException ("The job (" +
+                                         newTrigger.getJobKey () +
+                                         ") referenced by the trigger does not exist.");
+
+    if (m_aTriggersByKey.putIfAbsent (tw.m_aKey, tw) != null)
+    {
+      // Another job stored the same trigger key concurrently
+      return false;
+    }
+
+    _addToGroup (m_aTriggersByGroup, tw.m_aKey.getGroup (), tw.m_aKey, tw);
+    _addToIndex (m_aTriggersByJob, tw.m_aJobKey, tw);
+    final String sCalName = tw.m_aTrigger.getCalendarName ();
+    if (sCalName != null)
+      _addToIndex (m_aTriggersByCalendar, sCalName, tw);
+
+    if (m_aPausedTriggerGroups.contains (tw.m_aKey.getGroup ()) ||
+        m_aPausedJobGroups.contains (tw.m_aJobKey.getGroup ()))
+    {
+      tw.m_nState = m_aBlockedJobs.contains (tw.m_aJobKey) ? TriggerWrapper.STATE_PAUSED_BLOCKED
+                                                           : TriggerWrapper.STATE_PAUSED;
+    }
+    else
+      if (m_aBlockedJobs.contains (tw.m_aJobKey))
+        tw.m_nState = TriggerWrapper.STATE_BLOCKED;
+      else
+        _timeAdd (tw);
+    return true;
+  }
+
+  public void storeTrigger (final IOperableTrigger newTrigger,
+                            final boolean bReplaceExisting) throws JobPersistenceException
+  {
+    final TriggerWrapper tw = new TriggerWrapper (newTrigger.getClone ());
+
+    _lockStructureShared ();
+    try
+    {
+      while (true)
+      {
+        // The existing trigger may belong to another job
+        final TriggerWrapper aExisting = m_aTriggersByKey.get (tw.m_aKey);
+        final JobKey aExistingJobKey = aExisting == null ? null : aExisting.m_aJobKey;
+        _lockJobs (tw.m_aJobKey, aExistingJobKey);
+        try
+        {
+          if (m_aTriggersByKey.get (tw.m_aKey) != aExisting)
+          {
+            // Modified concurrently - try again
+            continue;
+          }
+          if (_storeTriggerLocked (tw, newTrigger, aExisting, bReplaceExisting))
+            return;
+        }
+        finally
+        {
+          _unlockJobs (tw.m_aJobKey, aExistingJobKey);
+        }
+      }
+    }
+    finally
+    {
+      _unlockStructureShared ();
+    }
+  }
+
+  public boolean removeTrigger (final TriggerKey triggerKey)
+  {
+    _lockStructureShared ();
+    try
+    {
+      final TriggerWrapper tw = _lockTrigger (triggerKey);
+      if (tw == null)
+        return false;
+      try
+      {
+        _removeTriggerLocked (tw, true);
+        return true;
+      }
+      finally
+      {
+        _getJobLock (tw.m_aJobKey).unlock ();
+      }
+    }
+    finally
+    {
+      _unlockStructureShared ();
+    }
+  }
+
+  /**
+   * Remove a trigger. The lock of the trigger's job must be held.
+   */
+  private void _removeTriggerLocked (@NonNull final TriggerWrapper tw, final boolean bRemoveOrphanedJob)
+  {
+    m_aTriggersByKey.remove (tw.m_aKey);
+    _removeFromGroup (m_aTriggersByGroup, tw.m_aKey.getGroup (), tw.m_aKey);
+    _removeFromIndex (m_aTriggersByJob, tw.m_aJobKey, tw.m_aKey);
+    final String sCalName = tw.m_aTrigger.getCalendarName ();
+    if (sCalName != null)
+      _removeFromIndex (m_aTriggersByCalendar, sCalName, tw.m_aKey);
+    _timeRemove (tw);
+
+    if (bRemoveOrphanedJob)
+    {
+      final JobWrapper jw = m_aJobsByKey.get (tw.m_aJobKey);
+      if (jw != null && !m_aTriggersByJob.containsKey (tw.m_aJobKey) && !jw.getJobDetail ().isDurable ())
+      {
+        if (removeJob (jw.m_aKey))
+          m_aSignaler.notifySchedulerListenersJobDeleted (jw.m_aKey);
+      }
+    }
+  }
+
+  public boolean replaceTrigger (final TriggerKey triggerKey,
+                                 final IOperableTrigger newTrigger) throws JobPersistenceException
+  {
+    _lockStructureShared ();
+    try
+    {
+      final TriggerWrapper tw = _lockTrigger (triggerKey);
+      if (tw == null)
+        return false;
+      try
+      {
+        if (!tw.getTrigger ().getJobKey ().equals (newTrigger.getJobKey ()))
+          throw new JobPersistenceException ("New trigger is not related to the same job as the old trigger.");
+
+        _removeTriggerLocked (tw, false);
+        try
+        {
+          storeTrigger (newTrigger, false);
+        }
+        catch (final JobPersistenceException jpe)
+        {
+          // put previous trigger back...
+          storeTrigger (tw.getTrigger (), false);
+          throw jpe;
+        }
+        return true;
+      }
+      finally
+      {
+        _getJobLock (tw.m_aJobKey).unlock ();
+      }
+    }
+    finally
+    {
+      _unlockStructureShared ();
+    }
+  }
+
+  public IJobDetail retrieveJob (final JobKey jobKey)
+  {
+    final JobWrapper jw = m_aJobsByKey.get (jobKey);
+    return jw != null ? jw.getJobDetail ().getClone () : null;
+  }
+
+  @Override
+  public IJobDetail retrieveJobSnapshot (final JobKey jobKey)
+  {
+    final JobWrapper jw = m_aJobsByKey.get (jobKey);
+    return jw != null ? new JobDetailSnapshot (jw.getJobDetail ()) : null;
+  }
+
+  public IOperableTrigger retrieveTrigger (final TriggerKey triggerKey)
+  {
+    // Lock the job, to not clone a trigger while it is modified
+    final TriggerWrapper tw = _lockTrigger (triggerKey);
+    if (tw == null)
+      return null;
+    try
+    {
+      return tw.getTrigger ().getClone ();
+    }
+    finally
+    {
+      _getJobLock (tw.m_aJobKey).unlock ();
+    }
+  }
+
+  @Override
+  public ITrigger retrieveTriggerSnapshot (final TriggerKey triggerKey)
+  {
+    // Lock the job, to capture consistent fire times
+    final TriggerWrapper tw = _lockTrigger (triggerKey);
+    if (tw == null)
+      return null;
+    try
+    {
+      return TriggerSnapshot.create (tw.getTrigger ());
+    }
+    finally
+    {
+      _getJobLock (tw.m_aJobKey).unlock ();
+    }
+  }
+
+  public boolean checkExists (final JobKey jobKey)
+  {
+    return m_aJobsByKey.containsKey (jobKey);
+  }
+
+  public boolean checkExists (final TriggerKey triggerKey)
+  {
+    return m_aTriggersByKey.containsKey (triggerKey);
+  }
+
+  public ETriggerState getTriggerState (final TriggerKey triggerKey)
+  {
+    final TriggerWrapper tw = m_aTriggersByKey.get (triggerKey);
+    if (tw == null)
+      return ETriggerState.NONE;
+
+    switch (tw.m_nState)
+    {
+      case TriggerWrapper.STATE_COMPLETE:
+        return ETriggerState.COMPLETE;
+      case TriggerWrapper.STATE_PAUSED:
+      case TriggerWrapper.STATE_PAUSED_BLOCKED:
+        return ETriggerState.PAUSED;
+      case TriggerWrapper.STATE_BLOCKED:
+        return ETriggerState.BLOCKED;
+      case TriggerWrapper.STATE_ERROR:
+        return ETriggerState.ERROR;
+      default:
+        return ETriggerState.NORMAL;
+    }
+  }
+
+  public void storeCalendar (final String name,
+                             final ICalendar aCalendar,
+                             final boolean replaceExisting,
+                             final boolean updateTriggers) throws ObjectAlreadyExistsException
+  {
+    final ICalendar calendar = aCalendar.getClone ();
+
+    _lockStructureExclusive ();
+    try
+    {
+      final ICalendar aOld = m_aCalendarsByName.get (name);
+      if (aOld != null && !replaceExisting)
+        throw new ObjectAlreadyExistsException ("Calendar with name '" + name + "' already exists.");
+
+      m_aCalendarsByName.put (name, calendar);
+
+      if (aOld != null && updateTriggers)
+      {
+        final ICommonsMap <TriggerKey, TriggerWrapper> aCalMap = m_aTriggersByCalendar.get (name);
+        if (aCalMap != null)
+          for (final TriggerWrapper tw : aCalMap.copyOfValues ())
+          {
+            final boolean bRemoved = _timeRemove (tw);
+            tw.getTrigger ().updateWithNewCalendar (calendar, getMisfireThreshold ());
+            if (bRemoved)
+              _timeAdd (tw);
+          }
+      }
+    }
+    finally
+    {
+      _unlockStructureExclusive ();
+    }
+  }
+
+  public boolean removeCalendar (final String calName) throws JobPersistenceException
+  {
+    _lockStructureExclusive ();
+    try
+    {
+      if (m_aTriggersByCalendar.containsKey (calName))
+        throw new JobPersistenceException ("Calender cannot be removed if it referenced by a Trigger!");
+      return m_aCalendarsByName.remove (calName) != null;
+    }
+    finally
+    {
+      _unlockStructureExclusive ();
+    }
+  }
+
+  public ICalendar retrieveCalendar (final String calName)
+  {
+    final ICalendar cal = m_aCalendarsByName.get (calName);
+    return cal != null ? cal.getClone () : null;
+  }
+
+  public int getNumberOfJobs ()
+  {
+    return m_aJobsByKey.size ();
+  }
+
+  public int getNumberOfTriggers ()
+  {
+    return m_aTriggersByKey.size ();
+  }
+
+  public int getNumberOfCalendars ()
+  {
+    return m_aCalendarsByName.size ();
+  }
+
+  @NonNull
+  private static <K extends Key <K>> ICommonsSet <K> _getKeys (@NonNull final Map <String, ? extends Map <K, ?>> aGroupMap,
+                                                               @NonNull final GroupMatcher <K> matcher)
+  {
+    final ICommonsSet <K> ret = new CommonsHashSet <> ();
+    final EStringOperatorName operator = matcher.getCompareWithOperator ();
+    final String compareToValue = matcher.getCompareToValue ();
+    if (operator == EStringOperatorName.EQUALS)
+    {
+      final Map <K, ?> aGrpMap = aGroupMap.get (compareToValue);
+      if (aGrpMap != null)
+        ret.addAll (aGrpMap.keySet ());
+    }
+    else
+    {
+      for (final Map.Entry <String, ? extends Map <K, ?>> entry : aGroupMap.entrySet ())
+        if (operator.evaluate (entry.getKey (), compareToValue))
+          ret.addAll (entry.getValue ().keySet ());
+    }
+    return ret;
+  }
+
+  public ICommonsSet <JobKey> getJobKeys (final GroupMatcher <JobKey> matcher)
+  {
+    return _getKeys (m_aJobsByGroup, matcher);
+  }
+
+  public ICommonsList <String> getCalendarNames ()
+  {
+    return new CommonsArrayList <> (m_aCalendarsByName.keySet ());
+  }
+
+  public ICommonsSet <TriggerKey> getTriggerKeys (final GroupMatcher <TriggerKey> matcher)
+  {
+    return _getKeys (m_aTriggersByGroup, matcher);
+  }
+
+  public ICommonsList <String> getJobGroupNames ()
+  {
+    return new CommonsArrayList <> (m_aJobsByGroup.keySet ());
+  }
+
+  public ICommonsList <String> getTriggerGroupNames ()
+  {
+    return new CommonsArrayList <> (m_aTriggersByGroup.keySet ());
+  }
+
+  public ICommonsList <IOperableTrigger> getTriggersForJob (final JobKey jobKey)
+  {
+    final ICommonsList <IOperableTrigger> ret = new CommonsArrayList <> ();
+    _lockJobs (jobKey, null);
+    try
+    {
+      final ICommonsMap <TriggerKey, TriggerWrapper> aJobMap = m_aTriggersByJob.get (jobKey);
+      if (aJobMap != null)
+        for (final TriggerWrapper tw : aJobMap.values ())
+          ret.add (tw.m_aTrigger.getClone ());
+    }
+    finally
+    {
+      _unlockJobs (jobKey, null);
+    }
+    return ret;
+  }
+
+  @Override
+  public ICommonsList <ITrigger> getTriggerSnapshotsForJob (final JobKey jobKey)
+  {
+    final ICommonsList <ITrigger> ret = new CommonsArrayList <> ();
+    _lockJobs (jobKey, null);
+    try
+    {
+      final ICommonsMap <TriggerKey, TriggerWrapper> aJobMap = m_aTriggersByJob.get (jobKey);
+      if (aJobMap != null)
+        for (final TriggerWrapper tw : aJobMap.values ())
+          ret.add (TriggerSnapshot.create (tw.m_aTrigger));
+    }
+    finally
+    {
+      _unlockJobs (jobKey, null);
+    }
+    return ret;
+  }
+
+  public void pauseTrigger (final TriggerKey triggerKey)
+  {
+    _lockStructureShared ();
+    try
+    {
+      final TriggerWrapper tw = _lockTrigger (triggerKey);
+      if (tw == null)
+        return;
+      try
+      {
+        _pauseTriggerLocked (tw);
+      }
+      finally
+      {
+        _getJobLock (tw.m_aJobKey).unlock ();
+      }
+    }
+    finally
+    {
+      _unlockStructureShared ();
+    }
+  }
+
+  private void _pauseTriggerLocked (@NonNull final TriggerWrapper tw)
+  {
+    // if the trigger is "complete" pausing it does not make sense...
+    if (tw.m_nState == TriggerWrapper.STATE_COMPLETE)
+      return;
+
+    if (tw.m_nState == TriggerWrapper.STATE_BLOCKED)
+      tw.m_nState = TriggerWrapper.STATE_PAUSED_BLOCKED;
+    else
+      tw.m_nState = TriggerWrapper.STATE_PAUSED;
+
+    _timeRemove (tw);
+  }
+
+  public ICommonsList <String> pauseTriggers (final GroupMatcher <TriggerKey> matcher)
+  {
+    final ICommonsList <String> pausedGroups = new CommonsArrayList <> ();
+    _lockStructureExclusive ();
+    try
+    {
+      final EStringOperatorName operator = matcher.getCompareWithOperator ();
+      if (operator == EStringOperatorName.EQUALS)
+      {
+        if (m_aPausedTriggerGroups.add (matcher.getCompareToValue ()))
+          pausedGroups.add (matcher.getCompareToValue ());
+      }
+      else
+      {
+        for (final String group : m_aTriggersByGroup.keySet ())
+          if (operator.evaluate (group, matcher.getCompareToValue ()))
+            if (m_aPausedTriggerGroups.add (matcher.getCompareToValue ()))
+              pausedGroups.add (group);
+      }
+
+      for (final String pausedGroup : pausedGroups)
+        for (final TriggerKey key : getTriggerKeys (GroupMatcher.triggerGroupEquals (pausedGroup)))
+          pauseTrigger (key);
+    }
+    finally
+    {
+      _unlockStructureExclusive ();
+    }
+    return pausedGroups;
+  }
+
+  public void pauseJob (final JobKey jobKey)
+  {
+    _lockStructureShared ();
+    try
+    {
+      _lockJobs (jobKey, null);
+      try
+      {
+        for (final TriggerWrapper tw : _getTriggerWrappersForJob (jobKey))
+          _pauseTriggerLocked (tw);
+      }
+      finally
+      {
+        _unlockJobs (jobKey, null);
+      }
+    }
+    finally
+    {
+      _unlockStructureShared ();
+    }
+  }
+
+  public ICommonsList <String> pauseJobs (final GroupMatcher <JobKey> matcher)
+  {
+    final ICommonsList <String> pausedGroups = new CommonsArrayList <> ();
+    _lockStructureExclusive ();
+    try
+    {
+      final EStringOperatorName operator = matcher.getCompareWithOperator ();
+      if (operator == EStringOperatorName.EQUALS)
+      {
+        if (m_aPausedJobGroups.add (matcher.getCompareToValue ()))
+          pausedGroups.add (matcher.getCompareToValue ());
+      }
+      else
+      {
+        for (final String group : m_aJobsByGroup.keySet ())
+          if (operator.evaluate (group, matcher.getCompareToValue ()))
+            if (m_aPausedJobGroups.add (group))
+              pausedGroups.add (group);
+      }
+
+      for (final String groupName : pausedGroups)
+        for (final JobKey jobKey : getJobKeys (GroupMatcher.jobGroupEquals (groupName)))
+          pauseJob (jobKey);
+    }
+    finally
+    {
+      _unlockStructureExclusive ();
+    }
+    return pausedGroups;
+  }
+
+  public void resumeTrigger (final TriggerKey triggerKey)
+  {
+    _lockStructureShared ();
+    try
+    {
+      final TriggerWrapper tw = _lockTrigger (triggerKey);
+      if (tw == null)
+        return;
+      try
+      {
+        _resumeTriggerLocked (tw);
+      }
+      finally
+      {
+        _getJobLock (tw.m_aJobKey).unlock ();
+      }
+    }
+    finally
+    {
+      _unlockStructureShared ();
+    }
+  }
+
+  private void _resumeTriggerLocked (@NonNull final TriggerWrapper tw)
+  {
+    // if the trigger is not paused resuming it does not make sense...
+    if (tw.m_nState != TriggerWrapper.STATE_PAUSED && tw.m_nState != TriggerWrapper.STATE_PAUSED_BLOCKED)
+      return;
+
+    if (m_aBlockedJobs.contains (tw.m_aJobKey))
+      tw.m_nState = TriggerWrapper.STATE_BLOCKED;
+    else
+      tw.m_nState = TriggerWrapper.STATE_WAITING;
+
+    applyMisfire (tw);
+
+    if (tw.m_nState == TriggerWrapper.STATE_WAITING)
+      _timeAdd (tw);
+  }
+
+  public ICommonsList <String> resumeTriggers (final GroupMatcher <TriggerKey> matcher)
+  {
+    final ICommonsSet <String> groups = new CommonsHashSet <> ();
+    _lockStructureExclusive ();
+    try
+    {
+      for (final TriggerKey triggerKey : getTriggerKeys (matcher))
+      {
+        groups.add (triggerKey.getGroup ());
+        final TriggerWrapper tw = m_aTriggersByKey.get (triggerKey);
+        if (tw != null && m_aPausedJobGroups.contains (tw.m_aJobKey.getGroup ()))
+          continue;
+        resumeTrigger (triggerKey);
+      }
+      for (final String group : groups)
+        m_aPausedTriggerGroups.remove (group);
+    }
+    finally
+    {
+      _unlockStructureExclusive ();
+    }
+    return new CommonsArrayList <> (groups);
+  }
+
+  public void resumeJob (final JobKey jobKey)
+  {
+    _lockStructureShared ();
+    try
+    {
+      _lockJobs (jobKey, null);
+      try
+      {
+        for (final TriggerWrapper tw : _getTriggerWrappersForJob (jobKey))
+          _resumeTriggerLocked (tw);
+      }
+      finally
+      {
+        _unlockJobs (jobKey, null);
+      }
+    }
+    finally
+    {
+      _unlockStructureShared ();
+    }
+  }
+
+  public ICommonsCollection <String> resumeJobs (final GroupMatcher <JobKey> matcher)
+  {
+    final ICommonsSet <String> resumedGroups = new CommonsHashSet <> ();
+    _lockStructureExclusive ();
+    try
+    {
+      final ICommonsSet <JobKey> keys = getJobKeys (matcher);
+
+      for (final String pausedJobGroup : m_aPausedJobGroups)
+        if (matcher.getCompareWithOperator ().evaluate (pausedJobGroup, matcher.getCompareToValue ()))
+          resumedGroups.add (pausedJobGroup);
+
+      for (final String resumedGroup : resumedGroups)
+        m_aPausedJobGroups.remove (resumedGroup);
+
+      for (final JobKey key : keys)
+        resumeJob (key);
+    }
+    finally
+    {
+      _unlockStructureExclusive ();
+    }
+    return resumedGroups;
+  }
+
+  public void pauseAll ()
+  {
+    _lockStructureExclusive ();
+    try
+    {
+      for (final String name : getTriggerGroupNames ())
+        pauseTriggers (GroupMatcher.triggerGroupEquals (name));
+    }
+    finally
+    {
+      _unlockStructureExclusive ();
+    }
+  }
+
+  public void resumeAll ()
+  {
+    _lockStructureExclusive ();
+    try
+    {
+      m_aPausedJobGroups.clear ();
+      resumeTriggers (GroupMatcher.anyTriggerGroup ());
+    }
+    finally
+    {
+      _unlockStructureExclusive ();
+    }
+  }
+
+  /**
+   * Apply the misfire instruction of the trigger, if it misfired. The lock of
+   * the trigger's job must be held.
+   *
+   * @param tw
+   *        The trigger to check
+   * @return <code>true</code> if the next fire time of the trigger was changed
+   */
+  protected boolean applyMisfire (@NonNull final TriggerWrapper tw)
+  {
+    long misfireTime = System.currentTimeMillis ();
+    if (getMisfireThreshold () > 0)
+      misfireTime -= getMisfireThreshold ();
+
+    final long tnft = tw.m_aTrigger.getNextFireTimeMillis ();
+    if (tnft == ITrigger.NO_FIRE_TIME ||
+        tnft > misfireTime ||
+        tw.m_aTrigger.getMisfireInstruction () == EMisfireInstruction.MISFIRE_INSTRUCTION_IGNORE_MISFIRE_POLICY)
+    {
+      return false;
+    }
+
+    ICalendar cal = null;
+    if (tw.m_aTrigger.getCalendarName () != null)
+      cal = retrieveCalendar (tw.m_aTrigger.getCalendarName ());
+
+    m_aSignaler.notifyTriggerListenersMisfired (tw.m_aTrigger.getClone ());
+
+    tw.m_aTrigger.updateAfterMisfire (cal);
+
+    final long nNewFireTime = tw.m_aTrigger.getNextFireTimeMillis ();
+    if (nNewFireTime == ITrigger.NO_FIRE_TIME)
+    {
+      tw.m_nState = TriggerWrapper.STATE_COMPLETE;
+      m_aSignaler.notifySchedulerListenersFinalized (tw.m_aTrigger);
+      _timeRemove (tw);
+    }
+    else
+      if (tnft == nNewFireTime)
+        return false;
+
+    return true;
+  }
+
+  @NonNull
+  @Nonempty
+  protected String getFiredTriggerRecordId ()
+  {
+    return Long.toString (FIRED_TRIGGER_RECORD_COUNTER.incrementAndGet ());
+  }
+
+  public ICommonsList <IOperableTrigger> acquireNextTriggers (final long noLaterThan,
+                                                              final int maxCount,
+                                                              final long timeWindow)
+  {
+    return _acquireNextTriggers (-1, noLaterThan, maxCount, timeWindow);
+  }
+
+  public ICommonsList <IOperableTrigger> acquireNextTriggers (final int nShardID,
+                                                              final long noLaterThan,
+                                                              final int maxCount,
+                                                              final long timeWindow)
+  {
+    ValueEnforcer.isBetweenInclusive (nShardID, "ShardID", 0, m_aTimeTriggers.length - 1);
+    return _acquireNextTriggers (nShardID, noLaterThan, maxCount, timeWindow);
+  }
+
+  @NonNull
+  private ICommonsList <IOperableTrigger> _acquireNextTriggers (final int nShardID,
+                                                                final long noLaterThan,
+                                                                final int maxCount,
+                                                                final long timeWindow)
+  {
+    final ICommonsList <IOperableTrigger> result = new CommonsArrayList <> ();
+    final ICommonsSet <JobKey> acquiredJobKeysForNoConcurrentExec = new CommonsHashSet <> ();
+    final ICommonsList <TriggerWrapper> excludedTriggers = new CommonsArrayList <> ();
+    long batchEnd = noLaterThan;
+
+    _lockStructureShared ();
+    try
+    {
+      final ITriggerTimeIndex aShardIndex = nShardID < 0 ? null : m_aTimeTriggers[nShardID];
+      while (true)
+      {
+        final TriggerWrapper tw = aShardIndex == null ? _timePollFirstOfAllShards () : _timePollFirst (aShardIndex);
+        if (tw == null)
+          break;
+
+        final Lock aJobLock = _getJobLock (tw.m_aJobKey);
+        aJobLock.lock ();
+        try
+        {
+          // Was the trigger removed, paused etc. since it was polled?
+          if (m_aTriggersByKey.get (tw.m_aKey) != tw || tw.m_nState != TriggerWrapper.STATE_WAITING)
+            continue;
+
+          if (tw.m_aTrigger.getNextFireTimeMillis () == ITrigger.NO_FIRE_TIME)
+            continue;
+
+          if (applyMisfire (tw))
+          {
+            if (tw.m_aTrigger.getNextFireTimeMillis () != ITrigger.NO_FIRE_TIME)
+              _timeAdd (tw);
+            continue;
+          }
+
+          final long nNextFireTime = tw.m_aTrigger.getNextFireTimeMillis ();
+          if (nNextFireTime > batchEnd)
+          {
+            _timeAdd (tw);
+            break;
+          }
+
+          // If trigger's job is set as @DisallowConcurrentExecution, and it
+          // has already been added to result, then put it back into the
+          // timeTriggers set and continue to search for next trigger.
+          final JobKey jobKey = tw.m_aJobKey;
+          final JobWrapper jw = m_aJobsByKey.get (jobKey);
+          if (jw != null && jw.getJobDetail ().isConcurrentExectionDisallowed ())
+          {
+            if (!acquiredJobKeysForNoConcurrentExec.add (jobKey))
+            {
+              excludedTriggers.add (tw);
+              continue;
+            }
+          }
+
+          tw.m_nState = TriggerWrapper.STATE_ACQUIRED;
+          tw.m_aTrigger.setFireInstanceId (getFiredTriggerRecordId ());
+          final IOperableTrigger trig = tw.m_aTrigger.getClone ();
+          if (result.isEmpty ())
+            batchEnd = Math.max (nNextFireTime, System.currentTimeMillis ()) + timeWindow;
+          result.add (trig);
+          if (result.size () == maxCount)
+            break;
+        }
+        finally
+        {
+          aJobLock.unlock ();
+        }
+      }
+
+      // If we did excluded triggers to prevent ACQUIRE state due to
+      // DisallowConcurrentExecution, we need to add them back to store.
+      for (final TriggerWrapper tw : excludedTriggers)
+      {
+        final Lock aJobLock = _getJobLock (tw.m_aJobKey);
+        aJobLock.lock ();
+        try
+        {
+          if (m_aTriggersByKey.get (tw.m_aKey) == tw && tw.m_nState == TriggerWrapper.STATE_WAITING)
+            _timeAdd (tw);
+        }
+        finally
+        {
+          aJobLock.unlock ();
+        }
+      }
+    }
+    finally
+    {
+      _unlockStructureShared ();
+    }
+    return result;
+  }
+
+  public void releaseAcquiredTrigger (final IOperableTrigger trigger)
+  {
+    _lockStructureShared ();
+    try
+    {
+      final TriggerWrapper tw = _lockTrigger (trigger.getKey ());
+      if (tw == null)
+        return;
+      try
+      {
+        if (tw.m_nState == TriggerWrapper.STATE_ACQUIRED)
+        {
+          tw.m_nState = TriggerWrapper.STATE_WAITING;
+          _timeAdd (tw);
+        }
+      }
+      finally
+      {
+        _getJobLock (tw.m_aJobKey).unlock ();
+      }
+    }
+    finally
+    {
+      _unlockStructureShared ();
+    }
+  }
+
+  public ICommonsList <TriggerFiredResult> triggersFired (final List <IOperableTrigger> firedTriggers)
+  {
+    final ICommonsList <TriggerFiredResult> results = new CommonsArrayList <> ();
+
+    _lockStructureShared ();
+    try
+    {
+      for (final IOperableTrigger trigger : firedTriggers)
+      {
+        // was the trigger deleted since being acquired?
+        final TriggerWrapper tw = _lockTrigger (trigger.getKey ());
+        if (tw == null)
+          continue;
+
+        try
+        {
+          // was the trigger completed, paused, blocked, etc. since being
+          // acquired?
+          if (tw.m_nState != TriggerWrapper.STATE_ACQUIRED)
+            continue;
+
+          if (m_aBlockedJobs.contains (tw.m_aJobKey))
+          {
+            // Another trigger of the same non-concurrent job was fired by
+            // another scheduler thread in the meantime
+            tw.m_nState = TriggerWrapper.STATE_BLOCKED;
+            continue;
+          }
+
+          ICalendar cal = null;
+          if (tw.m_aTrigger.getCalendarName () != null)
+          {
+            cal = retrieveCalendar (tw.m_aTrigger.getCalendarName ());
+            if (cal == null)
+              continue;
+          }
+          final Date prevFireTime = trigger.getPreviousFireTime ();
+          // in case trigger was replaced between acquiring and firing
+          _timeRemove (tw);
+          // call triggered on our copy, and the scheduler's copy
+          tw.m_aTrigger.triggered (cal);
+          trigger.triggered (cal);
+          tw.m_nState = TriggerWrapper.STATE_WAITING;
+
+          final TriggerFiredBundle bndle = new TriggerFiredBundle (retrieveJob (tw.m_aJobKey),
+                                                                   trigger,
+                                                                   cal,
+                                                                   false,
+                                                                   new Date (),
+                                                                   trigger.getPreviousFireTime (),
+                                                                   prevFireTime,
+                                                                   trigger.getNextFireTime ());
+
+          final IJobDetail job = bndle.getJobDetail ();
+          if (job.isConcurrentExectionDisallowed ())
+          {
+            for (final TriggerWrapper ttw : _getTriggerWrappersForJob (job.getKey ()))
+            {
+              if (ttw.m_nState == TriggerWrapper.STATE_WAITING)
+                ttw.m_nState = TriggerWrapper.STATE_BLOCKED;
+              if (ttw.m_nState == TriggerWrapper.STATE_PAUSED)
+                ttw.m_nState = TriggerWrapper.STATE_PAUSED_BLOCKED;
+              _timeRemove (ttw);
+            }
+            m_aBlockedJobs.add (job.getKey ());
+          }
+          else
+            if (tw.m_aTrigger.getNextFireTimeMillis () != ITrigger.NO_FIRE_TIME)
+              _timeAdd (tw);
+
+          results.add (new TriggerFiredResult (bndle));
+        }
+        finally
+        {
+          _getJobLock (tw.m_aJobKey).unlock ();
+        }
+      }
+    }
+    finally
+    {
+      _unlockStructureShared ();
+    }
+    return results;
+  }
+
+  public void triggeredJobComplete (final IOperableTrigger trigger,
+                                    final IJobDetail jobDetail,
+                                    final ECompletedExecutionInstruction triggerInstCode)
+  {
+    final JobKey aJobKey = jobDetail.getKey ();
+    _lockStructureShared ();
+    try
+    {
+      _lockJobs (aJobKey, null);
+      try
+      {
+        final JobWrapper jw = m_aJobsByKey.get (aJobKey);
+        final TriggerWrapper tw = m_aTriggersByKey.get (trigger.getKey ());
+
+        // It's possible that the job is null if it was deleted during
+        // execution
+        if (jw != null)
+        {
+          IJobDetail jd = jw.getJobDetail ();
+          // Nothing to persist if the job did not modify the data
+          if (jd.isPersistJobDataAfterExecution () &&
+              !CopyOnWriteJobDataMap.isSharingData (jobDetail.getJobDataMap (), jd.getJobDataMap ()))
+          {
+            final JobDataMap newData = QCloneUtils.getClone (jobDetail.getJobDataMap ());
+            jd = jd.getJobBuilder ().setJobData (newData).build ();
+            jw.setJobDetail (jd);
+          }
+          if (jd.isConcurrentExectionDisallowed ())
+          {
+            m_aBlockedJobs.remove (aJobKey);
+            for (final TriggerWrapper ttw : _getTriggerWrappersForJob (aJobKey))
+            {
+              if (ttw.m_nState == TriggerWrapper.STATE_BLOCKED)
+              {
+                ttw.m_nState = TriggerWrapper.STATE_WAITING;
+                _timeAdd (ttw);
+              }
+              if (ttw.m_nState == TriggerWrapper.STATE_PAUSED_BLOCKED)
+                ttw.m_nState = TriggerWrapper.STATE_PAUSED;
+            }
+            m_aSignaler.signalSchedulingChange (0L);
+          }
+        }
+        else
+        {
+          // even if it was deleted, there may be cleanup to do
+          m_aBlockedJobs.remove (aJobKey);
+        }
+
+        // check for trigger deleted during execution...
+        if (tw != null)
+        {
+          switch (triggerInstCode)
+          {
+            case DELETE_TRIGGER:
+              if (trigger.getNextFireTimeMillis () == ITrigger.NO_FIRE_TIME)
+              {
+                // double check for possible reschedule within job
+                // execution, which would cancel the need to delete...
+                if (tw.getTrigger ().getNextFireTimeMillis () == ITrigger.NO_FIRE_TIME)
+                  removeTrigger (trigger.getKey ());
+              }
+              else
+              {
+                removeTrigger (trigger.getKey ());
+                m_aSignaler.signalSchedulingChange (0L);
+              }
+              break;
+            case SET_TRIGGER_COMPLETE:
+              tw.m_nState = TriggerWrapper.STATE_COMPLETE;
+              _timeRemove (tw);
+              m_aSignaler.signalSchedulingChange (0L);
+              break;
+            case SET_TRIGGER_ERROR:
+              LOGGER.info ("Trigger " + trigger.getKey () + " set to ERROR state.");
+              tw.m_nState = TriggerWrapper.STATE_ERROR;
+              m_aSignaler.signalSchedulingChange (0L);
+              break;
+            case SET_ALL_JOB_TRIGGERS_ERROR:
+              LOGGER.info ("All triggers of Job " + trigger.getJobKey () + " set to ERROR state.");
+              _setAllTriggersOfJobToState (trigger.getJobKey (), TriggerWrapper.STATE_ERROR);
+              m_aSignaler.signalSchedulingChange (0L);
+              break;
+            case SET_ALL_JOB_TRIGGERS_COMPLETE:
+              _setAllTriggersOfJobToState (trigger.getJobKey (), TriggerWrapper.STATE_COMPLETE);
+              m_aSignaler.signalSchedulingChange (0L);
+              break;
+            default:
+              break;
+          }
+        }
+      }
+      finally
+      {
+        _unlockJobs (aJobKey, null);
+      }
+    }
+    finally
+    {
+      _unlockStructureShared ();
+    }
+  }
+
+  private void _setAllTriggersOfJobToState (@NonNull final JobKey jobKey, final int state)
+  {
+    _lockJobs (jobKey, null);
+    try
+    {
+      for (final TriggerWrapper tw : _getTriggerWrappersForJob (jobKey))
+      {
+        tw.m_nState = state;
+        if (state != TriggerWrapper.STATE_WAITING)
+          _timeRemove (tw);
+      }
+    }
+    finally
+    {
+      _unlockJobs (jobKey, null);
+    }
+  }
+
+  public ICommonsSet <String> getPausedTriggerGroups ()
+  {
+    return new CommonsHashSet <> (m_aPausedTriggerGroups);
+  }
+
+  public void setInstanceId (final String schedInstId)
+  {
+    //
+  }
+
+  public void setInstanceName (final String schedName)
+  {
+    //
+  }
+
+  public void setThreadPoolSize (final int poolSize)
+  {
+    //
+  }
+
+  public long getEstimatedTimeToReleaseAndAcquireTrigger ()
+  {
+    return 5;
+  }
+
+  public boolean isClustered ()
+  {
+    return false;
+  }
+}
@@ -0,0 +1,739 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.simpl;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.ICommonsCollection;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.quartz.ICalendar;
+import com.helger.quartz.IJobDetail;
+import com.helger.quartz.ITrigger;
+import com.helger.quartz.ITrigger.ECompletedExecutionInstruction;
+import com.helger.quartz.JobKey;
+import com.helger.quartz.JobPersistenceException;
+import com.helger.quartz.ObjectAlreadyExistsException;
+import com.helger.quartz.SchedulerConfigException;
+import com.helger.quartz.TriggerKey;
+import com.helger.quartz.impl.matchers.GroupMatcher;
+import com.helger.quartz.spi.IClassLoadHelper;
+import com.helger.quartz.spi.IOperableTrigger;
+import com.helger.quartz.spi.ISchedulerSignaler;
+import com.helger.quartz.spi.TriggerFiredResult;
+
+/**
+ * A {@link RAMJobStore} that survives restarts. All data is kept and indexed in
+ * memory exactly like in {@link RAMJobStore}, but every mutation is appended as
+ * a record to a write-ahead log in the configured directory. The log is
+ * periodically compacted into a snapshot, and on {@link #initialize} the
+ * newest snapshot plus all subsequent log records are replayed.
+ * <p>
+ * Records are written by a background thread that commits all pending records
+ * with a single write and flush. API calls (storing, removing, pausing and
+ * resuming) wait for that commit if {@link #isSyncCommit()} is enabled. The
+ * firing path ({@link #triggersFired(List)} and
+ * {@link #triggeredJobComplete(IOperableTrigger, IJobDetail, ECompletedExecutionInstruction)})
+ * never waits.
+ * </p>
+ * <p>
+ * Transient trigger states (acquired, executing or blocked) are not
+ * meaningful after a restart, so recovered triggers are either waiting,
+ * paused, complete or in error state.
+ * </p>
+ * <p>
+ * Configure it via <code>org.quartz.jobStore.class</code> and set at least
+ * <code>org.quartz.jobStore.directory</code>.
+ * </p>
+ *
+ * @author Philip Helger
+ */
+public class DurableRAMJobStore extends RAMJobStore
+{
+  /** By default API calls wait until their changes are on disk */
+  public static final boolean DEFAULT_SYNC_COMMIT = true;
+  /** By default a new snapshot is written every 100.000 log records */
+  public static final int DEFAULT_SNAPSHOT_THRESHOLD = 100_000;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (DurableRAMJobStore.class);
+
+  private String m_sDirectory;
+  private boolean m_bSyncCommit = DEFAULT_SYNC_COMMIT;
+  private int m_nSnapshotThreshold = DEFAULT_SNAPSHOT_THRESHOLD;
+  // Only set after recovery - until then nothing is logged
+  private JobStoreJournal m_aJournal;
+
+  public DurableRAMJobStore ()
+  {}
+
+  /**
+   * @return The directory in which the log and the snapshots are stored. May
+   *         be <code>null</code> if not yet configured.
+   */
+  @Nullable
+  public String getDirectory ()
+  {
+    return m_sDirectory;
+  }
+
+  /**
+   * Set the directory in which the log and the snapshots are stored. It is
+   * created if it does not exist. Must be called before {@link #initialize}.
+   *
+   * @param sDirectory
+   *        The directory to use. May not be <code>null</code>.
+   */
+  public void setDirectory (@NonNull final String sDirectory)
+  {
+    ValueEnforcer.notEmpty (sDirectory, "Directory");
+    m_sDirectory = sDirectory;
+  }
+
+  /**
+   * @return <code>true</code> if API calls wait until their changes were
+   *         flushed to disk.
+   */
+  public boolean isSyncCommit ()
+  {
+    return m_bSyncCommit;
+  }
+
+  /**
+   * @param bSyncCommit
+   *        <code>true</code> to let API calls wait until their changes were
+   *        flushed to disk, <code>false</code> to return immediately and risk
+   *        losing the most recent changes on a crash.
+   */
+  public void setSyncCommit (final boolean bSyncCommit)
+  {
+    m_bSyncCommit = bSyncCommit;
+  }
+
+  /**
+   * @return The number of log records after which a new snapshot is written.
+   */
+  public int getSnapshotThreshold ()
+  {
+    return m_nSnapshotThreshold;
+  }
+
+  /**
+   * @param nSnapshotThreshold
+   *        The number of log records after which a new snapshot is written.
+   *        Must be &gt; 0.
+   */
+  public void setSnapshotThreshold (final int nSnapshotThreshold)
+  {
+    ValueEnforcer.isGT0 (nSnapshotThreshold, "SnapshotThreshold");
+    m_nSnapshotThreshold = nSnapshotThreshold;
+  }
+
+  @Override
+  public void initialize (final IClassLoadHelper loadHelper,
+                          final ISchedulerSignaler schedSignaler) throws SchedulerConfigException
+  {
+    super.initialize (loadHelper, schedSignaler);
+    if (m_sDirectory == null)
+      throw new SchedulerConfigException ("No directory was configured for the DurableRAMJobStore");
+
+    IClassLoadHelper aLoadHelper = loadHelper;
+    if (aLoadHelper == null)
+    {
+      aLoadHelper = new CascadingClassLoadHelper ();
+      aLoadHelper.initialize ();
+    }
+
+    final JobStoreJournal aJournal = new JobStoreJournal (Paths.get (m_sDirectory));
+    final JobStoreCodec.IRecordHandler aHandler = new RecoveryHandler ();
+    final IClassLoadHelper aFinalLoadHelper = aLoadHelper;
+    synchronized (m_aLock)
+    {
+      try
+      {
+        // The snapshot is bulk loaded, only the log records are replayed
+        final long nRecords = aJournal.recover (aFile -> bulkLoadSnapshot (aFile, aFinalLoadHelper),
+                                                aRecord -> JobStoreCodec.decode (aRecord, aFinalLoadHelper, aHandler));
+        _normalizeRecoveredTriggers ();
+        // Start with a fresh snapshot, so that torn log tails are discarded
+        aJournal.open (createSnapshotRecords ());
+        m_aJournal = aJournal;
+        LOGGER.info ("DurableRAMJobStore recovered " +
+                     nRecords +
+                     " records with " +
+                     m_aJobsByKey.size () +
+                     " jobs and " +
+                     m_aTriggersByKey.size () +
+                     " triggers from '" +
+                     m_sDirectory +
+                     "'");
+      }
+      catch (final IOException | JobPersistenceException | RuntimeException ex)
+      {
+        throw new SchedulerConfigException ("Failed to recover the DurableRAMJobStore from '" + m_sDirectory + "'",
+                                            ex);
+      }
+    }
+  }
+
+  /**
+   * Applies recovered log records to the in-memory store. Invoked while the
+   * journal is not yet set, so nothing is logged.
+   */
+  private final class RecoveryHandler implements JobStoreCodec.IRecordHandler
+  {
+    public void onPutJob (@NonNull final IJobDetail aJob)
+    {
+      try
+      {
+        storeJob (aJob, true);
+      }
+      catch (final ObjectAlreadyExistsException ex)
+      {
+        // Cannot happen when replacing
+        throw new IllegalStateException (ex);
+      }
+    }
+
+    public void onRemoveJob (@NonNull final JobKey aJobKey)
+    {
+      removeJob (aJobKey);
+    }
+
+    public void onPutTrigger (@NonNull final IOperableTrigger aTrigger, final int nState)
+    {
+      try
+      {
+        storeTrigger (aTrigger, true);
+      }
+      catch (final JobPersistenceException ex)
+      {
+        // Job does not exist
+        LOGGER.warn ("Ignoring recovered trigger " + aTrigger.getKey () + ": " + ex.getMessage ());
+        return;
+      }
+      m_aTriggersByKey.get (aTrigger.getKey ()).m_nState = nState;
+    }
+
+    public void onRemoveTrigger (@NonNull final TriggerKey aTriggerKey)
+    {
+      removeTrigger (aTriggerKey, false);
+    }
+
+    public void onPutCalendar (@NonNull final String sName, @NonNull final ICalendar aCalendar)
+    {
+      try
+      {
+        storeCalendar (sName, aCalendar, true, false);
+      }
+      catch (final ObjectAlreadyExistsException ex)
+      {
+        // Cannot happen when replacing
+        throw new IllegalStateException (ex);
+      }
+    }
+
+    public void onRemoveCalendar (@NonNull final String sName)
+    {
+      m_aCalendarsByName.remove (sName);
+    }
+
+    public void onPausedGroups (@NonNull final ICommonsList <String> aTriggerGroups,
+                                @NonNull final ICommonsList <String> aJobGroups)
+    {
+      m_aPausedTriggerGroups.setAll (aTriggerGroups);
+      m_aPausedJobGroups.setAll (aJobGroups);
+    }
+  }
+
+  private void _normalizeRecoveredTriggers ()
+  {
+    m_aBlockedJobs.clear ();
+    for (final TriggerWrapper tw : m_aTriggersByKey.values ())
+    {
+      tw.m_nState = getRestoredTriggerState (tw.m_nState);
+      m_aTimeTriggers.remove (tw);
+      if (tw.m_nState == TriggerWrapper.STATE_WAITING)
+        m_aTimeTriggers.add (tw);
+    }
+  }
+
+  private boolean _isLogging ()
+  {
+    return m_aJournal != null;
+  }
+
+  /**
+   * Append a record and enqueue a new snapshot if the threshold is reached.
+   * Must be called while holding the lock. Only copying the store content is
+   * done here, the snapshot is encoded by the journal writer thread.
+   */
+  private void _append (@NonNull final byte [] aRecord)
+  {
+    m_aJournal.append (aRecord);
+    if (m_aJournal.getRecordsSinceSnapshot () >= m_nSnapshotThreshold)
+    {
+      try
+      {
+        m_aJournal.snapshot (createSnapshotContent ());
+      }
+      catch (final JobPersistenceException ex)
+      {
+        // Keep on logging - the next attempt is made after the next threshold
+        LOGGER.error ("Failed to create job store snapshot", ex);
+        m_aJournal.resetRecordsSinceSnapshot ();
+      }
+    }
+  }
+
+  private void _logTrigger (@NonNull final TriggerKey aTriggerKey)
+  {
+    final TriggerWrapper tw = m_aTriggersByKey.get (aTriggerKey);
+    try
+    {
+      _append (tw == null ? JobStoreCodec.encodeRemoveTrigger (aTriggerKey)
+                          : JobStoreCodec.encodePutTrigger (tw.m_aTrigger, tw.m_nState));
+    }
+    catch (final JobPersistenceException ex)
+    {
+      LOGGER.error ("Failed to log trigger " + aTriggerKey, ex);
+    }
+  }
+
+  private void _logTriggers (@NonNull final Iterable <TriggerWrapper> aTWs)
+  {
+    for (final TriggerWrapper tw : aTWs)
+      _logTrigger (tw.m_aKey);
+  }
+
+  private void _logPausedGroups ()
+  {
+    try
+    {
+      _append (JobStoreCodec.encodePausedGroups (m_aPausedTriggerGroups, m_aPausedJobGroups));
+    }
+    catch (final JobPersistenceException ex)
+    {
+      LOGGER.error ("Failed to log paused groups", ex);
+    }
+  }
+
+  /**
+   * Wait until all records appended so far were committed. Nested calls (while
+   * the lock is held by the outer call) don't wait - the outermost one does.
+   */
+  private void _commit () throws JobPersistenceException
+  {
+    if (m_bSyncCommit && _isLogging () && !Thread.holdsLock (m_aLock))
+      m_aJournal.awaitCommit (m_aJournal.getAppendedSequence ());
+  }
+
+  /**
+   * Same as {@link #_commit()} but for the methods that cannot throw a
+   * {@link JobPersistenceException}.
+   */
+  private void _commitUnchecked ()
+  {
+    try
+    {
+      _commit ();
+    }
+    catch (final JobPersistenceException ex)
+    {
+      throw new IllegalStateException (ex.getMessage (), ex);
+    }
+  }
+
+  @Override
+  public void shutdown ()
+  {
+    super.shutdown ();
+    final JobStoreJournal aJournal;
+    SnapshotContent aFinalSnapshot = null;
+    synchronized (m_aLock)
+    {
+      aJournal = m_aJournal;
+      m_aJournal = null;
+      if (aJournal != null)
+        try
+        {
+          aFinalSnapshot = createSnapshotContent ();
+        }
+        catch (final JobPersistenceException ex)
+        {
+          LOGGER.error ("Failed to create final job store snapshot", ex);
+        }
+    }
+    if (aJournal != null)
+      aJournal.close (aFinalSnapshot);
+  }
+
+  @Override
+  public boolean supportsPersistence ()
+  {
+    return true;
+  }
+
+  @Override
+  public void clearAllSchedulingData () throws JobPersistenceException
+  {
+    super.clearAllSchedulingData ();
+    _commit ();
+  }
+
+  @Override
+  public void storeJobAndTrigger (final IJobDetail newJob,
+                                  final IOperableTrigger newTrigger) throws JobPersistenceException
+  {
+    synchronized (m_aLock)
+    {
+      super.storeJobAndTrigger (newJob, newTrigger);
+    }
+    _commit ();
+  }
+
+  @Override
+  public void storeJob (final IJobDetail newJob, final boolean bReplaceExisting) throws ObjectAlreadyExistsException
+  {
+    synchronized (m_aLock)
+    {
+      byte [] aRecord = null;
+      if (_isLogging ())
+        try
+        {
+          // Encode first, so that unsupported jobs are rejected before storing
+          aRecord = JobStoreCodec.encodePutJob (newJob);
+        }
+        catch (final JobPersistenceException ex)
+        {
+          throw new IllegalArgumentException ("Job " + newJob.getKey () + " cannot be persisted", ex);
+        }
+      super.storeJob (newJob, bReplaceExisting);
+      if (aRecord != null)
+        _append (aRecord);
+    }
+    _commitUnchecked ();
+  }
+
+  @Override
+  public boolean removeJob (final JobKey jobKey)
+  {
+    final boolean ret;
+    synchronized (m_aLock)
+    {
+      ret = super.removeJob (jobKey);
+      if (ret && _isLogging ())
+        try
+        {
+          _append (JobStoreCodec.encodeRemoveJob (jobKey));
+        }
+        catch (final JobPersistenceException ex)
+        {
+          LOGGER.error ("Failed to log removal of job " + jobKey, ex);
+        }
+    }
+    _commitUnchecked ();
+    return ret;
+  }
+
+  @Override
+  public boolean removeJobs (final List <JobKey> jobKeys) throws JobPersistenceException
+  {
+    final boolean ret = super.removeJobs (jobKeys);
+    _commit ();
+    return ret;
+  }
+
+  @Override
+  public boolean removeTriggers (final List <TriggerKey> triggerKeys) throws JobPersistenceException
+  {
+    final boolean ret = super.removeTriggers (triggerKeys);
+    _commit ();
+    return ret;
+  }
+
+  @Override
+  public void storeJobsAndTriggers (final Map <IJobDetail, Set <? extends ITrigger>> triggersAndJobs,
+                                    final boolean replace) throws JobPersistenceException
+  {
+    super.storeJobsAndTriggers (triggersAndJobs, replace);
+    _commit ();
+  }
+
+  @Override
+  public void storeTrigger (final IOperableTrigger newTrigger,
+                            final boolean bReplaceExisting) throws JobPersistenceException
+  {
+    synchronized (m_aLock)
+    {
+      // Encode first, so that unsupported triggers are rejected before storing
+      final byte [] aRecord = _isLogging () ? JobStoreCodec.encodePutTrigger (newTrigger, TriggerWrapper.STATE_WAITING)
+                                            : null;
+      super.storeTrigger (newTrigger, bReplaceExisting);
+      if (aRecord != null)
+      {
+        JobStoreCodec.setTriggerState (aRecord, m_aTriggersByKey.get (newTrigger.getKey ()).m_nState);
+        _append (aRecord);
+      }
+    }
+    _commit ();
+  }
+
+  @Override
+  public boolean removeTrigger (final TriggerKey triggerKey)
+  {
+    final boolean ret;
+    synchronized (m_aLock)
+    {
+      ret = super.removeTrigger (triggerKey);
+      if (ret && _isLogging ())
+        _logTrigger (triggerKey);
+    }
+    _commitUnchecked ();
+    return ret;
+  }
+
+  @Override
+  public boolean replaceTrigger (final TriggerKey triggerKey,
+                                 final IOperableTrigger newTrigger) throws JobPersistenceException
+  {
+    final boolean ret;
+    synchronized (m_aLock)
+    {
+      // The new trigger is logged via storeTrigger - before the removal of the
+      // old one, so that replaying does not remove an orphaned job
+      ret = super.replaceTrigger (triggerKey, newTrigger);
+      if (ret && _isLogging () && !triggerKey.equals (newTrigger.getKey ()))
+        _logTrigger (triggerKey);
+    }
+    _commit ();
+    return ret;
+  }
+
+  @Override
+  public void storeCalendar (final String name,
+                             final ICalendar aCalendar,
+                             final boolean replaceExisting,
+                             final boolean updateTriggers) throws ObjectAlreadyExistsException
+  {
+    synchronized (m_aLock)
+    {
+      byte [] aRecord = null;
+      if (_isLogging ())
+        try
+        {
+          aRecord = JobStoreCodec.encodePutCalendar (name, aCalendar);
+        }
+        catch (final JobPersistenceException ex)
+        {
+          throw new IllegalArgumentException ("Calendar '" + name + "' cannot be persisted", ex);
+        }
+      super.storeCalendar (name, aCalendar, replaceExisting, updateTriggers);
+      if (aRecord != null)
+      {
+        _append (aRecord);
+        if (updateTriggers)
+          _logTriggers (getTriggerWrappersForCalendar (name));
+      }
+    }
+    _commitUnchecked ();
+  }
+
+  @Override
+  public boolean removeCalendar (final String calName) throws JobPersistenceException
+  {
+    final boolean ret;
+    synchronized (m_aLock)
+    {
+      ret = super.removeCalendar (calName);
+      if (ret && _isLogging ())
+        _append (JobStoreCodec.encodeRemoveCalendar (calName));
+    }
+    _commit ();
+    return ret;
+  }
+
+  @Override
+  public void pauseTrigger (final TriggerKey triggerKey)
+  {
+    synchronized (m_aLock)
+    {
+      super.pauseTrigger (triggerKey);
+      if (_isLogging () && m_aTriggersByKey.containsKey (triggerKey))
+        _logTrigger (triggerKey);
+    }
+    _commitUnchecked ();
+  }
+
+  @Override
+  public ICommonsList <String> pauseTriggers (final GroupMatcher <TriggerKey> matcher)
+  {
+    final ICommonsList <String> ret;
+    synchronized (m_aLock)
+    {
+      ret = super.pauseTriggers (matcher);
+      if (_isLogging ())
+        _logPausedGroups ();
+    }
+    _commitUnchecked ();
+    return ret;
+  }
+
+  @Override
+  public void pauseJob (final JobKey jobKey)
+  {
+    super.pauseJob (jobKey);
+    _commitUnchecked ();
+  }
+
+  @Override
+  public ICommonsList <String> pauseJobs (final GroupMatcher <JobKey> matcher)
+  {
+    final ICommonsList <String> ret;
+    synchronized (m_aLock)
+    {
+      ret = super.pauseJobs (matcher);
+      if (_isLogging ())
+        _logPausedGroups ();
+    }
+    _commitUnchecked ();
+    return ret;
+  }
+
+  @Override
+  public void resumeTrigger (final TriggerKey triggerKey)
+  {
+    synchronized (m_aLock)
+    {
+      super.resumeTrigger (triggerKey);
+      // Resuming may apply the misfire instruction
+      if (_isLogging () && m_aTriggersByKey.containsKey (triggerKey))
+        _logTrigger (triggerKey);
+    }
+    _commitUnchecked ();
+  }
+
+  @Override
+  public ICommonsList <String> resumeTriggers (final GroupMatcher <TriggerKey> matcher)
+  {
+    final ICommonsList <String> ret;
+    synchronized (m_aLock)
+    {
+      ret = super.resumeTriggers (matcher);
+      if (_isLogging ())
+        _logPausedGroups ();
+    }
+    _commitUnchecked ();
+    return ret;
+  }
+
+  @Override
+  public void resumeJob (final JobKey jobKey)
+  {
+    super.resumeJob (jobKey);
+    _commitUnchecked ();
+  }
+
+  @Override
+  public ICommonsCollection <String> resumeJobs (final GroupMatcher <JobKey> matcher)
+  {
+    final ICommonsCollection <String> ret;
+    synchronized (m_aLock)
+    {
+      ret = super.resumeJobs (matcher);
+      if (_isLogging ())
+        _logPausedGroups ();
+    }
+    _commitUnchecked ();
+    return ret;
+  }
+
+  @Override
+  public void pauseAll ()
+  {
+    super.pauseAll ();
+    _commitUnchecked ();
+  }
+
+  @Override
+  public void resumeAll ()
+  {
+    synchronized (m_aLock)
+    {
+      super.resumeAll ();
+      if (_isLogging ())
+        _logPausedGroups ();
+    }
+    _commitUnchecked ();
+  }
+
+  @Override
+  public ICommonsList <TriggerFiredResult> triggersFired (final List <IOperableTrigger> firedTriggers)
+  {
+    synchronized (m_aLock)
+    {
+      final ICommonsList <TriggerFiredResult> ret = super.triggersFired (firedTriggers);
+      // Log the updated fire times - no waiting for the commit here
+      if (_isLogging ())
+        for (final TriggerFiredResult aResult : ret)
+          _logTrigger (aResult.getTriggerFiredBundle ().getTrigger ().getKey ());
+      return ret;
+    }
+  }
+
+  @Override
+  public void triggeredJobComplete (final IOperableTrigger trigger,
+                                    final IJobDetail jobDetail,
+                                    final ECompletedExecutionInstruction triggerInstCode)
+  {
+    synchronized (m_aLock)
+    {
+      super.triggeredJobComplete (trigger, jobDetail, triggerInstCode);
+      if (_isLogging ())
+      {
+        // No waiting for the commit here
+        final JobWrapper jw = m_aJobsByKey.get (jobDetail.getKey ());
+        if (jw != null && jw.getJobDetail ().isPersistJobDataAfterExecution ())
+          try
+          {
+            _append (JobStoreCodec.encodePutJob (jw.getJobDetail ()));
+          }
+          catch (final JobPersistenceException ex)
+          {
+            LOGGER.error ("Failed to log job data of " + jobDetail.getKey (), ex);
+          }
+
+        if (triggerInstCode == ECompletedExecutionInstruction.SET_ALL_JOB_TRIGGERS_COMPLETE ||
+            triggerInstCode == ECompletedExecutionInstruction.SET_ALL_JOB_TRIGGERS_ERROR)
+          _logTriggers (getTriggerWrappersForJob (trigger.getJobKey ()));
+        else
+          if (triggerInstCode != ECompletedExecutionInstruction.DELETE_TRIGGER)
+            _logTrigger (trigger.getKey ());
+      }
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.simpl;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * Internal index of all {@link TriggerWrapper}s of a {@link RAMJobStore} that
+ * are waiting to be fired, ordered by next fire time, priority and key. The
+ * implementation is not thread-safe - all calls must be done while holding
+ * the lock of the owning job store.
+ *
+ * @author Philip Helger
+ */
+interface ITriggerTimeIndex
+{
+  /**
+   * Add a trigger to the index, based on its current next fire time and
+   * priority.
+   *
+   * @param aTW
+   *        The trigger wrapper to add. May not be <code>null</code>.
+   * @return <code>true</code> if it was added, <code>false</code> if it was
+   *         already contained.
+   */
+  boolean add (@NonNull TriggerWrapper aTW);
+
+  default void addAll (@NonNull final Iterable <TriggerWrapper> aTWs)
+  {
+    for (final TriggerWrapper aTW : aTWs)
+      add (aTW);
+  }
+
+  /**
+   * Remove a trigger from the index.
+   *
+   * @param aTW
+   *        The trigger wrapper to remove. May not be <code>null</code>.
+   * @return <code>true</code> if it was removed, <code>false</code> if it was
+   *         not contained.
+   */
+  boolean remove (@NonNull TriggerWrapper aTW);
+
+  /**
+   * @return The trigger that fires next or <code>null</code> if the index is
+   *         empty.
+   */
+  @Nullable
+  TriggerWrapper first ();
+
+  /**
+   * Get and remove the trigger that fires next.
+   *
+   * @return The removed trigger or <code>null</code> if the index is empty.
+   */
+  @Nullable
+  default TriggerWrapper pollFirst ()
+  {
+    final TriggerWrapper ret = first ();
+    if (ret != null)
+      remove (ret);
+    return ret;
+  }
+
+  int size ();
+
+  default boolean isEmpty ()
+  {
+    return size () == 0;
+  }
+
+  void clear ();
+
+  /**
+   * @return A copy of all contained triggers in firing order. Never
+   *         <code>null</code>. Only intended for diagnostic purposes, as this
+   *         may be expensive.
+   */
+  @NonNull
+  ICommonsList <TriggerWrapper> getAllSorted ();
+}
@@ -0,0 +1,1097 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.simpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.GregorianCalendar;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.quartz.EIntervalUnit;
+import com.helger.quartz.ICalendar;
+import com.helger.quartz.IJob;
+import com.helger.quartz.IJobDetail;
+import com.helger.quartz.ITrigger;
+import com.helger.quartz.ITrigger.EMisfireInstruction;
+import com.helger.quartz.JobDataMap;
+import com.helger.quartz.JobKey;
+import com.helger.quartz.JobPersistenceException;
+import com.helger.quartz.KeyInterner;
+import com.helger.quartz.TriggerKey;
+import com.helger.quartz.impl.JobDetail;
+import com.helger.quartz.impl.calendar.AbstractCalendar;
+import com.helger.quartz.impl.calendar.AnnualCalendar;
+import com.helger.quartz.impl.calendar.CronCalendar;
+import com.helger.quartz.impl.calendar.DailyCalendar;
+import com.helger.quartz.impl.calendar.HolidayCalendar;
+import com.helger.quartz.impl.calendar.MonthlyCalendar;
+import com.helger.quartz.impl.calendar.WeeklyCalendar;
+import com.helger.quartz.impl.triggers.AbstractTrigger;
+import com.helger.quartz.impl.triggers.CalendarIntervalTrigger;
+import com.helger.quartz.impl.triggers.CronTrigger;
+import com.helger.quartz.impl.triggers.DailyTimeIntervalTrigger;
+import com.helger.quartz.impl.triggers.OneShotTrigger;
+import com.helger.quartz.impl.triggers.SimpleTrigger;
+import com.helger.quartz.spi.IClassLoadHelper;
+import com.helger.quartz.spi.IOperableTrigger;
+
+/**
+ * Binary encoding of the job store contents (jobs, triggers, calendars and
+ * paused groups) as self-contained records. Each record starts with one of the
+ * <code>RECORD_*</code> type bytes. Records that store an object are "upserts"
+ * containing the complete current state, so replaying a sequence of records in
+ * order always results in the latest state.<br>
+ * Supported are the built-in trigger and calendar implementations. Job data map
+ * values may be <code>null</code>, strings, primitive wrappers,
+ * {@link BigInteger}, {@link BigDecimal}, {@link Date} or any other
+ * {@link Serializable} object.
+ *
+ * @author Philip Helger
+ */
+@Immutable
+final class JobStoreCodec
+{
+  static final byte RECORD_PUT_JOB = 1;
+  static final byte RECORD_REMOVE_JOB = 2;
+  static final byte RECORD_PUT_TRIGGER = 3;
+  static final byte RECORD_REMOVE_TRIGGER = 4;
+  static final byte RECORD_PUT_CALENDAR = 5;
+  static final byte RECORD_REMOVE_CALENDAR = 6;
+  static final byte RECORD_PAUSED_GROUPS = 7;
+
+  /** Offset of the trigger state byte in a {@link #RECORD_PUT_TRIGGER} record */
+  static final int TRIGGER_STATE_OFFSET = 1;
+
+  private static final byte TRIGGER_SIMPLE = 1;
+  private static final byte TRIGGER_CRON = 2;
+  private static final byte TRIGGER_CALENDAR_INTERVAL = 3;
+  private static final byte TRIGGER_DAILY_TIME_INTERVAL = 4;
+  private static final byte TRIGGER_ONE_SHOT = 5;
+
+  private static final byte CALENDAR_NONE = 0;
+  private static final byte CALENDAR_ANNUAL = 1;
+  private static final byte CALENDAR_CRON = 2;
+  private static final byte CALENDAR_DAILY = 3;
+  private static final byte CALENDAR_HOLIDAY = 4;
+  private static final byte CALENDAR_MONTHLY = 5;
+  private static final byte CALENDAR_WEEKLY = 6;
+
+  private static final byte VALUE_NULL = 0;
+  private static final byte VALUE_STRING = 1;
+  private static final byte VALUE_BOOLEAN = 2;
+  private static final byte VALUE_INTEGER = 3;
+  private static final byte VALUE_LONG = 4;
+  private static final byte VALUE_DOUBLE = 5;
+  private static final byte VALUE_FLOAT = 6;
+  private static final byte VALUE_SHORT = 7;
+  private static final byte VALUE_BYTE = 8;
+  private static final byte VALUE_CHARACTER = 9;
+  private static final byte VALUE_DATE = 10;
+  private static final byte VALUE_BIG_INTEGER = 11;
+  private static final byte VALUE_BIG_DECIMAL = 12;
+  private static final byte VALUE_SERIALIZABLE = 13;
+
+  private static final long NO_TIME = Long.MIN_VALUE;
+
+  private JobStoreCodec ()
+  {}
+
+  /**
+   * Callback interface for decoded records.
+   */
+  interface IRecordHandler
+  {
+    void onPutJob (@NonNull IJobDetail aJob) throws IOException;
+
+    void onRemoveJob (@NonNull JobKey aJobKey) throws IOException;
+
+    void onPutTrigger (@NonNull IOperableTrigger aTrigger, int nState) throws IOException;
+
+    void onRemoveTrigger (@NonNull TriggerKey aTriggerKey) throws IOException;
+
+    void onPutCalendar (@NonNull String sName, @NonNull ICalendar aCalendar) throws IOException;
+
+    void onRemoveCalendar (@NonNull String sName) throws IOException;
+
+    void onPausedGroups (@NonNull ICommonsList <String> aTriggerGroups,
+                         @NonNull ICommonsList <String> aJobGroups) throws IOException;
+  }
+
+  /**
+   * Minimal unsynchronized {@link InputStream} on top of a {@link ByteBuffer},
+   * so that buffered records can be decoded without copying.
+   */
+  private static final class ByteBufferInputStream extends InputStream
+  {
+    private final ByteBuffer m_aBuffer;
+
+    ByteBufferInputStream (@NonNull final ByteBuffer aBuffer)
+    {
+      m_aBuffer = aBuffer;
+    }
+
+    @Override
+    public int read ()
+    {
+      return m_aBuffer.hasRemaining () ? m_aBuffer.get () & 0xff : -1;
+    }
+
+    @Override
+    public int read (@NonNull final byte [] aBuf, final int nOfs, final int nLen)
+    {
+      if (nLen == 0)
+        return 0;
+      final int nRemaining = m_aBuffer.remaining ();
+      if (nRemaining == 0)
+        return -1;
+      final int nRead = Math.min (nLen, nRemaining);
+      m_aBuffer.get (aBuf, nOfs, nRead);
+      return nRead;
+    }
+
+    @Override
+    public int available ()
+    {
+      return m_aBuffer.remaining ();
+    }
+  }
+
+  @FunctionalInterface
+  private interface IEncoder
+  {
+    void encode (@NonNull DataOutputStream aDOS) throws IOException, JobPersistenceException;
+  }
+
+  @NonNull
+  private static byte [] _encode (@NonNull final IEncoder aEncoder) throws JobPersistenceException
+  {
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream (256);
+    try (final DataOutputStream aDOS = new DataOutputStream (aBAOS))
+    {
+      aEncoder.encode (aDOS);
+    }
+    catch (final IOException ex)
+    {
+      // Cannot happen for in-memory streams, except for serializable values
+      throw new JobPersistenceException ("Failed to encode job store record", ex);
+    }
+    return aBAOS.toByteArray ();
+  }
+
+  // Primitive helpers
+
+  private static void _writeString (@NonNull final DataOutput aDO, @Nullable final String s) throws IOException
+  {
+    if (s == null)
+      aDO.writeInt (-1);
+    else
+    {
+      final byte [] aBytes = s.getBytes (StandardCharsets.UTF_8);
+      aDO.writeInt (aBytes.length);
+      aDO.write (aBytes);
+    }
+  }
+
+  @Nullable
+  private static String _readString (@NonNull final DataInput aDI) throws IOException
+  {
+    final int nLen = aDI.readInt ();
+    if (nLen < 0)
+      return null;
+    final byte [] aBytes = new byte [nLen];
+    aDI.readFully (aBytes);
+    return new String (aBytes, StandardCharsets.UTF_8);
+  }
+
+  @Nullable
+  private static String _readGroup (@NonNull final DataInput aDI) throws IOException
+  {
+    final String ret = _readString (aDI);
+    // Groups are few but shared by many keys
+    return KeyInterner.internGroup (ret);
+  }
+
+  private static void _writeDate (@NonNull final DataOutput aDO, @Nullable final Date aDate) throws IOException
+  {
+    aDO.writeLong (aDate == null ? NO_TIME : aDate.getTime ());
+  }
+
+  @Nullable
+  private static Date _readDate (@NonNull final DataInput aDI) throws IOException
+  {
+    final long n = aDI.readLong ();
+    return n == NO_TIME ? null : new Date (n);
+  }
+
+  private static void _writeFireTime (@NonNull final DataOutput aDO, final long nFireTime) throws IOException
+  {
+    aDO.writeLong (nFireTime == ITrigger.NO_FIRE_TIME ? NO_TIME : nFireTime);
+  }
+
+  private static long _readFireTime (@NonNull final DataInput aDI) throws IOException
+  {
+    final long n = aDI.readLong ();
+    return n == NO_TIME ? ITrigger.NO_FIRE_TIME : n;
+  }
+
+  private static void _writeTimeZone (@NonNull final DataOutput aDO, @Nullable final TimeZone aTZ) throws IOException
+  {
+    _writeString (aDO, aTZ == null ? null : aTZ.getID ());
+  }
+
+  @Nullable
+  private static TimeZone _readTimeZone (@NonNull final DataInput aDI) throws IOException
+  {
+    final String sID = _readString (aDI);
+    return sID == null ? null : TimeZone.getTimeZone (sID);
+  }
+
+  private static void _writeTimeOfDay (@NonNull final DataOutput aDO, @Nullable final LocalTime aTime) throws IOException
+  {
+    aDO.writeLong (aTime == null ? -1 : aTime.toNanoOfDay ());
+  }
+
+  @Nullable
+  private static LocalTime _readTimeOfDay (@NonNull final DataInput aDI) throws IOException
+  {
+    final long n = aDI.readLong ();
+    return n < 0 ? null : LocalTime.ofNanoOfDay (n);
+  }
+
+  private static void _writeStrings (@NonNull final DataOutput aDO, @NonNull final Iterable <String> aStrings) throws IOException
+  {
+    final ICommonsList <String> aList = new CommonsArrayList <> (aStrings);
+    aDO.writeInt (aList.size ());
+    for (final String s : aList)
+      _writeString (aDO, s);
+  }
+
+  @NonNull
+  private static ICommonsList <String> _readStrings (@NonNull final DataInput aDI) throws IOException
+  {
+    final int nCount = aDI.readInt ();
+    final ICommonsList <String> ret = new CommonsArrayList <> (nCount);
+    for (int i = 0; i < nCount; ++i)
+      ret.add (_readString (aDI));
+    return ret;
+  }
+
+  // Job data maps
+
+  private static void _writeValue (@NonNull final DataOutputStream aDOS,
+                                   @Nullable final Object aValue) throws IOException, JobPersistenceException
+  {
+    if (aValue == null)
+      aDOS.writeByte (VALUE_NULL);
+    else
+      if (aValue instanceof String)
+      {
+        aDOS.writeByte (VALUE_STRING);
+        _writeString (aDOS, (String) aValue);
+      }
+      else
+        if (aValue instanceof Boolean)
+        {
+          aDOS.writeByte (VALUE_BOOLEAN);
+          aDOS.writeBoolean (((Boolean) aValue).booleanValue ());
+        }
+        else
+          if (aValue instanceof Integer)
+          {
+            aDOS.writeByte (VALUE_INTEGER);
+            aDOS.writeInt (((Integer) aValue).intValue ());
+          }
+          else
+            if (aValue instanceof Long)
+            {
+              aDOS.writeByte (VALUE_LONG);
+              aDOS.writeLong (((Long) aValue).longValue ());
+            }
+            else
+              if (aValue instanceof Double)
+              {
+                aDOS.writeByte (VALUE_DOUBLE);
+                aDOS.writeDouble (((Double) aValue).doubleValue ());
+              }
+              else
+                if (aValue instanceof Float)
+                {
+                  aDOS.writeByte (VALUE_FLOAT);
+                  aDOS.writeFloat (((Float) aValue).floatValue ());
+                }
+                else
+                  if (aValue instanceof Short)
+                  {
+                    aDOS.writeByte (VALUE_SHORT);
+                    aDOS.writeShort (((Short) aValue).shortValue ());
+                  }
+                  else
+                    if (aValue instanceof Byte)
+                    {
+                      aDOS.writeByte (VALUE_BYTE);
+                      aDOS.writeByte (((Byte) aValue).byteValue ());
+                    }
+                    else
+                      if (aValue instanceof Character)
+                      {
+                        aDOS.writeByte (VALUE_CHARACTER);
+                        aDOS.writeChar (((Character) aValue).charValue ());
+                      }
+                      else
+                        if (aValue.getClass () == Date.class)
+                        {
+                          aDOS.writeByte (VALUE_DATE);
+                          aDOS.writeLong (((Date) aValue).getTime ());
+                        }
+                        else
+                          if (aValue.getClass () == BigInteger.class)
+                          {
+                            aDOS.writeByte (VALUE_BIG_INTEGER);
+                            _writeString (aDOS, aValue.toString ());
+                          }
+                          else
+                            if (aValue.getClass () == BigDecimal.class)
+                            {
+                              aDOS.writeByte (VALUE_BIG_DECIMAL);
+                              _writeString (aDOS, aValue.toString ());
+                            }
+                            else
+                              if (aValue instanceof Serializable)
+                              {
+                                final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+                                try (final ObjectOutputStream aOOS = new ObjectOutputStream (aBAOS))
+                                {
+                                  aOOS.writeObject (aValue);
+                                }
+                                final byte [] aBytes = aBAOS.toByteArray ();
+                                aDOS.writeByte (VALUE_SERIALIZABLE);
+                                aDOS.writeInt (aBytes.length);
+                                aDOS.write (aBytes);
+                              }
+                              else
+                                throw new JobPersistenceException ("Unsupported job data map value type " +
+                                                                   aValue.getClass ().getName ());
+  }
+
+  @Nullable
+  private static Object _readValue (@NonNull final DataInput aDI,
+                                    @NonNull final IClassLoadHelper aLoadHelper) throws IOException
+  {
+    final byte nType = aDI.readByte ();
+    switch (nType)
+    {
+      case VALUE_NULL:
+        return null;
+      case VALUE_STRING:
+        return _readString (aDI);
+      case VALUE_BOOLEAN:
+        return Boolean.valueOf (aDI.readBoolean ());
+      case VALUE_INTEGER:
+        return Integer.valueOf (aDI.readInt ());
+      case VALUE_LONG:
+        return Long.valueOf (aDI.readLong ());
+      case VALUE_DOUBLE:
+        return Double.valueOf (aDI.readDouble ());
+      case VALUE_FLOAT:
+        return Float.valueOf (aDI.readFloat ());
+      case VALUE_SHORT:
+        return Short.valueOf (aDI.readShort ());
+      case VALUE_BYTE:
+        return Byte.valueOf (aDI.readByte ());
+      case VALUE_CHARACTER:
+        return Character.valueOf (aDI.readChar ());
+      case VALUE_DATE:
+        return new Date (aDI.readLong ());
+      case VALUE_BIG_INTEGER:
+        return new BigInteger (_readString (aDI));
+      case VALUE_BIG_DECIMAL:
+        return new BigDecimal (_readString (aDI));
+      case VALUE_SERIALIZABLE:
+      {
+        final byte [] aBytes = new byte [aDI.readInt ()];
+        aDI.readFully (aBytes);
+        try (final ObjectInputStream aOIS = new ObjectInputStream (new ByteArrayInputStream (aBytes))
+        {
+          @Override
+          protected Class <?> resolveClass (final java.io.ObjectStreamClass aDesc) throws IOException,
+                                                                                   ClassNotFoundException
+          {
+            try
+            {
+              return aLoadHelper.loadClass (aDesc.getName ());
+            }
+            catch (final ClassNotFoundException ex)
+            {
+              return super.resolveClass (aDesc);
+            }
+          }
+        })
+        {
+          return aOIS.readObject ();
+        }
+        catch (final ClassNotFoundException ex)
+        {
+          throw new IOException ("Failed to deserialize job data map value", ex);
+        }
+      }
+      default:
+        throw new IOException ("Unsupported job data map value type " + nType);
+    }
+  }
+
+  private static void _writeJobDataMap (@NonNull final DataOutputStream aDOS,
+                                        @Nullable final JobDataMap aMap) throws IOException, JobPersistenceException
+  {
+    if (aMap == null)
+      aDOS.writeInt (-1);
+    else
+    {
+      aDOS.writeInt (aMap.size ());
+      for (final Map.Entry <String, Object> aEntry : aMap.entrySet ())
+      {
+        _writeString (aDOS, aEntry.getKey ());
+        _writeValue (aDOS, aEntry.getValue ());
+      }
+    }
+  }
+
+  @Nullable
+  private static JobDataMap _readJobDataMap (@NonNull final DataInput aDI,
+                                             @NonNull final IClassLoadHelper aLoadHelper) throws IOException
+  {
+    final int nCount = aDI.readInt ();
+    if (nCount < 0)
+      return null;
+    final JobDataMap ret = new JobDataMap ();
+    for (int i = 0; i < nCount; ++i)
+    {
+      final String sKey = _readString (aDI);
+      ret.put (sKey, _readValue (aDI, aLoadHelper));
+    }
+    return ret;
+  }
+
+  // Jobs
+
+  @NonNull
+  static byte [] encodePutJob (@NonNull final IJobDetail aJob) throws JobPersistenceException
+  {
+    return _encode (aDOS -> {
+      aDOS.writeByte (RECORD_PUT_JOB);
+      _writeString (aDOS, aJob.getKey ().getName ());
+      _writeString (aDOS, aJob.getKey ().getGroup ());
+      _writeString (aDOS, aJob.getDescription ());
+      _writeString (aDOS, aJob.getJobClass ().getName ());
+      aDOS.writeBoolean (aJob.isDurable ());
+      aDOS.writeBoolean (aJob.requestsRecovery ());
+      _writeJobDataMap (aDOS, aJob.getJobDataMap ());
+    });
+  }
+
+  @NonNull
+  private static IJobDetail _readJob (@NonNull final DataInput aDI,
+                                      @NonNull final IClassLoadHelper aLoadHelper) throws IOException
+  {
+    final JobDetail ret = new JobDetail ();
+    ret.setName (_readString (aDI));
+    ret.setGroup (_readString (aDI));
+    ret.setDescription (_readString (aDI));
+    final String sJobClass = _readString (aDI);
+    try
+    {
+      ret.setJobClass (aLoadHelper.loadClass (sJobClass, IJob.class));
+    }
+    catch (final ClassNotFoundException ex)
+    {
+      throw new IOException ("Failed to load job class '" + sJobClass + "'", ex);
+    }
+    ret.setDurability (aDI.readBoolean ());
+    ret.setRequestsRecovery (aDI.readBoolean ());
+    ret.setJobDataMap (_readJobDataMap (aDI, aLoadHelper));
+    return ret;
+  }
+
+  @NonNull
+  static byte [] encodeRemoveJob (@NonNull final JobKey aJobKey) throws JobPersistenceException
+  {
+    return _encode (aDOS -> {
+      aDOS.writeByte (RECORD_REMOVE_JOB);
+      _writeString (aDOS, aJobKey.getName ());
+      _writeString (aDOS, aJobKey.getGroup ());
+    });
+  }
+
+  // Triggers
+
+  private static void _writeTrigger (@NonNull final DataOutputStream aDOS,
+                                     @NonNull final IOperableTrigger aTrigger) throws IOException,
+                                                                               JobPersistenceException
+  {
+    final byte nType;
+    if (aTrigger.getClass () == SimpleTrigger.class)
+      nType = TRIGGER_SIMPLE;
+    else
+      if (aTrigger.getClass () == CronTrigger.class)
+        nType = TRIGGER_CRON;
+      else
+        if (aTrigger.getClass () == CalendarIntervalTrigger.class)
+          nType = TRIGGER_CALENDAR_INTERVAL;
+        else
+          if (aTrigger.getClass () == DailyTimeIntervalTrigger.class)
+            nType = TRIGGER_DAILY_TIME_INTERVAL;
+          else
+            if (aTrigger.getClass () == OneShotTrigger.class)
+              nType = TRIGGER_ONE_SHOT;
+            else
+              throw new JobPersistenceException ("Unsupported trigger type " + aTrigger.getClass ().getName ());
+
+    aDOS.writeByte (nType);
+    _writeString (aDOS, aTrigger.getKey ().getName ());
+    _writeString (aDOS, aTrigger.getKey ().getGroup ());
+    _writeString (aDOS, aTrigger.getJobKey ().getName ());
+    _writeString (aDOS, aTrigger.getJobKey ().getGroup ());
+    _writeString (aDOS, aTrigger.getDescription ());
+    _writeString (aDOS, aTrigger.getCalendarName ());
+    _writeString (aDOS, aTrigger.getMisfireInstruction ().name ());
+    aDOS.writeInt (aTrigger.getPriority ());
+    _writeJobDataMap (aDOS, aTrigger.getJobDataMap ());
+    _writeDate (aDOS, aTrigger.getStartTime ());
+    _writeDate (aDOS, aTrigger.getEndTime ());
+    _writeFireTime (aDOS, aTrigger.getNextFireTimeMillis ());
+    _writeFireTime (aDOS, aTrigger.getPreviousFireTimeMillis ());
+
+    switch (nType)
+    {
+      case TRIGGER_SIMPLE:
+      {
+        final SimpleTrigger aST = (SimpleTrigger) aTrigger;
+        aDOS.writeInt (aST.getRepeatCount ());
+        aDOS.writeLong (aST.getRepeatInterval ());
+        aDOS.writeInt (aST.getTimesTriggered ());
+        break;
+      }
+      case TRIGGER_CRON:
+      {
+        final CronTrigger aCT = (CronTrigger) aTrigger;
+        _writeString (aDOS, aCT.getCronExpression ());
+        _writeTimeZone (aDOS, aCT.getTimeZone ());
+        break;
+      }
+      case TRIGGER_CALENDAR_INTERVAL:
+      {
+        final CalendarIntervalTrigger aCIT = (CalendarIntervalTrigger) aTrigger;
+        aDOS.writeInt (aCIT.getRepeatInterval ());
+        _writeString (aDOS, aCIT.getRepeatIntervalUnit ().name ());
+        _writeTimeZone (aDOS, aCIT.getTimeZone ());
+        aDOS.writeBoolean (aCIT.isPreserveHourOfDayAcrossDaylightSavings ());
+        aDOS.writeBoolean (aCIT.isSkipDayIfHourDoesNotExist ());
+        aDOS.writeInt (aCIT.getTimesTriggered ());
+        break;
+      }
+      case TRIGGER_DAILY_TIME_INTERVAL:
+      {
+        final DailyTimeIntervalTrigger aDTIT = (DailyTimeIntervalTrigger) aTrigger;
+        aDOS.writeInt (aDTIT.getRepeatCount ());
+        aDOS.writeInt (aDTIT.getRepeatInterval ());
+        _writeString (aDOS, aDTIT.getRepeatIntervalUnit ().name ());
+        int nDaysOfWeek = 0;
+        for (final DayOfWeek eDay : aDTIT.getDaysOfWeek ())
+          nDaysOfWeek |= 1 << eDay.ordinal ();
+        aDOS.writeInt (nDaysOfWeek);
+        _writeTimeOfDay (aDOS, aDTIT.getStartTimeOfDay ());
+        _writeTimeOfDay (aDOS, aDTIT.getEndTimeOfDay ());
+        aDOS.writeInt (aDTIT.getTimesTriggered ());
+        break;
+      }
+    }
+  }
+
+  @NonNull
+  private static IOperableTrigger _readTrigger (@NonNull final DataInput aDI,
+                                                @NonNull final IClassLoadHelper aLoadHelper) throws IOException
+  {
+    final byte nType = aDI.readByte ();
+    final AbstractTrigger <?> ret;
+    switch (nType)
+    {
+      case TRIGGER_SIMPLE:
+        ret = new SimpleTrigger ();
+        break;
+      case TRIGGER_CRON:
+        ret = new CronTrigger ();
+        break;
+      case TRIGGER_CALENDAR_INTERVAL:
+        ret = new CalendarIntervalTrigger ();
+        break;
+      case TRIGGER_DAILY_TIME_INTERVAL:
+        ret = new DailyTimeIntervalTrigger ();
+        break;
+      case TRIGGER_ONE_SHOT:
+        // Everything is contained in the common part
+        ret = new OneShotTrigger ();
+        break;
+      default:
+        throw new IOException ("Unsupported trigger type " + nType);
+    }
+
+    final String sName = _readString (aDI);
+    final String sGroup = _readGroup (aDI);
+    ret.setKey (new TriggerKey (sName, sGroup));
+    final String sJobName = _readString (aDI);
+    final String sJobGroup = _readString (aDI);
+    ret.setJobKey (new JobKey (sJobName, sJobGroup));
+    ret.setDescription (_readString (aDI));
+    ret.setCalendarName (_readString (aDI));
+    ret.setMisfireInstruction (EMisfireInstruction.valueOf (_readString (aDI)));
+    ret.setPriority (aDI.readInt ());
+    ret.setJobDataMap (_readJobDataMap (aDI, aLoadHelper));
+    final Date aStartTime = _readDate (aDI);
+    if (aStartTime != null)
+      ret.setStartTime (aStartTime);
+    ret.setEndTime (_readDate (aDI));
+    ret.setNextFireTimeMillis (_readFireTime (aDI));
+    ret.setPreviousFireTimeMillis (_readFireTime (aDI));
+
+    switch (nType)
+    {
+      case TRIGGER_SIMPLE:
+      {
+        final SimpleTrigger aST = (SimpleTrigger) ret;
+        aST.setRepeatCount (aDI.readInt ());
+        aST.setRepeatInterval (aDI.readLong ());
+        aST.setTimesTriggered (aDI.readInt ());
+        break;
+      }
+      case TRIGGER_CRON:
+      {
+        final CronTrigger aCT = (CronTrigger) ret;
+        final String sCronExpression = _readString (aDI);
+        aCT.setTimeZone (_readTimeZone (aDI));
+        try
+        {
+          aCT.setCronExpression (sCronExpression);
+        }
+        catch (final ParseException ex)
+        {
+          throw new IOException ("Failed to parse cron expression '" + sCronExpression + "'", ex);
+        }
+        break;
+      }
+      case TRIGGER_CALENDAR_INTERVAL:
+      {
+        final CalendarIntervalTrigger aCIT = (CalendarIntervalTrigger) ret;
+        aCIT.setRepeatInterval (aDI.readInt ());
+        aCIT.setRepeatIntervalUnit (EIntervalUnit.valueOf (_readString (aDI)));
+        aCIT.setTimeZone (_readTimeZone (aDI));
+        aCIT.setPreserveHourOfDayAcrossDaylightSavings (aDI.readBoolean ());
+        aCIT.setSkipDayIfHourDoesNotExist (aDI.readBoolean ());
+        aCIT.setTimesTriggered (aDI.readInt ());
+        break;
+      }
+      case TRIGGER_DAILY_TIME_INTERVAL:
+      {
+        final DailyTimeIntervalTrigger aDTIT = (DailyTimeIntervalTrigger) ret;
+        aDTIT.setRepeatCount (aDI.readInt ());
+        aDTIT.setRepeatInterval (aDI.readInt ());
+        aDTIT.setRepeatIntervalUnit (EIntervalUnit.valueOf (_readString (aDI)));
+        final int nDaysOfWeek = aDI.readInt ();
+        final EnumSet <DayOfWeek> aDaysOfWeek = EnumSet.noneOf (DayOfWeek.class);
+        for (final DayOfWeek eDay : DayOfWeek.values ())
+          if ((nDaysOfWeek & (1 << eDay.ordinal ())) != 0)
+            aDaysOfWeek.add (eDay);
+        aDTIT.setDaysOfWeek (aDaysOfWeek);
+        aDTIT.setStartTimeOfDay (_readTimeOfDay (aDI));
+        aDTIT.setEndTimeOfDay (_readTimeOfDay (aDI));
+        aDTIT.setTimesTriggered (aDI.readInt ());
+        break;
+      }
+    }
+    return (IOperableTrigger) ret;
+  }
+
+  /**
+   * Encode a trigger. The state is the byte at offset
+   * {@link #TRIGGER_STATE_OFFSET} and may be updated in the result via
+   * {@link #setTriggerState(byte[], int)}.
+   *
+   * @param aTrigger
+   *        The trigger to encode. May not be <code>null</code>.
+   * @param nState
+   *        The internal trigger state.
+   * @return The encoded record. Never <code>null</code>.
+   * @throws JobPersistenceException
+   *         If the trigger type or a job data map value is not supported
+   */
+  @NonNull
+  static byte [] encodePutTrigger (@NonNull final IOperableTrigger aTrigger, final int nState) throws JobPersistenceException
+  {
+    return _encode (aDOS -> {
+      aDOS.writeByte (RECORD_PUT_TRIGGER);
+      aDOS.writeByte (nState);
+      _writeTrigger (aDOS, aTrigger);
+    });
+  }
+
+  static void setTriggerState (@NonNull final byte [] aRecord, final int nState)
+  {
+    aRecord[TRIGGER_STATE_OFFSET] = (byte) nState;
+  }
+
+  @NonNull
+  static byte [] encodeRemoveTrigger (@NonNull final TriggerKey aTriggerKey) throws JobPersistenceException
+  {
+    return _encode (aDOS -> {
+      aDOS.writeByte (RECORD_REMOVE_TRIGGER);
+      _writeString (aDOS, aTriggerKey.getName ());
+      _writeString (aDOS, aTriggerKey.getGroup ());
+    });
+  }
+
+  // Calendars
+
+  private static void _writeCalendar (@NonNull final DataOutputStream aDOS,
+                                      @Nullable final ICalendar aCalendar) throws IOException, JobPersistenceException
+  {
+    if (aCalendar == null)
+    {
+      aDOS.writeByte (CALENDAR_NONE);
+      return;
+    }
+
+    if (aCalendar instanceof AnnualCalendar)
+    {
+      final AnnualCalendar aAC = (AnnualCalendar) aCalendar;
+      aDOS.writeByte (CALENDAR_ANNUAL);
+      aDOS.writeInt (aAC.getDaysExcluded ().size ());
+      for (final Calendar aDay : aAC.getDaysExcluded ())
+      {
+        aDOS.writeLong (aDay.getTimeInMillis ());
+        _writeTimeZone (aDOS, aDay.getTimeZone ());
+      }
+    }
+    else
+      if (aCalendar instanceof CronCalendar)
+      {
+        aDOS.writeByte (CALENDAR_CRON);
+        _writeString (aDOS, ((CronCalendar) aCalendar).getCronExpression ().getCronExpression ());
+      }
+      else
+        if (aCalendar instanceof DailyCalendar)
+        {
+          final DailyCalendar aDC = (DailyCalendar) aCalendar;
+          aDOS.writeByte (CALENDAR_DAILY);
+          _writeTimeOfDay (aDOS, aDC.getRangeStartingTimeOfDay ());
+          _writeTimeOfDay (aDOS, aDC.getRangeEndingTimeOfDay ());
+          aDOS.writeBoolean (aDC.getInvertTimeRange ());
+        }
+        else
+          if (aCalendar instanceof HolidayCalendar)
+          {
+            final HolidayCalendar aHC = (HolidayCalendar) aCalendar;
+            aDOS.writeByte (CALENDAR_HOLIDAY);
+            aDOS.writeInt (aHC.getExcludedDates ().size ());
+            for (final Date aDate : aHC.getExcludedDates ())
+              aDOS.writeLong (aDate.getTime ());
+          }
+          else
+            if (aCalendar instanceof MonthlyCalendar)
+            {
+              aDOS.writeByte (CALENDAR_MONTHLY);
+              _writeBooleans (aDOS, ((MonthlyCalendar) aCalendar).getDaysExcluded ());
+            }
+            else
+              if (aCalendar instanceof WeeklyCalendar)
+              {
+                aDOS.writeByte (CALENDAR_WEEKLY);
+                _writeBooleans (aDOS, ((WeeklyCalendar) aCalendar).getDaysExcluded ());
+              }
+              else
+                throw new JobPersistenceException ("Unsupported calendar type " + aCalendar.getClass ().getName ());
+
+    // All supported calendars are derived from AbstractCalendar
+    final AbstractCalendar <?> aAbstractCal = (AbstractCalendar <?>) aCalendar;
+    _writeString (aDOS, aAbstractCal.getDescription ());
+    _writeTimeZone (aDOS, aAbstractCal.getTimeZone ());
+    _writeCalendar (aDOS, aAbstractCal.getBaseCalendar ());
+  }
+
+  private static void _writeBooleans (@NonNull final DataOutput aDO, @NonNull final boolean [] aValues) throws IOException
+  {
+    aDO.writeInt (aValues.length);
+    for (final boolean b : aValues)
+      aDO.writeBoolean (b);
+  }
+
+  @NonNull
+  private static boolean [] _readBooleans (@NonNull final DataInput aDI) throws IOException
+  {
+    final boolean [] ret = new boolean [aDI.readInt ()];
+    for (int i = 0; i < ret.length; ++i)
+      ret[i] = aDI.readBoolean ();
+    return ret;
+  }
+
+  @NonNull
+  private static String _formatTimeOfDay (@NonNull final LocalTime aTime)
+  {
+    return aTime.getHour () +
+           ":" +
+           aTime.getMinute () +
+           ":" +
+           aTime.getSecond () +
+           ":" +
+           aTime.getNano () / 1_000_000;
+  }
+
+  @Nullable
+  private static ICalendar _readCalendar (@NonNull final DataInput aDI) throws IOException
+  {
+    final byte nType = aDI.readByte ();
+    if (nType == CALENDAR_NONE)
+      return null;
+
+    final AbstractCalendar <?> ret;
+    // Holidays are normalized with the time zone, so they are applied later
+    long [] aHolidays = null;
+    switch (nType)
+    {
+      case CALENDAR_ANNUAL:
+      {
+        final AnnualCalendar aAC = new AnnualCalendar ();
+        final int nCount = aDI.readInt ();
+        final ICommonsList <Calendar> aDays = new CommonsArrayList <> (nCount);
+        for (int i = 0; i < nCount; ++i)
+        {
+          final long nMillis = aDI.readLong ();
+          final TimeZone aTZ = _readTimeZone (aDI);
+          final Calendar aDay = aTZ == null ? new GregorianCalendar () : new GregorianCalendar (aTZ);
+          aDay.setTimeInMillis (nMillis);
+          aDays.add (aDay);
+        }
+        aAC.setDaysExcluded (aDays);
+        ret = aAC;
+        break;
+      }
+      case CALENDAR_CRON:
+      {
+        final String sCronExpression = _readString (aDI);
+        try
+        {
+          ret = new CronCalendar (sCronExpression);
+        }
+        catch (final ParseException ex)
+        {
+          throw new IOException ("Failed to parse cron expression '" + sCronExpression + "'", ex);
+        }
+        break;
+      }
+      case CALENDAR_DAILY:
+      {
+        final LocalTime aStart = _readTimeOfDay (aDI);
+        final LocalTime aEnd = _readTimeOfDay (aDI);
+        final DailyCalendar aDC = new DailyCalendar (_formatTimeOfDay (aStart), _formatTimeOfDay (aEnd));
+        aDC.setInvertTimeRange (aDI.readBoolean ());
+        ret = aDC;
+        break;
+      }
+      case CALENDAR_HOLIDAY:
+      {
+        aHolidays = new long [aDI.readInt ()];
+        for (int i = 0; i < aHolidays.length; ++i)
+          aHolidays[i] = aDI.readLong ();
+        ret = new HolidayCalendar ();
+        break;
+      }
+      case CALENDAR_MONTHLY:
+      {
+        final MonthlyCalendar aMC = new MonthlyCalendar ();
+        aMC.setDaysExcluded (_readBooleans (aDI));
+        ret = aMC;
+        break;
+      }
+      case CALENDAR_WEEKLY:
+      {
+        final WeeklyCalendar aWC = new WeeklyCalendar ();
+        aWC.setDaysExcluded (_readBooleans (aDI));
+        ret = aWC;
+        break;
+      }
+      default:
+        throw new IOException ("Unsupported calendar type " + nType);
+    }
+
+    ret.setDescription (_readString (aDI));
+    ret.setTimeZone (_readTimeZone (aDI));
+    ret.setBaseCalendar (_readCalendar (aDI));
+    if (aHolidays != null)
+      for (final long nHoliday : aHolidays)
+        ((HolidayCalendar) ret).addExcludedDate (new Date (nHoliday));
+    return ret;
+  }
+
+  @NonNull
+  static byte [] encodePutCalendar (@NonNull final String sName,
+                                    @NonNull final ICalendar aCalendar) throws JobPersistenceException
+  {
+    return _encode (aDOS -> {
+      aDOS.writeByte (RECORD_PUT_CALENDAR);
+      _writeString (aDOS, sName);
+      _writeCalendar (aDOS, aCalendar);
+    });
+  }
+
+  @NonNull
+  static byte [] encodeRemoveCalendar (@NonNull final String sName) throws JobPersistenceException
+  {
+    return _encode (aDOS -> {
+      aDOS.writeByte (RECORD_REMOVE_CALENDAR);
+      _writeString (aDOS, sName);
+    });
+  }
+
+  // Paused groups
+
+  @NonNull
+  static byte [] encodePausedGroups (@NonNull final Iterable <String> aTriggerGroups,
+                                     @NonNull final Iterable <String> aJobGroups) throws JobPersistenceException
+  {
+    return _encode (aDOS -> {
+      aDOS.writeByte (RECORD_PAUSED_GROUPS);
+      _writeStrings (aDOS, aTriggerGroups);
+      _writeStrings (aDOS, aJobGroups);
+    });
+  }
+
+  /**
+   * Decode a single record created by
+   * {@link #encodePutTrigger(IOperableTrigger, int)}. The contained state is
+   * ignored.
+   *
+   * @param aRecord
+   *        The encoded record, from its position up to its limit. May not be
+   *        <code>null</code>. It is read without copying.
+   * @param aLoadHelper
+   *        The class load helper used to resolve serialized values. May not be
+   *        <code>null</code>.
+   * @return The decoded trigger. Never <code>null</code>.
+   * @throws IOException
+   *         If the record is malformed or is not a trigger record
+   */
+  @NonNull
+  static IOperableTrigger decodeTrigger (@NonNull final ByteBuffer aRecord,
+                                         @NonNull final IClassLoadHelper aLoadHelper) throws IOException
+  {
+    final DataInputStream aDIS = new DataInputStream (new ByteBufferInputStream (aRecord));
+    final byte nType = aDIS.readByte ();
+    if (nType != RECORD_PUT_TRIGGER)
+      throw new IOException ("Expected a trigger record but found record type " + nType);
+    // Skip the state
+    aDIS.readByte ();
+    return _readTrigger (aDIS, aLoadHelper);
+  }
+
+  /**
+   * Decode a single record and pass it to the provided handler.
+   *
+   * @param aRecord
+   *        The encoded record, from its position up to its limit. May not be
+   *        <code>null</code>. It is read without copying.
+   * @param aLoadHelper
+   *        The class load helper used to resolve job classes and serialized
+   *        values. May not be <code>null</code>.
+   * @param aHandler
+   *        The handler to be invoked. May not be <code>null</code>.
+   * @throws IOException
+   *         If the record is malformed or a class cannot be loaded
+   */
+  static void decode (@NonNull final ByteBuffer aRecord,
+                      @NonNull final IClassLoadHelper aLoadHelper,
+                      @NonNull final IRecordHandler aHandler) throws IOException
+  {
+    final DataInputStream aDIS = new DataInputStream (new ByteBufferInputStream (aRecord));
+    final byte nType = aDIS.readByte ();
+    switch (nType)
+    {
+      case RECORD_PUT_JOB:
+        aHandler.onPutJob (_readJob (aDIS, aLoadHelper));
+        break;
+      case RECORD_REMOVE_JOB:
+      {
+        final String sName = _readString (aDIS);
+        aHandler.onRemoveJob (new JobKey (sName, _readString (aDIS)));
+        break;
+      }
+      case RECORD_PUT_TRIGGER:
+      {
+        final int nState = aDIS.readByte ();
+        aHandler.onPutTrigger (_readTrigger (aDIS, aLoadHelper), nState);
+        break;
+      }
+      case RECORD_REMOVE_TRIGGER:
+      {
+        final String sName = _readString (aDIS);
+        aHandler.onRemoveTrigger (new TriggerKey (sName, _readString (aDIS)));
+        break;
+      }
+      case RECORD_PUT_CALENDAR:
+      {
+        final String sName = _readString (aDIS);
+        aHandler.onPutCalendar (sName, _readCalendar (aDIS));
+        break;
+      }
+      case RECORD_REMOVE_CALENDAR:
+        aHandler.onRemoveCalendar (_readString (aDIS));
+        break;
+      case RECORD_PAUSED_GROUPS:
+      {
+        final ICommonsList <String> aTriggerGroups = _readStrings (aDIS);
+        aHandler.onPausedGroups (aTriggerGroups, _readStrings (aDIS));
+        break;
+      }
+      default:
+        throw new IOException ("Unsupported record type " + nType);
+    }
+  }
+}
@@ -0,0 +1,730 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.simpl;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.locks.Condition;
+import java.util.zip.CRC32;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.concurrent.SimpleLock;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.quartz.JobPersistenceException;
+
+/**
+ * The files behind {@link DurableRAMJobStore}: a write-ahead log of encoded
+ * records plus periodic snapshots, all stored in a single directory.
+ * <ul>
+ * <li><code>journal-&lt;gen&gt;.wal</code> contains all records appended after
+ * the snapshot of the same generation was taken.</li>
+ * <li><code>snapshot-&lt;gen&gt;.dat</code> contains the complete store content
+ * and is terminated with an end marker. It is written to a temporary file first
+ * and atomically renamed when complete. The same format is used by
+ * {@link RAMJobStore#writeSnapshot(Path)}.</li>
+ * </ul>
+ * Each record is framed as <code>[int length][int CRC32][payload]</code>, so a
+ * torn write at the end of a journal is detected and ignored on recovery.<br>
+ * Appending only enqueues a record. A single writer thread drains everything
+ * that was queued in the meantime, writes it with one call and forces it to
+ * disk once per batch (group commit). Callers that need durability wait for
+ * the sequence number returned by {@link #append(byte[])}.<br>
+ * After a write error the journal is failed: nothing is queued anymore and all
+ * subsequent {@link #awaitCommit(long)} calls throw.
+ *
+ * @author Philip Helger
+ */
+@ThreadSafe
+final class JobStoreJournal
+{
+  /** Callback for recovered records */
+  @FunctionalInterface
+  interface IRecordConsumer
+  {
+    void accept (@NonNull ByteBuffer aRecord) throws IOException;
+  }
+
+  /** Callback to load a complete snapshot file */
+  @FunctionalInterface
+  interface ISnapshotLoader
+  {
+    /**
+     * @param aFile
+     *        The snapshot file to load.
+     * @return The number of records loaded.
+     * @throws IOException
+     *         If the snapshot is incomplete or corrupt. In this case nothing may
+     *         have been loaded.
+     */
+    long load (@NonNull Path aFile) throws IOException;
+  }
+
+  /** Callback to encode a snapshot on the writer thread */
+  @FunctionalInterface
+  interface ISnapshotSource
+  {
+    /**
+     * @return The complete store content as records. May not be
+     *         <code>null</code>.
+     * @throws JobPersistenceException
+     *         If the content cannot be encoded. In this case no new generation
+     *         is started.
+     */
+    @NonNull
+    ICommonsList <byte []> createRecords () throws JobPersistenceException;
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (JobStoreJournal.class);
+
+  private static final int MAGIC = 0x51534a4c;
+  private static final int VERSION = 1;
+  private static final String JOURNAL_PREFIX = "journal-";
+  private static final String JOURNAL_SUFFIX = ".wal";
+  private static final String SNAPSHOT_PREFIX = "snapshot-";
+  private static final String SNAPSHOT_SUFFIX = ".dat";
+  private static final String TMP_SUFFIX = ".tmp";
+
+  /** A pending snapshot that starts a new generation */
+  private static final class Snapshot
+  {
+    private final ISnapshotSource m_aSource;
+
+    Snapshot (@NonNull final ISnapshotSource aSource)
+    {
+      m_aSource = aSource;
+    }
+  }
+
+  private final Path m_aDirectory;
+  private final SimpleLock m_aLock = new SimpleLock ();
+  private final Condition m_aWorkAvailable = m_aLock.newCondition ();
+  private final Condition m_aCommitted = m_aLock.newCondition ();
+  @GuardedBy ("m_aLock")
+  private final Deque <Object> m_aPending = new ArrayDeque <> ();
+  @GuardedBy ("m_aLock")
+  private long m_nAppendedSeq;
+  @GuardedBy ("m_aLock")
+  private long m_nCommittedSeq;
+  @GuardedBy ("m_aLock")
+  private int m_nRecordsSinceSnapshot;
+  @GuardedBy ("m_aLock")
+  private boolean m_bClosed;
+  @GuardedBy ("m_aLock")
+  private IOException m_aFailure;
+
+  // Only accessed by the writer thread after start
+  private long m_nGeneration;
+  private FileChannel m_aChannel;
+  private Thread m_aWriter;
+
+  JobStoreJournal (@NonNull final Path aDirectory)
+  {
+    ValueEnforcer.notNull (aDirectory, "Directory");
+    m_aDirectory = aDirectory;
+  }
+
+  @NonNull
+  private Path _getJournalPath (final long nGeneration)
+  {
+    return m_aDirectory.resolve (JOURNAL_PREFIX + nGeneration + JOURNAL_SUFFIX);
+  }
+
+  @NonNull
+  private Path _getSnapshotPath (final long nGeneration)
+  {
+    return m_aDirectory.resolve (SNAPSHOT_PREFIX + nGeneration + SNAPSHOT_SUFFIX);
+  }
+
+  @NonNull
+  private ICommonsList <Long> _getGenerations (@NonNull final String sPrefix,
+                                               @NonNull final String sSuffix) throws IOException
+  {
+    final ICommonsList <Long> ret = new CommonsArrayList <> ();
+    try (final DirectoryStream <Path> aDS = Files.newDirectoryStream (m_aDirectory, sPrefix + "*" + sSuffix))
+    {
+      for (final Path aPath : aDS)
+      {
+        final String sName = aPath.getFileName ().toString ();
+        try
+        {
+          ret.add (Long.valueOf (sName.substring (sPrefix.length (), sName.length () - sSuffix.length ())));
+        }
+        catch (final NumberFormatException ex)
+        {
+          LOGGER.warn ("Ignoring unexpected file '" + aPath + "'");
+        }
+      }
+    }
+    ret.sort (Long::compare);
+    return ret;
+  }
+
+  /** Outcome of reading a single file */
+  private enum EReadResult
+  {
+    /** The end marker of a snapshot was reached */
+    END_MARKER,
+    /** The end of the file was reached at a record boundary */
+    END_OF_FILE,
+    /** A torn or corrupt record was found */
+    TRUNCATED
+  }
+
+  /**
+   * Read all framed records of a single file and stop at the first torn or
+   * corrupt record.
+   */
+  @NonNull
+  private static EReadResult _readFile (@NonNull final Path aPath,
+                                        @NonNull final IRecordConsumer aConsumer) throws IOException
+  {
+    final long nFileSize = Files.size (aPath);
+    try (final InputStream aIS = Files.newInputStream (aPath);
+         final DataInputStream aDIS = new DataInputStream (new BufferedInputStream (aIS, 64 * 1024)))
+    {
+      if (aDIS.readInt () != MAGIC || aDIS.readInt () != VERSION)
+      {
+        LOGGER.warn ("File '" + aPath + "' has an unsupported header");
+        return EReadResult.TRUNCATED;
+      }
+      final CRC32 aCRC = new CRC32 ();
+      while (true)
+      {
+        final int nLength;
+        try
+        {
+          nLength = aDIS.readInt ();
+        }
+        catch (final EOFException ex)
+        {
+          return EReadResult.END_OF_FILE;
+        }
+        if (nLength == 0)
+          return EReadResult.END_MARKER;
+        final int nCRC = aDIS.readInt ();
+        if (nLength < 0 || nLength > nFileSize)
+        {
+          LOGGER.warn ("Found invalid record length in '" + aPath + "'");
+          return EReadResult.TRUNCATED;
+        }
+        final byte [] aRecord = new byte [nLength];
+        aDIS.readFully (aRecord);
+        aCRC.reset ();
+        aCRC.update (aRecord);
+        if ((int) aCRC.getValue () != nCRC)
+        {
+          LOGGER.warn ("Found corrupt record in '" + aPath + "'");
+          return EReadResult.TRUNCATED;
+        }
+        aConsumer.accept (ByteBuffer.wrap (aRecord));
+      }
+    }
+    catch (final EOFException ex)
+    {
+      LOGGER.warn ("Found torn record at the end of '" + aPath + "'");
+      return EReadResult.TRUNCATED;
+    }
+  }
+
+  /**
+   * Read a complete snapshot file into a single heap buffer. Each record is
+   * passed to the consumer as a slice of that buffer, without copying. The file
+   * is deliberately not memory mapped, because a mapping is only released by
+   * the garbage collector and would prevent the file from being deleted on
+   * Windows.
+   *
+   * @param aFile
+   *        The snapshot file to read. May not be <code>null</code>.
+   * @param aConsumer
+   *        The consumer to be invoked for all records in order. May not be
+   *        <code>null</code>.
+   * @return The number of records read.
+   * @throws IOException
+   *         On I/O error, if the consumer fails, or if the file is corrupt or
+   *         not terminated with an end marker
+   */
+  static long readSnapshotFile (@NonNull final Path aFile, @NonNull final IRecordConsumer aConsumer) throws IOException
+  {
+    final ByteBuffer aBuffer;
+    try (final FileChannel aChannel = FileChannel.open (aFile, StandardOpenOption.READ))
+    {
+      final long nSize = aChannel.size ();
+      if (nSize > Integer.MAX_VALUE)
+        throw new IOException ("Snapshot file '" + aFile + "' is too large to be read");
+      aBuffer = ByteBuffer.allocate ((int) nSize);
+      while (aBuffer.hasRemaining ())
+        if (aChannel.read (aBuffer) < 0)
+          break;
+    }
+    aBuffer.flip ();
+
+    try
+    {
+      if (aBuffer.getInt () != MAGIC || aBuffer.getInt () != VERSION)
+        throw new IOException ("Snapshot file '" + aFile + "' has an unsupported header");
+      final CRC32 aCRC = new CRC32 ();
+      long nCount = 0;
+      while (true)
+      {
+        final int nLength = aBuffer.getInt ();
+        if (nLength == 0)
+          return nCount;
+        final int nCRC = aBuffer.getInt ();
+        if (nLength < 0 || nLength > aBuffer.remaining ())
+          throw new IOException ("Snapshot file '" + aFile + "' contains a truncated record");
+        final ByteBuffer aRecord = aBuffer.slice (aBuffer.position (), nLength);
+        aBuffer.position (aBuffer.position () + nLength);
+        aCRC.reset ();
+        aCRC.update (aRecord.duplicate ());
+        if ((int) aCRC.getValue () != nCRC)
+          throw new IOException ("Snapshot file '" + aFile + "' contains a corrupt record");
+        aConsumer.accept (aRecord);
+        nCount++;
+      }
+    }
+    catch (final BufferUnderflowException ex)
+    {
+      throw new IOException ("Snapshot file '" + aFile + "' is incomplete", ex);
+    }
+  }
+
+  /**
+   * Write a complete snapshot file. The content is written to a temporary file
+   * which is forced to disk and atomically renamed afterwards.
+   *
+   * @param aFile
+   *        The file to write. May not be <code>null</code>.
+   * @param aRecords
+   *        The encoded records to write. May not be <code>null</code>.
+   * @throws IOException
+   *         On I/O error
+   */
+  static void writeSnapshotFile (@NonNull final Path aFile, @NonNull final Iterable <byte []> aRecords) throws IOException
+  {
+    final Path aTmpPath = aFile.resolveSibling (aFile.getFileName () + TMP_SUFFIX);
+    try (final FileChannel aChannel = FileChannel.open (aTmpPath,
+                                                        StandardOpenOption.CREATE,
+                                                        StandardOpenOption.TRUNCATE_EXISTING,
+                                                        StandardOpenOption.WRITE))
+    {
+      _writeFully (aChannel, _header ());
+      final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream (64 * 1024);
+      final DataOutputStream aDOS = new DataOutputStream (aBAOS);
+      final CRC32 aCRC = new CRC32 ();
+      for (final byte [] aRecord : aRecords)
+      {
+        _frame (aDOS, aCRC, aRecord);
+        if (aBAOS.size () >= 64 * 1024)
+        {
+          _writeFully (aChannel, ByteBuffer.wrap (aBAOS.toByteArray ()));
+          aBAOS.reset ();
+        }
+      }
+      // End marker
+      aDOS.writeInt (0);
+      _writeFully (aChannel, ByteBuffer.wrap (aBAOS.toByteArray ()));
+      aChannel.force (true);
+    }
+    Files.move (aTmpPath, aFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Load the newest complete snapshot and replay all subsequent journals. Must
+   * be called before {@link #open(ICommonsList)}.
+   *
+   * @param aSnapshotLoader
+   *        The loader for the snapshot. May not be <code>null</code>.
+   * @param aConsumer
+   *        The consumer to be invoked for all journal records in order. May not
+   *        be <code>null</code>.
+   * @return The number of records recovered.
+   * @throws IOException
+   *         On I/O error or if the consumer fails
+   */
+  long recover (@NonNull final ISnapshotLoader aSnapshotLoader,
+                @NonNull final IRecordConsumer aConsumer) throws IOException
+  {
+    Files.createDirectories (m_aDirectory);
+
+    long nCount = 0;
+
+    // Find the newest snapshot that can be loaded completely
+    final ICommonsList <Long> aSnapshots = _getGenerations (SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+    long nBaseGeneration = -1;
+    for (int i = aSnapshots.size () - 1; i >= 0 && nBaseGeneration < 0; --i)
+    {
+      final long nGeneration = aSnapshots.get (i).longValue ();
+      try
+      {
+        nCount += aSnapshotLoader.load (_getSnapshotPath (nGeneration));
+        nBaseGeneration = nGeneration;
+      }
+      catch (final IOException ex)
+      {
+        LOGGER.warn ("Ignoring unusable snapshot " + _getSnapshotPath (nGeneration) + ": " + ex.getMessage ());
+      }
+    }
+
+    // Replay the journals written after the snapshot, up to the first torn or
+    // corrupt record
+    final long [] aCount = { 0 };
+    final IRecordConsumer aCountingConsumer = aRecord -> {
+      aConsumer.accept (aRecord);
+      aCount[0]++;
+    };
+    long nMaxGeneration = nBaseGeneration;
+    boolean bReplay = true;
+    for (final Long aGeneration : _getGenerations (JOURNAL_PREFIX, JOURNAL_SUFFIX))
+    {
+      final long nGeneration = aGeneration.longValue ();
+      nMaxGeneration = Math.max (nMaxGeneration, nGeneration);
+      if (bReplay && nGeneration >= nBaseGeneration)
+        bReplay = _readFile (_getJournalPath (nGeneration), aCountingConsumer) == EReadResult.END_OF_FILE;
+    }
+    if (!aSnapshots.isEmpty ())
+      nMaxGeneration = Math.max (nMaxGeneration, aSnapshots.getLastOrNull ().longValue ());
+
+    m_nGeneration = nMaxGeneration;
+    return nCount + aCount[0];
+  }
+
+  private static void _frame (@NonNull final DataOutputStream aDOS,
+                              @NonNull final CRC32 aCRC,
+                              @NonNull final byte [] aRecord) throws IOException
+  {
+    aCRC.reset ();
+    aCRC.update (aRecord);
+    aDOS.writeInt (aRecord.length);
+    aDOS.writeInt ((int) aCRC.getValue ());
+    aDOS.write (aRecord);
+  }
+
+  private static void _writeFully (@NonNull final FileChannel aChannel, @NonNull final ByteBuffer aBuffer) throws IOException
+  {
+    while (aBuffer.hasRemaining ())
+      aChannel.write (aBuffer);
+  }
+
+  @NonNull
+  private static ByteBuffer _header ()
+  {
+    final ByteBuffer ret = ByteBuffer.allocate (8);
+    ret.putInt (MAGIC).putInt (VERSION).flip ();
+    return ret;
+  }
+
+  /**
+   * Write the snapshot as the next generation, start a new journal and delete
+   * all older files.
+   */
+  private void _rotate (@NonNull final ICommonsList <byte []> aRecords) throws IOException
+  {
+    final long nGeneration = m_nGeneration + 1;
+
+    writeSnapshotFile (_getSnapshotPath (nGeneration), aRecords);
+
+    // Switch to the new journal
+    final FileChannel aNewChannel = FileChannel.open (_getJournalPath (nGeneration),
+                                                      StandardOpenOption.CREATE,
+                                                      StandardOpenOption.TRUNCATE_EXISTING,
+                                                      StandardOpenOption.WRITE);
+    _writeFully (aNewChannel, _header ());
+    aNewChannel.force (true);
+    if (m_aChannel != null)
+      m_aChannel.close ();
+    m_aChannel = aNewChannel;
+    m_nGeneration = nGeneration;
+
+    // Everything older is obsolete now
+    for (final Long aOld : _getGenerations (SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX))
+      if (aOld.longValue () < nGeneration)
+        Files.deleteIfExists (_getSnapshotPath (aOld.longValue ()));
+    for (final Long aOld : _getGenerations (JOURNAL_PREFIX, JOURNAL_SUFFIX))
+      if (aOld.longValue () < nGeneration)
+        Files.deleteIfExists (_getJournalPath (aOld.longValue ()));
+  }
+
+  /**
+   * Write the initial snapshot and start the writer thread.
+   *
+   * @param aSnapshot
+   *        The complete store content as records. May not be
+   *        <code>null</code>.
+   * @throws IOException
+   *         On I/O error
+   */
+  void open (@NonNull final ICommonsList <byte []> aSnapshot) throws IOException
+  {
+    _rotate (aSnapshot);
+    m_aWriter = new Thread (this::_run, "JobStoreJournal-" + m_aDirectory.getFileName ());
+    m_aWriter.setDaemon (true);
+    m_aWriter.start ();
+  }
+
+  @Nullable
+  private static ICommonsList <byte []> _createRecords (@NonNull final Snapshot aSnapshot)
+  {
+    try
+    {
+      return aSnapshot.m_aSource.createRecords ();
+    }
+    catch (final JobPersistenceException | RuntimeException ex)
+    {
+      // Keep on writing the current journal - the next attempt is made after
+      // the next threshold
+      LOGGER.error ("Failed to create job store snapshot", ex);
+      return null;
+    }
+  }
+
+  private void _run ()
+  {
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream (64 * 1024);
+    final DataOutputStream aDOS = new DataOutputStream (aBAOS);
+    final CRC32 aCRC = new CRC32 ();
+    final ICommonsList <Object> aBatch = new CommonsArrayList <> ();
+    while (true)
+    {
+      final long nBatchSeq;
+      m_aLock.lock ();
+      try
+      {
+        while (m_aPending.isEmpty () && !m_bClosed)
+          m_aWorkAvailable.awaitUninterruptibly ();
+        if (m_aPending.isEmpty ())
+          break;
+        aBatch.addAll (m_aPending);
+        m_aPending.clear ();
+        nBatchSeq = m_nAppendedSeq;
+      }
+      finally
+      {
+        m_aLock.unlock ();
+      }
+
+      try
+      {
+        aBAOS.reset ();
+        for (final Object aEntry : aBatch)
+          if (aEntry instanceof Snapshot)
+          {
+            // Encoding happens here, so that the store lock is only held for
+            // copying the content
+            final ICommonsList <byte []> aRecords = _createRecords ((Snapshot) aEntry);
+            if (aRecords != null)
+            {
+              // Records before the snapshot belong into the old journal
+              _writeFully (m_aChannel, ByteBuffer.wrap (aBAOS.toByteArray ()));
+              aBAOS.reset ();
+              m_aChannel.force (false);
+              _rotate (aRecords);
+            }
+          }
+          else
+            _frame (aDOS, aCRC, (byte []) aEntry);
+        _writeFully (m_aChannel, ByteBuffer.wrap (aBAOS.toByteArray ()));
+        m_aChannel.force (false);
+      }
+      catch (final IOException ex)
+      {
+        LOGGER.error ("Failed to write job store journal in '" +
+                      m_aDirectory +
+                      "' - subsequent changes are not persisted anymore",
+                      ex);
+        m_aLock.locked ( () -> {
+          m_aFailure = ex;
+          // Nobody writes them anymore
+          m_aPending.clear ();
+          m_aCommitted.signalAll ();
+        });
+        return;
+      }
+      aBatch.clear ();
+
+      m_aLock.locked ( () -> {
+        m_nCommittedSeq = nBatchSeq;
+        m_aCommitted.signalAll ();
+      });
+    }
+  }
+
+  /**
+   * Enqueue a record to be written by the writer thread.
+   *
+   * @param aRecord
+   *        The encoded record. May not be <code>null</code>.
+   * @return The sequence number of the record to be passed to
+   *         {@link #awaitCommit(long)}. If the journal failed, the record is
+   *         dropped and waiting for the returned sequence number throws.
+   */
+  long append (@NonNull final byte [] aRecord)
+  {
+    m_aLock.lock ();
+    try
+    {
+      if (m_aFailure != null)
+        return m_nAppendedSeq;
+      m_aPending.add (aRecord);
+      m_nRecordsSinceSnapshot++;
+      m_aWorkAvailable.signal ();
+      return ++m_nAppendedSeq;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * Enqueue a snapshot that replaces all records appended so far.
+   *
+   * @param aSource
+   *        The source of the complete store content. It is encoded on the
+   *        writer thread, so it must not reference mutable store data. May
+   *        not be <code>null</code>.
+   * @return The sequence number to be passed to {@link #awaitCommit(long)}. If
+   *         the journal failed, the snapshot is dropped and waiting for the
+   *         returned sequence number throws.
+   */
+  long snapshot (@NonNull final ISnapshotSource aSource)
+  {
+    m_aLock.lock ();
+    try
+    {
+      if (m_aFailure != null)
+        return m_nAppendedSeq;
+      m_aPending.add (new Snapshot (aSource));
+      m_nRecordsSinceSnapshot = 0;
+      m_aWorkAvailable.signal ();
+      return ++m_nAppendedSeq;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  int getRecordsSinceSnapshot ()
+  {
+    return m_aLock.lockedInt ( () -> m_nRecordsSinceSnapshot);
+  }
+
+  void resetRecordsSinceSnapshot ()
+  {
+    m_aLock.locked ( () -> m_nRecordsSinceSnapshot = 0);
+  }
+
+  long getAppendedSequence ()
+  {
+    return m_aLock.lockedLong ( () -> m_nAppendedSeq);
+  }
+
+  /**
+   * Block until everything up to the provided sequence number was forced to
+   * disk.
+   *
+   * @param nSeq
+   *        The sequence number returned by {@link #append(byte[])}.
+   * @throws JobPersistenceException
+   *         If the journal could not be written
+   */
+  void awaitCommit (final long nSeq) throws JobPersistenceException
+  {
+    m_aLock.lock ();
+    try
+    {
+      while (m_nCommittedSeq < nSeq && m_aFailure == null)
+        m_aCommitted.awaitUninterruptibly ();
+      if (m_aFailure != null)
+        throw new JobPersistenceException ("Failed to write job store journal in '" + m_aDirectory + "'",
+                                           m_aFailure);
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * Write all pending records, stop the writer thread and close the journal.
+   *
+   * @param aFinalSnapshot
+   *        An optional source of a final snapshot to be written before
+   *        closing. May be <code>null</code>.
+   */
+  void close (@Nullable final ISnapshotSource aFinalSnapshot)
+  {
+    m_aLock.lock ();
+    try
+    {
+      if (m_bClosed)
+        return;
+      if (aFinalSnapshot != null && m_aFailure == null)
+        m_aPending.add (new Snapshot (aFinalSnapshot));
+      m_bClosed = true;
+      m_aWorkAvailable.signal ();
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+
+    try
+    {
+      if (m_aWriter != null)
+        m_aWriter.join ();
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+    }
+    try
+    {
+      if (m_aChannel != null)
+        m_aChannel.close ();
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.warn ("Failed to close job store journal in '" + m_aDirectory + "'", ex);
+    }
+  }
+}
@@ -22,6 +22,9 @@ import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Collection;
@@ -34,8 +37,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.collection.commons.CommonsHashMap;
 import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.ICommonsMap;
 import com.helger.collection.commons.ICommonsSet;
+import com.helger.quartz.CopyOnWriteJobDataMap;
 import com.helger.quartz.IJob;
 import com.helger.quartz.IScheduler;
 import com.helger.quartz.JobDataMap;
@@ -80,6 +86,16 @@ public class PropertySettingJobFactory extends SimpleJobFactory
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (PropertySettingJobFactory.class);
 
+  // The injection plan per job class - weakly bound to the class
+  private static final ClassValue <InjectionPlan> PLANS = new ClassValue <> ()
+  {
+    @Override
+    protected InjectionPlan computeValue (final Class <?> aClass)
+    {
+      return new InjectionPlan (aClass);
+    }
+  };
+
   private boolean m_bWarnIfNotFound = false;
   private boolean m_bThrowIfNotFound = false;
   // null = no allow-list (back-compat default, all keys allowed).
@@ -92,10 +108,9 @@ public class PropertySettingJobFactory extends SimpleJobFactory
   {
     final IJob job = super.newJob (bundle, scheduler);
 
-    final JobDataMap jobDataMap = new JobDataMap ();
-    jobDataMap.putAll (scheduler.getContext ());
-    jobDataMap.putAll (bundle.getJobDetail ().getJobDataMap ());
-    jobDataMap.putAll (bundle.getTrigger ().getJobDataMap ());
+    final JobDataMap jobDataMap = new CopyOnWriteJobDataMap (scheduler.getContext (),
+                                                             bundle.getJobDetail ().getJobDataMap (),
+                                                             bundle.getTrigger ().getJobDataMap ());
 
     setBeanProps (job, jobDataMap);
 
@@ -104,25 +119,18 @@ public class PropertySettingJobFactory extends SimpleJobFactory
 
   protected void setBeanProps (final Object obj, final JobDataMap data) throws SchedulerException
   {
-    BeanInfo bi = null;
-    try
-    {
-      bi = Introspector.getBeanInfo (obj.getClass ());
-    }
-    catch (final IntrospectionException e)
+    final InjectionPlan aPlan = PLANS.get (obj.getClass ());
+    if (aPlan.m_aError != null)
     {
-      _handleError ("Unable to introspect Job class.", e);
+      _handleError ("Unable to introspect Job class.", aPlan.m_aError);
+      return;
     }
 
-    final PropertyDescriptor [] propDescs = bi.getPropertyDescriptors ();
-
     // Get the wrapped entry set so don't have to incur overhead of wrapping for
     // dirty flag checking since this is read only access
-    for (final Object name2 : data.entrySet ())
+    for (final Map.Entry <String, Object> entry : data.entrySet ())
     {
-      final Map.Entry <?, ?> entry = (Map.Entry <?, ?>) name2;
-
-      final String name = (String) entry.getKey ();
+      final String name = entry.getKey ();
 
       if (m_aAllowedProperties != null && !m_aAllowedProperties.contains (name))
       {
@@ -134,118 +142,27 @@ public class PropertySettingJobFactory extends SimpleJobFactory
         continue;
       }
 
-      final String c = name.substring (0, 1).toUpperCase (Locale.US);
-      final String methName = "set" + c + name.substring (1);
-
-      final Method setMeth = _getSetMethod (methName, propDescs);
+      final PropertySetter aSetter = aPlan.getSetter (name);
+      if (aSetter == null)
+      {
+        _handleError ("No setter on Job class " + obj.getClass ().getName () + " for property '" + name + "'");
+        continue;
+      }
 
-      Class <?> paramType = null;
-      Object o = null;
+      final Object o = entry.getValue ();
+      if (o == null && aSetter.m_aParamType.isPrimitive ())
+      {
+        _handleError ("Cannot set primitive property '" +
+                      name +
+                      "' on Job class " +
+                      obj.getClass ().getName () +
+                      " to null.");
+        continue;
+      }
 
       try
       {
-        if (setMeth == null)
-        {
-          _handleError ("No setter on Job class " + obj.getClass ().getName () + " for property '" + name + "'");
-          continue;
-        }
-
-        paramType = setMeth.getParameterTypes ()[0];
-        o = entry.getValue ();
-
-        Object parm = null;
-        if (paramType.isPrimitive ())
-        {
-          if (o == null)
-          {
-            _handleError ("Cannot set primitive property '" +
-                          name +
-                          "' on Job class " +
-                          obj.getClass ().getName () +
-                          " to null.");
-            continue;
-          }
-
-          if (paramType.equals (int.class))
-          {
-            if (o instanceof final String s)
-              parm = Integer.valueOf (s);
-            else
-              if (o instanceof Integer)
-                parm = o;
-          }
-          else
-            if (paramType.equals (long.class))
-            {
-              if (o instanceof final String s)
-                parm = Long.valueOf (s);
-              else
-                if (o instanceof Long)
-                  parm = o;
-            }
-            else
-              if (paramType.equals (float.class))
-              {
-                if (o instanceof final String s)
-                  parm = Float.valueOf (s);
-                else
-                  if (o instanceof Float)
-                    parm = o;
-              }
-              else
-                if (paramType.equals (double.class))
-                {
-                  if (o instanceof final String s)
-                    parm = Double.valueOf (s);
-                  else
-                    if (o instanceof Double)
-                      parm = o;
-                }
-                else
-                  if (paramType.equals (boolean.class))
-                  {
-                    if (o instanceof final String s)
-                      parm = Boolean.valueOf (s);
-                    else
-                      if (o instanceof Boolean)
-                        parm = o;
-                  }
-                  else
-                    if (paramType.equals (byte.class))
-                    {
-                      if (o instanceof final String s)
-                        parm = Byte.valueOf (s);
-                      else
-                        if (o instanceof Byte)
-                          parm = o;
-                    }
-                    else
-                      if (paramType.equals (short.class))
-                      {
-                        if (o instanceof final String s)
-                          parm = Short.valueOf (s);
-                        else
-                          if (o instanceof Short)
-                            parm = o;
-                      }
-                      else
-                        if (paramType.equals (char.class))
-                        {
-                          if (o instanceof final String s)
-                          {
-                            if (s.length () == 1)
-                              parm = Character.valueOf (s.charAt (0));
-                          }
-                          else
-                            if (o instanceof Character)
-                              parm = o;
-                        }
-        }
-        else
-          if ((o != null) && (paramType.isAssignableFrom (o.getClass ())))
-          {
-            parm = o;
-          }
+        final Object parm = aSetter.convert (o);
 
         // If the parameter wasn't originally null, but we didn't find a
         // matching parameter, then we are stuck.
@@ -256,13 +173,13 @@ public class PropertySettingJobFactory extends SimpleJobFactory
                         " for property '" +
                         name +
                         "' expects a " +
-                        paramType +
+                        aSetter.m_aParamType +
                         " but was given " +
                         o.getClass ().getName ());
           continue;
         }
 
-        setMeth.invoke (obj, parm);
+        aSetter.invoke (obj, parm);
       }
       catch (final IllegalArgumentException e)
       {
@@ -271,7 +188,7 @@ public class PropertySettingJobFactory extends SimpleJobFactory
                       " for property '" +
                       name +
                       "' expects a " +
-                      paramType +
+                      aSetter.m_aParamType +
                       " but was given " +
                       o.getClass ().getName (),
                       e);
@@ -316,24 +233,6 @@ public class PropertySettingJobFactory extends SimpleJobFactory
     }
   }
 
-  private static Method _getSetMethod (final String name, final PropertyDescriptor [] props)
-  {
-    for (final PropertyDescriptor prop : props)
-    {
-      final Method wMeth = prop.getWriteMethod ();
-      if (wMeth == null)
-        continue;
-
-      if (wMeth.getParameterTypes ().length != 1)
-        continue;
-
-      if (wMeth.getName ().equals (name))
-        return wMeth;
-    }
-
-    return null;
-  }
-
   /**
    * Whether the JobInstantiation should fail and throw and exception if a key (name) and value
    * (type) found in the JobDataMap does not correspond to a property setter on the Job class.
@@ -438,4 +337,140 @@ public class PropertySettingJobFactory extends SimpleJobFactory
   {
     return m_aAllowedProperties != null;
   }
+
+  /**
+   * A single property setter of a job class, resolved once.
+   */
+  private static final class PropertySetter
+  {
+    private static final MethodType INVOKE_TYPE = MethodType.methodType (void.class, Object.class, Object.class);
+
+    private final Class <?> m_aParamType;
+    // The wrapper type of primitive parameters
+    private final Class <?> m_aBoxedType;
+    // null if the setter is not accessible
+    private final MethodHandle m_aHandle;
+    private final IllegalAccessException m_aAccessError;
+
+    PropertySetter (@NonNull final Method aMethod)
+    {
+      m_aParamType = aMethod.getParameterTypes ()[0];
+      m_aBoxedType = m_aParamType.isPrimitive () ? MethodType.methodType (m_aParamType).wrap ().returnType ()
+                                                 : m_aParamType;
+      MethodHandle aHandle = null;
+      IllegalAccessException aAccessError = null;
+      try
+      {
+        aHandle = MethodHandles.lookup ().unreflect (aMethod).asType (INVOKE_TYPE);
+      }
+      catch (final IllegalAccessException ex)
+      {
+        aAccessError = ex;
+      }
+      m_aHandle = aHandle;
+      m_aAccessError = aAccessError;
+    }
+
+    /**
+     * Convert the provided value to the parameter type.
+     *
+     * @return <code>null</code> if the value cannot be converted
+     */
+    @Nullable
+    Object convert (@Nullable final Object o)
+    {
+      if (o == null)
+        return null;
+      if (m_aBoxedType.isInstance (o))
+        return o;
+      if (m_aParamType.isPrimitive () && o instanceof final String s)
+      {
+        if (m_aParamType == int.class)
+          return Integer.valueOf (s);
+        if (m_aParamType == long.class)
+          return Long.valueOf (s);
+        if (m_aParamType == float.class)
+          return Float.valueOf (s);
+        if (m_aParamType == double.class)
+          return Double.valueOf (s);
+        if (m_aParamType == boolean.class)
+          return Boolean.valueOf (s);
+        if (m_aParamType == byte.class)
+          return Byte.valueOf (s);
+        if (m_aParamType == short.class)
+          return Short.valueOf (s);
+        if (m_aParamType == char.class && s.length () == 1)
+          return Character.valueOf (s.charAt (0));
+      }
+      return null;
+    }
+
+    void invoke (@NonNull final Object aTarget, @Nullable final Object aValue) throws IllegalAccessException,
+                                                                                  InvocationTargetException
+    {
+      if (m_aHandle == null)
+        throw m_aAccessError;
+      try
+      {
+        m_aHandle.invokeExact (aTarget, aValue);
+      }
+      catch (final Throwable t)
+      {
+        throw new InvocationTargetException (t);
+      }
+    }
+  }
+
+  /**
+   * The resolved property setters of a single job class. Created once per
+   * class, so that no introspection happens when a job is instantiated.
+   */
+  private static final class InjectionPlan
+  {
+    private final IntrospectionException m_aError;
+    // Key: setter method name
+    private final ICommonsMap <String, PropertySetter> m_aSetters = new CommonsHashMap <> ();
+    // Key: property name - the common case for JobDataMap keys
+    private final ICommonsMap <String, PropertySetter> m_aSettersByProperty = new CommonsHashMap <> ();
+
+    InjectionPlan (@NonNull final Class <?> aClass)
+    {
+      IntrospectionException aError = null;
+      try
+      {
+        final BeanInfo bi = Introspector.getBeanInfo (aClass);
+        for (final PropertyDescriptor prop : bi.getPropertyDescriptors ())
+        {
+          final Method wMeth = prop.getWriteMethod ();
+          if (wMeth == null || wMeth.getParameterCount () != 1)
+            continue;
+
+          final PropertySetter aSetter = new PropertySetter (wMeth);
+          m_aSetters.putIfAbsent (wMeth.getName (), aSetter);
+          if (_getSetterName (prop.getName ()).equals (wMeth.getName ()))
+            m_aSettersByProperty.putIfAbsent (prop.getName (), aSetter);
+        }
+      }
+      catch (final IntrospectionException ex)
+      {
+        aError = ex;
+      }
+      m_aError = aError;
+    }
+
+    @Nullable
+    PropertySetter getSetter (@NonNull final String sPropertyName)
+    {
+      final PropertySetter ret = m_aSettersByProperty.get (sPropertyName);
+      if (ret != null || sPropertyName.isEmpty ())
+        return ret;
+      return m_aSetters.get (_getSetterName (sPropertyName));
+    }
+  }
+
+  @NonNull
+  private static String _getSetterName (@NonNull final String sPropertyName)
+  {
+    return "set" + sPropertyName.substring (0, 1).toUpperCase (Locale.US) + sPropertyName.substring (1);
+  }
 }
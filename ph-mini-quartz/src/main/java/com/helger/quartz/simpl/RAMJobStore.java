@@ -18,31 +18,37 @@
  */
 package com.helger.quartz.simpl;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.Nonempty;
 import com.helger.base.compare.IComparator;
 import com.helger.base.enforce.ValueEnforcer;
-import com.helger.base.hashcode.HashCodeGenerator;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.CommonsHashMap;
 import com.helger.collection.commons.CommonsHashSet;
-import com.helger.collection.commons.CommonsTreeSet;
+import com.helger.collection.commons.CommonsLinkedHashMap;
 import com.helger.collection.commons.ICommonsCollection;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsMap;
 import com.helger.collection.commons.ICommonsSet;
-import com.helger.collection.commons.ICommonsSortedSet;
+import com.helger.quartz.CopyOnWriteJobDataMap;
 import com.helger.quartz.ICalendar;
 import com.helger.quartz.IJobDetail;
 import com.helger.quartz.ITrigger;
@@ -54,8 +60,11 @@ import com.helger.quartz.JobKey;
 import com.helger.quartz.JobPersistenceException;
 import com.helger.quartz.ObjectAlreadyExistsException;
 import com.helger.quartz.QCloneUtils;
+import com.helger.quartz.SchedulerConfigException;
 import com.helger.quartz.TriggerKey;
 import com.helger.quartz.TriggerTimeComparator;
+import com.helger.quartz.impl.JobDetailSnapshot;
+import com.helger.quartz.impl.TriggerSnapshot;
 import com.helger.quartz.impl.matchers.GroupMatcher;
 import com.helger.quartz.impl.matchers.StringMatcher;
 import com.helger.quartz.impl.matchers.StringMatcher.EStringOperatorName;
@@ -84,6 +93,11 @@ import com.helger.quartz.spi.TriggerFiredResult;
  */
 public class RAMJobStore implements IJobStore
 {
+  /** Time index type: a sorted tree of all waiting triggers (the default) */
+  public static final String TIME_INDEX_TREE = "tree";
+  /** Time index type: a hierarchical timing wheel with an overflow heap */
+  public static final String TIME_INDEX_WHEEL = "wheel";
+
   private static final Logger LOGGER = LoggerFactory.getLogger (RAMJobStore.class);
   private static final AtomicLong FIRED_TRIGGER_RECORD_COUNTER = new AtomicLong (System.currentTimeMillis ());
 
@@ -91,15 +105,19 @@ public class RAMJobStore implements IJobStore
   protected final ICommonsMap <TriggerKey, TriggerWrapper> m_aTriggersByKey = new CommonsHashMap <> (1000);
   protected final ICommonsMap <String, ICommonsMap <JobKey, JobWrapper>> m_aJobsByGroup = new CommonsHashMap <> (25);
   protected final ICommonsMap <String, ICommonsMap <TriggerKey, TriggerWrapper>> m_aTriggersByGroup = new CommonsHashMap <> (25);
-  protected final ICommonsSortedSet <TriggerWrapper> m_aTimeTriggers = new CommonsTreeSet <> (new TriggerWrapperComparator ());
+  protected ITriggerTimeIndex m_aTimeTriggers = new TreeSetTriggerTimeIndex ();
   protected final ICommonsMap <String, ICalendar> m_aCalendarsByName = new CommonsHashMap <> (25);
-  protected final ICommonsList <TriggerWrapper> m_aTriggers = new CommonsArrayList <> (1000);
+  // Secondary index - the inner maps preserve the insertion order. The
+  // triggers by job are kept in the JobWrapper
+  protected final ICommonsMap <String, ICommonsMap <TriggerKey, TriggerWrapper>> m_aTriggersByCalendar = new CommonsHashMap <> (25);
   protected final Object m_aLock = new Object ();
   protected final ICommonsSet <String> m_aPausedTriggerGroups = new CommonsHashSet <> ();
   protected final ICommonsSet <String> m_aPausedJobGroups = new CommonsHashSet <> ();
   protected final ICommonsSet <JobKey> m_aBlockedJobs = new CommonsHashSet <> ();
   protected long m_nMisfireThreshold = 5000l;
   protected ISchedulerSignaler m_aSignaler;
+  private String m_sTimeIndex = TIME_INDEX_TREE;
+  private String m_sSnapshotFile;
 
   /**
    * Create a new <code>RAMJobStore</code>.
@@ -113,9 +131,26 @@ public class RAMJobStore implements IJobStore
    * order to give the it a chance to initialize.
    * </p>
    */
-  public void initialize (final IClassLoadHelper loadHelper, final ISchedulerSignaler schedSignaler)
+  public void initialize (final IClassLoadHelper loadHelper,
+                          final ISchedulerSignaler schedSignaler) throws SchedulerConfigException
   {
     m_aSignaler = schedSignaler;
+    if (m_sSnapshotFile != null)
+    {
+      final Path aFile = Paths.get (m_sSnapshotFile);
+      if (Files.exists (aFile))
+      {
+        try
+        {
+          final long nRecords = loadSnapshot (aFile, loadHelper);
+          LOGGER.info ("RAMJobStore loaded " + nRecords + " records from snapshot file '" + aFile + "'");
+        }
+        catch (final JobPersistenceException ex)
+        {
+          throw new SchedulerConfigException ("Failed to load the RAMJobStore snapshot", ex);
+        }
+      }
+    }
     LOGGER.info ("RAMJobStore initialized.");
   }
 
@@ -156,6 +191,388 @@ public class RAMJobStore implements IJobStore
     m_nMisfireThreshold = misfireThreshold;
   }
 
+  @NonNull
+  public String getTimeIndex ()
+  {
+    return m_sTimeIndex;
+  }
+
+  /**
+   * Set the data structure used to order the waiting triggers by their next
+   * fire time. Configurable via <code>org.quartz.jobStore.timeIndex</code>.
+   * The default {@link #TIME_INDEX_TREE} has O(log n) cost per operation,
+   * whereas {@link #TIME_INDEX_WHEEL} has (amortized) constant cost and is
+   * preferable for large numbers of triggers with near-term fire times.
+   *
+   * @param sTimeIndex
+   *        One of {@link #TIME_INDEX_TREE} or {@link #TIME_INDEX_WHEEL}. May
+   *        not be <code>null</code>.
+   */
+  public void setTimeIndex (@NonNull final String sTimeIndex)
+  {
+    ValueEnforcer.notNull (sTimeIndex, "TimeIndex");
+
+    final ITriggerTimeIndex aNewIndex = createTimeIndex (sTimeIndex);
+    synchronized (m_aLock)
+    {
+      // Take over all triggers that are already indexed
+      final ICommonsList <TriggerWrapper> aExisting = m_aTimeTriggers.getAllSorted ();
+      m_aTimeTriggers.clear ();
+      aNewIndex.addAll (aExisting);
+      m_aTimeTriggers = aNewIndex;
+      m_sTimeIndex = sTimeIndex;
+    }
+  }
+
+  @NonNull
+  static ITriggerTimeIndex createTimeIndex (@NonNull final String sTimeIndex)
+  {
+    if (TIME_INDEX_TREE.equals (sTimeIndex))
+      return new TreeSetTriggerTimeIndex ();
+    if (TIME_INDEX_WHEEL.equals (sTimeIndex))
+      return new TimingWheelTriggerTimeIndex ();
+    throw new IllegalArgumentException ("Unsupported time index '" +
+                                        sTimeIndex +
+                                        "' - must be one of '" +
+                                        TIME_INDEX_TREE +
+                                        "' or '" +
+                                        TIME_INDEX_WHEEL +
+                                        "'");
+  }
+
+  /**
+   * @return The snapshot file that is loaded on {@link #initialize}. May be
+   *         <code>null</code>.
+   */
+  @Nullable
+  public String getSnapshotFile ()
+  {
+    return m_sSnapshotFile;
+  }
+
+  /**
+   * Set a snapshot file, previously created with {@link #writeSnapshot(Path)},
+   * that is loaded on {@link #initialize}, so that the scheduler starts with a
+   * ready store. Nothing is loaded if the file does not exist. Configurable
+   * via <code>org.quartz.jobStore.snapshotFile</code>.
+   *
+   * @param sSnapshotFile
+   *        The path of the snapshot file. May be <code>null</code>.
+   */
+  public void setSnapshotFile (@Nullable final String sSnapshotFile)
+  {
+    m_sSnapshotFile = sSnapshotFile;
+  }
+
+  /**
+   * Map a persisted trigger state to the state after a restart. Acquired,
+   * executing and blocked are only meaningful for a running scheduler.
+   */
+  static int getRestoredTriggerState (final int nState)
+  {
+    switch (nState)
+    {
+      case TriggerWrapper.STATE_PAUSED:
+      case TriggerWrapper.STATE_PAUSED_BLOCKED:
+        return TriggerWrapper.STATE_PAUSED;
+      case TriggerWrapper.STATE_COMPLETE:
+      case TriggerWrapper.STATE_ERROR:
+        return nState;
+      default:
+        return TriggerWrapper.STATE_WAITING;
+    }
+  }
+
+  /**
+   * A consistent copy of the store content, that is taken while holding the
+   * lock and encoded afterwards without it.
+   */
+  static final class SnapshotContent implements JobStoreJournal.ISnapshotSource
+  {
+    private final ICommonsList <String> m_aPausedTriggerGroups;
+    private final ICommonsList <String> m_aPausedJobGroups;
+    private final ICommonsList <Entry <String, ICalendar>> m_aCalendars = new CommonsArrayList <> ();
+    private final ICommonsList <IJobDetail> m_aJobs = new CommonsArrayList <> ();
+    private final ICommonsList <IOperableTrigger> m_aTriggers = new CommonsArrayList <> ();
+    private final ICommonsList <Integer> m_aTriggerStates = new CommonsArrayList <> ();
+    private final ICommonsList <byte []> m_aRecords = new CommonsArrayList <> ();
+
+    private SnapshotContent (@NonNull final RAMJobStore aStore)
+    {
+      m_aPausedTriggerGroups = new CommonsArrayList <> (aStore.m_aPausedTriggerGroups);
+      m_aPausedJobGroups = new CommonsArrayList <> (aStore.m_aPausedJobGroups);
+      for (final Entry <String, ICalendar> aEntry : aStore.m_aCalendarsByName.entrySet ())
+        m_aCalendars.add (new SimpleImmutableEntry <> (aEntry.getKey (), aEntry.getValue ().getClone ()));
+      for (final JobWrapper jw : aStore.m_aJobsByKey.values ())
+        m_aJobs.add (jw.getJobDetail ().getClone ());
+      for (final TriggerWrapper tw : aStore.m_aTriggersByKey.values ())
+      {
+        m_aTriggers.add (tw.m_aTrigger.getClone ());
+        m_aTriggerStates.add (Integer.valueOf (tw.m_nState));
+      }
+    }
+
+    /**
+     * Add an already encoded record, that is written after all triggers.
+     *
+     * @param aRecord
+     *        The encoded record. May not be <code>null</code>.
+     */
+    void addRecord (@NonNull final byte [] aRecord)
+    {
+      m_aRecords.add (aRecord);
+    }
+
+    /**
+     * @return The encoded records with calendars and jobs preceding the
+     *         triggers referencing them. The triggers are ordered by fire time.
+     *         Never <code>null</code>.
+     * @throws JobPersistenceException
+     *         If a trigger, calendar or job data map value is not supported
+     */
+    @NonNull
+    public ICommonsList <byte []> createRecords () throws JobPersistenceException
+    {
+      final ICommonsList <byte []> ret = new CommonsArrayList <> (1 +
+                                                                  m_aCalendars.size () +
+                                                                  m_aJobs.size () +
+                                                                  m_aTriggers.size () +
+                                                                  m_aRecords.size ());
+      ret.add (JobStoreCodec.encodePausedGroups (m_aPausedTriggerGroups, m_aPausedJobGroups));
+      for (final Entry <String, ICalendar> aEntry : m_aCalendars)
+        ret.add (JobStoreCodec.encodePutCalendar (aEntry.getKey (), aEntry.getValue ()));
+      for (final IJobDetail aJob : m_aJobs)
+        ret.add (JobStoreCodec.encodePutJob (aJob));
+      // Write the triggers in fire time order, so that sorting them again while
+      // loading is a single linear pass
+      final Integer [] aOrder = new Integer [m_aTriggers.size ()];
+      for (int i = 0; i < aOrder.length; ++i)
+        aOrder[i] = Integer.valueOf (i);
+      Arrays.sort (aOrder, (i1, i2) -> {
+        final IOperableTrigger t1 = m_aTriggers.get (i1.intValue ());
+        final IOperableTrigger t2 = m_aTriggers.get (i2.intValue ());
+        return TriggerTimeComparator.compare (t1.getNextFireTimeMillis (),
+                                              t1.getPriority (),
+                                              t1.getKey (),
+                                              t2.getNextFireTimeMillis (),
+                                              t2.getPriority (),
+                                              t2.getKey ());
+      });
+      for (final Integer aIndex : aOrder)
+        ret.add (JobStoreCodec.encodePutTrigger (m_aTriggers.get (aIndex.intValue ()),
+                                                 m_aTriggerStates.get (aIndex.intValue ()).intValue ()));
+      ret.addAll (m_aRecords);
+      return ret;
+    }
+  }
+
+  /**
+   * Copy the complete content of this store, so that it can be encoded without
+   * holding the lock. Only the stored objects are cloned, nothing is encoded.
+   * Must be called while holding the lock.
+   *
+   * @return The copied content. Never <code>null</code>.
+   * @throws JobPersistenceException
+   *         If the content cannot be copied
+   */
+  @NonNull
+  SnapshotContent createSnapshotContent () throws JobPersistenceException
+  {
+    return new SnapshotContent (this);
+  }
+
+  /**
+   * Encode the complete content of this store as snapshot records. Must be
+   * called while holding the lock.
+   *
+   * @return The encoded records with calendars and jobs preceding the triggers
+   *         referencing them. The triggers are ordered by fire time. Never
+   *         <code>null</code>.
+   * @throws JobPersistenceException
+   *         If a trigger, calendar or job data map value is not supported
+   */
+  @NonNull
+  final ICommonsList <byte []> createSnapshotRecords () throws JobPersistenceException
+  {
+    return createSnapshotContent ().createRecords ();
+  }
+
+  /**
+   * Write the complete content of this store (jobs, triggers, calendars and
+   * paused groups) to a compact binary snapshot file, that can be loaded via
+   * {@link #loadSnapshot(Path, IClassLoadHelper)} or
+   * {@link #setSnapshotFile(String)}. Only copying the content is done while
+   * holding the lock. The file is written atomically.
+   *
+   * @param aFile
+   *        The file to write. May not be <code>null</code>.
+   * @throws JobPersistenceException
+   *         If a trigger, calendar or job data map value is not supported or if
+   *         the file cannot be written
+   */
+  public void writeSnapshot (@NonNull final Path aFile) throws JobPersistenceException
+  {
+    ValueEnforcer.notNull (aFile, "File");
+
+    final SnapshotContent aContent;
+    synchronized (m_aLock)
+    {
+      aContent = createSnapshotContent ();
+    }
+    final ICommonsList <byte []> aRecords = aContent.createRecords ();
+    try
+    {
+      JobStoreJournal.writeSnapshotFile (aFile, aRecords);
+    }
+    catch (final IOException ex)
+    {
+      throw new JobPersistenceException ("Failed to write snapshot file '" + aFile + "'", ex);
+    }
+  }
+
+  /**
+   * Fills the data structures directly from snapshot records - no cloning, no
+   * existence checks, no fire time computation and no signalling.
+   */
+  private final class SnapshotLoader implements JobStoreCodec.IRecordHandler
+  {
+    private final ICommonsList <TriggerWrapper> m_aWaiting = new CommonsArrayList <> ();
+
+    public void onPutJob (@NonNull final IJobDetail aJob)
+    {
+      final JobWrapper jw = new JobWrapper (aJob);
+      m_aJobsByKey.put (jw.m_aKey, jw);
+      m_aJobsByGroup.computeIfAbsent (jw.m_aKey.getGroup (), k -> new CommonsHashMap <> (100)).put (jw.m_aKey, jw);
+    }
+
+    public void onRemoveJob (@NonNull final JobKey aJobKey) throws IOException
+    {
+      throw new IOException ("Snapshots may not contain removals");
+    }
+
+    public void onPutTrigger (@NonNull final IOperableTrigger aTrigger, final int nState) throws IOException
+    {
+      final JobWrapper jw = m_aJobsByKey.get (aTrigger.getJobKey ());
+      if (jw == null)
+        throw new IOException ("The job (" + aTrigger.getJobKey () + ") referenced by the trigger does not exist.");
+      final TriggerWrapper tw = new TriggerWrapper (aTrigger, jw.m_aKey);
+      tw.m_nState = getRestoredTriggerState (nState);
+      m_aTriggersByKey.put (tw.m_aKey, tw);
+      m_aTriggersByGroup.computeIfAbsent (tw.m_aKey.getGroup (), k -> new CommonsHashMap <> (100)).put (tw.m_aKey, tw);
+      _addToSecondaryIndices (jw, tw);
+      if (tw.m_nState == TriggerWrapper.STATE_WAITING)
+        m_aWaiting.add (tw);
+    }
+
+    public void onRemoveTrigger (@NonNull final TriggerKey aTriggerKey) throws IOException
+    {
+      throw new IOException ("Snapshots may not contain removals");
+    }
+
+    public void onPutCalendar (@NonNull final String sName, @NonNull final ICalendar aCalendar)
+    {
+      m_aCalendarsByName.put (sName, aCalendar);
+    }
+
+    public void onRemoveCalendar (@NonNull final String sName) throws IOException
+    {
+      throw new IOException ("Snapshots may not contain removals");
+    }
+
+    public void onPausedGroups (@NonNull final ICommonsList <String> aTriggerGroups,
+                                @NonNull final ICommonsList <String> aJobGroups)
+    {
+      m_aPausedTriggerGroups.addAll (aTriggerGroups);
+      m_aPausedJobGroups.addAll (aJobGroups);
+    }
+  }
+
+  private void _clearAllLocked ()
+  {
+    m_aJobsByKey.clear ();
+    m_aTriggersByKey.clear ();
+    m_aJobsByGroup.clear ();
+    m_aTriggersByGroup.clear ();
+    m_aTimeTriggers.clear ();
+    m_aCalendarsByName.clear ();
+    m_aTriggersByCalendar.clear ();
+    m_aPausedTriggerGroups.clear ();
+    m_aPausedJobGroups.clear ();
+    m_aBlockedJobs.clear ();
+  }
+
+  /**
+   * Bulk load a snapshot file into this empty store in a single pass. Must be
+   * called while holding the lock. On error the store is left empty.
+   */
+  long bulkLoadSnapshot (@NonNull final Path aFile, @Nullable final IClassLoadHelper aLoadHelper) throws IOException
+  {
+    IClassLoadHelper aRealLoadHelper = aLoadHelper;
+    if (aRealLoadHelper == null)
+    {
+      aRealLoadHelper = new CascadingClassLoadHelper ();
+      aRealLoadHelper.initialize ();
+    }
+    final IClassLoadHelper aFinalLoadHelper = aRealLoadHelper;
+
+    final SnapshotLoader aLoader = new SnapshotLoader ();
+    try
+    {
+      final long ret = JobStoreJournal.readSnapshotFile (aFile,
+                                                         aRecord -> JobStoreCodec.decode (aRecord,
+                                                                                          aFinalLoadHelper,
+                                                                                          aLoader));
+      for (final TriggerWrapper tw : m_aTriggersByKey.values ())
+        if (!m_aJobsByKey.containsKey (tw.m_aJobKey))
+          throw new IOException ("The job (" + tw.m_aJobKey + ") referenced by trigger " + tw.m_aKey + " does not exist");
+      // One bulk insert instead of one insert per trigger
+      m_aTimeTriggers.addAll (aLoader.m_aWaiting);
+      return ret;
+    }
+    catch (final IOException | RuntimeException ex)
+    {
+      _clearAllLocked ();
+      throw ex;
+    }
+  }
+
+  /**
+   * Load a snapshot file, previously created with {@link #writeSnapshot(Path)},
+   * into this store. The file is read in one go and the key maps and the time
+   * index are built in a single pass, which is much faster than storing each
+   * job and trigger individually. Triggers that were acquired, executing or
+   * blocked when the snapshot was taken are restored as waiting.
+   *
+   * @param aFile
+   *        The snapshot file to load. May not be <code>null</code>.
+   * @param aLoadHelper
+   *        The class load helper to resolve job classes. May be
+   *        <code>null</code> to use a {@link CascadingClassLoadHelper}.
+   * @return The number of records loaded.
+   * @throws JobPersistenceException
+   *         If the store is not empty or if the file cannot be loaded. In the
+   *         latter case the store stays empty.
+   */
+  public long loadSnapshot (@NonNull final Path aFile,
+                            @Nullable final IClassLoadHelper aLoadHelper) throws JobPersistenceException
+  {
+    ValueEnforcer.notNull (aFile, "File");
+
+    synchronized (m_aLock)
+    {
+      if (m_aJobsByKey.isNotEmpty () || m_aTriggersByKey.isNotEmpty () || m_aCalendarsByName.isNotEmpty ())
+        throw new JobPersistenceException ("Snapshots can only be loaded into an empty job store");
+      try
+      {
+        return bulkLoadSnapshot (aFile, aLoadHelper);
+      }
+      catch (final IOException ex)
+      {
+        throw new JobPersistenceException ("Failed to load snapshot file '" + aFile + "'", ex);
+      }
+    }
+  }
+
   /**
    * <p>
    * Called by the QuartzScheduler to inform the <code>JobStore</code> that it
@@ -404,42 +821,46 @@ public class RAMJobStore implements IJobStore
   public void storeTrigger (final IOperableTrigger newTrigger,
                             final boolean bReplaceExisting) throws JobPersistenceException
   {
-    final TriggerWrapper tw = new TriggerWrapper (newTrigger.getClone ());
+    final IOperableTrigger aTrigger = newTrigger.getClone ();
 
     synchronized (m_aLock)
     {
-      if (m_aTriggersByKey.get (tw.m_aKey) != null)
+      if (m_aTriggersByKey.get (aTrigger.getKey ()) != null)
       {
         if (!bReplaceExisting)
         {
           throw new ObjectAlreadyExistsException (newTrigger);
         }
 
-        _removeTrigger (newTrigger.getKey (), false);
+        removeTrigger (newTrigger.getKey (), false);
       }
 
-      if (retrieveJob (newTrigger.getJobKey ()) == null)
+      final JobWrapper jw = m_aJobsByKey.get (aTrigger.getJobKey ());
+      if (jw == null)
       {
         throw new JobPersistenceException ("The job (" +
                                            newTrigger.getJobKey () +
                                            ") referenced by the trigger does not exist.");
       }
 
-      // add to triggers array
-      m_aTriggers.add (tw);
+      // Share the key instance of the stored job
+      final TriggerWrapper tw = new TriggerWrapper (aTrigger, jw.m_aKey);
+
+      // add to secondary indices
+      _addToSecondaryIndices (jw, tw);
       // add to triggers by group
-      ICommonsMap <TriggerKey, TriggerWrapper> grpMap = m_aTriggersByGroup.get (newTrigger.getKey ().getGroup ());
+      ICommonsMap <TriggerKey, TriggerWrapper> grpMap = m_aTriggersByGroup.get (tw.m_aKey.getGroup ());
       if (grpMap == null)
       {
         grpMap = new CommonsHashMap <> (100);
-        m_aTriggersByGroup.put (newTrigger.getKey ().getGroup (), grpMap);
+        m_aTriggersByGroup.put (tw.m_aKey.getGroup (), grpMap);
       }
-      grpMap.put (newTrigger.getKey (), tw);
+      grpMap.put (tw.m_aKey, tw);
       // add to triggers by FQN map
       m_aTriggersByKey.put (tw.m_aKey, tw);
 
-      if (m_aPausedTriggerGroups.contains (newTrigger.getKey ().getGroup ()) ||
-          m_aPausedJobGroups.contains (newTrigger.getJobKey ().getGroup ()))
+      if (m_aPausedTriggerGroups.contains (tw.m_aKey.getGroup ()) ||
+          m_aPausedJobGroups.contains (tw.m_aJobKey.getGroup ()))
       {
         tw.m_nState = TriggerWrapper.STATE_PAUSED;
         if (m_aBlockedJobs.contains (tw.m_aJobKey))
@@ -470,17 +891,29 @@ public class RAMJobStore implements IJobStore
    */
   public boolean removeTrigger (final TriggerKey triggerKey)
   {
-    return _removeTrigger (triggerKey, true);
+    return removeTrigger (triggerKey, true);
   }
 
-  private boolean _removeTrigger (final TriggerKey key, final boolean removeOrphanedJob)
+  /**
+   * Remove the trigger with the given key.
+   *
+   * @param key
+   *        The key of the trigger to remove.
+   * @param removeOrphanedJob
+   *        <code>true</code> to also remove the non-durable job of the trigger
+   *        if this was its last trigger.
+   * @return <code>true</code> if a <code>Trigger</code> with the given key was
+   *         found and removed from the store.
+   */
+  protected boolean removeTrigger (final TriggerKey key, final boolean removeOrphanedJob)
   {
     boolean bFound;
 
     synchronized (m_aLock)
     {
       // remove from triggers by FQN map
-      bFound = m_aTriggersByKey.remove (key) != null;
+      final TriggerWrapper tw = m_aTriggersByKey.remove (key);
+      bFound = tw != null;
       if (bFound)
       {
         // remove from triggers by group
@@ -493,25 +926,14 @@ public class RAMJobStore implements IJobStore
             m_aTriggersByGroup.remove (key.getGroup ());
           }
         }
-        // remove from triggers array
-        TriggerWrapper tw = null;
-        final Iterator <TriggerWrapper> tgs = m_aTriggers.iterator ();
-        while (tgs.hasNext ())
-        {
-          tw = tgs.next ();
-          if (key.equals (tw.m_aKey))
-          {
-            tgs.remove ();
-            break;
-          }
-        }
+        // remove from secondary indices
+        _removeFromSecondaryIndices (tw);
         m_aTimeTriggers.remove (tw);
 
         if (removeOrphanedJob)
         {
           final JobWrapper jw = m_aJobsByKey.get (tw.m_aJobKey);
-          final ICommonsList <IOperableTrigger> trigs = getTriggersForJob (tw.m_aJobKey);
-          if ((trigs == null || trigs.isEmpty ()) && !jw.getJobDetail ().isDurable ())
+          if (!jw.hasTriggers () && !jw.getJobDetail ().isDurable ())
           {
             if (removeJob (jw.m_aKey))
             {
@@ -538,7 +960,7 @@ public class RAMJobStore implements IJobStore
     synchronized (m_aLock)
     {
       // remove from triggers by FQN map
-      TriggerWrapper tw = m_aTriggersByKey.remove (triggerKey);
+      final TriggerWrapper tw = m_aTriggersByKey.remove (triggerKey);
       found = (tw != null);
 
       if (found)
@@ -549,7 +971,6 @@ public class RAMJobStore implements IJobStore
           throw new JobPersistenceException ("New trigger is not related to the same job as the old trigger.");
         }
 
-        tw = null;
         // remove from triggers by group
         final ICommonsMap <TriggerKey, TriggerWrapper> grpMap = m_aTriggersByGroup.get (triggerKey.getGroup ());
         if (grpMap != null)
@@ -560,17 +981,8 @@ public class RAMJobStore implements IJobStore
             m_aTriggersByGroup.remove (triggerKey.getGroup ());
           }
         }
-        // remove from triggers array
-        final Iterator <TriggerWrapper> tgs = m_aTriggers.iterator ();
-        while (tgs.hasNext ())
-        {
-          tw = tgs.next ();
-          if (triggerKey.equals (tw.m_aKey))
-          {
-            tgs.remove ();
-            break;
-          }
-        }
+        // remove from secondary indices
+        _removeFromSecondaryIndices (tw);
         m_aTimeTriggers.remove (tw);
 
         try
@@ -606,6 +1018,23 @@ public class RAMJobStore implements IJobStore
     }
   }
 
+  /**
+   * Retrieve a read-only view of the
+   * <code>{@link com.helger.quartz.IJobDetail}</code> for the given
+   * <code>{@link com.helger.quartz.IJob}</code> without cloning it.
+   *
+   * @return The desired <code>Job</code>, or null if there is no match.
+   */
+  @Override
+  public IJobDetail retrieveJobSnapshot (final JobKey jobKey)
+  {
+    synchronized (m_aLock)
+    {
+      final JobWrapper jw = m_aJobsByKey.get (jobKey);
+      return jw != null ? new JobDetailSnapshot (jw.getJobDetail ()) : null;
+    }
+  }
+
   /**
    * <p>
    * Retrieve the given <code>{@link com.helger.quartz.ITrigger}</code>.
@@ -622,6 +1051,23 @@ public class RAMJobStore implements IJobStore
     }
   }
 
+  /**
+   * Retrieve an immutable snapshot of the given
+   * <code>{@link com.helger.quartz.ITrigger}</code>, taken while the lock is
+   * held.
+   *
+   * @return The desired <code>Trigger</code>, or null if there is no match.
+   */
+  @Override
+  public ITrigger retrieveTriggerSnapshot (final TriggerKey triggerKey)
+  {
+    synchronized (m_aLock)
+    {
+      final TriggerWrapper tw = m_aTriggersByKey.get (triggerKey);
+      return tw != null ? TriggerSnapshot.create (tw.getTrigger ()) : null;
+    }
+  }
+
   /**
    * Determine whether a {@link com.helger.quartz.IJob} with the given
    * identifier already exists within the scheduler.
@@ -775,26 +1221,15 @@ public class RAMJobStore implements IJobStore
    */
   public boolean removeCalendar (final String calName) throws JobPersistenceException
   {
-    int numRefs = 0;
-
     synchronized (m_aLock)
     {
-      for (final TriggerWrapper trigger : m_aTriggers)
+      if (m_aTriggersByCalendar.containsKey (calName))
       {
-        final IOperableTrigger trigg = trigger.m_aTrigger;
-        if (trigg.getCalendarName () != null && trigg.getCalendarName ().equals (calName))
-        {
-          numRefs++;
-        }
+        throw new JobPersistenceException ("Calender cannot be removed if it referenced by a Trigger!");
       }
-    }
 
-    if (numRefs > 0)
-    {
-      throw new JobPersistenceException ("Calender cannot be removed if it referenced by a Trigger!");
+      return (m_aCalendarsByName.remove (calName) != null);
     }
-
-    return (m_aCalendarsByName.remove (calName) != null);
   }
 
   /**
@@ -841,7 +1276,7 @@ public class RAMJobStore implements IJobStore
   {
     synchronized (m_aLock)
     {
-      return m_aTriggers.size ();
+      return m_aTriggersByKey.size ();
     }
   }
 
@@ -1008,43 +1443,102 @@ public class RAMJobStore implements IJobStore
 
     synchronized (m_aLock)
     {
-      for (final TriggerWrapper tw : m_aTriggers)
-        if (tw.m_aJobKey.equals (jobKey))
-          trigList.add (tw.m_aTrigger.getClone ());
+      final JobWrapper jw = m_aJobsByKey.get (jobKey);
+      if (jw != null)
+        jw.forEachTrigger (tw -> trigList.add (tw.m_aTrigger.getClone ()));
     }
 
     return trigList;
   }
 
-  protected ICommonsList <TriggerWrapper> getTriggerWrappersForJob (final JobKey jobKey)
+  @Override
+  public ICommonsList <ITrigger> getTriggerSnapshotsForJob (final JobKey jobKey)
   {
-    final ICommonsList <TriggerWrapper> trigList = new CommonsArrayList <> ();
+    final ICommonsList <ITrigger> ret = new CommonsArrayList <> ();
+    synchronized (m_aLock)
+    {
+      final JobWrapper jw = m_aJobsByKey.get (jobKey);
+      if (jw != null)
+        jw.forEachTrigger (tw -> ret.add (TriggerSnapshot.create (tw.m_aTrigger)));
+    }
+    return ret;
+  }
 
+  @Override
+  public ICommonsList <ITrigger> getTriggerSnapshots (final GroupMatcher <TriggerKey> matcher)
+  {
+    final ICommonsList <ITrigger> ret = new CommonsArrayList <> ();
     synchronized (m_aLock)
     {
-      for (final TriggerWrapper trigger : m_aTriggers)
-        if (trigger.m_aJobKey.equals (jobKey))
-          trigList.add (trigger);
+      final StringMatcher.EStringOperatorName operator = matcher.getCompareWithOperator ();
+      final String compareToValue = matcher.getCompareToValue ();
+
+      if (operator == EStringOperatorName.EQUALS)
+      {
+        final ICommonsMap <TriggerKey, TriggerWrapper> grpMap = m_aTriggersByGroup.get (compareToValue);
+        if (grpMap != null)
+          for (final TriggerWrapper tw : grpMap.values ())
+            ret.add (TriggerSnapshot.create (tw.m_aTrigger));
+      }
+      else
+      {
+        for (final Map.Entry <String, ICommonsMap <TriggerKey, TriggerWrapper>> entry : m_aTriggersByGroup.entrySet ())
+          if (operator.evaluate (entry.getKey (), compareToValue))
+            for (final TriggerWrapper tw : entry.getValue ().values ())
+              ret.add (TriggerSnapshot.create (tw.m_aTrigger));
+      }
     }
+    return ret;
+  }
 
-    return trigList;
+  protected ICommonsList <TriggerWrapper> getTriggerWrappersForJob (final JobKey jobKey)
+  {
+    synchronized (m_aLock)
+    {
+      final ICommonsList <TriggerWrapper> ret = new CommonsArrayList <> ();
+      final JobWrapper jw = m_aJobsByKey.get (jobKey);
+      if (jw != null)
+        jw.forEachTrigger (ret::add);
+      return ret;
+    }
   }
 
   protected ICommonsList <TriggerWrapper> getTriggerWrappersForCalendar (final String calName)
   {
-    final ICommonsList <TriggerWrapper> trigList = new CommonsArrayList <> ();
-
     synchronized (m_aLock)
     {
-      for (final TriggerWrapper tw : m_aTriggers)
-      {
-        final String tcalName = tw.getTrigger ().getCalendarName ();
-        if (tcalName != null && tcalName.equals (calName))
-          trigList.add (tw);
-      }
+      final ICommonsMap <TriggerKey, TriggerWrapper> aCalMap = m_aTriggersByCalendar.get (calName);
+      return aCalMap == null ? new CommonsArrayList <> () : aCalMap.copyOfValues ();
     }
+  }
 
-    return trigList;
+  private void _addToSecondaryIndices (@NonNull final JobWrapper jw, @NonNull final TriggerWrapper tw)
+  {
+    jw.addTrigger (tw);
+    final String sCalName = tw.m_aTrigger.getCalendarName ();
+    if (sCalName != null)
+      m_aTriggersByCalendar.computeIfAbsent (sCalName, k -> new CommonsLinkedHashMap <> ()).put (tw.m_aKey, tw);
+  }
+
+  private void _removeFromCalendarIndex (@NonNull final String sCalName, @NonNull final TriggerKey aTriggerKey)
+  {
+    final ICommonsMap <TriggerKey, TriggerWrapper> aMap = m_aTriggersByCalendar.get (sCalName);
+    if (aMap != null)
+    {
+      aMap.remove (aTriggerKey);
+      if (aMap.isEmpty ())
+        m_aTriggersByCalendar.remove (sCalName);
+    }
+  }
+
+  private void _removeFromSecondaryIndices (@NonNull final TriggerWrapper tw)
+  {
+    final JobWrapper jw = m_aJobsByKey.get (tw.m_aJobKey);
+    if (jw != null)
+      jw.removeTrigger (tw.m_aKey);
+    final String sCalName = tw.m_aTrigger.getCalendarName ();
+    if (sCalName != null)
+      _removeFromCalendarIndex (sCalName, tw.m_aKey);
   }
 
   /**
@@ -1381,9 +1875,9 @@ public class RAMJobStore implements IJobStore
     if (getMisfireThreshold () > 0)
       misfireTime -= getMisfireThreshold ();
 
-    final Date tnft = tw.m_aTrigger.getNextFireTime ();
-    if (tnft == null ||
-        tnft.getTime () > misfireTime ||
+    final long tnft = tw.m_aTrigger.getNextFireTimeMillis ();
+    if (tnft == ITrigger.NO_FIRE_TIME ||
+        tnft > misfireTime ||
         tw.m_aTrigger.getMisfireInstruction () == EMisfireInstruction.MISFIRE_INSTRUCTION_IGNORE_MISFIRE_POLICY)
     {
       return false;
@@ -1399,7 +1893,8 @@ public class RAMJobStore implements IJobStore
 
     tw.m_aTrigger.updateAfterMisfire (cal);
 
-    if (tw.m_aTrigger.getNextFireTime () == null)
+    final long nNewFireTime = tw.m_aTrigger.getNextFireTimeMillis ();
+    if (nNewFireTime == ITrigger.NO_FIRE_TIME)
     {
       tw.m_nState = TriggerWrapper.STATE_COMPLETE;
       m_aSignaler.notifySchedulerListenersFinalized (tw.m_aTrigger);
@@ -1409,7 +1904,7 @@ public class RAMJobStore implements IJobStore
       }
     }
     else
-      if (tnft.equals (tw.m_aTrigger.getNextFireTime ()))
+      if (tnft == nNewFireTime)
       {
         return false;
       }
@@ -1449,35 +1944,26 @@ public class RAMJobStore implements IJobStore
 
       while (true)
       {
-        TriggerWrapper tw;
-
-        try
-        {
-          tw = m_aTimeTriggers.first ();
-          if (tw == null)
-            break;
-          m_aTimeTriggers.remove (tw);
-        }
-        catch (final java.util.NoSuchElementException nsee)
-        {
+        final TriggerWrapper tw = m_aTimeTriggers.pollFirst ();
+        if (tw == null)
           break;
-        }
 
-        if (tw.m_aTrigger.getNextFireTime () == null)
+        if (tw.m_aTrigger.getNextFireTimeMillis () == ITrigger.NO_FIRE_TIME)
         {
           continue;
         }
 
         if (applyMisfire (tw))
         {
-          if (tw.m_aTrigger.getNextFireTime () != null)
+          if (tw.m_aTrigger.getNextFireTimeMillis () != ITrigger.NO_FIRE_TIME)
           {
             m_aTimeTriggers.add (tw);
           }
           continue;
         }
 
-        if (tw.getTrigger ().getNextFireTime ().getTime () > batchEnd)
+        final long nNextFireTime = tw.m_aTrigger.getNextFireTimeMillis ();
+        if (nNextFireTime > batchEnd)
         {
           m_aTimeTriggers.add (tw);
           break;
@@ -1487,8 +1973,8 @@ public class RAMJobStore implements IJobStore
         // already been added to result, then
         // put it back into the timeTriggers set and continue to search for next
         // trigger.
-        final JobKey jobKey = tw.m_aTrigger.getJobKey ();
-        final IJobDetail job = m_aJobsByKey.get (tw.m_aTrigger.getJobKey ()).getJobDetail ();
+        final JobKey jobKey = tw.m_aJobKey;
+        final IJobDetail job = m_aJobsByKey.get (jobKey).getJobDetail ();
         if (job.isConcurrentExectionDisallowed ())
         {
           if (!acquiredJobKeysForNoConcurrentExec.add (jobKey))
@@ -1503,7 +1989,7 @@ public class RAMJobStore implements IJobStore
         final IOperableTrigger trig = tw.m_aTrigger.getClone ();
         if (result.isEmpty ())
         {
-          batchEnd = Math.max (tw.m_aTrigger.getNextFireTime ().getTime (), System.currentTimeMillis ()) + timeWindow;
+          batchEnd = Math.max (nNextFireTime, System.currentTimeMillis ()) + timeWindow;
         }
         result.add (trig);
         if (result.size () == maxCount)
@@ -1610,7 +2096,7 @@ public class RAMJobStore implements IJobStore
           m_aBlockedJobs.add (job.getKey ());
         }
         else
-          if (tw.m_aTrigger.getNextFireTime () != null)
+          if (tw.m_aTrigger.getNextFireTimeMillis () != ITrigger.NO_FIRE_TIME)
           {
             synchronized (m_aLock)
             {
@@ -1651,7 +2137,9 @@ public class RAMJobStore implements IJobStore
       {
         IJobDetail jd = jw.getJobDetail ();
 
-        if (jd.isPersistJobDataAfterExecution ())
+        // Nothing to persist if the job did not modify the data
+        if (jd.isPersistJobDataAfterExecution () &&
+            !CopyOnWriteJobDataMap.isSharingData (jobDetail.getJobDataMap (), jd.getJobDataMap ()))
         {
           final JobDataMap newData = QCloneUtils.getClone (jobDetail.getJobDataMap ());
           jd = jd.getJobBuilder ().setJobData (newData).build ();
@@ -1687,11 +2175,11 @@ public class RAMJobStore implements IJobStore
         if (triggerInstCode == ECompletedExecutionInstruction.DELETE_TRIGGER)
         {
 
-          if (trigger.getNextFireTime () == null)
+          if (trigger.getNextFireTimeMillis () == ITrigger.NO_FIRE_TIME)
           {
             // double check for possible reschedule within job
             // execution, which would cancel the need to delete...
-            if (tw.getTrigger ().getNextFireTime () == null)
+            if (tw.getTrigger ().getNextFireTimeMillis () == ITrigger.NO_FIRE_TIME)
             {
               removeTrigger (trigger.getKey ());
             }
@@ -1758,7 +2246,7 @@ public class RAMJobStore implements IJobStore
         str.append ("/");
       }
       str.append (" | ");
-      for (final TriggerWrapper timeTrigger : m_aTimeTriggers)
+      for (final TriggerWrapper timeTrigger : m_aTimeTriggers.getAllSorted ())
       {
         str.append (timeTrigger.m_aTrigger.getKey ().getName ());
         str.append ("->");
@@ -1809,11 +2297,14 @@ public class RAMJobStore implements IJobStore
 
 final class TriggerWrapperComparator implements IComparator <TriggerWrapper>
 {
-  private final TriggerTimeComparator ttc = new TriggerTimeComparator ();
-
   public int compare (final TriggerWrapper trig1, final TriggerWrapper trig2)
   {
-    return ttc.compare (trig1.m_aTrigger, trig2.m_aTrigger);
+    return TriggerTimeComparator.compare (trig1.m_aTrigger.getNextFireTimeMillis (),
+                                          trig1.m_aTrigger.getPriority (),
+                                          trig1.m_aKey,
+                                          trig2.m_aTrigger.getNextFireTimeMillis (),
+                                          trig2.m_aTrigger.getPriority (),
+                                          trig2.m_aKey);
   }
 
   @Override
@@ -1836,7 +2327,15 @@ final class TriggerWrapperComparator implements IComparator <TriggerWrapper>
 final class JobWrapper
 {
   final JobKey m_aKey;
-  private IJobDetail m_aJobDetail;
+  private volatile IJobDetail m_aJobDetail;
+  // The triggers of the job. Most jobs have exactly one, so the map is only
+  // created for the second trigger. Only accessed while holding the lock of the
+  // job store.
+  private TriggerWrapper m_aSingleTrigger;
+  private ICommonsMap <TriggerKey, TriggerWrapper> m_aTriggers;
+  // The number of triggers of the job that are paged out to disk by
+  // TieredRAMJobStore
+  int m_nSpilledTriggers;
 
   JobWrapper (@NonNull final IJobDetail jobDetail)
   {
@@ -1855,6 +2354,50 @@ final class JobWrapper
     m_aJobDetail = aJobDetail;
   }
 
+  void addTrigger (@NonNull final TriggerWrapper tw)
+  {
+    if (m_aTriggers != null)
+      m_aTriggers.put (tw.m_aKey, tw);
+    else
+      if (m_aSingleTrigger == null || m_aSingleTrigger.m_aKey.equals (tw.m_aKey))
+        m_aSingleTrigger = tw;
+      else
+      {
+        // Preserve the insertion order
+        m_aTriggers = new CommonsLinkedHashMap <> ();
+        m_aTriggers.put (m_aSingleTrigger.m_aKey, m_aSingleTrigger);
+        m_aTriggers.put (tw.m_aKey, tw);
+        m_aSingleTrigger = null;
+      }
+  }
+
+  void removeTrigger (@NonNull final TriggerKey aTriggerKey)
+  {
+    if (m_aTriggers != null)
+    {
+      m_aTriggers.remove (aTriggerKey);
+      if (m_aTriggers.isEmpty ())
+        m_aTriggers = null;
+    }
+    else
+      if (m_aSingleTrigger != null && m_aSingleTrigger.m_aKey.equals (aTriggerKey))
+        m_aSingleTrigger = null;
+  }
+
+  boolean hasTriggers ()
+  {
+    return m_aSingleTrigger != null || m_aTriggers != null || m_nSpilledTriggers > 0;
+  }
+
+  void forEachTrigger (@NonNull final Consumer <? super TriggerWrapper> aConsumer)
+  {
+    if (m_aTriggers != null)
+      m_aTriggers.values ().forEach (aConsumer);
+    else
+      if (m_aSingleTrigger != null)
+        aConsumer.accept (m_aSingleTrigger);
+  }
+
   @Override
   public boolean equals (final Object o)
   {
@@ -1869,7 +2412,8 @@ final class JobWrapper
   @Override
   public int hashCode ()
   {
-    return new HashCodeGenerator (this).append (m_aKey).getHashCode ();
+    // The wrappers are only compared with each other
+    return m_aKey.hashCode ();
   }
 }
 
@@ -1884,18 +2428,39 @@ final class TriggerWrapper
   public static final int STATE_PAUSED_BLOCKED = 6;
   public static final int STATE_ERROR = 7;
 
+  /** Value of {@link #m_nIndexedSlot} if not contained in a time index */
+  static final int NOT_INDEXED = -1;
+
   final TriggerKey m_aKey;
   final JobKey m_aJobKey;
   final IOperableTrigger m_aTrigger;
 
-  int m_nState = STATE_WAITING;
+  // Written while holding the lock of the job store, but may be read without
+  volatile int m_nState = STATE_WAITING;
+
+  // Sort key and position as recorded by TimingWheelTriggerTimeIndex
+  long m_nIndexedTime;
+  int m_nIndexedPriority;
+  int m_nIndexedSlot = NOT_INDEXED;
 
   TriggerWrapper (@NonNull final IOperableTrigger trigger)
+  {
+    this (trigger, trigger.getJobKey ());
+  }
+
+  /**
+   * @param trigger
+   *        The trigger to wrap. May not be <code>null</code>.
+   * @param aJobKey
+   *        The key of the job of the trigger. Passing the key instance of the
+   *        stored job avoids keeping an extra copy per trigger.
+   */
+  TriggerWrapper (@NonNull final IOperableTrigger trigger, @NonNull final JobKey aJobKey)
   {
     ValueEnforcer.notNull (trigger, "Trigger");
     m_aTrigger = trigger;
     m_aKey = trigger.getKey ();
-    m_aJobKey = trigger.getJobKey ();
+    m_aJobKey = aJobKey;
   }
 
   public IOperableTrigger getTrigger ()
@@ -1917,6 +2482,7 @@ final class TriggerWrapper
   @Override
   public int hashCode ()
   {
-    return new HashCodeGenerator (this).append (m_aKey).getHashCode ();
+    // The wrappers are only compared with each other
+    return m_aKey.hashCode ();
   }
 }
@@ -18,9 +18,13 @@
  */
 package com.helger.quartz.simpl;
 
-import java.util.Iterator;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
@@ -44,6 +48,11 @@ import com.helger.quartz.spi.IThreadPool;
  * <p>
  * The pool has a fixed number of <code>Thread</code>s, and does not grow or shrink based on demand.
  * </p>
+ * <p>
+ * Idle workers are kept in a lock-free queue, and their number is tracked by a semaphore. A
+ * <code>Runnable</code> is handed over to a worker by placing it in the worker's slot and unparking
+ * it, so neither the dispatching nor the worker thread needs to poll.
+ * </p>
  *
  * @author James House
  * @author Juergen Donnerstag
@@ -56,8 +65,10 @@ public class SimpleThreadPool implements IThreadPool
 
   private int m_nPrio = Thread.NORM_PRIORITY;
 
-  private boolean m_bIsShutdown = false;
-  private boolean m_bHandoffPending = false;
+  // Used to wake up all threads waiting for a worker on shutdown
+  private static final int SHUTDOWN_PERMITS = Integer.MAX_VALUE / 2;
+
+  private volatile boolean m_bIsShutdown = false;
 
   private boolean m_bInheritLoader = false;
 
@@ -67,11 +78,11 @@ public class SimpleThreadPool implements IThreadPool
 
   private ThreadGroup m_aThreadGroup;
 
-  private final Object m_aNextRunnableLock = new Object ();
-
+  // Guarded by itself
   private ICommonsList <WorkerThread> m_aWorkers;
-  private final ICommonsList <WorkerThread> m_aAvailWorkers = new CommonsArrayList <> ();
-  private final ICommonsList <WorkerThread> m_aBusyWorkers = new CommonsArrayList <> ();
+  private final Queue <WorkerThread> m_aAvailWorkers = new ConcurrentLinkedQueue <> ();
+  // Number of workers in m_aAvailWorkers that can be taken
+  private final Semaphore m_aAvailPermits = new Semaphore (0);
 
   private String m_sThreadNamePrefix;
 
@@ -264,6 +275,7 @@ public class SimpleThreadPool implements IThreadPool
     {
       aWT.start ();
       m_aAvailWorkers.add (aWT);
+      m_aAvailPermits.release ();
     }
 
     LOGGER.info ("Initialized " + m_nCount + " worker threads");
@@ -317,53 +329,40 @@ public class SimpleThreadPool implements IThreadPool
    */
   public void shutdown (final boolean waitForJobsToComplete)
   {
-    synchronized (m_aNextRunnableLock)
-    {
-      if (LOGGER.isDebugEnabled ())
-        LOGGER.debug ("Shutting down threadpool...");
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("Shutting down threadpool...");
 
-      m_bIsShutdown = true;
+    m_bIsShutdown = true;
 
-      if (m_aWorkers == null) // case where the pool wasn't even initialize()ed
-        return;
+    if (m_aWorkers == null) // case where the pool wasn't even initialize()ed
+      return;
 
-      // signal each worker thread to shut down
-      Iterator <WorkerThread> workerThreads = m_aWorkers.iterator ();
-      while (workerThreads.hasNext ())
-      {
-        final WorkerThread wt = workerThreads.next ();
-        wt.shutdown ();
-        m_aAvailWorkers.remove (wt);
-      }
+    final ICommonsList <WorkerThread> aWorkers;
+    synchronized (m_aWorkers)
+    {
+      aWorkers = m_aWorkers.getClone ();
+    }
 
-      // Give waiting (wait(1000)) worker threads a chance to shut down.
-      // Active worker threads will shut down after finishing their
-      // current job.
-      m_aNextRunnableLock.notifyAll ();
+    // signal each worker thread to shut down
+    // Idle worker threads terminate immediately, active worker threads will
+    // shut down after finishing their current job.
+    for (final WorkerThread wt : aWorkers)
+      wt.shutdown ();
+    m_aAvailWorkers.clear ();
 
-      if (waitForJobsToComplete)
-      {
+    // Wake up everybody waiting for an available worker
+    m_aAvailPermits.release (SHUTDOWN_PERMITS);
 
-        boolean interrupted = false;
-        try
+    if (waitForJobsToComplete)
+    {
+      boolean interrupted = false;
+      try
+      {
+        // Wait until all worker threads are shut down
+        for (final WorkerThread wt : aWorkers)
         {
-          // wait for hand-off in runInThread to complete...
-          while (m_bHandoffPending)
-          {
-            try
-            {
-              m_aNextRunnableLock.wait (100);
-            }
-            catch (final InterruptedException ex)
-            {
-              interrupted = true;
-            }
-          }
-
-          // Wait until all worker threads are shut down
-          while (m_aBusyWorkers.isNotEmpty ())
+          while (true)
           {
-            final WorkerThread wt = m_aBusyWorkers.get (0);
             try
             {
               if (LOGGER.isDebugEnabled ())
@@ -371,22 +370,8 @@ public class SimpleThreadPool implements IThreadPool
 
               // note: with waiting infinite time the
               // application may appear to 'hang'.
-              m_aNextRunnableLock.wait (2000);
-            }
-            catch (final InterruptedException ex)
-            {
-              interrupted = true;
-            }
-          }
-
-          workerThreads = m_aWorkers.iterator ();
-          while (workerThreads.hasNext ())
-          {
-            final WorkerThread wt = workerThreads.next ();
-            try
-            {
               wt.join ();
-              workerThreads.remove ();
+              break;
             }
             catch (final InterruptedException ex)
             {
@@ -394,20 +379,24 @@ public class SimpleThreadPool implements IThreadPool
             }
           }
         }
-        finally
+        synchronized (m_aWorkers)
         {
-          if (interrupted)
-          {
-            Thread.currentThread ().interrupt ();
-          }
+          m_aWorkers.removeAll (aWorkers);
+        }
+      }
+      finally
+      {
+        if (interrupted)
+        {
+          Thread.currentThread ().interrupt ();
         }
-
-        if (LOGGER.isDebugEnabled ())
-          LOGGER.debug ("No executing jobs remaining, all threads stopped.");
       }
+
       if (LOGGER.isDebugEnabled ())
-        LOGGER.debug ("Shutdown of threadpool complete.");
+        LOGGER.debug ("No executing jobs remaining, all threads stopped.");
     }
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("Shutdown of threadpool complete.");
   }
 
   /**
@@ -425,45 +414,27 @@ public class SimpleThreadPool implements IThreadPool
     if (aRunnable == null)
       return false;
 
-    synchronized (m_aNextRunnableLock)
-    {
-      m_bHandoffPending = true;
+    // Wait until a worker thread is available
+    if (!m_bIsShutdown)
+      m_aAvailPermits.acquireUninterruptibly ();
 
-      // Wait until a worker thread is available
-      while (m_aAvailWorkers.isEmpty () && !m_bIsShutdown)
-      {
-        try
-        {
-          m_aNextRunnableLock.wait (500);
-        }
-        catch (final InterruptedException ignore)
-        {
-          Thread.currentThread ().interrupt ();
-        }
-      }
-
-      if (!m_bIsShutdown)
-      {
-        final WorkerThread wt = m_aAvailWorkers.remove (0);
-        m_aBusyWorkers.add (wt);
-        wt.run (aRunnable);
-      }
-      else
+    final WorkerThread aAvailWT = m_bIsShutdown ? null : m_aAvailWorkers.poll ();
+    // The worker may have terminated in the meantime due to a shutdown
+    if (aAvailWT == null || !aAvailWT.run (aRunnable))
+    {
+      // If the thread pool is going down, execute the Runnable
+      // within a new additional worker thread (no thread from the pool).
+      final WorkerThread wt = new WorkerThread (this,
+                                                m_aThreadGroup,
+                                                "WorkerThread-LastJob",
+                                                m_nPrio,
+                                                isMakeThreadsDaemons (),
+                                                aRunnable);
+      synchronized (m_aWorkers)
       {
-        // If the thread pool is going down, execute the Runnable
-        // within a new additional worker thread (no thread from the pool).
-        final WorkerThread wt = new WorkerThread (this,
-                                                  m_aThreadGroup,
-                                                  "WorkerThread-LastJob",
-                                                  m_nPrio,
-                                                  isMakeThreadsDaemons (),
-                                                  aRunnable);
-        m_aBusyWorkers.add (wt);
         m_aWorkers.add (wt);
-        wt.start ();
       }
-      m_aNextRunnableLock.notifyAll ();
-      m_bHandoffPending = false;
+      wt.start ();
     }
 
     return true;
@@ -471,44 +442,32 @@ public class SimpleThreadPool implements IThreadPool
 
   public int blockForAvailableThreads ()
   {
-    synchronized (m_aNextRunnableLock)
-    {
+    if (m_bIsShutdown)
+      return 0;
 
-      while ((m_aAvailWorkers.isEmpty () || m_bHandoffPending) && !m_bIsShutdown)
-      {
-        try
-        {
-          m_aNextRunnableLock.wait (500);
-        }
-        catch (final InterruptedException ignore)
-        {
-          Thread.currentThread ().interrupt ();
-        }
-      }
+    // Parks until a worker is available
+    m_aAvailPermits.acquireUninterruptibly ();
+    m_aAvailPermits.release ();
 
-      return m_aAvailWorkers.size ();
-    }
+    if (m_bIsShutdown)
+      return 0;
+    return Math.max (1, Math.min (m_aAvailPermits.availablePermits (), m_nCount));
   }
 
   protected void makeAvailable (final WorkerThread wt)
   {
-    synchronized (m_aNextRunnableLock)
+    if (!m_bIsShutdown)
     {
-      if (!m_bIsShutdown)
-      {
-        m_aAvailWorkers.add (wt);
-      }
-      m_aBusyWorkers.remove (wt);
-      m_aNextRunnableLock.notifyAll ();
+      m_aAvailWorkers.add (wt);
+      m_aAvailPermits.release ();
     }
   }
 
   protected void clearFromBusyWorkersList (final WorkerThread wt)
   {
-    synchronized (m_aNextRunnableLock)
+    synchronized (m_aWorkers)
     {
-      m_aBusyWorkers.remove (wt);
-      m_aNextRunnableLock.notifyAll ();
+      m_aWorkers.remove (wt);
     }
   }
 
@@ -517,11 +476,15 @@ public class SimpleThreadPool implements IThreadPool
    */
   final class WorkerThread extends Thread
   {
-    private final Object m_aLock = new Object ();
+    // Set into the slot when the thread terminates, so that no Runnable can be
+    // handed over afterwards
+    private static final Runnable TERMINATED = () -> {};
+
     // A flag that signals the WorkerThread to terminate.
     private final AtomicBoolean m_aCanRun = new AtomicBoolean (true);
     private final SimpleThreadPool m_aSTP;
-    private Runnable m_aRunnable;
+    // The slot through which the next Runnable is handed over
+    private final AtomicReference <Runnable> m_aRunnable = new AtomicReference <> ();
     private boolean m_bRunOnce = false;
 
     /*
@@ -550,7 +513,7 @@ public class SimpleThreadPool implements IThreadPool
     {
       super (aThreadGroup, sName);
       m_aSTP = aSTP;
-      m_aRunnable = aRunnable;
+      m_aRunnable.set (aRunnable);
       if (aRunnable != null)
         m_bRunOnce = true;
       setPriority (nPrio);
@@ -565,18 +528,27 @@ public class SimpleThreadPool implements IThreadPool
     void shutdown ()
     {
       m_aCanRun.set (false);
+      LockSupport.unpark (this);
     }
 
-    public void run (final Runnable aNewRunnable)
+    /**
+     * Hand over the next Runnable to this idle worker.
+     *
+     * @param aNewRunnable
+     *        The Runnable to execute. May not be <code>null</code>.
+     * @return <code>true</code> if the Runnable will be executed,
+     *         <code>false</code> if this worker already terminated.
+     */
+    public boolean run (final Runnable aNewRunnable)
     {
-      synchronized (m_aLock)
+      if (!m_aRunnable.compareAndSet (null, aNewRunnable))
       {
-        if (m_aRunnable != null)
-          throw new IllegalStateException ("Already running a Runnable!");
-
-        m_aRunnable = aNewRunnable;
-        m_aLock.notifyAll ();
+        if (m_aRunnable.get () == TERMINATED)
+          return false;
+        throw new IllegalStateException ("Already running a Runnable!");
       }
+      LockSupport.unpark (this);
+      return true;
     }
 
     /**
@@ -587,38 +559,40 @@ public class SimpleThreadPool implements IThreadPool
     @Override
     public void run ()
     {
-      boolean bRan = false;
-
-      while (m_aCanRun.get ())
+      while (true)
       {
-        try
+        final Runnable aRunnable = m_aRunnable.get ();
+        if (aRunnable == null)
         {
-          synchronized (m_aLock)
+          if (!m_aCanRun.get ())
+          {
+            // Reject all further hand-overs. A Runnable handed over right
+            // before is still executed.
+            if (m_aRunnable.compareAndSet (null, TERMINATED))
+              break;
+            continue;
+          }
+
+          // Don't let a left-over interrupt flag turn park into a busy spin
+          if (Thread.interrupted ())
           {
-            while (m_aRunnable == null && m_aCanRun.get ())
+            try
             {
-              m_aLock.wait (500);
+              LOGGER.error ("Worker thread was interrupt'ed.");
             }
-
-            if (m_aRunnable != null)
+            catch (final Exception e)
             {
-              bRan = true;
-              m_aRunnable.run ();
+              // ignore to help with a tomcat glitch
             }
           }
+          // Spurious wake ups are handled by the loop
+          LockSupport.park (this);
+          continue;
         }
-        catch (final InterruptedException unblock)
+
+        try
         {
-          // do nothing (loop will terminate if shutdown() was called
-          try
-          {
-            LOGGER.error ("Worker thread was interrupt'ed.", unblock);
-          }
-          catch (final Exception e)
-          {
-            // ignore to help with a tomcat glitch
-          }
-          Thread.currentThread ().interrupt ();
+          aRunnable.run ();
         }
         catch (final Throwable throwableInRunnable)
         {
@@ -636,10 +610,7 @@ public class SimpleThreadPool implements IThreadPool
         }
         finally
         {
-          synchronized (m_aLock)
-          {
-            m_aRunnable = null;
-          }
+          m_aRunnable.set (null);
           // repair the thread in case the runnable mucked it up...
           if (getPriority () != m_aSTP.getThreadPriority ())
           {
@@ -652,11 +623,7 @@ public class SimpleThreadPool implements IThreadPool
             clearFromBusyWorkersList (this);
           }
           else
-            if (bRan)
-            {
-              bRan = false;
-              makeAvailable (this);
-            }
+            makeAvailable (this);
         }
       }
 
@@ -0,0 +1,1143 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.simpl;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.base.CGlobal;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsSet;
+import com.helger.quartz.IJobDetail;
+import com.helger.quartz.ITrigger;
+import com.helger.quartz.ITrigger.ECompletedExecutionInstruction;
+import com.helger.quartz.ITrigger.ETriggerState;
+import com.helger.quartz.JobKey;
+import com.helger.quartz.JobPersistenceException;
+import com.helger.quartz.ObjectAlreadyExistsException;
+import com.helger.quartz.SchedulerConfigException;
+import com.helger.quartz.TriggerKey;
+import com.helger.quartz.impl.matchers.GroupMatcher;
+import com.helger.quartz.impl.matchers.StringMatcher.EStringOperatorName;
+import com.helger.quartz.spi.IClassLoadHelper;
+import com.helger.quartz.spi.IOperableTrigger;
+import com.helger.quartz.spi.ISchedulerSignaler;
+
+/**
+ * A {@link RAMJobStore} that reduces the heap used by triggers firing far in
+ * the future. Only triggers that fire within the configured horizon are kept
+ * materialized in memory and in the time index. All other triggers are encoded
+ * and paged out to segment files in a local directory, each sorted by fire
+ * time. Per paged out trigger only a small entry with the keys, the calendar
+ * name and the position in the segment stays on heap.
+ * <p>
+ * Note: the heap usage is reduced, but not bounded. It still grows linearly
+ * with the number of paged out triggers, because these entries are needed to
+ * look up paged out triggers by key, job, group or calendar.
+ * </p>
+ * <p>
+ * A background thread regularly loads the paged out triggers that moved into
+ * the horizon back into memory. Additionally
+ * {@link #acquireNextTriggers(long, int, long)} synchronously loads all paged
+ * out triggers that are due within the requested time frame, so the firing
+ * never depends on the prefetcher. Triggers whose next fire time is beyond the
+ * horizon after their job completed are paged out again.
+ * </p>
+ * <p>
+ * The segment files are only an extension of the heap: they are deleted on
+ * {@link #shutdown()} and this store is exactly as volatile as
+ * {@link RAMJobStore}. Operations that change individual triggers (pausing a
+ * single trigger or job, replacing a trigger or updating a calendar) load the
+ * affected triggers back into memory first. Triggers that cannot be encoded
+ * (e.g. custom trigger types) are always kept in memory.
+ * </p>
+ * <p>
+ * Configure it via <code>org.quartz.jobStore.class</code> and optionally set
+ * <code>org.quartz.jobStore.directory</code>,
+ * <code>org.quartz.jobStore.horizon</code> and
+ * <code>org.quartz.jobStore.prefetchInterval</code>.
+ * </p>
+ *
+ * @author Philip Helger
+ */
+public class TieredRAMJobStore extends RAMJobStore
+{
+  /** By default triggers firing within the next hour are kept in memory */
+  public static final long DEFAULT_HORIZON = CGlobal.MILLISECONDS_PER_HOUR;
+  /** By default the prefetcher runs every 10 seconds */
+  public static final long DEFAULT_PREFETCH_INTERVAL = 10 * CGlobal.MILLISECONDS_PER_SECOND;
+  /** By default a segment file is written for every 10.000 paged out triggers */
+  public static final int DEFAULT_SEGMENT_SIZE = 10_000;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (TieredRAMJobStore.class);
+  private static final String SEGMENT_FILE_EXTENSION = ".seg";
+
+  /**
+   * The on-heap part of a paged out trigger. It is either buffered (record is
+   * set) or written to a segment (segment is set). Both are <code>null</code>
+   * once the trigger was loaded or removed.
+   */
+  private static final class SpilledTrigger
+  {
+    private final TriggerKey m_aKey;
+    private final JobKey m_aJobKey;
+    private final String m_sCalendarName;
+    private final long m_nFireTime;
+    private byte [] m_aRecord;
+    private Segment m_aSegment;
+    private long m_nOffset;
+    private int m_nLength;
+
+    SpilledTrigger (@NonNull final TriggerKey aKey,
+                    @NonNull final JobKey aJobKey,
+                    @Nullable final String sCalendarName,
+                    final long nFireTime,
+                    @NonNull final byte [] aRecord)
+    {
+      m_aKey = aKey;
+      m_aJobKey = aJobKey;
+      m_sCalendarName = sCalendarName;
+      m_nFireTime = nFireTime;
+      m_aRecord = aRecord;
+    }
+  }
+
+  /**
+   * An immutable segment file with the records of paged out triggers in fire
+   * time order. The file is deleted as soon as none of its triggers is paged
+   * out anymore.
+   */
+  private static final class Segment
+  {
+    private final Path m_aFile;
+    private final SpilledTrigger [] m_aTriggers;
+    // The index of the next trigger to be loaded
+    private int m_nCursor;
+    // The number of triggers that were neither loaded nor removed
+    private int m_nLive;
+
+    Segment (@NonNull final Path aFile, @NonNull final SpilledTrigger [] aTriggers)
+    {
+      m_aFile = aFile;
+      m_aTriggers = aTriggers;
+      m_nLive = aTriggers.length;
+    }
+
+    long getNextFireTime ()
+    {
+      return m_nCursor < m_aTriggers.length ? m_aTriggers[m_nCursor].m_nFireTime : ITrigger.NO_FIRE_TIME;
+    }
+  }
+
+  private String m_sDirectory;
+  private long m_nHorizon = DEFAULT_HORIZON;
+  private long m_nPrefetchInterval = DEFAULT_PREFETCH_INTERVAL;
+  private int m_nSegmentSize = DEFAULT_SEGMENT_SIZE;
+
+  // All of the following is only accessed while holding the lock
+  private final ICommonsMap <TriggerKey, SpilledTrigger> m_aSpilled = new CommonsHashMap <> (1000);
+  private final ICommonsList <SpilledTrigger> m_aBuffer = new CommonsArrayList <> ();
+  private long m_nBufferFireTime = ITrigger.NO_FIRE_TIME;
+  private final ICommonsList <Segment> m_aSegments = new CommonsArrayList <> ();
+  private long m_nSegmentCounter;
+  // Only set after initialization - until then nothing is paged out
+  private Path m_aSegmentDir;
+  private boolean m_bDeleteSegmentDir;
+  private IClassLoadHelper m_aLoadHelper;
+
+  private CountDownLatch m_aStopPrefetcher;
+  private Thread m_aPrefetcher;
+
+  public TieredRAMJobStore ()
+  {}
+
+  /**
+   * @return The directory in which the segment files are stored. May be
+   *         <code>null</code> to use a temporary directory.
+   */
+  @Nullable
+  public String getDirectory ()
+  {
+    return m_sDirectory;
+  }
+
+  /**
+   * Set the directory in which the segment files are stored. It is created if
+   * it does not exist and all existing segment files in it are deleted on
+   * {@link #initialize}. Must be called before {@link #initialize}.
+   *
+   * @param sDirectory
+   *        The directory to use. May be <code>null</code> to use a new
+   *        temporary directory.
+   */
+  public void setDirectory (@Nullable final String sDirectory)
+  {
+    m_sDirectory = sDirectory;
+  }
+
+  /**
+   * @return The time span in milliseconds from now, within which triggers are
+   *         kept in memory.
+   */
+  public long getHorizon ()
+  {
+    return m_nHorizon;
+  }
+
+  /**
+   * @param nHorizon
+   *        The time span in milliseconds from now, within which triggers are
+   *        kept in memory. Triggers firing later are paged out. Must be &ge; 0.
+   */
+  public void setHorizon (final long nHorizon)
+  {
+    ValueEnforcer.isGE0 (nHorizon, "Horizon");
+    m_nHorizon = nHorizon;
+  }
+
+  /**
+   * @return The interval in milliseconds in which the background thread loads
+   *         the triggers that moved into the horizon.
+   */
+  public long getPrefetchInterval ()
+  {
+    return m_nPrefetchInterval;
+  }
+
+  /**
+   * @param nPrefetchInterval
+   *        The interval in milliseconds in which the background thread loads
+   *        the triggers that moved into the horizon. Must be &gt; 0.
+   */
+  public void setPrefetchInterval (final long nPrefetchInterval)
+  {
+    ValueEnforcer.isGT0 (nPrefetchInterval, "PrefetchInterval");
+    m_nPrefetchInterval = nPrefetchInterval;
+  }
+
+  /**
+   * @return The number of paged out triggers that are collected in memory
+   *         before they are written as one segment file.
+   */
+  public int getSegmentSize ()
+  {
+    return m_nSegmentSize;
+  }
+
+  /**
+   * @param nSegmentSize
+   *        The number of paged out triggers that are collected in memory
+   *        before they are written as one segment file. Must be &gt; 0.
+   */
+  public void setSegmentSize (final int nSegmentSize)
+  {
+    ValueEnforcer.isGT0 (nSegmentSize, "SegmentSize");
+    m_nSegmentSize = nSegmentSize;
+  }
+
+  /**
+   * @return The number of triggers that are currently paged out.
+   */
+  public int getNumberOfPagedOutTriggers ()
+  {
+    synchronized (m_aLock)
+    {
+      return m_aSpilled.size ();
+    }
+  }
+
+  @Override
+  public void initialize (final IClassLoadHelper loadHelper,
+                          final ISchedulerSignaler schedSignaler) throws SchedulerConfigException
+  {
+    IClassLoadHelper aLoadHelper = loadHelper;
+    if (aLoadHelper == null)
+    {
+      aLoadHelper = new CascadingClassLoadHelper ();
+      aLoadHelper.initialize ();
+    }
+
+    synchronized (m_aLock)
+    {
+      try
+      {
+        if (m_sDirectory == null)
+        {
+          m_aSegmentDir = Files.createTempDirectory ("quartz-triggers");
+          m_bDeleteSegmentDir = true;
+        }
+        else
+        {
+          m_aSegmentDir = Files.createDirectories (Paths.get (m_sDirectory));
+          // Left over from a previous run
+          _deleteSegmentFiles ();
+        }
+      }
+      catch (final IOException ex)
+      {
+        throw new SchedulerConfigException ("Failed to prepare the TieredRAMJobStore directory", ex);
+      }
+      m_aLoadHelper = aLoadHelper;
+    }
+
+    super.initialize (loadHelper, schedSignaler);
+
+    synchronized (m_aLock)
+    {
+      // Triggers loaded from a snapshot
+      _pageOutAll ();
+    }
+
+    m_aStopPrefetcher = new CountDownLatch (1);
+    m_aPrefetcher = new Thread (this::_runPrefetcher, "TieredRAMJobStore-Prefetcher");
+    m_aPrefetcher.setDaemon (true);
+    m_aPrefetcher.start ();
+    LOGGER.info ("TieredRAMJobStore pages out triggers firing later than " +
+                 m_nHorizon +
+                 "ms to '" +
+                 m_aSegmentDir +
+                 "'");
+  }
+
+  @Override
+  public void shutdown ()
+  {
+    super.shutdown ();
+    if (m_aPrefetcher != null)
+    {
+      // Don't interrupt, as this would close file channels in use
+      m_aStopPrefetcher.countDown ();
+      try
+      {
+        m_aPrefetcher.join ();
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+      }
+      m_aPrefetcher = null;
+    }
+
+    synchronized (m_aLock)
+    {
+      if (m_aSegmentDir != null)
+      {
+        _clearPagedOut ();
+        if (m_bDeleteSegmentDir)
+          try
+          {
+            Files.deleteIfExists (m_aSegmentDir);
+          }
+          catch (final IOException ex)
+          {
+            LOGGER.warn ("Failed to delete directory '" + m_aSegmentDir + "'", ex);
+          }
+        m_aSegmentDir = null;
+      }
+    }
+  }
+
+  private void _runPrefetcher ()
+  {
+    while (true)
+    {
+      try
+      {
+        if (m_aStopPrefetcher.await (m_nPrefetchInterval, TimeUnit.MILLISECONDS))
+          break;
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+        break;
+      }
+
+      try
+      {
+        prefetch ();
+      }
+      catch (final RuntimeException ex)
+      {
+        LOGGER.error ("Failed to prefetch paged out triggers", ex);
+      }
+    }
+  }
+
+  /**
+   * Load all paged out triggers that fire within the horizon into memory. This
+   * is regularly called by the background thread.
+   *
+   * @return The number of triggers loaded.
+   */
+  public int prefetch ()
+  {
+    synchronized (m_aLock)
+    {
+      return _loadDue (System.currentTimeMillis () + m_nHorizon);
+    }
+  }
+
+  private boolean _isBeyondHorizon (final long nFireTime)
+  {
+    return m_aSegmentDir != null &&
+           nFireTime != ITrigger.NO_FIRE_TIME &&
+           nFireTime - System.currentTimeMillis () > m_nHorizon;
+  }
+
+  private boolean _isPausedByGroup (@NonNull final SpilledTrigger st)
+  {
+    return m_aPausedTriggerGroups.contains (st.m_aKey.getGroup ()) ||
+           m_aPausedJobGroups.contains (st.m_aJobKey.getGroup ());
+  }
+
+  /**
+   * @return The state the trigger would have in memory. Paused and blocked
+   *         states are not stored but derived from the groups and jobs.
+   */
+  private int _getState (@NonNull final SpilledTrigger st)
+  {
+    final boolean bBlocked = m_aBlockedJobs.contains (st.m_aJobKey);
+    if (_isPausedByGroup (st))
+      return bBlocked ? TriggerWrapper.STATE_PAUSED_BLOCKED : TriggerWrapper.STATE_PAUSED;
+    return bBlocked ? TriggerWrapper.STATE_BLOCKED : TriggerWrapper.STATE_WAITING;
+  }
+
+  private void _pageOut (@NonNull final IOperableTrigger aTrigger,
+                         @NonNull final byte [] aRecord,
+                         @NonNull final JobWrapper jw)
+  {
+    final SpilledTrigger st = new SpilledTrigger (aTrigger.getKey (),
+                                                  jw.m_aKey,
+                                                  aTrigger.getCalendarName (),
+                                                  aTrigger.getNextFireTimeMillis (),
+                                                  aRecord);
+    m_aSpilled.put (st.m_aKey, st);
+    jw.m_nSpilledTriggers++;
+    m_aBuffer.add (st);
+    m_nBufferFireTime = Math.min (m_nBufferFireTime, st.m_nFireTime);
+    if (m_aBuffer.size () >= m_nSegmentSize)
+      _writeSegment ();
+  }
+
+  /**
+   * Page out the in-memory trigger with the provided key, if it is waiting and
+   * fires beyond the horizon.
+   */
+  private void _pageOutIfBeyondHorizon (@NonNull final TriggerKey aTriggerKey)
+  {
+    final TriggerWrapper tw = m_aTriggersByKey.get (aTriggerKey);
+    if (tw == null ||
+        tw.m_nState != TriggerWrapper.STATE_WAITING ||
+        !_isBeyondHorizon (tw.m_aTrigger.getNextFireTimeMillis ()))
+      return;
+
+    final byte [] aRecord;
+    try
+    {
+      aRecord = JobStoreCodec.encodePutTrigger (tw.m_aTrigger, TriggerWrapper.STATE_WAITING);
+    }
+    catch (final JobPersistenceException ex)
+    {
+      // Not supported - keep it in memory
+      return;
+    }
+    super.removeTrigger (aTriggerKey, false);
+    _pageOut (tw.m_aTrigger, aRecord, m_aJobsByKey.get (tw.m_aJobKey));
+  }
+
+  private void _pageOutAll ()
+  {
+    for (final TriggerKey aTriggerKey : m_aTriggersByKey.copyOfKeySet ())
+      _pageOutIfBeyondHorizon (aTriggerKey);
+  }
+
+  /**
+   * Sort all buffered triggers by fire time and write them to a new segment
+   * file. On error they stay buffered.
+   */
+  private void _writeSegment ()
+  {
+    final ICommonsList <SpilledTrigger> aLive = m_aBuffer.getAll (st -> st.m_aRecord != null);
+    if (aLive.isEmpty ())
+    {
+      m_aBuffer.clear ();
+      m_nBufferFireTime = ITrigger.NO_FIRE_TIME;
+      return;
+    }
+    aLive.sort (Comparator.comparingLong (st -> st.m_nFireTime));
+
+    final Path aFile = m_aSegmentDir.resolve ("segment-" + m_nSegmentCounter++ + SEGMENT_FILE_EXTENSION);
+    try (final OutputStream aOS = new BufferedOutputStream (Files.newOutputStream (aFile), 64 * 1024))
+    {
+      for (final SpilledTrigger st : aLive)
+        aOS.write (st.m_aRecord);
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.error ("Failed to write trigger segment '" + aFile + "' - keeping " + aLive.size () + " triggers in memory",
+                    ex);
+      _deleteFile (aFile);
+      return;
+    }
+
+    final Segment aSegment = new Segment (aFile, aLive.toArray (new SpilledTrigger [aLive.size ()]));
+    long nOffset = 0;
+    for (final SpilledTrigger st : aLive)
+    {
+      st.m_aSegment = aSegment;
+      st.m_nOffset = nOffset;
+      st.m_nLength = st.m_aRecord.length;
+      st.m_aRecord = null;
+      nOffset += st.m_nLength;
+    }
+    m_aSegments.add (aSegment);
+    m_aBuffer.clear ();
+    m_nBufferFireTime = ITrigger.NO_FIRE_TIME;
+  }
+
+  @NonNull
+  private static ByteBuffer _read (@NonNull final Path aFile, final long nOffset, final int nLength) throws IOException
+  {
+    try (final FileChannel aChannel = FileChannel.open (aFile, StandardOpenOption.READ))
+    {
+      final ByteBuffer ret = ByteBuffer.allocate (nLength);
+      while (ret.hasRemaining ())
+        if (aChannel.read (ret, nOffset + ret.position ()) < 0)
+          throw new EOFException ("Unexpected end of trigger segment '" + aFile + "'");
+      ret.flip ();
+      return ret;
+    }
+  }
+
+  @NonNull
+  private static ByteBuffer _readRecord (@NonNull final SpilledTrigger st) throws IOException
+  {
+    if (st.m_aRecord != null)
+      return ByteBuffer.wrap (st.m_aRecord);
+    return _read (st.m_aSegment.m_aFile, st.m_nOffset, st.m_nLength);
+  }
+
+  /**
+   * @return A copy of the paged out trigger or <code>null</code> if it cannot
+   *         be read.
+   */
+  @Nullable
+  private IOperableTrigger _readTrigger (@NonNull final SpilledTrigger st)
+  {
+    try
+    {
+      return JobStoreCodec.decodeTrigger (_readRecord (st), m_aLoadHelper);
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.error ("Failed to read paged out trigger " + st.m_aKey, ex);
+      return null;
+    }
+  }
+
+  /**
+   * Remove a trigger from the paged out triggers, without touching the job.
+   */
+  private void _removePagedOut (@NonNull final SpilledTrigger st)
+  {
+    m_aSpilled.remove (st.m_aKey);
+    final JobWrapper jw = m_aJobsByKey.get (st.m_aJobKey);
+    if (jw != null)
+      jw.m_nSpilledTriggers--;
+    final Segment aSegment = st.m_aSegment;
+    if (aSegment != null)
+    {
+      st.m_aSegment = null;
+      if (--aSegment.m_nLive == 0)
+      {
+        m_aSegments.remove (aSegment);
+        _deleteFile (aSegment.m_aFile);
+      }
+    }
+    // Marks it as removed from the buffer
+    st.m_aRecord = null;
+  }
+
+  /**
+   * Move a paged out trigger back into memory.
+   *
+   * @return <code>true</code> if it was loaded, <code>false</code> if it could
+   *         not be read and is lost.
+   */
+  private boolean _load (@NonNull final SpilledTrigger st, @NonNull final ByteBuffer aRecord)
+  {
+    _removePagedOut (st);
+    try
+    {
+      super.storeTrigger (JobStoreCodec.decodeTrigger (aRecord, m_aLoadHelper), false);
+      return true;
+    }
+    catch (final IOException | JobPersistenceException ex)
+    {
+      LOGGER.error ("Failed to load paged out trigger " + st.m_aKey + " - it is removed", ex);
+      return false;
+    }
+  }
+
+  private void _load (@NonNull final SpilledTrigger st)
+  {
+    final ByteBuffer aRecord;
+    try
+    {
+      aRecord = _readRecord (st);
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.error ("Failed to read paged out trigger " + st.m_aKey + " - it is removed", ex);
+      _removePagedOut (st);
+      return;
+    }
+    _load (st, aRecord);
+  }
+
+  /**
+   * Load all paged out triggers firing not later than the provided time into
+   * memory.
+   */
+  private int _loadDue (final long nNoLaterThan)
+  {
+    int ret = 0;
+    if (m_nBufferFireTime <= nNoLaterThan)
+    {
+      long nBufferFireTime = ITrigger.NO_FIRE_TIME;
+      final ICommonsList <SpilledTrigger> aDue = new CommonsArrayList <> ();
+      final Iterator <SpilledTrigger> it = m_aBuffer.iterator ();
+      while (it.hasNext ())
+      {
+        final SpilledTrigger st = it.next ();
+        if (st.m_aRecord == null)
+          it.remove ();
+        else
+          if (st.m_nFireTime <= nNoLaterThan)
+          {
+            aDue.add (st);
+            it.remove ();
+          }
+          else
+            nBufferFireTime = Math.min (nBufferFireTime, st.m_nFireTime);
+      }
+      m_nBufferFireTime = nBufferFireTime;
+      for (final SpilledTrigger st : aDue)
+        if (_load (st, ByteBuffer.wrap (st.m_aRecord)))
+          ret++;
+    }
+
+    for (final Segment aSegment : m_aSegments.getClone ())
+      if (aSegment.getNextFireTime () <= nNoLaterThan)
+        ret += _loadDue (aSegment, nNoLaterThan);
+    return ret;
+  }
+
+  private int _loadDue (@NonNull final Segment aSegment, final long nNoLaterThan)
+  {
+    final SpilledTrigger [] aTriggers = aSegment.m_aTriggers;
+    final int nStart = aSegment.m_nCursor;
+    int nEnd = nStart;
+    while (nEnd < aTriggers.length && aTriggers[nEnd].m_nFireTime <= nNoLaterThan)
+      nEnd++;
+    aSegment.m_nCursor = nEnd;
+
+    // Collect the triggers that were not removed in the meantime
+    final ICommonsList <SpilledTrigger> aDue = new CommonsArrayList <> (nEnd - nStart);
+    for (int i = nStart; i < nEnd; ++i)
+    {
+      if (aTriggers[i].m_aSegment == aSegment)
+        aDue.add (aTriggers[i]);
+      // Only referenced from the segment from now on
+      aTriggers[i] = null;
+    }
+    if (aDue.isEmpty ())
+      return 0;
+
+    // Read all due records with a single read
+    final long nStartOffset = aDue.getFirstOrNull ().m_nOffset;
+    final SpilledTrigger aLast = aDue.getLastOrNull ();
+    final ByteBuffer aRecords;
+    try
+    {
+      aRecords = _read (aSegment.m_aFile,
+                        nStartOffset,
+                        Math.toIntExact (aLast.m_nOffset + aLast.m_nLength - nStartOffset));
+    }
+    catch (final IOException | ArithmeticException ex)
+    {
+      LOGGER.error ("Failed to read trigger segment '" +
+                    aSegment.m_aFile +
+                    "' - " +
+                    aDue.size () +
+                    " paged out triggers are removed",
+                    ex);
+      for (final SpilledTrigger st : aDue)
+        _removePagedOut (st);
+      return 0;
+    }
+
+    int ret = 0;
+    for (final SpilledTrigger st : aDue)
+    {
+      final int nPos = (int) (st.m_nOffset - nStartOffset);
+      if (_load (st, aRecords.duplicate ().limit (nPos + st.m_nLength).position (nPos)))
+        ret++;
+    }
+    return ret;
+  }
+
+  private static void _deleteFile (@NonNull final Path aFile)
+  {
+    try
+    {
+      Files.deleteIfExists (aFile);
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.warn ("Failed to delete trigger segment '" + aFile + "'", ex);
+    }
+  }
+
+  private void _deleteSegmentFiles () throws IOException
+  {
+    try (final DirectoryStream <Path> aFiles = Files.newDirectoryStream (m_aSegmentDir, "*" + SEGMENT_FILE_EXTENSION))
+    {
+      for (final Path aFile : aFiles)
+        _deleteFile (aFile);
+    }
+  }
+
+  /**
+   * Drop all paged out triggers and delete their segment files.
+   */
+  private void _clearPagedOut ()
+  {
+    for (final JobWrapper jw : m_aJobsByKey.values ())
+      jw.m_nSpilledTriggers = 0;
+    m_aSpilled.clear ();
+    m_aBuffer.clear ();
+    m_nBufferFireTime = ITrigger.NO_FIRE_TIME;
+    for (final Segment aSegment : m_aSegments)
+      _deleteFile (aSegment.m_aFile);
+    m_aSegments.clear ();
+  }
+
+  @NonNull
+  private ICommonsSet <String> _getPagedOutGroups ()
+  {
+    final ICommonsSet <String> ret = new CommonsHashSet <> ();
+    for (final TriggerKey aKey : m_aSpilled.keySet ())
+      ret.add (aKey.getGroup ());
+    return ret;
+  }
+
+  @Override
+  SnapshotContent createSnapshotContent () throws JobPersistenceException
+  {
+    // The paged out triggers are already encoded
+    final SnapshotContent ret = super.createSnapshotContent ();
+    for (final SpilledTrigger st : m_aBuffer)
+      if (st.m_aRecord != null)
+      {
+        final byte [] aRecord = st.m_aRecord.clone ();
+        JobStoreCodec.setTriggerState (aRecord, _getState (st));
+        ret.addRecord (aRecord);
+      }
+    for (final Segment aSegment : m_aSegments)
+    {
+      final byte [] aFile;
+      try
+      {
+        aFile = Files.readAllBytes (aSegment.m_aFile);
+      }
+      catch (final IOException ex)
+      {
+        throw new JobPersistenceException ("Failed to read trigger segment '" + aSegment.m_aFile + "'", ex);
+      }
+      for (int i = aSegment.m_nCursor; i < aSegment.m_aTriggers.length; ++i)
+      {
+        final SpilledTrigger st = aSegment.m_aTriggers[i];
+        if (st.m_aSegment == aSegment)
+        {
+          final byte [] aRecord = new byte [st.m_nLength];
+          System.arraycopy (aFile, (int) st.m_nOffset, aRecord, 0, st.m_nLength);
+          JobStoreCodec.setTriggerState (aRecord, _getState (st));
+          ret.addRecord (aRecord);
+        }
+      }
+    }
+    return ret;
+  }
+
+  @Override
+  long bulkLoadSnapshot (@NonNull final Path aFile, @Nullable final IClassLoadHelper aLoadHelper) throws IOException
+  {
+    final long ret = super.bulkLoadSnapshot (aFile, aLoadHelper);
+    _pageOutAll ();
+    return ret;
+  }
+
+  @Override
+  public void clearAllSchedulingData () throws JobPersistenceException
+  {
+    synchronized (m_aLock)
+    {
+      _clearPagedOut ();
+      super.clearAllSchedulingData ();
+    }
+  }
+
+  @Override
+  public void storeTrigger (final IOperableTrigger newTrigger,
+                            final boolean bReplaceExisting) throws JobPersistenceException
+  {
+    final TriggerKey aTriggerKey = newTrigger.getKey ();
+    synchronized (m_aLock)
+    {
+      final SpilledTrigger st = m_aSpilled.get (aTriggerKey);
+      if (st != null)
+      {
+        if (!bReplaceExisting)
+          throw new ObjectAlreadyExistsException (newTrigger);
+        _removePagedOut (st);
+      }
+
+      byte [] aRecord = null;
+      if (_isBeyondHorizon (newTrigger.getNextFireTimeMillis ()))
+        try
+        {
+          aRecord = JobStoreCodec.encodePutTrigger (newTrigger, TriggerWrapper.STATE_WAITING);
+        }
+        catch (final JobPersistenceException ex)
+        {
+          // Not supported - keep it in memory
+        }
+      if (aRecord == null)
+      {
+        super.storeTrigger (newTrigger, bReplaceExisting);
+        return;
+      }
+
+      if (m_aTriggersByKey.containsKey (aTriggerKey))
+      {
+        if (!bReplaceExisting)
+          throw new ObjectAlreadyExistsException (newTrigger);
+        super.removeTrigger (aTriggerKey, false);
+      }
+
+      final JobWrapper jw = m_aJobsByKey.get (newTrigger.getJobKey ());
+      if (jw == null)
+      {
+        throw new JobPersistenceException ("The job (" +
+                                           newTrigger.getJobKey () +
+                                           ") referenced by the trigger does not exist.");
+      }
+      _pageOut (newTrigger, aRecord, jw);
+    }
+  }
+
+  @Override
+  protected boolean removeTrigger (final TriggerKey key, final boolean removeOrphanedJob)
+  {
+    synchronized (m_aLock)
+    {
+      final SpilledTrigger st = m_aSpilled.get (key);
+      if (st == null)
+        return super.removeTrigger (key, removeOrphanedJob);
+
+      _removePagedOut (st);
+      if (removeOrphanedJob)
+      {
+        final JobWrapper jw = m_aJobsByKey.get (st.m_aJobKey);
+        if (jw != null && !jw.hasTriggers () && !jw.getJobDetail ().isDurable ())
+        {
+          if (removeJob (jw.m_aKey))
+          {
+            m_aSignaler.notifySchedulerListenersJobDeleted (jw.m_aKey);
+          }
+        }
+      }
+      return true;
+    }
+  }
+
+  @Override
+  public boolean replaceTrigger (final TriggerKey triggerKey,
+                                 final IOperableTrigger newTrigger) throws JobPersistenceException
+  {
+    synchronized (m_aLock)
+    {
+      final SpilledTrigger st = m_aSpilled.get (triggerKey);
+      if (st != null)
+        _load (st);
+      return super.replaceTrigger (triggerKey, newTrigger);
+    }
+  }
+
+  @Override
+  public IOperableTrigger retrieveTrigger (final TriggerKey triggerKey)
+  {
+    synchronized (m_aLock)
+    {
+      final SpilledTrigger st = m_aSpilled.get (triggerKey);
+      return st != null ? _readTrigger (st) : super.retrieveTrigger (triggerKey);
+    }
+  }
+
+  @Override
+  public ITrigger retrieveTriggerSnapshot (final TriggerKey triggerKey)
+  {
+    synchronized (m_aLock)
+    {
+      // A paged out trigger is decoded into a private instance anyway
+      final SpilledTrigger st = m_aSpilled.get (triggerKey);
+      return st != null ? _readTrigger (st) : super.retrieveTriggerSnapshot (triggerKey);
+    }
+  }
+
+  @Override
+  public boolean checkExists (final TriggerKey triggerKey) throws JobPersistenceException
+  {
+    synchronized (m_aLock)
+    {
+      return m_aSpilled.containsKey (triggerKey) || super.checkExists (triggerKey);
+    }
+  }
+
+  @Override
+  public ETriggerState getTriggerState (final TriggerKey triggerKey) throws JobPersistenceException
+  {
+    synchronized (m_aLock)
+    {
+      final SpilledTrigger st = m_aSpilled.get (triggerKey);
+      if (st == null)
+        return super.getTriggerState (triggerKey);
+
+      switch (_getState (st))
+      {
+        case TriggerWrapper.STATE_PAUSED:
+        case TriggerWrapper.STATE_PAUSED_BLOCKED:
+          return ETriggerState.PAUSED;
+        case TriggerWrapper.STATE_BLOCKED:
+          return ETriggerState.BLOCKED;
+        default:
+          return ETriggerState.NORMAL;
+      }
+    }
+  }
+
+  @Override
+  public boolean removeCalendar (final String calName) throws JobPersistenceException
+  {
+    synchronized (m_aLock)
+    {
+      for (final SpilledTrigger st : m_aSpilled.values ())
+        if (calName.equals (st.m_sCalendarName))
+          throw new JobPersistenceException ("Calender cannot be removed if it referenced by a Trigger!");
+      return super.removeCalendar (calName);
+    }
+  }
+
+  @Override
+  public int getNumberOfTriggers ()
+  {
+    synchronized (m_aLock)
+    {
+      return super.getNumberOfTriggers () + m_aSpilled.size ();
+    }
+  }
+
+  @Override
+  public ICommonsSet <TriggerKey> getTriggerKeys (final GroupMatcher <TriggerKey> matcher)
+  {
+    synchronized (m_aLock)
+    {
+      final ICommonsSet <TriggerKey> ret = super.getTriggerKeys (matcher);
+      for (final TriggerKey aKey : m_aSpilled.keySet ())
+        if (matcher.isMatch (aKey))
+          ret.add (aKey);
+      return ret;
+    }
+  }
+
+  @Override
+  public ICommonsList <String> getTriggerGroupNames ()
+  {
+    synchronized (m_aLock)
+    {
+      final ICommonsList <String> ret = super.getTriggerGroupNames ();
+      for (final String sGroup : _getPagedOutGroups ())
+        if (!m_aTriggersByGroup.containsKey (sGroup))
+          ret.add (sGroup);
+      return ret;
+    }
+  }
+
+  @Override
+  public ICommonsList <IOperableTrigger> getTriggersForJob (final JobKey jobKey)
+  {
+    synchronized (m_aLock)
+    {
+      final ICommonsList <IOperableTrigger> ret = super.getTriggersForJob (jobKey);
+      final JobWrapper jw = m_aJobsByKey.get (jobKey);
+      if (jw != null && jw.m_nSpilledTriggers > 0)
+        for (final SpilledTrigger st : m_aSpilled.values ())
+          if (st.m_aJobKey.equals (jobKey))
+          {
+            final IOperableTrigger aTrigger = _readTrigger (st);
+            if (aTrigger != null)
+              ret.add (aTrigger);
+          }
+      return ret;
+    }
+  }
+
+  @Override
+  public ICommonsList <ITrigger> getTriggerSnapshotsForJob (final JobKey jobKey)
+  {
+    synchronized (m_aLock)
+    {
+      final ICommonsList <ITrigger> ret = super.getTriggerSnapshotsForJob (jobKey);
+      final JobWrapper jw = m_aJobsByKey.get (jobKey);
+      if (jw != null && jw.m_nSpilledTriggers > 0)
+        for (final SpilledTrigger st : m_aSpilled.values ())
+          if (st.m_aJobKey.equals (jobKey))
+          {
+            final IOperableTrigger aTrigger = _readTrigger (st);
+            if (aTrigger != null)
+              ret.add (aTrigger);
+          }
+      return ret;
+    }
+  }
+
+  @Override
+  public ICommonsList <ITrigger> getTriggerSnapshots (final GroupMatcher <TriggerKey> matcher)
+  {
+    synchronized (m_aLock)
+    {
+      final ICommonsList <ITrigger> ret = super.getTriggerSnapshots (matcher);
+      for (final SpilledTrigger st : m_aSpilled.values ())
+        if (matcher.isMatch (st.m_aKey))
+        {
+          final IOperableTrigger aTrigger = _readTrigger (st);
+          if (aTrigger != null)
+            ret.add (aTrigger);
+        }
+      return ret;
+    }
+  }
+
+  @Override
+  protected ICommonsList <TriggerWrapper> getTriggerWrappersForCalendar (final String calName)
+  {
+    synchronized (m_aLock)
+    {
+      // The fire times of these triggers may be updated
+      for (final SpilledTrigger st : m_aSpilled.copyOfValues ())
+        if (calName.equals (st.m_sCalendarName))
+          _load (st);
+      return super.getTriggerWrappersForCalendar (calName);
+    }
+  }
+
+  @Override
+  public void pauseTrigger (final TriggerKey triggerKey)
+  {
+    synchronized (m_aLock)
+    {
+      final SpilledTrigger st = m_aSpilled.get (triggerKey);
+      if (st != null)
+      {
+        // Paused on loading
+        if (_isPausedByGroup (st))
+          return;
+        _load (st);
+      }
+      super.pauseTrigger (triggerKey);
+    }
+  }
+
+  @Override
+  public ICommonsList <String> pauseTriggers (final GroupMatcher <TriggerKey> matcher)
+  {
+    synchronized (m_aLock)
+    {
+      final ICommonsList <String> ret = super.pauseTriggers (matcher);
+      final EStringOperatorName eOperator = matcher.getCompareWithOperator ();
+      if (eOperator != EStringOperatorName.EQUALS)
+      {
+        // The groups that only contain paged out triggers
+        for (final String sGroup : _getPagedOutGroups ())
+          if (!m_aTriggersByGroup.containsKey (sGroup) && eOperator.evaluate (sGroup, matcher.getCompareToValue ()))
+            ret.addAll (super.pauseTriggers (GroupMatcher.triggerGroupEquals (sGroup)));
+      }
+      return ret;
+    }
+  }
+
+  @Override
+  public ICommonsList <IOperableTrigger> acquireNextTriggers (final long noLaterThan,
+                                                              final int maxCount,
+                                                              final long timeWindow)
+  {
+    synchronized (m_aLock)
+    {
+      // Never rely on the prefetcher for triggers that are due
+      _loadDue (noLaterThan + timeWindow);
+      return super.acquireNextTriggers (noLaterThan, maxCount, timeWindow);
+    }
+  }
+
+  @Override
+  public void triggeredJobComplete (final IOperableTrigger trigger,
+                                    final IJobDetail jobDetail,
+                                    final ECompletedExecutionInstruction triggerInstCode)
+  {
+    synchronized (m_aLock)
+    {
+      super.triggeredJobComplete (trigger, jobDetail, triggerInstCode);
+      _pageOutIfBeyondHorizon (trigger.getKey ());
+    }
+  }
+}
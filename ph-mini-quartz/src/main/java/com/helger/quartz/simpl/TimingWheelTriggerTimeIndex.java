@@ -0,0 +1,278 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.simpl;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.CommonsTreeSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsNavigableSet;
+import com.helger.collection.commons.ICommonsSet;
+import com.helger.quartz.ITrigger;
+
+/**
+ * A {@link ITriggerTimeIndex} based on a hierarchical timing wheel with an
+ * overflow heap for triggers that are too far in the future (or that have no
+ * next fire time at all).<br>
+ * The wheel has {@value #LEVELS} levels with {@value #SLOTS} slots each and a
+ * resolution of one millisecond, so it covers a range of 2^36 ms (roughly 795
+ * days) relative to the current base time. Adding and removing a trigger is
+ * O(1) (only the buckets of the lowest level are sorted), and each trigger is
+ * cascaded at most once per level before it becomes due. Triggers beyond the
+ * range of the wheel are kept in a sorted overflow set, which is only touched
+ * when the wheel runs empty.<br>
+ * The sort key (fire time and priority) is recorded in the
+ * {@link TriggerWrapper} when it is added, so removal does not depend on the
+ * trigger not being modified while being indexed.
+ *
+ * @author Philip Helger
+ */
+final class TimingWheelTriggerTimeIndex implements ITriggerTimeIndex
+{
+  static final int SLOT_BITS = 6;
+  static final int SLOTS = 1 << SLOT_BITS;
+  static final int LEVELS = 6;
+  private static final int SLOT_MASK = SLOTS - 1;
+  private static final int WHEEL_BITS = SLOT_BITS * LEVELS;
+
+  /** Slot index used for the overflow set */
+  private static final int SLOT_OVERFLOW = LEVELS * SLOTS;
+
+  /**
+   * Compares the recorded sort key of the wrappers, with the same semantics as
+   * {@link com.helger.quartz.TriggerTimeComparator}
+   */
+  static final Comparator <TriggerWrapper> INDEXED_ORDER = (aTW1, aTW2) -> {
+    int ret = Long.compare (aTW1.m_nIndexedTime, aTW2.m_nIndexedTime);
+    if (ret == 0)
+    {
+      ret = aTW2.m_nIndexedPriority - aTW1.m_nIndexedPriority;
+      if (ret == 0)
+        ret = aTW1.m_aKey.compareTo (aTW2.m_aKey);
+    }
+    return ret;
+  };
+
+  // One bit per non-empty slot for each level
+  private final long [] m_aOccupied = new long [LEVELS];
+  // Level 0 buckets are sorted, the others are not
+  @SuppressWarnings ("unchecked")
+  private final ICommonsNavigableSet <TriggerWrapper> [] m_aLevel0 = new ICommonsNavigableSet [SLOTS];
+  @SuppressWarnings ("unchecked")
+  private final ICommonsSet <TriggerWrapper> [] [] m_aUpper = new ICommonsSet [LEVELS] [];
+  private final ICommonsNavigableSet <TriggerWrapper> m_aOverflow = new CommonsTreeSet <> (INDEXED_ORDER);
+  // The time of the wheel - it never moves backwards
+  private long m_nBase = 0;
+  private int m_nSize = 0;
+
+  TimingWheelTriggerTimeIndex ()
+  {
+    for (int i = 0; i < SLOTS; ++i)
+      m_aLevel0[i] = new CommonsTreeSet <> (INDEXED_ORDER);
+    for (int nLevel = 1; nLevel < LEVELS; ++nLevel)
+    {
+      m_aUpper[nLevel] = new ICommonsSet [SLOTS];
+      for (int i = 0; i < SLOTS; ++i)
+        m_aUpper[nLevel][i] = new CommonsHashSet <> ();
+    }
+  }
+
+  private void _place (@NonNull final TriggerWrapper aTW)
+  {
+    final long nTime = aTW.m_nIndexedTime;
+    if (nTime <= m_nBase)
+    {
+      // Due (or overdue) - put it in the current slot
+      final int nSlot = (int) (m_nBase & SLOT_MASK);
+      m_aLevel0[nSlot].add (aTW);
+      m_aOccupied[0] |= 1L << nSlot;
+      aTW.m_nIndexedSlot = nSlot;
+      return;
+    }
+
+    final long nDiff = nTime ^ m_nBase;
+    if ((nDiff >>> WHEEL_BITS) != 0)
+    {
+      m_aOverflow.add (aTW);
+      aTW.m_nIndexedSlot = SLOT_OVERFLOW;
+      return;
+    }
+
+    // The highest differing digit determines the level
+    final int nLevel = (63 - Long.numberOfLeadingZeros (nDiff)) / SLOT_BITS;
+    final int nSlot = (int) ((nTime >>> (nLevel * SLOT_BITS)) & SLOT_MASK);
+    if (nLevel == 0)
+      m_aLevel0[nSlot].add (aTW);
+    else
+      m_aUpper[nLevel][nSlot].add (aTW);
+    m_aOccupied[nLevel] |= 1L << nSlot;
+    aTW.m_nIndexedSlot = nLevel * SLOTS + nSlot;
+  }
+
+  public boolean add (@NonNull final TriggerWrapper aTW)
+  {
+    if (aTW.m_nIndexedSlot != TriggerWrapper.NOT_INDEXED)
+      return false;
+
+    // NO_FIRE_TIME sorts after every real fire time
+    aTW.m_nIndexedTime = aTW.m_aTrigger.getNextFireTimeMillis ();
+    aTW.m_nIndexedPriority = aTW.m_aTrigger.getPriority ();
+    _place (aTW);
+    m_nSize++;
+    return true;
+  }
+
+  public boolean remove (@NonNull final TriggerWrapper aTW)
+  {
+    final int nIndexedSlot = aTW.m_nIndexedSlot;
+    if (nIndexedSlot == TriggerWrapper.NOT_INDEXED)
+      return false;
+
+    if (nIndexedSlot == SLOT_OVERFLOW)
+      m_aOverflow.remove (aTW);
+    else
+    {
+      final int nLevel = nIndexedSlot / SLOTS;
+      final int nSlot = nIndexedSlot % SLOTS;
+      final boolean bEmpty;
+      if (nLevel == 0)
+      {
+        final ICommonsNavigableSet <TriggerWrapper> aBucket = m_aLevel0[nSlot];
+        aBucket.remove (aTW);
+        bEmpty = aBucket.isEmpty ();
+      }
+      else
+      {
+        final ICommonsSet <TriggerWrapper> aBucket = m_aUpper[nLevel][nSlot];
+        aBucket.remove (aTW);
+        bEmpty = aBucket.isEmpty ();
+      }
+      if (bEmpty)
+        m_aOccupied[nLevel] &= ~(1L << nSlot);
+    }
+    aTW.m_nIndexedSlot = TriggerWrapper.NOT_INDEXED;
+    m_nSize--;
+    return true;
+  }
+
+  @Nullable
+  public TriggerWrapper first ()
+  {
+    while (true)
+    {
+      final long nOccupied0 = m_aOccupied[0];
+      if (nOccupied0 != 0)
+        return m_aLevel0[Long.numberOfTrailingZeros (nOccupied0)].first ();
+
+      // Advance the base to the first occupied slot of the lowest non-empty
+      // level and cascade the content of that slot to the lower levels
+      boolean bCascaded = false;
+      for (int nLevel = 1; nLevel < LEVELS; ++nLevel)
+      {
+        final long nOccupied = m_aOccupied[nLevel];
+        if (nOccupied != 0)
+        {
+          final int nSlot = Long.numberOfTrailingZeros (nOccupied);
+          final int nShift = (nLevel + 1) * SLOT_BITS;
+          m_nBase = ((m_nBase >>> nShift) << nShift) | ((long) nSlot << (nLevel * SLOT_BITS));
+
+          final ICommonsSet <TriggerWrapper> aBucket = m_aUpper[nLevel][nSlot];
+          final ICommonsList <TriggerWrapper> aCascade = new CommonsArrayList <> (aBucket);
+          aBucket.clear ();
+          m_aOccupied[nLevel] &= ~(1L << nSlot);
+          for (final TriggerWrapper aTW : aCascade)
+            _place (aTW);
+          bCascaded = true;
+          break;
+        }
+      }
+      if (bCascaded)
+        continue;
+
+      // The wheel is empty
+      if (m_aOverflow.isEmpty ())
+        return null;
+
+      final TriggerWrapper aFirst = m_aOverflow.first ();
+      if (aFirst.m_nIndexedTime == ITrigger.NO_FIRE_TIME)
+      {
+        // Only triggers without a next fire time are left
+        return aFirst;
+      }
+
+      // Move the base to the first overflow entry and take over everything
+      // that is now within the range of the wheel
+      m_nBase = aFirst.m_nIndexedTime;
+      while (!m_aOverflow.isEmpty ())
+      {
+        final TriggerWrapper aTW = m_aOverflow.first ();
+        if (((aTW.m_nIndexedTime ^ m_nBase) >>> WHEEL_BITS) != 0)
+          break;
+        m_aOverflow.pollFirst ();
+        _place (aTW);
+      }
+    }
+  }
+
+  public int size ()
+  {
+    return m_nSize;
+  }
+
+  public void clear ()
+  {
+    for (final ICommonsNavigableSet <TriggerWrapper> aBucket : m_aLevel0)
+    {
+      for (final TriggerWrapper aTW : aBucket)
+        aTW.m_nIndexedSlot = TriggerWrapper.NOT_INDEXED;
+      aBucket.clear ();
+    }
+    for (int nLevel = 1; nLevel < LEVELS; ++nLevel)
+      for (final ICommonsSet <TriggerWrapper> aBucket : m_aUpper[nLevel])
+      {
+        for (final TriggerWrapper aTW : aBucket)
+          aTW.m_nIndexedSlot = TriggerWrapper.NOT_INDEXED;
+        aBucket.clear ();
+      }
+    for (final TriggerWrapper aTW : m_aOverflow)
+      aTW.m_nIndexedSlot = TriggerWrapper.NOT_INDEXED;
+    m_aOverflow.clear ();
+    Arrays.fill (m_aOccupied, 0L);
+    m_nSize = 0;
+  }
+
+  @NonNull
+  public ICommonsList <TriggerWrapper> getAllSorted ()
+  {
+    final ICommonsNavigableSet <TriggerWrapper> ret = new CommonsTreeSet <> (INDEXED_ORDER);
+    for (final ICommonsNavigableSet <TriggerWrapper> aBucket : m_aLevel0)
+      ret.addAll (aBucket);
+    for (int nLevel = 1; nLevel < LEVELS; ++nLevel)
+      for (final ICommonsSet <TriggerWrapper> aBucket : m_aUpper[nLevel])
+        ret.addAll (aBucket);
+    ret.addAll (m_aOverflow);
+    return new CommonsArrayList <> (ret);
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.simpl;
+
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.SortedSet;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsTreeSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsNavigableSet;
+
+/**
+ * The default {@link ITriggerTimeIndex} based on a red-black tree. All
+ * operations are O(log n).
+ *
+ * @author Philip Helger
+ */
+final class TreeSetTriggerTimeIndex implements ITriggerTimeIndex
+{
+  private final ICommonsNavigableSet <TriggerWrapper> m_aSet = new CommonsTreeSet <> (new TriggerWrapperComparator ());
+
+  public boolean add (@NonNull final TriggerWrapper aTW)
+  {
+    return m_aSet.add (aTW);
+  }
+
+  /**
+   * Read-only {@link SortedSet} view on an already sorted list. Passing it to
+   * an empty {@link java.util.TreeSet} builds the tree bottom-up in linear time
+   * instead of inserting the elements one by one.
+   */
+  private static final class SortedListView extends AbstractSet <TriggerWrapper> implements SortedSet <TriggerWrapper>
+  {
+    private final List <TriggerWrapper> m_aList;
+    private final Comparator <? super TriggerWrapper> m_aComparator;
+
+    SortedListView (@NonNull final List <TriggerWrapper> aList,
+                    @NonNull final Comparator <? super TriggerWrapper> aComparator)
+    {
+      m_aList = aList;
+      m_aComparator = aComparator;
+    }
+
+    @Override
+    public Iterator <TriggerWrapper> iterator ()
+    {
+      return Collections.unmodifiableList (m_aList).iterator ();
+    }
+
+    @Override
+    public int size ()
+    {
+      return m_aList.size ();
+    }
+
+    public Comparator <? super TriggerWrapper> comparator ()
+    {
+      return m_aComparator;
+    }
+
+    public SortedSet <TriggerWrapper> subSet (final TriggerWrapper aFrom, final TriggerWrapper aTo)
+    {
+      throw new UnsupportedOperationException ();
+    }
+
+    public SortedSet <TriggerWrapper> headSet (final TriggerWrapper aTo)
+    {
+      throw new UnsupportedOperationException ();
+    }
+
+    public SortedSet <TriggerWrapper> tailSet (final TriggerWrapper aFrom)
+    {
+      throw new UnsupportedOperationException ();
+    }
+
+    public TriggerWrapper first ()
+    {
+      return m_aList.get (0);
+    }
+
+    public TriggerWrapper last ()
+    {
+      return m_aList.get (m_aList.size () - 1);
+    }
+  }
+
+  @Override
+  public void addAll (@NonNull final Iterable <TriggerWrapper> aTWs)
+  {
+    if (m_aSet.isEmpty ())
+    {
+      // Sort once and let the tree be built in linear time
+      final ICommonsList <TriggerWrapper> aSorted = new CommonsArrayList <> (aTWs);
+      aSorted.sort (m_aSet.comparator ());
+      m_aSet.addAll (new SortedListView (aSorted, m_aSet.comparator ()));
+    }
+    else
+      ITriggerTimeIndex.super.addAll (aTWs);
+  }
+
+  public boolean remove (@NonNull final TriggerWrapper aTW)
+  {
+    return m_aSet.remove (aTW);
+  }
+
+  @Nullable
+  public TriggerWrapper first ()
+  {
+    return m_aSet.isEmpty () ? null : m_aSet.first ();
+  }
+
+  @Nullable
+  public TriggerWrapper pollFirst ()
+  {
+    return m_aSet.pollFirst ();
+  }
+
+  public int size ()
+  {
+    return m_aSet.size ();
+  }
+
+  public void clear ()
+  {
+    m_aSet.clear ();
+  }
+
+  @NonNull
+  public ICommonsList <TriggerWrapper> getAllSorted ()
+  {
+    return new CommonsArrayList <> (m_aSet);
+  }
+}
@@ -0,0 +1,341 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.simpl;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.quartz.SchedulerConfigException;
+import com.helger.quartz.spi.IThreadPool;
+
+/**
+ * <p>
+ * An {@link IThreadPool} that runs each <code>Runnable</code> in a new virtual
+ * thread. The number of concurrently running <code>Runnable</code>s is limited
+ * by a semaphore with {@link #getThreadCount()} permits, so this pool is well
+ * suited for a large number of jobs that mostly block on I/O.
+ * </p>
+ * <p>
+ * Virtual threads require Java 21 or later. On older runtimes a new platform
+ * thread is created for each <code>Runnable</code> instead, which keeps the
+ * same semantics but loses the footprint benefits.
+ * </p>
+ * <p>
+ * Use it via <code>org.quartz.threadPool.class</code>. The concurrency limit is
+ * configured via <code>org.quartz.threadPool.threadCount</code>.
+ * </p>
+ *
+ * @author Philip Helger
+ */
+public class VirtualThreadPool implements IThreadPool
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (VirtualThreadPool.class);
+
+  // Used to wake up all waiting threads on shutdown
+  private static final int SHUTDOWN_PERMITS = Integer.MAX_VALUE / 2;
+
+  private int m_nCount = -1;
+  private int m_nPrio = Thread.NORM_PRIORITY;
+  private boolean m_bInheritLoader = false;
+  private String m_sThreadNamePrefix;
+  private String m_sSchedulerInstanceName;
+
+  private Semaphore m_aPermits;
+  private ThreadFactory m_aThreadFactory;
+  private boolean m_bVirtual;
+  private volatile boolean m_bIsShutdown = false;
+
+  /**
+   * Create a new (unconfigured) <code>VirtualThreadPool</code>.
+   *
+   * @see #setThreadCount(int)
+   */
+  public VirtualThreadPool ()
+  {}
+
+  /**
+   * Create a new <code>VirtualThreadPool</code> with the specified concurrency
+   * limit.
+   *
+   * @param threadCount
+   *        the maximum number of concurrently running <code>Runnable</code>s,
+   *        must be &gt; 0.
+   */
+  public VirtualThreadPool (final int threadCount)
+  {
+    setThreadCount (threadCount);
+  }
+
+  public int getPoolSize ()
+  {
+    return getThreadCount ();
+  }
+
+  /**
+   * Set the maximum number of concurrently running <code>Runnable</code>s - has
+   * no effect after <code>initialize()</code> has been called.
+   *
+   * @param nCount
+   *        The concurrency limit. Must be &gt; 0.
+   */
+  public final void setThreadCount (final int nCount)
+  {
+    m_nCount = nCount;
+  }
+
+  /**
+   * @return The maximum number of concurrently running <code>Runnable</code>s.
+   */
+  public final int getThreadCount ()
+  {
+    return m_nCount;
+  }
+
+  /**
+   * Set the thread priority. Only used if platform threads are created,
+   * because virtual threads always have normal priority.
+   *
+   * @param prio
+   *        Thread priority
+   */
+  public final void setThreadPriority (final int prio)
+  {
+    m_nPrio = prio;
+  }
+
+  public final int getThreadPriority ()
+  {
+    return m_nPrio;
+  }
+
+  public final void setThreadNamePrefix (@Nullable final String prfx)
+  {
+    m_sThreadNamePrefix = prfx;
+  }
+
+  @Nullable
+  public final String getThreadNamePrefix ()
+  {
+    return m_sThreadNamePrefix;
+  }
+
+  public final boolean isThreadsInheritContextClassLoaderOfInitializingThread ()
+  {
+    return m_bInheritLoader;
+  }
+
+  public final void setThreadsInheritContextClassLoaderOfInitializingThread (final boolean inheritLoader)
+  {
+    m_bInheritLoader = inheritLoader;
+  }
+
+  /**
+   * @return <code>true</code> if this pool runs its <code>Runnable</code>s in
+   *         virtual threads, <code>false</code> if the runtime does not support
+   *         virtual threads and platform threads are used. Only meaningful
+   *         after {@link #initialize()}.
+   */
+  public final boolean isVirtual ()
+  {
+    return m_bVirtual;
+  }
+
+  public void setInstanceId (final String schedInstId)
+  {}
+
+  public void setInstanceName (final String schedName)
+  {
+    m_sSchedulerInstanceName = schedName;
+  }
+
+  /**
+   * Create a factory for virtual threads, using reflection so that this class
+   * can be compiled and used on runtimes before Java 21.
+   *
+   * @param sNamePrefix
+   *        Thread name prefix. May not be <code>null</code>.
+   * @return <code>null</code> if virtual threads are not supported.
+   */
+  @Nullable
+  static ThreadFactory createVirtualThreadFactory (@NonNull final String sNamePrefix)
+  {
+    try
+    {
+      final Object aBuilder = Thread.class.getMethod ("ofVirtual").invoke (null);
+      final Class <?> aBuilderClass = Class.forName ("java.lang.Thread$Builder");
+      final Method aName = aBuilderClass.getMethod ("name", String.class, long.class);
+      final Object aNamedBuilder = aName.invoke (aBuilder, sNamePrefix, Long.valueOf (1));
+      return (ThreadFactory) aBuilderClass.getMethod ("factory").invoke (aNamedBuilder);
+    }
+    catch (final ReflectiveOperationException | RuntimeException ex)
+    {
+      // Not Java 21+ or virtual threads are a disabled preview feature
+      return null;
+    }
+  }
+
+  @NonNull
+  private ThreadFactory _createPlatformThreadFactory (@NonNull final String sNamePrefix)
+  {
+    final AtomicLong aCounter = new AtomicLong (0);
+    final ClassLoader aContextClassLoader = isThreadsInheritContextClassLoaderOfInitializingThread () ? Thread.currentThread ()
+                                                                                                              .getContextClassLoader ()
+                                                                                                    : null;
+    final int nPrio = getThreadPriority ();
+    return r -> {
+      final Thread t = new Thread (r, sNamePrefix + aCounter.incrementAndGet ());
+      t.setPriority (nPrio);
+      if (aContextClassLoader != null)
+        t.setContextClassLoader (aContextClassLoader);
+      return t;
+    };
+  }
+
+  public void initialize () throws SchedulerConfigException
+  {
+    // already initialized...
+    if (m_aPermits != null)
+      return;
+
+    if (m_nCount <= 0)
+      throw new SchedulerConfigException ("Thread count must be > 0 but is " + m_nCount);
+
+    if (m_nPrio < Thread.MIN_PRIORITY || m_nPrio > Thread.MAX_PRIORITY)
+      throw new SchedulerConfigException ("Thread priority must be <= " +
+                                          Thread.MIN_PRIORITY +
+                                          " and <= " +
+                                          Thread.MAX_PRIORITY);
+
+    String sThreadPrefix = getThreadNamePrefix ();
+    if (sThreadPrefix == null)
+      sThreadPrefix = m_sSchedulerInstanceName + "_VirtualWorker-";
+
+    m_aThreadFactory = createVirtualThreadFactory (sThreadPrefix);
+    m_bVirtual = m_aThreadFactory != null;
+    if (!m_bVirtual)
+    {
+      LOGGER.warn ("Virtual threads are not supported by this Java runtime - falling back to platform threads");
+      m_aThreadFactory = _createPlatformThreadFactory (sThreadPrefix);
+    }
+    m_aPermits = new Semaphore (m_nCount);
+
+    LOGGER.info ("Initialized " + (m_bVirtual ? "virtual" : "platform") + " thread pool with a limit of " + m_nCount);
+  }
+
+  private void _start (@NonNull final Runnable aRunnable, final boolean bReleasePermit)
+  {
+    final Thread t = m_aThreadFactory.newThread ( () -> {
+      try
+      {
+        aRunnable.run ();
+      }
+      catch (final Throwable throwableInRunnable)
+      {
+        LOGGER.error ("Error while executing the Runnable: ", throwableInRunnable);
+      }
+      finally
+      {
+        if (bReleasePermit)
+          m_aPermits.release ();
+      }
+    });
+    t.start ();
+  }
+
+  /**
+   * Run the given <code>Runnable</code> object in a new thread, as soon as the
+   * concurrency limit allows it. If the thread pool was shut down, the Runnable
+   * is executed immediately.
+   *
+   * @param aRunnable
+   *        the <code>Runnable</code> to be added.
+   */
+  public boolean runInThread (final Runnable aRunnable)
+  {
+    if (aRunnable == null)
+      return false;
+
+    if (m_bIsShutdown)
+    {
+      // Same as SimpleThreadPool - run the last job anyway
+      _start (aRunnable, false);
+      return true;
+    }
+
+    m_aPermits.acquireUninterruptibly ();
+    try
+    {
+      _start (aRunnable, true);
+    }
+    catch (final RuntimeException | Error ex)
+    {
+      m_aPermits.release ();
+      throw ex;
+    }
+    return true;
+  }
+
+  public int blockForAvailableThreads ()
+  {
+    if (m_bIsShutdown)
+      return 0;
+
+    // Parks until a permit is available - no polling
+    m_aPermits.acquireUninterruptibly ();
+    m_aPermits.release ();
+    if (m_bIsShutdown)
+      return 0;
+    return Math.max (1, Math.min (m_aPermits.availablePermits (), m_nCount));
+  }
+
+  public void shutdown (final boolean waitForJobsToComplete)
+  {
+    if (m_bIsShutdown)
+      return;
+
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("Shutting down threadpool...");
+    m_bIsShutdown = true;
+
+    // case where the pool wasn't even initialize()ed
+    if (m_aPermits == null)
+      return;
+
+    if (waitForJobsToComplete)
+    {
+      // All permits are back, when all Runnables are done
+      m_aPermits.acquireUninterruptibly (m_nCount);
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("No executing jobs remaining, all threads stopped.");
+    }
+
+    // Wake up everybody still waiting for a permit
+    m_aPermits.release (SHUTDOWN_PERMITS);
+
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("Shutdown of threadpool complete.");
+  }
+}
@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.ICommonsCollection;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsSet;
@@ -166,6 +167,23 @@ public interface IJobStore
    */
   IJobDetail retrieveJob (JobKey jobKey) throws JobPersistenceException;
 
+  /**
+   * Retrieve a read-only view of the <code>{@link com.helger.quartz.IJobDetail}</code>
+   * for the given <code>{@link com.helger.quartz.IJob}</code>. In contrast to
+   * {@link #retrieveJob(JobKey)} the stored job detail is not necessarily
+   * cloned. Use {@link IJobDetail#getClone()} on the result to modify it.
+   * <p>
+   * The default implementation falls back to {@link #retrieveJob(JobKey)}.
+   * </p>
+   *
+   * @return The desired <code>Job</code>, or null if there is no match.
+   * @see com.helger.quartz.impl.JobDetailSnapshot
+   */
+  default IJobDetail retrieveJobSnapshot (final JobKey jobKey) throws JobPersistenceException
+  {
+    return retrieveJob (jobKey);
+  }
+
   /**
    * Store the given <code>{@link com.helger.quartz.ITrigger}</code>.
    *
@@ -223,6 +241,25 @@ public interface IJobStore
    */
   IOperableTrigger retrieveTrigger (TriggerKey triggerKey) throws JobPersistenceException;
 
+  /**
+   * Retrieve an immutable snapshot of the given
+   * <code>{@link com.helger.quartz.ITrigger}</code>. In contrast to
+   * {@link #retrieveTrigger(TriggerKey)} the result is not necessarily an
+   * {@link IOperableTrigger}. Use {@link ITrigger#getClone()} on the result to
+   * modify it.
+   * <p>
+   * The default implementation falls back to
+   * {@link #retrieveTrigger(TriggerKey)}.
+   * </p>
+   *
+   * @return The desired <code>Trigger</code>, or null if there is no match.
+   * @see com.helger.quartz.impl.TriggerSnapshot
+   */
+  default ITrigger retrieveTriggerSnapshot (final TriggerKey triggerKey) throws JobPersistenceException
+  {
+    return retrieveTrigger (triggerKey);
+  }
+
   /**
    * Determine whether a job with the given identifier already exists within the
    * scheduler.
@@ -385,6 +422,42 @@ public interface IJobStore
    */
   ICommonsList <IOperableTrigger> getTriggersForJob (JobKey jobKey) throws JobPersistenceException;
 
+  /**
+   * Get read-only views of all of the Triggers that are associated to the given
+   * Job, without necessarily cloning them.
+   * <p>
+   * The default implementation falls back to {@link #getTriggersForJob(JobKey)}.
+   * </p>
+   *
+   * @see #retrieveTriggerSnapshot(TriggerKey)
+   */
+  default ICommonsList <? extends ITrigger> getTriggerSnapshotsForJob (final JobKey jobKey) throws JobPersistenceException
+  {
+    return getTriggersForJob (jobKey);
+  }
+
+  /**
+   * Get read-only views of all of the Triggers in the matching groups, without
+   * necessarily cloning them. This is meant for monitoring code that regularly
+   * polls all triggers.
+   * <p>
+   * The default implementation calls {@link #retrieveTriggerSnapshot(TriggerKey)}
+   * for every key returned by {@link #getTriggerKeys(GroupMatcher)}.
+   * </p>
+   */
+  default ICommonsList <ITrigger> getTriggerSnapshots (final GroupMatcher <TriggerKey> matcher) throws JobPersistenceException
+  {
+    final ICommonsList <ITrigger> ret = new CommonsArrayList <> ();
+    for (final TriggerKey aTriggerKey : getTriggerKeys (matcher))
+    {
+      final ITrigger aTrigger = retrieveTriggerSnapshot (aTriggerKey);
+      // May have been removed in the meantime
+      if (aTrigger != null)
+        ret.add (aTrigger);
+    }
+    return ret;
+  }
+
   /**
    * Get the current state of the identified <code>{@link ITrigger}</code>.
    *
@@ -536,6 +609,41 @@ public interface IJobStore
                                                        int maxCount,
                                                        long timeWindow) throws JobPersistenceException;
 
+  /**
+   * Get the number of shards the triggers of this store are partitioned into.
+   * The scheduler runs one scheduler thread per shard, each calling
+   * {@link #acquireNextTriggers(int, long, int, long)} with its own shard ID.
+   *
+   * @return The number of shards. Always &gt; 0. The default is 1.
+   */
+  default int getShardCount ()
+  {
+    return 1;
+  }
+
+  /**
+   * Get a handle to the next triggers of the provided shard to be fired, and
+   * mark them as 'reserved' by the calling scheduler thread. Stores that don't
+   * support sharding only support shard 0, which contains all triggers.
+   *
+   * @param nShardID
+   *        The shard to acquire from. Must be &ge; 0 and &lt;
+   *        {@link #getShardCount()}.
+   * @param noLaterThan
+   *        If &gt; 0, the JobStore should only return a Trigger that will fire
+   *        no later than the time represented in this value as milliseconds.
+   * @see #acquireNextTriggers(long, int, long)
+   */
+  default ICommonsList <IOperableTrigger> acquireNextTriggers (final int nShardID,
+                                                               final long noLaterThan,
+                                                               final int maxCount,
+                                                               final long timeWindow) throws JobPersistenceException
+  {
+    if (nShardID != 0)
+      throw new IllegalArgumentException ("This job store does not support sharding: " + nShardID);
+    return acquireNextTriggers (noLaterThan, maxCount, timeWindow);
+  }
+
   /**
    * Inform the <code>JobStore</code> that the scheduler no longer plans to fire
    * the given <code>Trigger</code>, that it had previously acquired (reserved).
@@ -118,5 +118,56 @@ public interface IOperableTrigger extends IMutableTrigger
 
   void setPreviousFireTime (Date previousFireTime);
 
+  /**
+   * Primitive variant of {@link #getNextFireTime()} that does not allocate.
+   *
+   * @return The next fire time in milliseconds since the epoch or
+   *         {@link ITrigger#NO_FIRE_TIME} if the trigger will not fire again.
+   */
+  default long getNextFireTimeMillis ()
+  {
+    final Date aNextFireTime = getNextFireTime ();
+    return aNextFireTime == null ? NO_FIRE_TIME : aNextFireTime.getTime ();
+  }
+
+  /**
+   * Primitive variant of {@link #setNextFireTime(Date)}.<br>
+   * This method should not be used by the Quartz client.
+   *
+   * @param nNextFireTime
+   *        The next fire time in milliseconds since the epoch or
+   *        {@link ITrigger#NO_FIRE_TIME}.
+   */
+  default void setNextFireTimeMillis (final long nNextFireTime)
+  {
+    setNextFireTime (nNextFireTime == NO_FIRE_TIME ? null : new Date (nNextFireTime));
+  }
+
+  /**
+   * Primitive variant of {@link #getPreviousFireTime()} that does not
+   * allocate.
+   *
+   * @return The previous fire time in milliseconds since the epoch or
+   *         {@link ITrigger#NO_FIRE_TIME} if the trigger has not yet fired.
+   */
+  default long getPreviousFireTimeMillis ()
+  {
+    final Date aPreviousFireTime = getPreviousFireTime ();
+    return aPreviousFireTime == null ? NO_FIRE_TIME : aPreviousFireTime.getTime ();
+  }
+
+  /**
+   * Primitive variant of {@link #setPreviousFireTime(Date)}.<br>
+   * This method should not be used by the Quartz client.
+   *
+   * @param nPreviousFireTime
+   *        The previous fire time in milliseconds since the epoch or
+   *        {@link ITrigger#NO_FIRE_TIME}.
+   */
+  default void setPreviousFireTimeMillis (final long nPreviousFireTime)
+  {
+    setPreviousFireTime (nPreviousFireTime == NO_FIRE_TIME ? null : new Date (nPreviousFireTime));
+  }
+
   IOperableTrigger getClone ();
 }
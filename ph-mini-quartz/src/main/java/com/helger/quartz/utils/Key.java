@@ -46,6 +46,8 @@ public class Key <T> implements IComparable <Key <T>>
 
   private final String m_sName;
   private final String m_sGroup;
+  // Keys are looked up in hash maps all the time, so calculate it only once
+  private final int m_nHashCode;
 
   /**
    * Construct a new key with the given name and group.
@@ -63,6 +65,7 @@ public class Key <T> implements IComparable <Key <T>>
       m_sGroup = group;
     else
       m_sGroup = DEFAULT_GROUP;
+    m_nHashCode = new HashCodeGenerator (this).append (m_sName).append (m_sGroup).getHashCode ();
   }
 
   /**
@@ -115,7 +118,7 @@ public class Key <T> implements IComparable <Key <T>>
   @Override
   public int hashCode ()
   {
-    return new HashCodeGenerator (this).append (m_sName).append (m_sGroup).getHashCode ();
+    return m_nHashCode;
   }
 
   @Override
@@ -126,7 +129,10 @@ public class Key <T> implements IComparable <Key <T>>
     if (o == null || !getClass ().equals (o.getClass ()))
       return false;
     final Key <?> rhs = (Key <?>) o;
-    return m_sName.equals (rhs.m_sName) && m_sGroup.equals (rhs.m_sGroup);
+    // Interned groups are usually identical
+    return m_nHashCode == rhs.m_nHashCode &&
+           m_sName.equals (rhs.m_sName) &&
+           (m_sGroup == rhs.m_sGroup || m_sGroup.equals (rhs.m_sGroup));
   }
 
   public int compareTo (final Key <T> o)
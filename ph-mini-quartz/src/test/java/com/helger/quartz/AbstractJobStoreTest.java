@@ -20,6 +20,7 @@ package com.helger.quartz;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -33,9 +34,12 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
 import com.helger.quartz.ITrigger.EMisfireInstruction;
 import com.helger.quartz.ITrigger.ETriggerState;
 import com.helger.quartz.impl.JobDetail;
+import com.helger.quartz.impl.calendar.WeeklyCalendar;
 import com.helger.quartz.impl.matchers.GroupMatcher;
 import com.helger.quartz.impl.triggers.SimpleTrigger;
 import com.helger.quartz.simpl.CascadingClassLoadHelper;
@@ -642,6 +646,174 @@ public abstract class AbstractJobStoreTest
     }
   }
 
+  @Test
+  public void testTriggersForJobAndCalendar () throws Exception
+  {
+    final JobKey aJobKey = m_aJobDetail.getKey ();
+    m_aJobStore.storeCalendar ("cal", new WeeklyCalendar (), false, false);
+
+    for (int i = 0; i < 3; i++)
+    {
+      final SimpleTrigger tr = new SimpleTrigger ();
+      tr.setName ("trigger" + i);
+      tr.setGroup ("TriggersForJobAndCalendar");
+      tr.setStartTime (new Date ());
+      tr.setJobKey (aJobKey);
+      tr.setCalendarName (i < 2 ? "cal" : null);
+      m_aJobStore.storeTrigger (tr, false);
+    }
+    assertEquals (3, m_aJobStore.getTriggersForJob (aJobKey).size ());
+    assertEquals (3, m_aJobStore.getNumberOfTriggers ());
+
+    try
+    {
+      m_aJobStore.removeCalendar ("cal");
+      fail ("calendar is still referenced");
+    }
+    catch (final JobPersistenceException ex)
+    {
+      // expected
+    }
+
+    // Replace one trigger with a trigger not referencing the calendar
+    final SimpleTrigger tr = new SimpleTrigger ();
+    tr.setName ("trigger0");
+    tr.setGroup ("TriggersForJobAndCalendar");
+    tr.setStartTime (new Date ());
+    tr.setJobKey (aJobKey);
+    assertTrue (m_aJobStore.replaceTrigger (tr.getKey (), tr));
+    assertEquals (3, m_aJobStore.getTriggersForJob (aJobKey).size ());
+
+    assertTrue (m_aJobStore.removeTrigger (new TriggerKey ("trigger1", "TriggersForJobAndCalendar")));
+    assertEquals (2, m_aJobStore.getTriggersForJob (aJobKey).size ());
+    assertEquals (2, m_aJobStore.getNumberOfTriggers ());
+    assertTrue (m_aJobStore.removeCalendar ("cal"));
+
+    assertTrue (m_aJobStore.removeTrigger (tr.getKey ()));
+    assertTrue (m_aJobStore.removeTrigger (new TriggerKey ("trigger2", "TriggersForJobAndCalendar")));
+    assertTrue (m_aJobStore.getTriggersForJob (aJobKey).isEmpty ());
+    assertEquals (0, m_aJobStore.getNumberOfTriggers ());
+  }
+
+  @Test
+  public void testSnapshots () throws Exception
+  {
+    final JobKey aJobKey = m_aJobDetail.getKey ();
+    m_aJobDetail.getJobDataMap ().put ("jobKey", "jobValue");
+    m_aJobStore.storeJob (m_aJobDetail, true);
+
+    final Date aStart = new Date (DateBuilder.evenMinuteDateAfterNow ().getTime () + 60_000);
+    for (int i = 0; i < 3; i++)
+    {
+      final SimpleTrigger tr = new SimpleTrigger ();
+      tr.setName ("trigger" + i);
+      tr.setGroup (i < 2 ? "Snapshots" : "OtherSnapshots");
+      tr.setStartTime (aStart);
+      tr.setJobKey (aJobKey);
+      tr.getJobDataMap ().put ("key", "value" + i);
+      tr.computeFirstFireTime (null);
+      m_aJobStore.storeTrigger (tr, false);
+    }
+
+    final TriggerKey aTriggerKey = new TriggerKey ("trigger0", "Snapshots");
+    final ITrigger aSnapshot = m_aJobStore.retrieveTriggerSnapshot (aTriggerKey);
+    assertNotNull (aSnapshot);
+    assertEquals (aTriggerKey, aSnapshot.getKey ());
+    assertEquals (aJobKey, aSnapshot.getJobKey ());
+    assertEquals (aStart, aSnapshot.getNextFireTime ());
+    assertTrue (aSnapshot.mayFireAgain ());
+    assertTrue (aSnapshot instanceof ISimpleTrigger);
+    assertEquals (0, ((ISimpleTrigger) aSnapshot).getRepeatCount ());
+    assertNull (m_aJobStore.retrieveTriggerSnapshot (new TriggerKey ("trigger0", "NoSuchGroup")));
+
+    // Modifying the returned data must not change the stored trigger
+    assertEquals ("value0", aSnapshot.getJobDataMap ().getAsString ("key"));
+    aSnapshot.getJobDataMap ().put ("key", "modified");
+    assertEquals ("modified", aSnapshot.getJobDataMap ().getAsString ("key"));
+    assertEquals ("value0", m_aJobStore.retrieveTrigger (aTriggerKey).getJobDataMap ().getAsString ("key"));
+    assertEquals ("value0", m_aJobStore.retrieveTriggerSnapshot (aTriggerKey).getJobDataMap ().getAsString ("key"));
+
+    // A clone can be modified and re-stored
+    final IOperableTrigger aClone = (IOperableTrigger) aSnapshot.getClone ();
+    assertEquals (aStart, aClone.getNextFireTime ());
+    aClone.setDescription ("changed");
+    m_aJobStore.storeTrigger (aClone, true);
+    assertEquals ("changed", m_aJobStore.retrieveTriggerSnapshot (aTriggerKey).getDescription ());
+    assertNull (aSnapshot.getDescription ());
+
+    assertEquals (3, m_aJobStore.getTriggerSnapshotsForJob (aJobKey).size ());
+    assertTrue (m_aJobStore.getTriggerSnapshotsForJob (new JobKey ("nojob", "nogroup")).isEmpty ());
+    assertEquals (2, m_aJobStore.getTriggerSnapshots (GroupMatcher.triggerGroupEquals ("Snapshots")).size ());
+    assertEquals (3, m_aJobStore.getTriggerSnapshots (GroupMatcher.triggerGroupEndsWith ("Snapshots")).size ());
+    assertEquals (3, m_aJobStore.getTriggerSnapshots (GroupMatcher.anyTriggerGroup ()).size ());
+
+    final IJobDetail aJobSnapshot = m_aJobStore.retrieveJobSnapshot (aJobKey);
+    assertNotNull (aJobSnapshot);
+    assertEquals (aJobKey, aJobSnapshot.getKey ());
+    assertEquals (MyJob.class, aJobSnapshot.getJobClass ());
+    assertTrue (aJobSnapshot.isDurable ());
+    aJobSnapshot.getJobDataMap ().put ("jobKey", "modified");
+    assertEquals ("jobValue", m_aJobStore.retrieveJob (aJobKey).getJobDataMap ().getAsString ("jobKey"));
+    assertEquals ("jobValue", aJobSnapshot.getClone ().getJobDataMap ().getAsString ("jobKey"));
+    assertNull (m_aJobStore.retrieveJobSnapshot (new JobKey ("nojob", "nogroup")));
+  }
+
+  @Test
+  public void testSnapshotClones () throws Exception
+  {
+    final JobKey aJobKey = m_aJobDetail.getKey ();
+    final Date aStart = new Date (DateBuilder.evenMinuteDateAfterNow ().getTime () + 60_000);
+    final ICommonsList <IOperableTrigger> aTriggers = new CommonsArrayList <> ();
+    aTriggers.add ((IOperableTrigger) TriggerBuilder.newTrigger ()
+                                                    .withIdentity ("cron", "Clones")
+                                                    .forJob (aJobKey)
+                                                    .startAt (aStart)
+                                                    .withSchedule (CronScheduleBuilder.cronSchedule ("0 0/5 * * * ?"))
+                                                    .build ());
+    aTriggers.add ((IOperableTrigger) TriggerBuilder.newTrigger ()
+                                                    .withIdentity ("oneshot", "Clones")
+                                                    .forJob (aJobKey)
+                                                    .startAt (aStart)
+                                                    .withSchedule (OneShotScheduleBuilder.oneShotSchedule ())
+                                                    .build ());
+    aTriggers.add ((IOperableTrigger) TriggerBuilder.newTrigger ()
+                                                    .withIdentity ("calendar", "Clones")
+                                                    .forJob (aJobKey)
+                                                    .startAt (aStart)
+                                                    .withSchedule (CalendarIntervalScheduleBuilder.calendarIntervalSchedule ()
+                                                                                                  .withIntervalInDays (2))
+                                                    .build ());
+    aTriggers.add ((IOperableTrigger) TriggerBuilder.newTrigger ()
+                                                    .withIdentity ("daily", "Clones")
+                                                    .forJob (aJobKey)
+                                                    .startAt (aStart)
+                                                    .usingJobData ("key", "value")
+                                                    .withSchedule (DailyTimeIntervalScheduleBuilder.dailyTimeIntervalSchedule ()
+                                                                                                   .withIntervalInMinutes (7)
+                                                                                                   .onMondayThroughFriday ())
+                                                    .build ());
+    for (final IOperableTrigger aTrigger : aTriggers)
+    {
+      aTrigger.computeFirstFireTime (null);
+      m_aJobStore.storeTrigger (aTrigger, false);
+
+      final ITrigger aSnapshot = m_aJobStore.retrieveTriggerSnapshot (aTrigger.getKey ());
+      final ITrigger aClone = aSnapshot.getClone ();
+      assertEquals (aTrigger.getClass (), aClone.getClass ());
+      assertEquals (aTrigger.getKey (), aClone.getKey ());
+      assertEquals (aTrigger.getNextFireTime (), aClone.getNextFireTime ());
+      assertEquals (aTrigger.getStartTime (), aClone.getStartTime ());
+      assertEquals (aTrigger.getMisfireInstruction (), aClone.getMisfireInstruction ());
+      assertEquals (aTrigger.getJobDataMap (), aClone.getJobDataMap ());
+      assertEquals (aTrigger.getFireTimeAfter (aStart), aSnapshot.getFireTimeAfter (aStart));
+      assertEquals (aTrigger.getFinalFireTime (), aSnapshot.getFinalFireTime ());
+
+      // The clone is independent from the snapshot
+      aClone.getJobDataMap ().put ("other", "value");
+      assertNull (aSnapshot.getJobDataMap ().get ("other"));
+    }
+  }
+
   public static class SampleSignaler implements ISchedulerSignaler
   {
     volatile int fMisfireCount = 0;
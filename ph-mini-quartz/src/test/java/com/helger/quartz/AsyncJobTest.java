@@ -0,0 +1,188 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import static com.helger.quartz.JobBuilder.newJob;
+import static com.helger.quartz.TriggerBuilder.newTrigger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.helger.base.rt.NonBlockingProperties;
+import com.helger.quartz.impl.JobExecutionContext;
+import com.helger.quartz.impl.StdSchedulerFactory;
+import com.helger.quartz.simpl.SimpleThreadPool;
+
+/**
+ * Test class for {@link IAsyncJob} execution.
+ *
+ * @author Philip Helger
+ */
+public final class AsyncJobTest
+{
+  static final BlockingQueue <CompletableFuture <Void>> PENDING = new LinkedBlockingQueue <> ();
+  static final AtomicInteger EXECUTIONS = new AtomicInteger (0);
+
+  public static class TestAsyncJob implements IAsyncJob
+  {
+    public CompletableFuture <?> executeAsync (final IJobExecutionContext context)
+    {
+      EXECUTIONS.incrementAndGet ();
+      final CompletableFuture <Void> ret = new CompletableFuture <> ();
+      PENDING.add (ret);
+      return ret;
+    }
+  }
+
+  private static final class CompletionListener implements IJobListener
+  {
+    private final BlockingQueue <Object> m_aResults = new LinkedBlockingQueue <> ();
+
+    public String getName ()
+    {
+      return "completion";
+    }
+
+    @Override
+    public void jobWasExecuted (final IJobExecutionContext context, final JobExecutionException jobException)
+    {
+      m_aResults.add (jobException != null ? jobException : Boolean.TRUE);
+    }
+  }
+
+  private static IScheduler _createScheduler (final String sName) throws SchedulerException
+  {
+    final NonBlockingProperties config = new NonBlockingProperties ();
+    config.setProperty (StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, sName);
+    config.setProperty (StdSchedulerFactory.PROP_SCHED_INSTANCE_ID, "AUTO");
+    config.setProperty ("org.quartz.threadPool.threadCount", "1");
+    config.setProperty ("org.quartz.threadPool.class", SimpleThreadPool.class.getName ());
+    return new StdSchedulerFactory ().initialize (config).getScheduler ();
+  }
+
+  @Test
+  public void testCompletionAndRefire () throws Exception
+  {
+    PENDING.clear ();
+    EXECUTIONS.set (0);
+    final IScheduler sched = _createScheduler ("AsyncJobTest_Completion");
+    final CompletionListener aListener = new CompletionListener ();
+    sched.getListenerManager ().addJobListener (aListener);
+    sched.start ();
+    try
+    {
+      final IJobDetail job = newJob (TestAsyncJob.class).withIdentity ("j1").build ();
+      sched.scheduleJob (job, newTrigger ().withIdentity ("t1").forJob (job).startNow ().build ());
+
+      CompletableFuture <Void> aFuture = PENDING.poll (10, TimeUnit.SECONDS);
+      assertNotNull (aFuture);
+      // Still executing, although the only pool thread was released
+      assertEquals (1, sched.getCurrentlyExecutingJobs ().size ());
+      assertNull (aListener.m_aResults.poll (100, TimeUnit.MILLISECONDS));
+
+      // Fail with immediate refire
+      aFuture.completeExceptionally (new JobExecutionException ("retry", true));
+      assertTrue (aListener.m_aResults.poll (10, TimeUnit.SECONDS) instanceof JobExecutionException);
+      aFuture = PENDING.poll (10, TimeUnit.SECONDS);
+      assertNotNull (aFuture);
+      assertEquals (2, EXECUTIONS.get ());
+
+      // Complete successfully
+      aFuture.complete (null);
+      assertEquals (Boolean.TRUE, aListener.m_aResults.poll (10, TimeUnit.SECONDS));
+      for (int i = 0; i < 100 && sched.checkExists (job.getKey ()); ++i)
+        Thread.sleep (10);
+      assertEquals (0, sched.getCurrentlyExecutingJobs ().size ());
+      // Non durable job is removed after the trigger completed
+      assertTrue (!sched.checkExists (job.getKey ()));
+    }
+    finally
+    {
+      sched.shutdown ();
+    }
+  }
+
+  @Test
+  public void testInterrupt () throws Exception
+  {
+    PENDING.clear ();
+    final IScheduler sched = _createScheduler ("AsyncJobTest_Interrupt");
+    final CompletionListener aListener = new CompletionListener ();
+    sched.getListenerManager ().addJobListener (aListener);
+    sched.start ();
+    try
+    {
+      final IJobDetail job = newJob (TestAsyncJob.class).withIdentity ("j2").build ();
+      sched.scheduleJob (job, newTrigger ().withIdentity ("t2").forJob (job).startNow ().build ());
+
+      final CompletableFuture <Void> aFuture = PENDING.poll (10, TimeUnit.SECONDS);
+      assertNotNull (aFuture);
+      // Wait until the shell released the thread
+      final JobExecutionContext aJEC = (JobExecutionContext) sched.getCurrentlyExecutingJobs ().get (0);
+      for (int i = 0; i < 100 && aJEC.getPendingAsyncResult () == null; ++i)
+        Thread.sleep (10);
+      assertTrue (sched.interrupt (job.getKey ()));
+      assertTrue (aFuture.isCancelled ());
+      assertTrue (aListener.m_aResults.poll (10, TimeUnit.SECONDS) instanceof JobExecutionException);
+    }
+    finally
+    {
+      sched.shutdown ();
+    }
+  }
+
+  @Test
+  public void testShutdownWaitsForPendingJobs () throws Exception
+  {
+    PENDING.clear ();
+    final IScheduler sched = _createScheduler ("AsyncJobTest_Shutdown");
+    sched.start ();
+    final IJobDetail job = newJob (TestAsyncJob.class).withIdentity ("j3").build ();
+    sched.scheduleJob (job, newTrigger ().withIdentity ("t3").forJob (job).startNow ().build ());
+    final CompletableFuture <Void> aFuture = PENDING.poll (10, TimeUnit.SECONDS);
+    assertNotNull (aFuture);
+
+    final CountDownLatch aDone = new CountDownLatch (1);
+    final Thread t = new Thread ( () -> {
+      try
+      {
+        sched.shutdown (true);
+      }
+      catch (final SchedulerException ex)
+      {
+        throw new IllegalStateException (ex);
+      }
+      aDone.countDown ();
+    });
+    t.start ();
+    assertTrue (!aDone.await (300, TimeUnit.MILLISECONDS));
+    aFuture.complete (null);
+    assertTrue (aDone.await (10, TimeUnit.SECONDS));
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import static com.helger.quartz.JobBuilder.newJob;
+import static com.helger.quartz.TriggerBuilder.newTrigger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.helger.base.rt.NonBlockingProperties;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.quartz.impl.StdSchedulerFactory;
+import com.helger.quartz.impl.matchers.GroupMatcher;
+import com.helger.quartz.simpl.SimpleThreadPool;
+
+/**
+ * Test class for {@link IBatchJob} execution.
+ *
+ * @author Philip Helger
+ */
+public final class BatchJobTest
+{
+  static final BlockingQueue <Integer> BATCH_SIZES = new LinkedBlockingQueue <> ();
+
+  public static class TestBatchJob implements IBatchJob
+  {
+    public Map <IJobExecutionContext, JobExecutionException> executeBatch (final List <IJobExecutionContext> contexts)
+    {
+      final Map <IJobExecutionContext, JobExecutionException> ret = new CommonsHashMap <> ();
+      for (final IJobExecutionContext aCtx : contexts)
+        if (aCtx.getMergedJobDataMap ().getAsBoolean ("fail"))
+          ret.put (aCtx, new JobExecutionException ("failed"));
+      BATCH_SIZES.add (Integer.valueOf (contexts.size ()));
+      return ret;
+    }
+  }
+
+  public static class ThrowingBatchJob implements IBatchJob
+  {
+    static final IllegalStateException FAILURE = new IllegalStateException ("batch failed");
+
+    public Map <IJobExecutionContext, JobExecutionException> executeBatch (final List <IJobExecutionContext> contexts)
+    {
+      BATCH_SIZES.add (Integer.valueOf (contexts.size ()));
+      throw FAILURE;
+    }
+  }
+
+  private static IScheduler _createScheduler (final String sName,
+                                              final Map <String, JobExecutionException> aResults) throws SchedulerException
+  {
+    final NonBlockingProperties config = new NonBlockingProperties ();
+    config.setProperty (StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, sName);
+    config.setProperty (StdSchedulerFactory.PROP_SCHED_INSTANCE_ID, "AUTO");
+    config.setProperty (StdSchedulerFactory.PROP_SCHED_MAX_BATCH_SIZE, "10");
+    config.setProperty (StdSchedulerFactory.PROP_SCHED_BATCH_TIME_WINDOW, "1000");
+    config.setProperty ("org.quartz.threadPool.threadCount", "10");
+    config.setProperty ("org.quartz.threadPool.class", SimpleThreadPool.class.getName ());
+    final IScheduler sched = new StdSchedulerFactory ().initialize (config).getScheduler ();
+
+    sched.getListenerManager ().addJobListener (new IJobListener ()
+    {
+      public String getName ()
+      {
+        return "results";
+      }
+
+      @Override
+      public void jobWasExecuted (final IJobExecutionContext context, final JobExecutionException jobException)
+      {
+        aResults.put (context.getJobDetail ().getKey ().getName (),
+                      jobException != null ? jobException : new JobExecutionException ("none"));
+      }
+    });
+    return sched;
+  }
+
+  @Test
+  public void testBatchExecution () throws Exception
+  {
+    BATCH_SIZES.clear ();
+    final Map <String, JobExecutionException> aResults = new ConcurrentHashMap <> ();
+    final IScheduler sched = _createScheduler ("BatchJobTest_Scheduler", aResults);
+    try
+    {
+      // Schedule while in standby, so that all triggers are acquired at once
+      for (int i = 0; i < 5; ++i)
+      {
+        final IJobDetail job = newJob (TestBatchJob.class).withIdentity ("j" + i).usingJobData ("fail", Boolean.valueOf (i == 3)).build ();
+        sched.scheduleJob (job, newTrigger ().withIdentity ("t" + i).forJob (job).startNow ().build ());
+      }
+      sched.start ();
+
+      final Integer aBatchSize = BATCH_SIZES.poll (10, TimeUnit.SECONDS);
+      assertNotNull (aBatchSize);
+      assertEquals (5, aBatchSize.intValue ());
+      assertNull (BATCH_SIZES.poll (200, TimeUnit.MILLISECONDS));
+
+      // Every fire was completed on its own
+      for (int i = 0; i < 100 && !sched.getJobKeys (GroupMatcher.anyJobGroup ()).isEmpty (); ++i)
+        Thread.sleep (10);
+      assertEquals (5, aResults.size ());
+      for (int i = 0; i < 5; ++i)
+        assertEquals (i == 3 ? "failed" : "none", aResults.get ("j" + i).getMessage ());
+      assertTrue (sched.getJobKeys (GroupMatcher.anyJobGroup ()).isEmpty ());
+    }
+    finally
+    {
+      sched.shutdown (true);
+    }
+  }
+
+  @Test
+  public void testBatchFailure () throws Exception
+  {
+    BATCH_SIZES.clear ();
+    final Map <String, JobExecutionException> aResults = new ConcurrentHashMap <> ();
+    final IScheduler sched = _createScheduler ("BatchJobTest_Failure_Scheduler", aResults);
+    try
+    {
+      for (int i = 0; i < 3; ++i)
+      {
+        final IJobDetail job = newJob (ThrowingBatchJob.class).withIdentity ("j" + i).build ();
+        sched.scheduleJob (job, newTrigger ().withIdentity ("t" + i).forJob (job).startNow ().build ());
+      }
+      sched.start ();
+
+      final Integer aBatchSize = BATCH_SIZES.poll (10, TimeUnit.SECONDS);
+      assertNotNull (aBatchSize);
+      assertEquals (3, aBatchSize.intValue ());
+
+      for (int i = 0; i < 100 && aResults.size () < 3; ++i)
+        Thread.sleep (10);
+      assertEquals (3, aResults.size ());
+
+      // Every fire gets its own exception with the same cause
+      final JobExecutionException aEx0 = aResults.get ("j0");
+      assertNotNull (aEx0.getCause ());
+      assertSame (ThrowingBatchJob.FAILURE, aEx0.getCause ().getCause ());
+      for (int i = 1; i < 3; ++i)
+      {
+        final JobExecutionException aEx = aResults.get ("j" + i);
+        assertNotSame (aEx0, aEx);
+        assertSame (aEx0.getCause (), aEx.getCause ());
+      }
+    }
+    finally
+    {
+      sched.shutdown (true);
+    }
+  }
+}
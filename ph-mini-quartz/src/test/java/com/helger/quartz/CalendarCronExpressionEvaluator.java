@@ -0,0 +1,684 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.Locale.Category;
+import java.util.SortedSet;
+import java.util.TimeZone;
+
+import com.helger.quartz.CronExpression.EType;
+
+/**
+ * The original {@link GregorianCalendar} based implementation of
+ * {@link CronExpression#getTimeAfter(Date)} and
+ * {@link CronExpression#getNextInvalidTimeAfter(Date)}, used as the reference
+ * for the compiled implementation.
+ *
+ * @author Philip Helger
+ */
+final class CalendarCronExpressionEvaluator
+{
+  private static final Integer NO_SPEC = Integer.valueOf (98);
+
+  private final TimeZone m_aTimeZone;
+  private final SortedSet <Integer> m_aSeconds;
+  private final SortedSet <Integer> m_aMinutes;
+  private final SortedSet <Integer> m_aHours;
+  private final SortedSet <Integer> m_aDaysOfMonth;
+  private final SortedSet <Integer> m_aMonths;
+  private final SortedSet <Integer> m_aDaysOfWeek;
+  private final SortedSet <Integer> m_aYears;
+  private final boolean m_bLastdayOfWeek;
+  private final int m_nNthdayOfWeek;
+  private final boolean m_bLastdayOfMonth;
+  private final boolean m_bNearestWeekday;
+  private final int m_nLastdayOffset;
+
+  CalendarCronExpressionEvaluator (final CronExpression aCronExpression)
+  {
+    m_aTimeZone = aCronExpression.getTimeZone ();
+    m_aSeconds = aCronExpression.getSet (EType.SECOND);
+    m_aMinutes = aCronExpression.getSet (EType.MINUTE);
+    m_aHours = aCronExpression.getSet (EType.HOUR);
+    m_aDaysOfMonth = aCronExpression.getSet (EType.DAY_OF_MONTH);
+    m_aMonths = aCronExpression.getSet (EType.MONTH);
+    m_aDaysOfWeek = aCronExpression.getSet (EType.DAY_OF_WEEK);
+    m_aYears = aCronExpression.getSet (EType.YEAR);
+    final CompiledCronExpression aCompiled = aCronExpression.getCompiled ();
+    m_bLastdayOfWeek = aCompiled.isLastdayOfWeek ();
+    m_nNthdayOfWeek = aCompiled.getNthdayOfWeek ();
+    m_bLastdayOfMonth = aCompiled.isLastdayOfMonth ();
+    m_bNearestWeekday = aCompiled.isNearestWeekday ();
+    m_nLastdayOffset = aCompiled.getLastdayOffset ();
+  }
+
+  private TimeZone getTimeZone ()
+  {
+    return m_aTimeZone;
+  }
+
+  boolean isSatisfiedBy (final Date date)
+  {
+    final Calendar testDateCal = Calendar.getInstance (getTimeZone (), Locale.getDefault (Locale.Category.FORMAT));
+    testDateCal.setTime (date);
+    testDateCal.set (Calendar.MILLISECOND, 0);
+    final Date originalDate = testDateCal.getTime ();
+
+    testDateCal.add (Calendar.SECOND, -1);
+
+    final Date timeAfter = getTimeAfter (testDateCal.getTime ());
+
+    return ((timeAfter != null) && (timeAfter.equals (originalDate)));
+  }
+
+  Date getNextInvalidTimeAfter (final Date date)
+  {
+    long difference = 1000;
+
+    // move back to the nearest second so differences will be accurate
+    final Calendar adjustCal = Calendar.getInstance (getTimeZone (), Locale.getDefault (Locale.Category.FORMAT));
+    adjustCal.setTime (date);
+    adjustCal.set (Calendar.MILLISECOND, 0);
+    Date lastDate = adjustCal.getTime ();
+
+    Date newDate;
+
+    // FUTURE_TODO: (QUARTZ-481) IMPROVE THIS! The following is a BAD solution
+    // to this problem. Performance will be very bad here, depending on the cron
+    // expression. It is, however A solution.
+
+    // keep getting the next included time until it's farther than one second
+    // apart. At that point, lastDate is the last valid fire time. We return
+    // the second immediately following it.
+    while (difference == 1000)
+    {
+      newDate = getTimeAfter (lastDate);
+      if (newDate == null)
+        break;
+
+      difference = newDate.getTime () - lastDate.getTime ();
+      if (difference == 1000)
+        lastDate = newDate;
+    }
+
+    return new Date (lastDate.getTime () + 1000);
+  }
+
+  Date getTimeAfter (final Date aAfterTime)
+  {
+    // Computation is based on Gregorian year only.
+    final Calendar cl = new GregorianCalendar (getTimeZone (), Locale.getDefault (Category.FORMAT));
+
+    // move ahead one second, since we're computing the time *after* the
+    // given time
+    final Date afterTime = new Date (aAfterTime.getTime () + 1000);
+    // CronTrigger does not deal with milliseconds
+    cl.setTime (afterTime);
+    cl.set (Calendar.MILLISECOND, 0);
+
+    boolean bGotOne = false;
+    // loop until we've computed the next time, or we've past the endTime
+    while (!bGotOne)
+    {
+      // if (endTime != null && cl.getTime().after(endTime)) return null;
+      if (cl.get (Calendar.YEAR) > CQuartz.MAX_YEAR)
+      {
+        // prevent endless loop...
+        return null;
+      }
+
+      SortedSet <Integer> st = null;
+      int t = 0;
+
+      int sec = cl.get (Calendar.SECOND);
+      int min = cl.get (Calendar.MINUTE);
+
+      // get second.................................................
+      st = m_aSeconds.tailSet (Integer.valueOf (sec));
+      if (st != null && !st.isEmpty ())
+      {
+        sec = st.first ().intValue ();
+      }
+      else
+      {
+        sec = m_aSeconds.first ().intValue ();
+        min++;
+        cl.set (Calendar.MINUTE, min);
+      }
+      cl.set (Calendar.SECOND, sec);
+
+      min = cl.get (Calendar.MINUTE);
+      int hr = cl.get (Calendar.HOUR_OF_DAY);
+      t = -1;
+
+      // get minute.................................................
+      st = m_aMinutes.tailSet (Integer.valueOf (min));
+      if (st != null && !st.isEmpty ())
+      {
+        t = min;
+        min = st.first ().intValue ();
+      }
+      else
+      {
+        min = m_aMinutes.first ().intValue ();
+        hr++;
+      }
+      if (min != t)
+      {
+        cl.set (Calendar.SECOND, 0);
+        cl.set (Calendar.MINUTE, min);
+        _setCalendarHour (cl, hr);
+        continue;
+      }
+      cl.set (Calendar.MINUTE, min);
+
+      hr = cl.get (Calendar.HOUR_OF_DAY);
+      int day = cl.get (Calendar.DAY_OF_MONTH);
+      t = -1;
+
+      // get hour...................................................
+      st = m_aHours.tailSet (Integer.valueOf (hr));
+      if (st != null && !st.isEmpty ())
+      {
+        t = hr;
+        hr = st.first ().intValue ();
+      }
+      else
+      {
+        hr = m_aHours.first ().intValue ();
+        day++;
+      }
+      if (hr != t)
+      {
+        cl.set (Calendar.SECOND, 0);
+        cl.set (Calendar.MINUTE, 0);
+        cl.set (Calendar.DAY_OF_MONTH, day);
+        _setCalendarHour (cl, hr);
+        continue;
+      }
+      cl.set (Calendar.HOUR_OF_DAY, hr);
+
+      day = cl.get (Calendar.DAY_OF_MONTH);
+      int mon = cl.get (Calendar.MONTH) + 1;
+      // '+ 1' because calendar is 0-based for this field, and we are
+      // 1-based
+      t = -1;
+      int tmon = mon;
+
+      // get day...................................................
+      final boolean dayOfMSpec = !m_aDaysOfMonth.contains (NO_SPEC);
+      final boolean dayOfWSpec = !m_aDaysOfWeek.contains (NO_SPEC);
+      if (dayOfMSpec && !dayOfWSpec)
+      { // get day by day of month rule
+        st = m_aDaysOfMonth.tailSet (Integer.valueOf (day));
+        if (m_bLastdayOfMonth)
+        {
+          if (!m_bNearestWeekday)
+          {
+            t = day;
+            day = _getLastDayOfMonth (mon, cl.get (Calendar.YEAR));
+            day -= m_nLastdayOffset;
+            if (t > day)
+            {
+              mon++;
+              if (mon > 12)
+              {
+                mon = 1;
+                tmon = 3333; // ensure test of mon != tmon further below fails
+                cl.add (Calendar.YEAR, 1);
+              }
+              day = 1;
+            }
+          }
+          else
+          {
+            t = day;
+            day = _getLastDayOfMonth (mon, cl.get (Calendar.YEAR));
+            day -= m_nLastdayOffset;
+
+            final Calendar tcal = Calendar.getInstance (getTimeZone (), Locale.getDefault (Locale.Category.FORMAT));
+            // Deterministic instead of the current milliseconds
+            tcal.set (Calendar.MILLISECOND, 0);
+            tcal.set (Calendar.SECOND, 0);
+            tcal.set (Calendar.MINUTE, 0);
+            tcal.set (Calendar.HOUR_OF_DAY, 0);
+            tcal.set (Calendar.DAY_OF_MONTH, day);
+            tcal.set (Calendar.MONTH, mon - 1);
+            tcal.set (Calendar.YEAR, cl.get (Calendar.YEAR));
+
+            final int ldom = _getLastDayOfMonth (mon, cl.get (Calendar.YEAR));
+            final int dow = tcal.get (Calendar.DAY_OF_WEEK);
+
+            if (dow == Calendar.SATURDAY && day == 1)
+            {
+              day += 2;
+            }
+            else
+              if (dow == Calendar.SATURDAY)
+              {
+                day -= 1;
+              }
+              else
+                if (dow == Calendar.SUNDAY && day == ldom)
+                {
+                  day -= 2;
+                }
+                else
+                  if (dow == Calendar.SUNDAY)
+                  {
+                    day += 1;
+                  }
+
+            tcal.set (Calendar.SECOND, sec);
+            tcal.set (Calendar.MINUTE, min);
+            tcal.set (Calendar.HOUR_OF_DAY, hr);
+            tcal.set (Calendar.DAY_OF_MONTH, day);
+            tcal.set (Calendar.MONTH, mon - 1);
+            final Date nTime = tcal.getTime ();
+            if (nTime.before (afterTime))
+            {
+              day = 1;
+              mon++;
+            }
+          }
+        }
+        else
+          if (m_bNearestWeekday)
+          {
+            t = day;
+            day = m_aDaysOfMonth.first ().intValue ();
+
+            final Calendar tcal = Calendar.getInstance (getTimeZone (), Locale.getDefault (Locale.Category.FORMAT));
+            // Deterministic instead of the current milliseconds
+            tcal.set (Calendar.MILLISECOND, 0);
+            tcal.set (Calendar.SECOND, 0);
+            tcal.set (Calendar.MINUTE, 0);
+            tcal.set (Calendar.HOUR_OF_DAY, 0);
+            tcal.set (Calendar.DAY_OF_MONTH, day);
+            tcal.set (Calendar.MONTH, mon - 1);
+            tcal.set (Calendar.YEAR, cl.get (Calendar.YEAR));
+
+            final int ldom = _getLastDayOfMonth (mon, cl.get (Calendar.YEAR));
+            final int dow = tcal.get (Calendar.DAY_OF_WEEK);
+
+            if (dow == Calendar.SATURDAY && day == 1)
+            {
+              day += 2;
+            }
+            else
+              if (dow == Calendar.SATURDAY)
+              {
+                day -= 1;
+              }
+              else
+                if (dow == Calendar.SUNDAY && day == ldom)
+                {
+                  day -= 2;
+                }
+                else
+                  if (dow == Calendar.SUNDAY)
+                  {
+                    day += 1;
+                  }
+
+            tcal.set (Calendar.SECOND, sec);
+            tcal.set (Calendar.MINUTE, min);
+            tcal.set (Calendar.HOUR_OF_DAY, hr);
+            tcal.set (Calendar.DAY_OF_MONTH, day);
+            tcal.set (Calendar.MONTH, mon - 1);
+            final Date nTime = tcal.getTime ();
+            if (nTime.before (afterTime))
+            {
+              day = m_aDaysOfMonth.first ().intValue ();
+              mon++;
+            }
+          }
+          else
+            if (st != null && !st.isEmpty ())
+            {
+              t = day;
+              day = st.first ().intValue ();
+              // make sure we don't over-run a short month, such as february
+              final int lastDay = _getLastDayOfMonth (mon, cl.get (Calendar.YEAR));
+              if (day > lastDay)
+              {
+                day = m_aDaysOfMonth.first ().intValue ();
+                mon++;
+              }
+            }
+            else
+            {
+              day = m_aDaysOfMonth.first ().intValue ();
+              mon++;
+            }
+
+        if (day != t || mon != tmon)
+        {
+          cl.set (Calendar.SECOND, 0);
+          cl.set (Calendar.MINUTE, 0);
+          cl.set (Calendar.HOUR_OF_DAY, 0);
+          cl.set (Calendar.DAY_OF_MONTH, day);
+          cl.set (Calendar.MONTH, mon - 1);
+          // '- 1' because calendar is 0-based for this field, and we
+          // are 1-based
+          continue;
+        }
+      }
+      else
+        if (dayOfWSpec && !dayOfMSpec)
+        { // get day by day of week rule
+          if (m_bLastdayOfWeek)
+          { // are we looking for the last XXX day of
+            // the month?
+            // desired
+            final int dow = m_aDaysOfWeek.first ().intValue ();
+            // d-o-w
+            // current d-o-w
+            final int cDow = cl.get (Calendar.DAY_OF_WEEK);
+            int daysToAdd = 0;
+            if (cDow < dow)
+            {
+              daysToAdd = dow - cDow;
+            }
+            if (cDow > dow)
+            {
+              daysToAdd = dow + (7 - cDow);
+            }
+
+            final int lDay = _getLastDayOfMonth (mon, cl.get (Calendar.YEAR));
+
+            if (day + daysToAdd > lDay)
+            { // did we already miss the
+              // last one?
+              cl.set (Calendar.SECOND, 0);
+              cl.set (Calendar.MINUTE, 0);
+              cl.set (Calendar.HOUR_OF_DAY, 0);
+              cl.set (Calendar.DAY_OF_MONTH, 1);
+              cl.set (Calendar.MONTH, mon);
+              // no '- 1' here because we are promoting the month
+              continue;
+            }
+
+            // find date of last occurrence of this day in this month...
+            while ((day + daysToAdd + 7) <= lDay)
+            {
+              daysToAdd += 7;
+            }
+
+            day += daysToAdd;
+
+            if (daysToAdd > 0)
+            {
+              cl.set (Calendar.SECOND, 0);
+              cl.set (Calendar.MINUTE, 0);
+              cl.set (Calendar.HOUR_OF_DAY, 0);
+              cl.set (Calendar.DAY_OF_MONTH, day);
+              cl.set (Calendar.MONTH, mon - 1);
+              // '- 1' here because we are not promoting the month
+              continue;
+            }
+
+          }
+          else
+            if (m_nNthdayOfWeek != 0)
+            {
+              // are we looking for the Nth XXX day in the month?
+              // desired
+              final int dow = m_aDaysOfWeek.first ().intValue ();
+              // d-o-w
+              // current d-o-w
+              final int cDow = cl.get (Calendar.DAY_OF_WEEK);
+              int daysToAdd = 0;
+              if (cDow < dow)
+              {
+                daysToAdd = dow - cDow;
+              }
+              else
+                if (cDow > dow)
+                {
+                  daysToAdd = dow + (7 - cDow);
+                }
+
+              boolean dayShifted = false;
+              if (daysToAdd > 0)
+              {
+                dayShifted = true;
+              }
+
+              day += daysToAdd;
+              int weekOfMonth = day / 7;
+              if (day % 7 > 0)
+              {
+                weekOfMonth++;
+              }
+
+              daysToAdd = (m_nNthdayOfWeek - weekOfMonth) * 7;
+              day += daysToAdd;
+              if (daysToAdd < 0 || day > _getLastDayOfMonth (mon, cl.get (Calendar.YEAR)))
+              {
+                cl.set (Calendar.SECOND, 0);
+                cl.set (Calendar.MINUTE, 0);
+                cl.set (Calendar.HOUR_OF_DAY, 0);
+                cl.set (Calendar.DAY_OF_MONTH, 1);
+                cl.set (Calendar.MONTH, mon);
+                // no '- 1' here because we are promoting the month
+                continue;
+              }
+              else
+                if (daysToAdd > 0 || dayShifted)
+                {
+                  cl.set (Calendar.SECOND, 0);
+                  cl.set (Calendar.MINUTE, 0);
+                  cl.set (Calendar.HOUR_OF_DAY, 0);
+                  cl.set (Calendar.DAY_OF_MONTH, day);
+                  cl.set (Calendar.MONTH, mon - 1);
+                  // '- 1' here because we are NOT promoting the month
+                  continue;
+                }
+            }
+            else
+            {
+              // current d-o-w
+              final int cDow = cl.get (Calendar.DAY_OF_WEEK);
+              // desired
+              int dow = m_aDaysOfWeek.first ().intValue ();
+              // d-o-w
+              st = m_aDaysOfWeek.tailSet (Integer.valueOf (cDow));
+              if (st != null && !st.isEmpty ())
+              {
+                dow = st.first ().intValue ();
+              }
+
+              int daysToAdd = 0;
+              if (cDow < dow)
+              {
+                daysToAdd = dow - cDow;
+              }
+              if (cDow > dow)
+              {
+                daysToAdd = dow + (7 - cDow);
+              }
+
+              final int lDay = _getLastDayOfMonth (mon, cl.get (Calendar.YEAR));
+
+              if (day + daysToAdd > lDay)
+              { // will we pass the end of
+                // the month?
+                cl.set (Calendar.SECOND, 0);
+                cl.set (Calendar.MINUTE, 0);
+                cl.set (Calendar.HOUR_OF_DAY, 0);
+                cl.set (Calendar.DAY_OF_MONTH, 1);
+                cl.set (Calendar.MONTH, mon);
+                // no '- 1' here because we are promoting the month
+                continue;
+              }
+              else
+                if (daysToAdd > 0)
+                { // are we swithing days?
+                  cl.set (Calendar.SECOND, 0);
+                  cl.set (Calendar.MINUTE, 0);
+                  cl.set (Calendar.HOUR_OF_DAY, 0);
+                  cl.set (Calendar.DAY_OF_MONTH, day + daysToAdd);
+                  cl.set (Calendar.MONTH, mon - 1);
+                  // '- 1' because calendar is 0-based for this field,
+                  // and we are 1-based
+                  continue;
+                }
+            }
+        }
+        else
+        { // dayOfWSpec && !dayOfMSpec
+          throw new UnsupportedOperationException ("Support for specifying both a day-of-week AND a day-of-month parameter is not implemented.");
+        }
+      cl.set (Calendar.DAY_OF_MONTH, day);
+
+      mon = cl.get (Calendar.MONTH) + 1;
+      // '+ 1' because calendar is 0-based for this field, and we are
+      // 1-based
+      int year = cl.get (Calendar.YEAR);
+      t = -1;
+
+      // test for expressions that never generate a valid fire date,
+      // but keep looping...
+      if (year > CQuartz.MAX_YEAR)
+      {
+        return null;
+      }
+
+      // get month...................................................
+      st = m_aMonths.tailSet (Integer.valueOf (mon));
+      if (st != null && !st.isEmpty ())
+      {
+        t = mon;
+        mon = st.first ().intValue ();
+      }
+      else
+      {
+        mon = m_aMonths.first ().intValue ();
+        year++;
+      }
+      if (mon != t)
+      {
+        cl.set (Calendar.SECOND, 0);
+        cl.set (Calendar.MINUTE, 0);
+        cl.set (Calendar.HOUR_OF_DAY, 0);
+        cl.set (Calendar.DAY_OF_MONTH, 1);
+        cl.set (Calendar.MONTH, mon - 1);
+        // '- 1' because calendar is 0-based for this field, and we are
+        // 1-based
+        cl.set (Calendar.YEAR, year);
+        continue;
+      }
+      cl.set (Calendar.MONTH, mon - 1);
+      // '- 1' because calendar is 0-based for this field, and we are
+      // 1-based
+
+      year = cl.get (Calendar.YEAR);
+
+      // get year...................................................
+      st = m_aYears.tailSet (Integer.valueOf (year));
+      if (st == null || st.isEmpty ())
+      {
+        // ran out of years...
+        return null;
+      }
+
+      t = year;
+      year = st.first ().intValue ();
+
+      if (year != t)
+      {
+        cl.set (Calendar.SECOND, 0);
+        cl.set (Calendar.MINUTE, 0);
+        cl.set (Calendar.HOUR_OF_DAY, 0);
+        cl.set (Calendar.DAY_OF_MONTH, 1);
+        cl.set (Calendar.MONTH, 0);
+        // '- 1' because calendar is 0-based for this field, and we are
+        // 1-based
+        cl.set (Calendar.YEAR, year);
+        continue;
+      }
+      cl.set (Calendar.YEAR, year);
+
+      bGotOne = true;
+    } // while( !done )
+
+    return cl.getTime ();
+  }
+
+  /**
+   * Advance the calendar to the particular hour paying particular attention to
+   * daylight saving problems.
+   *
+   * @param cal
+   *        the calendar to operate on
+   * @param hour
+   *        the hour to set
+   */
+  private static void _setCalendarHour (final Calendar cal, final int hour)
+  {
+    cal.set (Calendar.HOUR_OF_DAY, hour);
+    if (cal.get (Calendar.HOUR_OF_DAY) != hour && hour != 24)
+    {
+      cal.set (Calendar.HOUR_OF_DAY, hour + 1);
+    }
+  }
+
+  private static boolean _isLeapYear (final int year)
+  {
+    return (year % 4 == 0 && year % 100 != 0) || (year % 400 == 0);
+  }
+
+  private static int _getLastDayOfMonth (final int monthNum, final int year)
+  {
+    switch (monthNum)
+    {
+      case 1:
+        return 31;
+      case 2:
+        return _isLeapYear (year) ? 29 : 28;
+      case 3:
+        return 31;
+      case 4:
+        return 30;
+      case 5:
+        return 31;
+      case 6:
+        return 30;
+      case 7:
+        return 31;
+      case 8:
+        return 31;
+      case 9:
+        return 30;
+      case 10:
+        return 31;
+      case 11:
+        return 30;
+      case 12:
+        return 31;
+      default:
+        throw new IllegalArgumentException ("Illegal month number: " + monthNum);
+    }
+  }
+}
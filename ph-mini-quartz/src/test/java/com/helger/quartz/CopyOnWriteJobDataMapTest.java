@@ -0,0 +1,163 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsMap;
+
+/**
+ * Test class for class {@link CopyOnWriteJobDataMap}.
+ *
+ * @author Philip Helger
+ */
+public final class CopyOnWriteJobDataMapTest
+{
+  @Test
+  public void testMergedView ()
+  {
+    final JobDataMap aJobMap = new JobDataMap ();
+    aJobMap.put ("a", "job");
+    aJobMap.put ("b", "job");
+    aJobMap.put ("n", null);
+    final JobDataMap aTriggerMap = new JobDataMap ();
+    aTriggerMap.put ("b", "trigger");
+    aTriggerMap.put ("c", "trigger");
+
+    final CopyOnWriteJobDataMap aMerged = new CopyOnWriteJobDataMap (aJobMap, null, new JobDataMap (), aTriggerMap);
+    assertFalse (aMerged.isMaterialized ());
+    assertEquals (4, aMerged.size ());
+    assertFalse (aMerged.isEmpty ());
+    assertEquals ("job", aMerged.getAsString ("a"));
+    assertEquals ("trigger", aMerged.getAsString ("b"));
+    assertEquals ("trigger", aMerged.getAsString ("c"));
+    assertTrue (aMerged.containsKey ("n"));
+    assertNull (aMerged.get ("n"));
+    assertEquals ("x", aMerged.getOrDefault ("d", "x"));
+    assertTrue (aMerged.containsValue ("trigger"));
+
+    // Same behaviour as a regular merged map
+    final JobDataMap aExpected = new JobDataMap ();
+    aExpected.putAll (aJobMap);
+    aExpected.putAll (aTriggerMap);
+    assertEquals (aExpected, aMerged);
+    assertEquals (aMerged, aExpected);
+    assertEquals (aExpected.hashCode (), aMerged.hashCode ());
+    assertEquals (aExpected, new JobDataMap (aMerged));
+
+    final ICommonsMap <String, Object> aVisited = new CommonsHashMap <> ();
+    aMerged.forEach (aVisited::put);
+    assertEquals (aExpected, aVisited);
+    assertEquals (4, aMerged.keySet ().size ());
+    assertEquals (4, aMerged.values ().size ());
+    assertFalse (aMerged.isMaterialized ());
+
+    // The sources were copied
+    aJobMap.put ("a", "modified");
+    assertEquals ("job", aMerged.getAsString ("a"));
+
+    assertTrue (new CopyOnWriteJobDataMap ().isEmpty ());
+    assertTrue (new CopyOnWriteJobDataMap ((Map <String, ?> []) null).isEmpty ());
+  }
+
+  @Test
+  public void testCopyOnWrite ()
+  {
+    final JobDataMap aSource = new JobDataMap ();
+    aSource.put ("a", "1");
+    aSource.put ("b", "2");
+
+    final JobDataMap aCopy1 = aSource.getClone ();
+    final JobDataMap aCopy2 = aCopy1.getClone ();
+    final CopyOnWriteJobDataMap aMerged = new CopyOnWriteJobDataMap (aCopy1, aCopy2);
+    assertTrue (CopyOnWriteJobDataMap.isSharingData (aCopy1, aCopy2));
+    assertFalse (CopyOnWriteJobDataMap.isSharingData (aSource, aCopy1));
+    assertFalse (CopyOnWriteJobDataMap.isSharingData (aCopy1, aMerged));
+    assertTrue (CopyOnWriteJobDataMap.isSharingData (new JobDataMap (), new CopyOnWriteJobDataMap ()));
+
+    aCopy2.put ("a", "changed");
+    assertTrue (((CopyOnWriteJobDataMap) aCopy2).isMaterialized ());
+    assertFalse (CopyOnWriteJobDataMap.isSharingData (aCopy1, aCopy2));
+    assertEquals ("changed", aCopy2.getAsString ("a"));
+    assertEquals ("2", aCopy2.getAsString ("b"));
+    assertEquals (2, aCopy2.size ());
+    assertEquals ("1", aCopy1.getAsString ("a"));
+    assertEquals ("1", aMerged.getAsString ("a"));
+    assertEquals ("1", aSource.getAsString ("a"));
+
+    // Clone of a materialized map
+    final JobDataMap aCopy3 = aCopy2.getClone ();
+    aCopy2.remove ("b");
+    assertEquals ("changed", aCopy3.getAsString ("a"));
+    assertEquals ("2", aCopy3.getAsString ("b"));
+
+    aMerged.clear ();
+    assertTrue (aMerged.isEmpty ());
+    assertEquals (2, aCopy1.size ());
+  }
+
+  @Test
+  public void testModifyViaViews ()
+  {
+    final JobDataMap aLower = new JobDataMap ();
+    aLower.put ("a", "1");
+    aLower.put ("b", "2");
+    final JobDataMap aUpper = new JobDataMap ();
+    aUpper.put ("b", "3");
+    final CopyOnWriteJobDataMap aMerged = new CopyOnWriteJobDataMap (aLower, aUpper);
+    final CopyOnWriteJobDataMap aOther = aMerged.getClone ();
+
+    int nCount = 0;
+    for (final Iterator <Map.Entry <String, Object>> it = aMerged.entrySet ().iterator (); it.hasNext ();)
+    {
+      final Map.Entry <String, Object> aEntry = it.next ();
+      nCount++;
+      if (aEntry.getKey ().equals ("a"))
+        it.remove ();
+      else
+      {
+        assertEquals ("3", aEntry.getValue ());
+        aEntry.setValue ("4");
+      }
+    }
+    assertEquals (2, nCount);
+    assertTrue (aMerged.isMaterialized ());
+    assertEquals (1, aMerged.size ());
+    assertEquals ("4", aMerged.getAsString ("b"));
+
+    // Other views and the sources are unaffected
+    assertEquals (2, aOther.size ());
+    assertEquals ("1", aOther.getAsString ("a"));
+    assertEquals ("3", aOther.getAsString ("b"));
+    assertEquals ("2", aLower.getAsString ("b"));
+
+    assertTrue (aOther.keySet ().remove ("a"));
+    assertFalse (aOther.keySet ().remove ("a"));
+    assertEquals (1, aOther.size ());
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.text.ParseException;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link CronExpressionCache}.
+ *
+ * @author Philip Helger
+ */
+public final class CronExpressionCacheTest
+{
+  @Test
+  public void testSharedCompiledExpression () throws ParseException
+  {
+    final CronExpression a = new CronExpression ("0 15 10 ? * MON-FRI");
+    a.setTimeZone (TimeZone.getTimeZone ("Europe/Vienna"));
+    final CronExpression b = new CronExpression ("0 15 10 ? * mon-fri");
+    b.setTimeZone (TimeZone.getTimeZone ("America/New_York"));
+    assertSame (a.getCompiled (), b.getCompiled ());
+
+    final CronExpression aClone = a.getClone ();
+    assertNotSame (a, aClone);
+    assertSame (a.getCompiled (), aClone.getCompiled ());
+    assertEquals (a.getTimeZone (), aClone.getTimeZone ());
+  }
+
+  @Test
+  public void testParseErrorNotCached ()
+  {
+    final int nSize = CronExpressionCache.getSize ();
+    try
+    {
+      new CronExpression ("0 15 10 * * MON-FRI");
+      fail ();
+    }
+    catch (final ParseException ex)
+    {
+      // expected
+    }
+    assertEquals (nSize, CronExpressionCache.getSize ());
+  }
+
+  @Test
+  public void testMaxSize () throws ParseException
+  {
+    final int nOldMaxSize = CronExpressionCache.getMaxSize ();
+    try
+    {
+      CronExpressionCache.setMaxSize (5);
+      for (int i = 0; i < 20; ++i)
+        new CronExpression (i + " 0 0 * * ?");
+      assertTrue (CronExpressionCache.getSize () <= 5);
+
+      // The most recently used entry is still cached
+      final CronExpression a = new CronExpression ("19 0 0 * * ?");
+      final CronExpression b = new CronExpression ("19 0 0 * * ?");
+      assertSame (a.getCompiled (), b.getCompiled ());
+    }
+    finally
+    {
+      CronExpressionCache.setMaxSize (nOldMaxSize);
+    }
+  }
+}
@@ -24,14 +24,20 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.text.ParseException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Random;
 import java.util.TimeZone;
 
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.helger.base.CGlobal;
 import com.helger.datetime.helper.PDTFactory;
 
 public final class CronExpressionTest
@@ -274,4 +280,156 @@ public final class CronExpressionTest
     final CronExpression copyCronExpression = new CronExpression (cronExpression);
     assertEquals (nonDefault, copyCronExpression.getTimeZone ());
   }
+
+  private static final String [] SECOND_FIELDS = { "0", "*", "0/15", "10-20", "5,35", "50-10" };
+  private static final String [] MINUTE_FIELDS = { "0", "*", "*/7", "30", "0-5", "45-15/4" };
+  private static final String [] HOUR_FIELDS = { "*", "0", "2", "1-3", "10", "22-4", "*/5", "23" };
+  private static final String [] DAY_OF_MONTH_FIELDS = { "*",
+                                                         "1",
+                                                         "15",
+                                                         "31",
+                                                         "29-2",
+                                                         "L",
+                                                         "L-3",
+                                                         "L-30",
+                                                         "LW",
+                                                         "L-2W",
+                                                         "1W",
+                                                         "15W",
+                                                         "31W",
+                                                         "*/10" };
+  private static final String [] DAY_OF_WEEK_FIELDS = { "*", "MON-FRI", "1", "SAT-MON", "6L", "L", "2#1", "5#5", "3#3" };
+  private static final String [] MONTH_FIELDS = { "*", "2", "NOV-FEB", "1,4,7,10", "*/5" };
+  private static final String [] YEAR_FIELDS = { "", "*", "2020-2030", "2024,2028", "1999" };
+
+  @Test
+  public void testCompiledMatchesCalendarImplementation () throws ParseException
+  {
+    final Random aRandom = new Random (20260101);
+    final String [] aZoneIDs = { "UTC",
+                                 "Europe/Vienna",
+                                 "US/Eastern",
+                                 "America/Sao_Paulo",
+                                 "Australia/Lord_Howe",
+                                 "Pacific/Apia",
+                                 "Asia/Kolkata",
+                                 "Africa/Casablanca",
+                                 "America/Havana",
+                                 "Pacific/Chatham" };
+    final long nMinTime = Instant.parse ("1990-01-01T00:00:00Z").toEpochMilli ();
+    final long nMaxTime = Instant.parse ("2045-01-01T00:00:00Z").toEpochMilli ();
+
+    for (int i = 0; i < 2000; ++i)
+    {
+      final boolean bDayOfMonth = aRandom.nextBoolean ();
+      final String sExpression = SECOND_FIELDS[aRandom.nextInt (SECOND_FIELDS.length)] +
+                                 " " +
+                                 MINUTE_FIELDS[aRandom.nextInt (MINUTE_FIELDS.length)] +
+                                 " " +
+                                 HOUR_FIELDS[aRandom.nextInt (HOUR_FIELDS.length)] +
+                                 " " +
+                                 (bDayOfMonth ? DAY_OF_MONTH_FIELDS[aRandom.nextInt (DAY_OF_MONTH_FIELDS.length)] : "?") +
+                                 " " +
+                                 MONTH_FIELDS[aRandom.nextInt (MONTH_FIELDS.length)] +
+                                 " " +
+                                 (bDayOfMonth ? "?" : DAY_OF_WEEK_FIELDS[aRandom.nextInt (DAY_OF_WEEK_FIELDS.length)]) +
+                                 " " +
+                                 YEAR_FIELDS[aRandom.nextInt (YEAR_FIELDS.length)];
+      final CronExpression aCronExpression = new CronExpression (sExpression.trim ());
+      aCronExpression.setTimeZone (TimeZone.getTimeZone (aZoneIDs[aRandom.nextInt (aZoneIDs.length)]));
+      final CalendarCronExpressionEvaluator aReference = new CalendarCronExpressionEvaluator (aCronExpression);
+
+      // Whole seconds only, as the legacy 'W' handling depends on the current
+      // milliseconds
+      Date aTime = new Date ((nMinTime + (long) (aRandom.nextDouble () * (nMaxTime - nMinTime))) / 1000 * 1000);
+      for (int j = 0; j < 5 && aTime != null; ++j)
+      {
+        final String sMsg = aCronExpression.getCronExpression () +
+                            " in " +
+                            aCronExpression.getTimeZone ().getID () +
+                            " after " +
+                            aTime.getTime ();
+        final Date aExpected = aReference.getTimeAfter (aTime);
+        assertEquals (sMsg, aExpected, aCronExpression.getTimeAfter (aTime));
+        assertEquals (sMsg, aReference.isSatisfiedBy (aTime), aCronExpression.isSatisfiedBy (aTime));
+        if (aExpected != null)
+          assertTrue (sMsg, aCronExpression.isSatisfiedBy (aExpected));
+        aTime = aExpected;
+      }
+    }
+  }
+
+  @Test
+  public void testCompiledDaylightSavingTransitions () throws ParseException
+  {
+    // Fire every 30 minutes around the transitions in both directions
+    final CronExpression aCronExpression = new CronExpression ("0 0/30 * * * ?");
+    for (final String sZoneID : new String [] { "Europe/Vienna", "US/Eastern", "Australia/Lord_Howe", "Pacific/Apia" })
+    {
+      aCronExpression.setTimeZone (TimeZone.getTimeZone (sZoneID));
+      final CalendarCronExpressionEvaluator aReference = new CalendarCronExpressionEvaluator (aCronExpression);
+      final ZoneRules aRules = ZoneId.of (sZoneID).getRules ();
+      ZoneOffsetTransition aTransition = aRules.nextTransition (Instant.parse ("2005-01-01T00:00:00Z"));
+      while (aTransition != null && aTransition.getInstant ().isBefore (Instant.parse ("2040-01-01T00:00:00Z")))
+      {
+        final long nTransition = aTransition.getInstant ().toEpochMilli ();
+        final long nEnd = nTransition + 3 * CGlobal.MILLISECONDS_PER_HOUR;
+        for (long nTime = nTransition - 3 * CGlobal.MILLISECONDS_PER_HOUR; nTime < nEnd; nTime += 7 * CGlobal.MILLISECONDS_PER_MINUTE)
+        {
+          final Date aTime = new Date (nTime);
+          assertEquals (sZoneID + " " + nTime, aReference.getTimeAfter (aTime), aCronExpression.getTimeAfter (aTime));
+          assertEquals (sZoneID + " " + nTime, aReference.isSatisfiedBy (aTime), aCronExpression.isSatisfiedBy (aTime));
+        }
+        aTransition = aRules.nextTransition (aTransition.getInstant ());
+      }
+    }
+  }
+
+  @Test
+  public void testNextInvalidTimeMatchesSecondBySecond () throws ParseException
+  {
+    final Random aRandom = new Random (20260102);
+    final String [] aExpressions = { "* * 0-7 ? * MON-FRI",
+                                     "* * * ? * MON-FRI",
+                                     "* 0-30 * * * ?",
+                                     "0-29 * 9-17 * * ?",
+                                     "50-10 * * * * ?",
+                                     "* 50-10 22-2 * * ?",
+                                     "0 0 12 * * ?",
+                                     "* * * L * ?",
+                                     "* * 1-3 * * ?" };
+    final long nMinTime = Instant.parse ("2000-01-01T00:00:00Z").toEpochMilli ();
+    final long nMaxTime = Instant.parse ("2040-01-01T00:00:00Z").toEpochMilli ();
+    for (final String sExpression : aExpressions)
+      for (final String sZoneID : new String [] { "UTC", "Europe/Vienna", "Australia/Lord_Howe" })
+      {
+        final CronExpression aCronExpression = new CronExpression (sExpression);
+        aCronExpression.setTimeZone (TimeZone.getTimeZone (sZoneID));
+        final CalendarCronExpressionEvaluator aReference = new CalendarCronExpressionEvaluator (aCronExpression);
+        for (int i = 0; i < 10; ++i)
+        {
+          // Start at a match, so that there is a range to skip
+          final Date aStart = aReference.getTimeAfter (new Date (nMinTime +
+                                                                 (long) (aRandom.nextDouble () * (nMaxTime - nMinTime))));
+          final String sMsg = sExpression + " in " + sZoneID + " at " + aStart.getTime ();
+          assertEquals (sMsg, aReference.getNextInvalidTimeAfter (aStart), aCronExpression.getNextInvalidTimeAfter (aStart));
+          final Date aBefore = new Date (aStart.getTime () - 1234);
+          assertEquals (sMsg, aReference.getNextInvalidTimeAfter (aBefore), aCronExpression.getNextInvalidTimeAfter (aBefore));
+        }
+      }
+
+    // Around daylight saving transitions
+    final CronExpression aCronExpression = new CronExpression ("* * 0-5 * * ?");
+    aCronExpression.setTimeZone (TimeZone.getTimeZone ("Europe/Vienna"));
+    final CalendarCronExpressionEvaluator aReference = new CalendarCronExpressionEvaluator (aCronExpression);
+    for (final String sStart : new String [] { "2024-03-30T23:00:00Z",
+                                               "2024-03-31T00:59:58Z",
+                                               "2024-10-26T22:00:00Z",
+                                               "2024-10-27T00:30:00Z",
+                                               "2024-10-27T01:30:00Z" })
+    {
+      final Date aStart = Date.from (Instant.parse (sStart));
+      assertEquals (sStart, aReference.getNextInvalidTimeAfter (aStart), aCronExpression.getNextInvalidTimeAfter (aStart));
+    }
+  }
 }
@@ -0,0 +1,257 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import static com.helger.quartz.JobBuilder.newJob;
+import static com.helger.quartz.TriggerBuilder.newTrigger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.helger.base.rt.NonBlockingProperties;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.quartz.impl.JobExecutionContext;
+import com.helger.quartz.impl.StdSchedulerFactory;
+import com.helger.quartz.simpl.SimpleThreadPool;
+
+/**
+ * Test class for the index of the currently executing jobs, as used by
+ * {@link IScheduler#getCurrentlyExecutingJobs(JobKey)},
+ * {@link IScheduler#interrupt(JobKey)} and
+ * {@link IScheduler#interrupt(String)}.
+ *
+ * @author Philip Helger
+ */
+public final class ExecutingJobsTest
+{
+  static final BlockingQueue <CompletableFuture <Void>> PENDING = new LinkedBlockingQueue <> ();
+
+  public static class PendingJob implements IAsyncJob
+  {
+    public CompletableFuture <?> executeAsync (final IJobExecutionContext context)
+    {
+      final CompletableFuture <Void> ret = new CompletableFuture <> ();
+      PENDING.add (ret);
+      return ret;
+    }
+  }
+
+  private static IScheduler _createScheduler (final String sName) throws SchedulerException
+  {
+    final NonBlockingProperties config = new NonBlockingProperties ();
+    config.setProperty (StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, sName);
+    config.setProperty (StdSchedulerFactory.PROP_SCHED_INSTANCE_ID, "AUTO");
+    config.setProperty ("org.quartz.threadPool.threadCount", "1");
+    config.setProperty ("org.quartz.threadPool.class", SimpleThreadPool.class.getName ());
+    return new StdSchedulerFactory ().initialize (config).getScheduler ();
+  }
+
+  private static ICommonsList <CompletableFuture <Void>> _pollPending (final int nCount) throws InterruptedException
+  {
+    final ICommonsList <CompletableFuture <Void>> ret = new CommonsArrayList <> ();
+    for (int i = 0; i < nCount; ++i)
+    {
+      final CompletableFuture <Void> aFuture = PENDING.poll (10, TimeUnit.SECONDS);
+      assertNotNull (aFuture);
+      ret.add (aFuture);
+    }
+    return ret;
+  }
+
+  /**
+   * Wait until all executing jobs released their thread, so that they can be
+   * interrupted.
+   */
+  private static void _awaitAllPending (final IScheduler sched) throws Exception
+  {
+    for (int i = 0; i < 100; ++i)
+    {
+      final AtomicInteger aNotPending = new AtomicInteger (0);
+      sched.forEachCurrentlyExecutingJob (x -> {
+        if (((JobExecutionContext) x).getPendingAsyncResult () == null)
+          aNotPending.incrementAndGet ();
+      });
+      if (aNotPending.get () == 0)
+        return;
+      Thread.sleep (10);
+    }
+  }
+
+  private static void _awaitNoneExecuting (final IScheduler sched) throws Exception
+  {
+    for (int i = 0; i < 100 && !sched.getCurrentlyExecutingJobs ().isEmpty (); ++i)
+      Thread.sleep (10);
+    assertEquals (0, sched.getCurrentlyExecutingJobs ().size ());
+  }
+
+  @Test
+  public void testIndex () throws Exception
+  {
+    PENDING.clear ();
+    final IScheduler sched = _createScheduler ("ExecutingJobsTest_Index");
+    sched.start ();
+    try
+    {
+      final JobKey aKeyA = new JobKey ("ja", "g1");
+      for (int i = 0; i < 3; ++i)
+      {
+        final IJobDetail job = newJob (PendingJob.class).withIdentity (i == 0 ? aKeyA : new JobKey ("j" + i, "g2"))
+                                                        .build ();
+        sched.scheduleJob (job, newTrigger ().withIdentity ("ti" + i).forJob (job).startNow ().build ());
+      }
+      final ICommonsList <CompletableFuture <Void>> aFutures = _pollPending (3);
+
+      assertEquals (3, sched.getCurrentlyExecutingJobs ().size ());
+      assertEquals (1, sched.getNumberOfCurrentlyExecutingJobs (aKeyA));
+      assertEquals (aKeyA, sched.getCurrentlyExecutingJobs (aKeyA).get (0).getJobDetail ().getKey ());
+      assertEquals (1, sched.getNumberOfCurrentlyExecutingJobsInGroup ("g1"));
+      assertEquals (2, sched.getNumberOfCurrentlyExecutingJobsInGroup ("g2"));
+      assertEquals (0, sched.getNumberOfCurrentlyExecutingJobsInGroup ("g3"));
+      final AtomicInteger aCount = new AtomicInteger (0);
+      sched.forEachCurrentlyExecutingJob (x -> aCount.incrementAndGet ());
+      assertEquals (3, aCount.get ());
+
+      aFutures.forEach (x -> x.complete (null));
+      _awaitNoneExecuting (sched);
+      assertEquals (0, sched.getNumberOfCurrentlyExecutingJobs (aKeyA));
+      assertEquals (0, sched.getCurrentlyExecutingJobs (aKeyA).size ());
+      assertEquals (0, sched.getNumberOfCurrentlyExecutingJobsInGroup ("g2"));
+    }
+    finally
+    {
+      sched.shutdown ();
+    }
+  }
+
+  @Test
+  public void testRefireCountedOnce () throws Exception
+  {
+    PENDING.clear ();
+    final IScheduler sched = _createScheduler ("ExecutingJobsTest_Refire");
+    sched.start ();
+    try
+    {
+      final IJobDetail job = newJob (PendingJob.class).withIdentity ("jr", "g1").build ();
+      sched.scheduleJob (job, newTrigger ().withIdentity ("tr").forJob (job).startNow ().build ());
+      final CompletableFuture <Void> aFuture = _pollPending (1).getFirstOrNull ();
+
+      // The refire uses the same execution context
+      aFuture.completeExceptionally (new JobExecutionException ("retry", true));
+      final CompletableFuture <Void> aRefired = _pollPending (1).getFirstOrNull ();
+      assertEquals (1, sched.getCurrentlyExecutingJobs ().size ());
+      assertEquals (1, sched.getNumberOfCurrentlyExecutingJobs (job.getKey ()));
+      assertEquals (1, sched.getCurrentlyExecutingJobs (job.getKey ()).size ());
+      assertEquals (1, sched.getNumberOfCurrentlyExecutingJobsInGroup ("g1"));
+
+      aRefired.complete (null);
+      _awaitNoneExecuting (sched);
+      assertEquals (0, sched.getNumberOfCurrentlyExecutingJobs (job.getKey ()));
+      assertEquals (0, sched.getNumberOfCurrentlyExecutingJobsInGroup ("g1"));
+    }
+    finally
+    {
+      sched.shutdown ();
+    }
+  }
+
+  @Test
+  public void testInterruptByJobKey () throws Exception
+  {
+    PENDING.clear ();
+    final IScheduler sched = _createScheduler ("ExecutingJobsTest_InterruptByJobKey");
+    sched.start ();
+    try
+    {
+      // Two concurrent fires of the same job and one of another job
+      final IJobDetail job = newJob (PendingJob.class).withIdentity ("jk", "g1").storeDurably ().build ();
+      sched.addJob (job, false);
+      sched.scheduleJob (newTrigger ().withIdentity ("tk1").forJob (job).startNow ().build ());
+      sched.scheduleJob (newTrigger ().withIdentity ("tk2").forJob (job).startNow ().build ());
+      final IJobDetail aOther = newJob (PendingJob.class).withIdentity ("jo", "g1").build ();
+      sched.scheduleJob (aOther, newTrigger ().withIdentity ("to").forJob (aOther).startNow ().build ());
+      final ICommonsList <CompletableFuture <Void>> aFutures = _pollPending (3);
+      _awaitAllPending (sched);
+      assertEquals (2, sched.getNumberOfCurrentlyExecutingJobs (job.getKey ()));
+
+      assertTrue (sched.interrupt (job.getKey ()));
+      assertEquals (2, aFutures.stream ().filter (CompletableFuture::isCancelled).count ());
+      for (int i = 0; i < 100 && sched.getNumberOfCurrentlyExecutingJobs (job.getKey ()) > 0; ++i)
+        Thread.sleep (10);
+      assertEquals (0, sched.getNumberOfCurrentlyExecutingJobs (job.getKey ()));
+      assertFalse (sched.interrupt (job.getKey ()));
+
+      // The other job is still running
+      assertEquals (1, sched.getNumberOfCurrentlyExecutingJobs (aOther.getKey ()));
+      aFutures.forEach (x -> x.complete (null));
+      _awaitNoneExecuting (sched);
+    }
+    finally
+    {
+      sched.shutdown ();
+    }
+  }
+
+  @Test
+  public void testInterruptByFireInstanceId () throws Exception
+  {
+    PENDING.clear ();
+    final IScheduler sched = _createScheduler ("ExecutingJobsTest_InterruptByFireInstanceId");
+    sched.start ();
+    try
+    {
+      for (int i = 0; i < 2; ++i)
+      {
+        final IJobDetail job = newJob (PendingJob.class).withIdentity ("jf" + i, "g1").build ();
+        sched.scheduleJob (job, newTrigger ().withIdentity ("tf" + i).forJob (job).startNow ().build ());
+      }
+      final ICommonsList <CompletableFuture <Void>> aFutures = _pollPending (2);
+      _awaitAllPending (sched);
+
+      final IJobExecutionContext aJEC = sched.getCurrentlyExecutingJobs (new JobKey ("jf0", "g1")).getFirstOrNull ();
+      assertNotNull (aJEC);
+      final String sFireInstanceId = aJEC.getFireInstanceId ();
+      assertTrue (sched.interrupt (sFireInstanceId));
+      assertEquals (1, aFutures.stream ().filter (CompletableFuture::isCancelled).count ());
+      for (int i = 0; i < 100 && sched.getNumberOfCurrentlyExecutingJobsInGroup ("g1") > 1; ++i)
+        Thread.sleep (10);
+      assertEquals (1, sched.getNumberOfCurrentlyExecutingJobsInGroup ("g1"));
+      assertFalse (sched.interrupt (sFireInstanceId));
+      assertFalse (sched.interrupt ("no-such-fire-instance"));
+      assertNull (sched.getCurrentlyExecutingJobs (new JobKey ("jf0", "g1")).getFirstOrNull ());
+
+      aFutures.forEach (x -> x.complete (null));
+      _awaitNoneExecuting (sched);
+    }
+    finally
+    {
+      sched.shutdown ();
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.helger.quartz.impl.triggers.SimpleTrigger;
+
+/**
+ * Test class for class {@link KeyInterner}.
+ *
+ * @author Philip Helger
+ */
+public final class KeyInternerTest
+{
+  @Test
+  public void testInternGroup ()
+  {
+    final String sGroup1 = new StringBuilder ("intern").append ("Group").toString ();
+    final String sGroup2 = new StringBuilder ("internGroup").toString ();
+    assertNotSame (sGroup1, sGroup2);
+    assertSame (KeyInterner.internGroup (sGroup1), KeyInterner.internGroup (sGroup2));
+
+    final TriggerKey aKey1 = new TriggerKey ("t1", sGroup1);
+    final TriggerKey aKey2 = KeyInterner.intern (new TriggerKey ("t1", sGroup2));
+    assertEquals (aKey1, aKey2);
+    assertEquals (aKey1.hashCode (), aKey2.hashCode ());
+    assertSame (aKey2, KeyInterner.intern (aKey2));
+    assertSame (KeyInterner.internGroup (sGroup1), aKey2.getGroup ());
+
+    // Groups of triggers are interned
+    final SimpleTrigger aTrigger = new SimpleTrigger ();
+    aTrigger.setKey (new TriggerKey ("t1", new StringBuilder ("internGroup").toString ()));
+    aTrigger.setJobKey (new JobKey ("j1", new StringBuilder ("internGroup").toString ()));
+    assertSame (aKey2.getGroup (), aTrigger.getKey ().getGroup ());
+    assertSame (aKey2.getGroup (), aTrigger.getJobKey ().getGroup ());
+  }
+
+  @Test
+  public void testDisabled ()
+  {
+    KeyInterner.setEnabled (false);
+    try
+    {
+      assertFalse (KeyInterner.isEnabled ());
+      assertEquals (0, KeyInterner.getGroupCount ());
+      final JobKey aKey = new JobKey ("j1", new StringBuilder ("disabled").toString ());
+      assertSame (aKey, KeyInterner.intern (aKey));
+      assertNotSame (KeyInterner.internGroup (new StringBuilder ("disabled").toString ()),
+                     KeyInterner.internGroup (new StringBuilder ("disabled").toString ()));
+    }
+    finally
+    {
+      KeyInterner.setEnabled (true);
+    }
+  }
+
+  @Test
+  public void testMaxGroups ()
+  {
+    final int nOldMaxGroups = KeyInterner.getMaxGroups ();
+    try
+    {
+      KeyInterner.setMaxGroups (KeyInterner.getGroupCount () + 1);
+      KeyInterner.internGroup ("maxGroups1");
+      final String sGroup = new StringBuilder ("maxGroups2").toString ();
+      // Not interned anymore
+      assertSame (sGroup, KeyInterner.internGroup (sGroup));
+    }
+    finally
+    {
+      KeyInterner.setMaxGroups (nOldMaxGroups);
+    }
+  }
+}
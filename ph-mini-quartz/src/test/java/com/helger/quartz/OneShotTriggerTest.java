@@ -0,0 +1,168 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Date;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.helger.collection.commons.ICommonsList;
+import com.helger.quartz.AbstractJobStoreTest.MyJob;
+import com.helger.quartz.AbstractJobStoreTest.SampleSignaler;
+import com.helger.quartz.impl.JobDetailTemplate;
+import com.helger.quartz.impl.TemplatedJobDetail;
+import com.helger.quartz.impl.triggers.OneShotTrigger;
+import com.helger.quartz.simpl.RAMJobStore;
+import com.helger.quartz.spi.IOperableTrigger;
+
+/**
+ * Test class for {@link OneShotTrigger} and {@link TemplatedJobDetail}.
+ *
+ * @author Philip Helger
+ */
+public final class OneShotTriggerTest
+{
+  @Rule
+  public final TemporaryFolder m_aTempFolder = new TemporaryFolder ();
+
+  @Test
+  public void testFireTimes ()
+  {
+    final long nStart = System.currentTimeMillis () + 60_000;
+    final OneShotTrigger aTrigger = OneShotTrigger.create ("t", "group", "j", null, nStart);
+    assertEquals (nStart, aTrigger.getStartTimeMillis ());
+    assertNull (aTrigger.getEndTime ());
+    assertEquals (new Date (nStart), aTrigger.computeFirstFireTime (null));
+    assertEquals (nStart, aTrigger.getNextFireTimeMillis ());
+    assertEquals (nStart, aTrigger.getFireTimeAfter (new Date (nStart - 1)).getTime ());
+    assertNull (aTrigger.getFireTimeAfter (new Date (nStart)));
+    assertEquals (0, aTrigger.getTimesTriggered ());
+    assertTrue (aTrigger.mayFireAgain ());
+
+    aTrigger.triggered (null);
+    assertEquals (nStart, aTrigger.getPreviousFireTimeMillis ());
+    assertEquals (ITrigger.NO_FIRE_TIME, aTrigger.getNextFireTimeMillis ());
+    assertEquals (1, aTrigger.getTimesTriggered ());
+    assertFalse (aTrigger.mayFireAgain ());
+    assertNull (aTrigger.getFireTimeAfter (null));
+  }
+
+  @Test
+  public void testMisfire ()
+  {
+    final long nStart = System.currentTimeMillis () - 60_000;
+    final OneShotTrigger aTrigger = (OneShotTrigger) TriggerBuilder.newTrigger ()
+                                                                   .withIdentity ("t")
+                                                                   .forJob ("j")
+                                                                   .startAt (new Date (nStart))
+                                                                   .withSchedule (OneShotScheduleBuilder.oneShotSchedule ())
+                                                                   .build ();
+    aTrigger.computeFirstFireTime (null);
+    aTrigger.updateAfterMisfire (null);
+    assertTrue (aTrigger.getNextFireTimeMillis () > nStart);
+
+    final OneShotTrigger aDiscard = (OneShotTrigger) aTrigger.getTriggerBuilder ()
+                                                             .withSchedule (OneShotScheduleBuilder.oneShotSchedule ()
+                                                                                                  .withMisfireHandlingInstructionDiscard ())
+                                                             .build ();
+    assertEquals (nStart, aDiscard.getStartTimeMillis ());
+    aDiscard.computeFirstFireTime (null);
+    aDiscard.updateAfterMisfire (null);
+    assertFalse (aDiscard.mayFireAgain ());
+  }
+
+  @Test
+  public void testTemplatedJobDetail ()
+  {
+    final JobDetailTemplate aTemplate = JobDetailTemplate.create (MyJob.class);
+    final JobDataMap aData = new JobDataMap ();
+    aData.put ("id", 17);
+    final TemplatedJobDetail aJob1 = aTemplate.createJobDetail (new JobKey ("job1", "tasks"), aData);
+    final TemplatedJobDetail aJob2 = aTemplate.createJobDetail (new JobKey ("job2", "tasks"), null);
+    assertSame (aJob1.getTemplate (), aJob2.getTemplate ());
+    assertSame (MyJob.class, aJob2.getJobClass ());
+    assertFalse (aJob1.isDurable ());
+    assertTrue (aJob2.getJobDataMap ().isEmpty ());
+
+    final TemplatedJobDetail aClone = aJob1.getClone ();
+    assertEquals (aJob1, aClone);
+    assertSame (aTemplate, aClone.getTemplate ());
+    assertNotSame (aJob1.getJobDataMap (), aClone.getJobDataMap ());
+    assertEquals (17, aClone.getJobDataMap ().getAsInt ("id"));
+
+    final IJobDetail aRebuilt = aJob1.getJobBuilder ().build ();
+    assertEquals (aJob1.getKey (), aRebuilt.getKey ());
+    assertEquals (17, aRebuilt.getJobDataMap ().getAsInt ("id"));
+  }
+
+  @Test
+  public void testStoreAndSnapshot () throws Exception
+  {
+    final RAMJobStore aStore = new RAMJobStore ();
+    aStore.initialize (null, new SampleSignaler ());
+    final JobDetailTemplate aTemplate = JobDetailTemplate.create (MyJob.class);
+    final long nStart = System.currentTimeMillis () + 60_000;
+    for (int i = 0; i < 10; ++i)
+    {
+      final JobDataMap aData = new JobDataMap ();
+      aData.put ("id", i);
+      aStore.storeJob (aTemplate.createJobDetail (new JobKey ("job" + i, "tasks"), aData), false);
+      final OneShotTrigger aTrigger = OneShotTrigger.create ("trigger" + i, "tasks", "job" + i, "tasks", nStart + i);
+      aTrigger.computeFirstFireTime (null);
+      aStore.storeTrigger (aTrigger, false);
+    }
+
+    final File aFile = new File (m_aTempFolder.newFolder (), "store.snapshot");
+    aStore.writeSnapshot (aFile.toPath ());
+    final RAMJobStore aLoaded = new RAMJobStore ();
+    aLoaded.initialize (null, new SampleSignaler ());
+    aLoaded.loadSnapshot (aFile.toPath (), null);
+    assertEquals (10, aLoaded.getNumberOfTriggers ());
+    assertEquals (3, aLoaded.retrieveJob (new JobKey ("job3", "tasks")).getJobDataMap ().getAsInt ("id"));
+
+    final ICommonsList <IOperableTrigger> aAcquired = aLoaded.acquireNextTriggers (nStart, 100, 100);
+    assertEquals (10, aAcquired.size ());
+    for (int i = 0; i < 10; ++i)
+    {
+      final IOperableTrigger aTrigger = aAcquired.get (i);
+      assertTrue (aTrigger instanceof OneShotTrigger);
+      assertEquals ("trigger" + i, aTrigger.getKey ().getName ());
+      assertEquals (nStart + i, aTrigger.getNextFireTimeMillis ());
+    }
+
+    // After firing, the trigger and its non durable job are gone
+    assertNotNull (aLoaded.triggersFired (aAcquired.subList (0, 1)).getFirstOrNull ().getTriggerFiredBundle ());
+    aLoaded.triggeredJobComplete (aAcquired.get (0),
+                                  aLoaded.retrieveJob (new JobKey ("job0", "tasks")),
+                                  ITrigger.ECompletedExecutionInstruction.DELETE_TRIGGER);
+    assertEquals (9, aLoaded.getNumberOfTriggers ());
+    assertNull (aLoaded.retrieveJob (new JobKey ("job0", "tasks")));
+  }
+}
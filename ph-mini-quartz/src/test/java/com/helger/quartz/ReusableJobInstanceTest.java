@@ -0,0 +1,93 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz;
+
+import static com.helger.quartz.JobBuilder.newJob;
+import static com.helger.quartz.TriggerBuilder.newTrigger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.helger.base.rt.NonBlockingProperties;
+import com.helger.quartz.impl.StdSchedulerFactory;
+import com.helger.quartz.simpl.SimpleThreadPool;
+
+/**
+ * Test class for {@link ReusableJobInstance}.
+ *
+ * @author Philip Helger
+ */
+public final class ReusableJobInstanceTest
+{
+  static final int FIRES = 10;
+  static final AtomicInteger INSTANCES = new AtomicInteger (0);
+  static final Set <IJob> USED_INSTANCES = ConcurrentHashMap.newKeySet ();
+  static CountDownLatch s_aLatch;
+
+  @ReusableJobInstance
+  public static class TestReusableJob implements IJob
+  {
+    public TestReusableJob ()
+    {
+      INSTANCES.incrementAndGet ();
+    }
+
+    public void execute (final IJobExecutionContext context)
+    {
+      USED_INSTANCES.add (context.getJobInstance ());
+      s_aLatch.countDown ();
+    }
+  }
+
+  @Test
+  public void testReuse () throws Exception
+  {
+    s_aLatch = new CountDownLatch (FIRES);
+    final NonBlockingProperties config = new NonBlockingProperties ();
+    config.setProperty (StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, "ReusableJobInstanceTest_Scheduler");
+    config.setProperty (StdSchedulerFactory.PROP_SCHED_INSTANCE_ID, "AUTO");
+    config.setProperty ("org.quartz.threadPool.threadCount", "3");
+    config.setProperty ("org.quartz.threadPool.class", SimpleThreadPool.class.getName ());
+    final IScheduler sched = new StdSchedulerFactory ().initialize (config).getScheduler ();
+    sched.start ();
+    try
+    {
+      // Different jobs of the same class share the instance
+      for (int i = 0; i < FIRES; ++i)
+      {
+        final IJobDetail job = newJob (TestReusableJob.class).withIdentity ("j" + i).build ();
+        sched.scheduleJob (job, newTrigger ().withIdentity ("t" + i).forJob (job).startNow ().build ());
+      }
+      assertTrue (s_aLatch.await (10, TimeUnit.SECONDS));
+      assertEquals (1, INSTANCES.get ());
+      assertEquals (1, USED_INSTANCES.size ());
+    }
+    finally
+    {
+      sched.shutdown (true);
+    }
+  }
+}
@@ -19,6 +19,7 @@
 package com.helger.quartz;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
@@ -86,6 +87,38 @@ public class SimpleTriggerTest
     assertEquals (40, fireTimeAfter.getTime ());
   }
 
+  @Test
+  public void testPrimitiveFireTimes ()
+  {
+    final SimpleTrigger simpleTrigger = new SimpleTrigger ();
+    simpleTrigger.setStartTime (new Date (0));
+    simpleTrigger.setRepeatInterval (10);
+    simpleTrigger.setRepeatCount (2);
+    assertEquals (ITrigger.NO_FIRE_TIME, simpleTrigger.getNextFireTimeMillis ());
+    assertEquals (ITrigger.NO_FIRE_TIME, simpleTrigger.getPreviousFireTimeMillis ());
+
+    simpleTrigger.computeFirstFireTime (null);
+    assertEquals (0, simpleTrigger.getNextFireTimeMillis ());
+
+    simpleTrigger.triggered (null);
+    assertEquals (0, simpleTrigger.getPreviousFireTimeMillis ());
+    assertEquals (10, simpleTrigger.getNextFireTimeMillis ());
+    assertEquals (new Date (10), simpleTrigger.getNextFireTime ());
+
+    // The Date accessors are only views
+    simpleTrigger.getNextFireTime ().setTime (4711);
+    assertEquals (10, simpleTrigger.getNextFireTimeMillis ());
+    simpleTrigger.setNextFireTime (new Date (20));
+    assertEquals (20, simpleTrigger.getNextFireTimeMillis ());
+    assertEquals (20, simpleTrigger.getClone ().getNextFireTimeMillis ());
+
+    simpleTrigger.triggered (null);
+    assertEquals (20, simpleTrigger.getPreviousFireTimeMillis ());
+    assertEquals (ITrigger.NO_FIRE_TIME, simpleTrigger.getNextFireTimeMillis ());
+    assertNull (simpleTrigger.getNextFireTime ());
+    assertFalse (simpleTrigger.mayFireAgain ());
+  }
+
   @Test
   public void testClone ()
   {
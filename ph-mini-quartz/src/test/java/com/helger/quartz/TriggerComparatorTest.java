@@ -22,6 +22,7 @@ import static com.helger.quartz.DateBuilder.futureDate;
 import static com.helger.quartz.EIntervalUnit.MINUTE;
 import static com.helger.quartz.TriggerBuilder.newTrigger;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Collections;
 import java.util.LinkedList;
@@ -117,4 +118,20 @@ public class TriggerComparatorTest
     assertEquals (t9, ts.get (8));
   }
 
+  @Test
+  public void testNoFireTimeSortsLast ()
+  {
+    final IOperableTrigger t1 = (IOperableTrigger) newTrigger ().withIdentity ("a").startAt (futureDate (1, MINUTE)).build ();
+    t1.computeFirstFireTime (null);
+    final IOperableTrigger t2 = (IOperableTrigger) newTrigger ().withIdentity ("b").startAt (futureDate (2, MINUTE)).build ();
+    t2.computeFirstFireTime (null);
+    final IOperableTrigger t3 = (IOperableTrigger) newTrigger ().withIdentity ("c").withPriority (10).build ();
+    t3.setNextFireTimeMillis (ITrigger.NO_FIRE_TIME);
+
+    final TriggerTimeComparator aComp = new TriggerTimeComparator ();
+    assertTrue (aComp.compare (t1, t2) < 0);
+    assertTrue (aComp.compare (t2, t3) < 0);
+    assertTrue (aComp.compare (t3, t1) > 0);
+    assertEquals (0, aComp.compare (t3, t3));
+  }
 }
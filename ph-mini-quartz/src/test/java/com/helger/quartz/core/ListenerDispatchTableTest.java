@@ -0,0 +1,118 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.core;
+
+import static com.helger.quartz.impl.matchers.GroupMatcher.jobGroupEquals;
+import static com.helger.quartz.impl.matchers.GroupMatcher.triggerGroupEquals;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.quartz.IJobListener;
+import com.helger.quartz.ISchedulerListener;
+import com.helger.quartz.ITriggerListener;
+import com.helger.quartz.JobKey;
+import com.helger.quartz.TriggerKey;
+import com.helger.quartz.core.ListenerManagerTest.TestJobListener;
+import com.helger.quartz.core.ListenerManagerTest.TestSchedulerListener;
+import com.helger.quartz.core.ListenerManagerTest.TestTriggerListener;
+
+/**
+ * Test class for class {@link ListenerDispatchTable}.
+ *
+ * @author Philip Helger
+ */
+public final class ListenerDispatchTableTest
+{
+  @Test
+  public void testResolve ()
+  {
+    final ListenerManager aMgr = new ListenerManager ();
+    final IJobListener jl1 = new TestJobListener ("jl1");
+    final IJobListener jl2 = new TestJobListener ("jl2");
+    final IJobListener jlInternal = new TestJobListener ("internal");
+    final ITriggerListener tl1 = new TestTriggerListener ("tl1");
+    final ISchedulerListener sl1 = new TestSchedulerListener ();
+    aMgr.addJobListener (jl1);
+    aMgr.addJobListener (jl2, jobGroupEquals ("foo"));
+    aMgr.addTriggerListener (tl1, triggerGroupEquals ("bar"));
+    aMgr.addSchedulerListener (sl1);
+
+    final ListenerDispatchTable aTable = new ListenerDispatchTable (aMgr.getRevision (),
+                                                                    0,
+                                                                    aMgr,
+                                                                    new CommonsArrayList <> (jl1, jl2, jlInternal),
+                                                                    aMgr.getTriggerListeners (),
+                                                                    aMgr.getSchedulerListeners ());
+    assertArrayEquals (new IJobListener [] { jl1, jl2, jlInternal },
+                       aTable.getJobListeners (new JobKey ("a", "foo")));
+    assertArrayEquals (new IJobListener [] { jl1, jlInternal }, aTable.getJobListeners (new JobKey ("a", "other")));
+    assertArrayEquals (new ITriggerListener [] { tl1 }, aTable.getTriggerListeners (new TriggerKey ("a", "bar")));
+    assertEquals (0, aTable.getTriggerListeners (new TriggerKey ("a", "other")).length);
+    assertArrayEquals (new ISchedulerListener [] { sl1 }, aTable.getSchedulerListeners ());
+
+    // Resolved arrays are cached per key
+    assertEquals (2, aTable.getCachedJobKeyCount ());
+    assertSame (aTable.getJobListeners (new JobKey ("a", "other")), aTable.getJobListeners (new JobKey ("a", "other")));
+    assertEquals (2, aTable.getCachedJobKeyCount ());
+
+    for (int i = 0; i < ListenerDispatchTable.MAX_CACHED_KEYS + 10; ++i)
+      aTable.getTriggerListeners (new TriggerKey ("t" + i, "bar"));
+    assertTrue (aTable.getCachedTriggerKeyCount () < ListenerDispatchTable.MAX_CACHED_KEYS);
+  }
+
+  @Test
+  public void testMatchAllNeedsNoCache ()
+  {
+    final ListenerManager aMgr = new ListenerManager ();
+    aMgr.addJobListener (new TestJobListener ("jl1"));
+    aMgr.addJobListener (new TestJobListener ("jl2"), jobGroupEquals ("foo"));
+    aMgr.addJobListenerMatcher ("jl2", jobGroupEquals ("bar"));
+    aMgr.removeJobListenerMatcher ("jl2", jobGroupEquals ("foo"));
+
+    ListenerDispatchTable aTable = new ListenerDispatchTable (aMgr.getRevision (),
+                                                              0,
+                                                              aMgr,
+                                                              aMgr.getJobListeners (),
+                                                              aMgr.getTriggerListeners (),
+                                                              aMgr.getSchedulerListeners ());
+    assertEquals (1, aTable.getJobListeners (new JobKey ("a", "foo")).length);
+    assertEquals (2, aTable.getJobListeners (new JobKey ("a", "bar")).length);
+
+    // Every change creates a new revision
+    final int nOldRevision = aMgr.getRevision ();
+    aMgr.removeJobListener ("jl2");
+    assertNotEquals (nOldRevision, aMgr.getRevision ());
+    assertEquals (false, aTable.isUpToDate (aMgr.getRevision (), 0));
+
+    aTable = new ListenerDispatchTable (aMgr.getRevision (),
+                                        0,
+                                        aMgr,
+                                        aMgr.getJobListeners (),
+                                        aMgr.getTriggerListeners (),
+                                        aMgr.getSchedulerListeners ());
+    assertEquals (1, aTable.getJobListeners (new JobKey ("a", "foo")).length);
+    assertEquals (0, aTable.getCachedJobKeyCount ());
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.simpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.quartz.AbstractJobStoreTest;
+import com.helger.quartz.IJobDetail;
+import com.helger.quartz.JobBuilder;
+import com.helger.quartz.SimpleScheduleBuilder;
+import com.helger.quartz.TriggerBuilder;
+import com.helger.quartz.spi.IJobStore;
+import com.helger.quartz.spi.IOperableTrigger;
+
+/**
+ * Test class for class {@link ConcurrentRAMJobStore}.
+ *
+ * @author Philip Helger
+ */
+public final class ConcurrentRAMJobStoreTest extends AbstractJobStoreTest
+{
+  @Override
+  protected IJobStore createJobStore (final String name)
+  {
+    return new ConcurrentRAMJobStore ();
+  }
+
+  @Override
+  protected void destroyJobStore (final String name)
+  {}
+
+  @Test
+  public void testConcurrentModification () throws Exception
+  {
+    final ConcurrentRAMJobStore aStore = new ConcurrentRAMJobStore ();
+    aStore.setLockStripes (4);
+    assertEquals (4, aStore.getLockStripes ());
+    aStore.initialize (new CascadingClassLoadHelper (), new SampleSignaler ());
+
+    final int nThreads = 8;
+    final int nJobsPerThread = 200;
+    final long nStart = System.currentTimeMillis () - 1000;
+    final ExecutorService aES = Executors.newFixedThreadPool (nThreads + 1);
+    try
+    {
+      final ICommonsList <Future <?>> aFutures = new CommonsArrayList <> ();
+      for (int t = 0; t < nThreads; ++t)
+      {
+        final String sGroup = "group" + t;
+        aFutures.add (aES.submit ( () -> {
+          for (int i = 0; i < nJobsPerThread; ++i)
+          {
+            final IJobDetail aJob = JobBuilder.newJob (MyJob.class).withIdentity ("job" + i, sGroup).build ();
+            final IOperableTrigger aTrigger = TriggerBuilder.newTrigger ()
+                                                            .withIdentity ("trigger" + i, sGroup)
+                                                            .withSchedule (SimpleScheduleBuilder.repeatSecondlyForever ())
+                                                            .forJob (aJob)
+                                                            .startAt (new Date (nStart))
+                                                            .build ();
+            aTrigger.computeFirstFireTime (null);
+            aStore.storeJobAndTrigger (aJob, aTrigger);
+            // Remove every second job again
+            if ((i % 2) == 1)
+              assertTrue (aStore.removeJob (aJob.getKey ()));
+          }
+          return null;
+        }));
+      }
+      // Acquire and release concurrently
+      aFutures.add (aES.submit ( () -> {
+        for (int i = 0; i < 500; ++i)
+          for (final IOperableTrigger aTrigger : aStore.acquireNextTriggers (Long.MAX_VALUE, 10, 0))
+            aStore.releaseAcquiredTrigger (aTrigger);
+        return null;
+      }));
+      for (final Future <?> aFuture : aFutures)
+        aFuture.get ();
+    }
+    finally
+    {
+      aES.shutdown ();
+      aES.awaitTermination (10, TimeUnit.SECONDS);
+    }
+
+    final int nExpected = nThreads * nJobsPerThread / 2;
+    assertEquals (nExpected, aStore.getNumberOfJobs ());
+    assertEquals (nExpected, aStore.getNumberOfTriggers ());
+    assertEquals (nThreads, aStore.getJobGroupNames ().size ());
+
+    // All remaining triggers must be acquirable exactly once
+    assertEquals (nExpected, aStore.acquireNextTriggers (Long.MAX_VALUE, Integer.MAX_VALUE, 0).size ());
+    assertEquals (0, aStore.acquireNextTriggers (Long.MAX_VALUE, Integer.MAX_VALUE, 0).size ());
+  }
+
+  @Test
+  public void testShards () throws Exception
+  {
+    final ConcurrentRAMJobStore aStore = new ConcurrentRAMJobStore ();
+    aStore.initialize (new CascadingClassLoadHelper (), new SampleSignaler ());
+
+    final int nTriggers = 100;
+    final long nStart = System.currentTimeMillis () - 1000;
+    for (int i = 0; i < nTriggers; ++i)
+    {
+      final IJobDetail aJob = JobBuilder.newJob (MyJob.class).withIdentity ("job" + i, "shards").build ();
+      final IOperableTrigger aTrigger = TriggerBuilder.newTrigger ()
+                                                      .withIdentity ("trigger" + i, "shards")
+                                                      .withSchedule (SimpleScheduleBuilder.repeatSecondlyForever ())
+                                                      .forJob (aJob)
+                                                      .startAt (new Date (nStart + i))
+                                                      .build ();
+      aTrigger.computeFirstFireTime (null);
+      aStore.storeJobAndTrigger (aJob, aTrigger);
+    }
+
+    // Existing triggers are redistributed
+    aStore.setShardCount (4);
+    assertEquals (4, aStore.getShardCount ());
+
+    int nTotal = 0;
+    for (int nShard = 0; nShard < 4; ++nShard)
+    {
+      final ICommonsList <IOperableTrigger> aAcquired = aStore.acquireNextTriggers (nShard,
+                                                                                      Long.MAX_VALUE,
+                                                                                      Integer.MAX_VALUE,
+                                                                                      0);
+      // Each shard has some triggers, ordered by fire time
+      assertTrue (aAcquired.isNotEmpty ());
+      for (int i = 1; i < aAcquired.size (); ++i)
+        assertTrue (aAcquired.get (i - 1).getNextFireTime ().compareTo (aAcquired.get (i).getNextFireTime ()) <= 0);
+      nTotal += aAcquired.size ();
+      for (final IOperableTrigger aTrigger : aAcquired)
+        aStore.releaseAcquiredTrigger (aTrigger);
+    }
+    assertEquals (nTriggers, nTotal);
+
+    // The unsharded variant acquires from all shards in time order
+    final ICommonsList <IOperableTrigger> aAll = aStore.acquireNextTriggers (Long.MAX_VALUE, Integer.MAX_VALUE, 0);
+    assertEquals (nTriggers, aAll.size ());
+    for (int i = 0; i < nTriggers; ++i)
+      assertEquals ("trigger" + i, aAll.get (i).getKey ().getName ());
+  }
+}
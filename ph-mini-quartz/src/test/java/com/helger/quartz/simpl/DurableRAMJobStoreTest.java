@@ -0,0 +1,386 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.simpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.quartz.AbstractJobStoreTest;
+import com.helger.quartz.CalendarIntervalScheduleBuilder;
+import com.helger.quartz.CronScheduleBuilder;
+import com.helger.quartz.IJobDetail;
+import com.helger.quartz.ITrigger.ECompletedExecutionInstruction;
+import com.helger.quartz.ITrigger.ETriggerState;
+import com.helger.quartz.JobBuilder;
+import com.helger.quartz.JobKey;
+import com.helger.quartz.JobPersistenceException;
+import com.helger.quartz.SimpleScheduleBuilder;
+import com.helger.quartz.TriggerBuilder;
+import com.helger.quartz.TriggerKey;
+import com.helger.quartz.impl.calendar.DailyCalendar;
+import com.helger.quartz.impl.calendar.HolidayCalendar;
+import com.helger.quartz.impl.calendar.WeeklyCalendar;
+import com.helger.quartz.impl.matchers.GroupMatcher;
+import com.helger.quartz.impl.triggers.CronTrigger;
+import com.helger.quartz.impl.triggers.SimpleTrigger;
+import com.helger.quartz.spi.IClassLoadHelper;
+import com.helger.quartz.spi.IJobStore;
+import com.helger.quartz.spi.IOperableTrigger;
+
+/**
+ * Test class for class {@link DurableRAMJobStore}.
+ *
+ * @author Philip Helger
+ */
+public final class DurableRAMJobStoreTest extends AbstractJobStoreTest
+{
+  @Rule
+  public final TemporaryFolder m_aTempFolder = new TemporaryFolder ();
+
+  private final ICommonsList <DurableRAMJobStore> m_aStores = new CommonsArrayList <> ();
+
+  @Override
+  protected IJobStore createJobStore (final String name)
+  {
+    try
+    {
+      final DurableRAMJobStore ret = new DurableRAMJobStore ();
+      ret.setDirectory (m_aTempFolder.newFolder ().getAbsolutePath ());
+      m_aStores.add (ret);
+      return ret;
+    }
+    catch (final IOException ex)
+    {
+      throw new IllegalStateException (ex);
+    }
+  }
+
+  @Override
+  protected void destroyJobStore (final String name)
+  {
+    for (final DurableRAMJobStore aStore : m_aStores)
+      aStore.shutdown ();
+    m_aStores.clear ();
+  }
+
+  private static DurableRAMJobStore _open (final File aDir) throws Exception
+  {
+    final DurableRAMJobStore ret = new DurableRAMJobStore ();
+    ret.setDirectory (aDir.getAbsolutePath ());
+    final IClassLoadHelper aLoadHelper = new CascadingClassLoadHelper ();
+    aLoadHelper.initialize ();
+    ret.initialize (aLoadHelper, new SampleSignaler ());
+    return ret;
+  }
+
+  private static IOperableTrigger _simpleTrigger (final String sName, final IJobDetail aJob, final long nStart)
+  {
+    final IOperableTrigger ret = TriggerBuilder.newTrigger ()
+                                               .withIdentity (sName, "triggers")
+                                               .withSchedule (SimpleScheduleBuilder.repeatSecondlyForTotalCount (10))
+                                               .forJob (aJob)
+                                               .startAt (new Date (nStart))
+                                               .build ();
+    ret.computeFirstFireTime (null);
+    return ret;
+  }
+
+  private static void _fill (final DurableRAMJobStore aStore, final long nStart) throws Exception
+  {
+    final HolidayCalendar aHolidays = new HolidayCalendar (new WeeklyCalendar ());
+    aHolidays.setTimeZone (TimeZone.getTimeZone ("Europe/Vienna"));
+    aHolidays.addExcludedDate (new Date (nStart + 7 * 86_400_000L));
+    aHolidays.setDescription ("holidays");
+    aStore.storeCalendar ("holidays", aHolidays, false, false);
+    aStore.storeCalendar ("daily", new DailyCalendar ("08:00:00:000", "17:30:15:250"), false, false);
+
+    final IJobDetail aJob = JobBuilder.newJob (MyJob.class)
+                                      .withIdentity ("job1", "jobs")
+                                      .withDescription ("desc")
+                                      .usingJobData ("string", "value")
+                                      .usingJobData ("int", Integer.valueOf (42))
+                                      .storeDurably ()
+                                      .build ();
+    aJob.getJobDataMap ().put ("decimal", new BigDecimal ("1.25"));
+    aJob.getJobDataMap ().put ("null", null);
+    aStore.storeJob (aJob, false);
+
+    aStore.storeTrigger (_simpleTrigger ("simple", aJob, nStart), false);
+
+    final IOperableTrigger aCron = TriggerBuilder.newTrigger ()
+                                                 .withIdentity ("cron", "triggers")
+                                                 .withSchedule (CronScheduleBuilder.cronSchedule ("0 15 10 ? * MON-FRI")
+                                                                                   .inTimeZone (TimeZone.getTimeZone ("UTC")))
+                                                 .modifiedByCalendar ("holidays")
+                                                 .usingJobData ("trigger", Long.valueOf (7))
+                                                 .forJob (aJob)
+                                                 .startAt (new Date (nStart))
+                                                 .build ();
+    aCron.computeFirstFireTime (aHolidays);
+    aStore.storeTrigger (aCron, false);
+
+    final IOperableTrigger aInterval = TriggerBuilder.newTrigger ()
+                                                     .withIdentity ("interval", "paused")
+                                                     .withSchedule (CalendarIntervalScheduleBuilder.calendarIntervalSchedule ()
+                                                                                                   .withIntervalInDays (2))
+                                                     .forJob (aJob)
+                                                     .startAt (new Date (nStart))
+                                                     .build ();
+    aInterval.computeFirstFireTime (null);
+    aStore.storeTrigger (aInterval, false);
+    aStore.pauseTriggers (GroupMatcher.triggerGroupEquals ("paused"));
+  }
+
+  private static void _assertFilled (final DurableRAMJobStore aStore, final long nStart) throws Exception
+  {
+    assertEquals (1, aStore.getNumberOfJobs ());
+    assertEquals (3, aStore.getNumberOfTriggers ());
+    assertEquals (2, aStore.getNumberOfCalendars ());
+
+    final IJobDetail aJob = aStore.retrieveJob (new JobKey ("job1", "jobs"));
+    assertNotNull (aJob);
+    assertEquals ("desc", aJob.getDescription ());
+    assertEquals (MyJob.class, aJob.getJobClass ());
+    assertTrue (aJob.isDurable ());
+    assertEquals ("value", aJob.getJobDataMap ().getAsString ("string"));
+    assertEquals (42, aJob.getJobDataMap ().getAsInt ("int"));
+    assertEquals (new BigDecimal ("1.25"), aJob.getJobDataMap ().get ("decimal"));
+    assertTrue (aJob.getJobDataMap ().containsKey ("null"));
+
+    final HolidayCalendar aHolidays = (HolidayCalendar) aStore.retrieveCalendar ("holidays");
+    assertEquals ("holidays", aHolidays.getDescription ());
+    assertEquals ("Europe/Vienna", aHolidays.getTimeZone ().getID ());
+    assertEquals (1, aHolidays.getExcludedDates ().size ());
+    assertTrue (aHolidays.getBaseCalendar () instanceof WeeklyCalendar);
+    final DailyCalendar aDaily = (DailyCalendar) aStore.retrieveCalendar ("daily");
+    assertEquals ("17:30:15.250", aDaily.getRangeEndingTimeOfDay ().toString ());
+
+    final SimpleTrigger aSimple = (SimpleTrigger) aStore.retrieveTrigger (new TriggerKey ("simple", "triggers"));
+    assertEquals (9, aSimple.getRepeatCount ());
+    assertEquals (1000, aSimple.getRepeatInterval ());
+    assertEquals (nStart, aSimple.getStartTime ().getTime ());
+    assertEquals (ETriggerState.NORMAL, aStore.getTriggerState (aSimple.getKey ()));
+
+    final CronTrigger aCron = (CronTrigger) aStore.retrieveTrigger (new TriggerKey ("cron", "triggers"));
+    assertEquals ("0 15 10 ? * MON-FRI", aCron.getCronExpression ());
+    assertEquals ("UTC", aCron.getTimeZone ().getID ());
+    assertEquals ("holidays", aCron.getCalendarName ());
+    assertEquals (7L, aCron.getJobDataMap ().getAsLong ("trigger"));
+    assertNotNull (aCron.getNextFireTime ());
+
+    assertEquals (ETriggerState.PAUSED, aStore.getTriggerState (new TriggerKey ("interval", "paused")));
+    assertTrue (aStore.getPausedTriggerGroups ().contains ("paused"));
+  }
+
+  @Test
+  public void testRecoverFromSnapshot () throws Exception
+  {
+    final File aDir = m_aTempFolder.newFolder ();
+    final long nStart = System.currentTimeMillis ();
+    final DurableRAMJobStore aStore = _open (aDir);
+    assertTrue (aStore.supportsPersistence ());
+    _fill (aStore, nStart);
+    aStore.shutdown ();
+
+    final DurableRAMJobStore aRecovered = _open (aDir);
+    try
+    {
+      _assertFilled (aRecovered, nStart);
+    }
+    finally
+    {
+      aRecovered.shutdown ();
+    }
+  }
+
+  @Test
+  public void testRecoverFromLog () throws Exception
+  {
+    final File aDir = m_aTempFolder.newFolder ();
+    final long nStart = System.currentTimeMillis ();
+    // No shutdown - simulates a crash
+    final DurableRAMJobStore aStore = _open (aDir);
+    _fill (aStore, nStart);
+    assertTrue (aStore.removeTrigger (new TriggerKey ("simple", "triggers")));
+    aStore.storeTrigger (_simpleTrigger ("simple", aStore.retrieveJob (new JobKey ("job1", "jobs")), nStart), false);
+
+    final DurableRAMJobStore aRecovered = _open (aDir);
+    try
+    {
+      _assertFilled (aRecovered, nStart);
+    }
+    finally
+    {
+      aRecovered.shutdown ();
+    }
+  }
+
+  @Test
+  public void testTornLogTail () throws Exception
+  {
+    final File aDir = m_aTempFolder.newFolder ();
+    final long nStart = System.currentTimeMillis ();
+    final DurableRAMJobStore aStore = _open (aDir);
+    _fill (aStore, nStart);
+
+    // Simulate a partially written record
+    final Path aJournal;
+    try (final Stream <Path> aFiles = Files.list (aDir.toPath ()))
+    {
+      aJournal = aFiles.filter (x -> x.getFileName ().toString ().endsWith (".wal")).findFirst ().get ();
+    }
+    try (final OutputStream aOS = Files.newOutputStream (aJournal, StandardOpenOption.APPEND))
+    {
+      aOS.write (new byte [] { 0, 0, 1, 0, 1, 2, 3, 4, 5 });
+    }
+
+    final DurableRAMJobStore aRecovered = _open (aDir);
+    _assertFilled (aRecovered, nStart);
+    aRecovered.shutdown ();
+
+    // Recovering again must work as well
+    final DurableRAMJobStore aRecovered2 = _open (aDir);
+    try
+    {
+      _assertFilled (aRecovered2, nStart);
+    }
+    finally
+    {
+      aRecovered2.shutdown ();
+    }
+  }
+
+  @Test
+  public void testFiringAndSnapshotThreshold () throws Exception
+  {
+    final File aDir = m_aTempFolder.newFolder ();
+    final long nStart = System.currentTimeMillis () - 60_000;
+    final DurableRAMJobStore aStore = _open (aDir);
+    aStore.setSnapshotThreshold (10);
+    final IJobDetail aJob = JobBuilder.newJob (MyJob.class).withIdentity ("job", "jobs").build ();
+    aStore.storeJob (aJob, false);
+    for (int i = 0; i < 25; ++i)
+      aStore.storeTrigger (_simpleTrigger ("t" + i, aJob, nStart), false);
+
+    // Fire and complete some triggers
+    final ICommonsList <IOperableTrigger> aAcquired = aStore.acquireNextTriggers (Long.MAX_VALUE, 5, 0);
+    assertEquals (5, aAcquired.size ());
+    assertEquals (5, aStore.triggersFired (aAcquired).size ());
+    aStore.triggeredJobComplete (aAcquired.get (0), aJob, ECompletedExecutionInstruction.DELETE_TRIGGER);
+    aStore.triggeredJobComplete (aAcquired.get (1), aJob, ECompletedExecutionInstruction.SET_TRIGGER_COMPLETE);
+    // Firing does not wait for the commit, but this call does
+    aStore.pauseJob (aJob.getKey ());
+    aStore.resumeJob (aJob.getKey ());
+
+    final DurableRAMJobStore aRecovered = _open (aDir);
+    try
+    {
+      assertEquals (24, aRecovered.getNumberOfTriggers ());
+      assertNull (aRecovered.retrieveTrigger (aAcquired.get (0).getKey ()));
+      assertEquals (ETriggerState.COMPLETE, aRecovered.getTriggerState (aAcquired.get (1).getKey ()));
+      for (int i = 2; i < 5; ++i)
+      {
+        final SimpleTrigger aFired = (SimpleTrigger) aRecovered.retrieveTrigger (aAcquired.get (i).getKey ());
+        assertEquals (1, aFired.getTimesTriggered ());
+        assertEquals (aAcquired.get (i).getNextFireTime (), aFired.getNextFireTime ());
+        assertEquals (ETriggerState.NORMAL, aRecovered.getTriggerState (aFired.getKey ()));
+      }
+      // Only the latest generation survives
+      try (final Stream <Path> aFiles = Files.list (aDir.toPath ()))
+      {
+        assertEquals (2, aFiles.count ());
+      }
+      assertFalse (aRecovered.acquireNextTriggers (Long.MAX_VALUE, 100, 0).isEmpty ());
+    }
+    finally
+    {
+      aRecovered.shutdown ();
+    }
+  }
+
+  @Test
+  public void testWriteFailure () throws Exception
+  {
+    final File aDir = m_aTempFolder.newFolder ();
+    final DurableRAMJobStore aStore = _open (aDir);
+    try
+    {
+      aStore.setSnapshotThreshold (2);
+      final IJobDetail aJob = JobBuilder.newJob (MyJob.class).withIdentity ("job", "jobs").build ();
+      aStore.storeJob (aJob, false);
+
+      // Writing the next snapshot fails
+      try (final Stream <Path> aFiles = Files.list (aDir.toPath ()))
+      {
+        for (final Path aFile : aFiles.toList ())
+          Files.delete (aFile);
+      }
+      Files.delete (aDir.toPath ());
+
+      final long nStart = System.currentTimeMillis ();
+      try
+      {
+        aStore.storeTrigger (_simpleTrigger ("t0", aJob, nStart), false);
+        fail ();
+      }
+      catch (final JobPersistenceException ex)
+      {
+        // expected
+      }
+      // The journal stays failed
+      for (int i = 1; i < 5; ++i)
+        try
+        {
+          aStore.storeTrigger (_simpleTrigger ("t" + i, aJob, nStart), false);
+          fail ();
+        }
+        catch (final JobPersistenceException ex)
+        {
+          // expected
+        }
+      // The in-memory store is still usable
+      assertEquals (5, aStore.getNumberOfTriggers ());
+    }
+    finally
+    {
+      aStore.shutdown ();
+    }
+  }
+}
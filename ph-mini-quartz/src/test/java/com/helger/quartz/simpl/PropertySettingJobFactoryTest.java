@@ -78,6 +78,23 @@ public class PropertySettingJobFactoryTest
     assertTrue (myBean.getMapValue ().containsKey ("A"));
   }
 
+  @Test
+  public void testSetBeanPropsCapitalizedKey () throws SchedulerException
+  {
+    final JobDataMap jobDataMap = new JobDataMap ();
+    jobDataMap.put ("IntValue", "17");
+    jobDataMap.put ("StringValue", "S2");
+
+    // Set twice to use the cached setters
+    for (int i = 0; i < 2; ++i)
+    {
+      final TestBean myBean = new TestBean ();
+      m_aFactory.setBeanProps (myBean, jobDataMap);
+      assertEquals (17, myBean.getIntValue ());
+      assertEquals ("S2", myBean.getStringValue ());
+    }
+  }
+
   @Test
   public void testSetBeanPropsUnknownProperty ()
   {
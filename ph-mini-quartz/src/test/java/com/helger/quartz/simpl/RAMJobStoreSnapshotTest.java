@@ -0,0 +1,202 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.simpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.helger.collection.commons.ICommonsList;
+import com.helger.quartz.AbstractJobStoreTest.MyJob;
+import com.helger.quartz.AbstractJobStoreTest.SampleSignaler;
+import com.helger.quartz.IJobDetail;
+import com.helger.quartz.ITrigger.ETriggerState;
+import com.helger.quartz.JobBuilder;
+import com.helger.quartz.JobKey;
+import com.helger.quartz.JobPersistenceException;
+import com.helger.quartz.SimpleScheduleBuilder;
+import com.helger.quartz.TriggerBuilder;
+import com.helger.quartz.TriggerKey;
+import com.helger.quartz.impl.calendar.WeeklyCalendar;
+import com.helger.quartz.impl.matchers.GroupMatcher;
+import com.helger.quartz.spi.IClassLoadHelper;
+import com.helger.quartz.spi.IOperableTrigger;
+
+/**
+ * Test class for {@link RAMJobStore#writeSnapshot(Path)} and
+ * {@link RAMJobStore#loadSnapshot(Path, IClassLoadHelper)}.
+ *
+ * @author Philip Helger
+ */
+public final class RAMJobStoreSnapshotTest
+{
+  private static final int JOBS = 20;
+  private static final int TRIGGERS_PER_JOB = 50;
+
+  @Rule
+  public final TemporaryFolder m_aTempFolder = new TemporaryFolder ();
+
+  private static RAMJobStore _createFilledStore (final String sTimeIndex) throws Exception
+  {
+    final RAMJobStore ret = new RAMJobStore ();
+    ret.setTimeIndex (sTimeIndex);
+    ret.initialize (null, new SampleSignaler ());
+    ret.storeCalendar ("weekly", new WeeklyCalendar (), false, false);
+    final long nStart = System.currentTimeMillis () + 60_000;
+    for (int j = 0; j < JOBS; ++j)
+    {
+      final IJobDetail aJob = JobBuilder.newJob (MyJob.class)
+                                        .withIdentity ("job" + j, "group" + (j % 3))
+                                        .usingJobData ("index", Integer.valueOf (j))
+                                        .build ();
+      ret.storeJob (aJob, false);
+      for (int t = 0; t < TRIGGERS_PER_JOB; ++t)
+      {
+        final IOperableTrigger aTrigger = TriggerBuilder.newTrigger ()
+                                                        .withIdentity ("trigger" + j + "-" + t, "group" + (t % 4))
+                                                        .withSchedule (SimpleScheduleBuilder.repeatMinutelyForever ())
+                                                        .withPriority (t % 7)
+                                                        .modifiedByCalendar (t == 0 ? "weekly" : null)
+                                                        .forJob (aJob)
+                                                        .startAt (new Date (nStart + ((j * 31 + t * 17) % 1000) * 1000))
+                                                        .build ();
+        aTrigger.computeFirstFireTime (null);
+        ret.storeTrigger (aTrigger, false);
+      }
+    }
+    ret.pauseTriggers (GroupMatcher.triggerGroupEquals ("group3"));
+    return ret;
+  }
+
+  private void _testRoundTrip (final String sTimeIndex) throws Exception
+  {
+    final RAMJobStore aSource = _createFilledStore (sTimeIndex);
+    final File aFile = new File (m_aTempFolder.newFolder (), "store.snapshot");
+    aSource.writeSnapshot (aFile.toPath ());
+
+    final RAMJobStore aLoaded = new RAMJobStore ();
+    aLoaded.setTimeIndex (sTimeIndex);
+    aLoaded.initialize (null, new SampleSignaler ());
+    assertEquals (1 + 1 + JOBS + JOBS * TRIGGERS_PER_JOB, aLoaded.loadSnapshot (aFile.toPath (), null));
+
+    assertEquals (JOBS, aLoaded.getNumberOfJobs ());
+    assertEquals (JOBS * TRIGGERS_PER_JOB, aLoaded.getNumberOfTriggers ());
+    assertEquals (1, aLoaded.getNumberOfCalendars ());
+    assertEquals (aSource.getPausedTriggerGroups (), aLoaded.getPausedTriggerGroups ());
+    assertEquals (ETriggerState.PAUSED, aLoaded.getTriggerState (new TriggerKey ("trigger0-3", "group3")));
+    assertEquals (ETriggerState.NORMAL, aLoaded.getTriggerState (new TriggerKey ("trigger0-0", "group0")));
+    assertEquals ("weekly",
+                  aLoaded.retrieveTrigger (new TriggerKey ("trigger0-0", "group0")).getCalendarName ());
+    assertEquals (TRIGGERS_PER_JOB, aLoaded.getTriggersForJob (new JobKey ("job1", "group1")).size ());
+    assertEquals (7, aLoaded.retrieveJob (new JobKey ("job7", "group1")).getJobDataMap ().getAsInt ("index"));
+    assertEquals (6, aLoaded.getJobKeys (GroupMatcher.jobGroupEquals ("group2")).size ());
+
+    // Both stores must fire in the same order
+    final ICommonsList <IOperableTrigger> aExpected = aSource.acquireNextTriggers (Long.MAX_VALUE, 1000, 86_400_000L);
+    final ICommonsList <IOperableTrigger> aActual = aLoaded.acquireNextTriggers (Long.MAX_VALUE, 1000, 86_400_000L);
+    // Every 4th trigger is paused
+    assertEquals (JOBS * (TRIGGERS_PER_JOB - TRIGGERS_PER_JOB / 4), aActual.size ());
+    assertEquals (aExpected.size (), aActual.size ());
+    for (int i = 0; i < aExpected.size (); ++i)
+    {
+      assertEquals (aExpected.get (i).getKey (), aActual.get (i).getKey ());
+      assertEquals (aExpected.get (i).getNextFireTime (), aActual.get (i).getNextFireTime ());
+    }
+  }
+
+  @Test
+  public void testRoundTripTree () throws Exception
+  {
+    _testRoundTrip (RAMJobStore.TIME_INDEX_TREE);
+  }
+
+  @Test
+  public void testRoundTripWheel () throws Exception
+  {
+    _testRoundTrip (RAMJobStore.TIME_INDEX_WHEEL);
+  }
+
+  @Test
+  public void testSnapshotFileProperty () throws Exception
+  {
+    final File aFile = new File (m_aTempFolder.newFolder (), "store.snapshot");
+
+    // Not existing - nothing to load
+    final RAMJobStore aEmpty = new RAMJobStore ();
+    aEmpty.setSnapshotFile (aFile.getAbsolutePath ());
+    aEmpty.initialize (null, new SampleSignaler ());
+    assertEquals (0, aEmpty.getNumberOfTriggers ());
+
+    _createFilledStore (RAMJobStore.TIME_INDEX_TREE).writeSnapshot (aFile.toPath ());
+    final RAMJobStore aLoaded = new RAMJobStore ();
+    aLoaded.setSnapshotFile (aFile.getAbsolutePath ());
+    aLoaded.initialize (null, new SampleSignaler ());
+    assertEquals (JOBS * TRIGGERS_PER_JOB, aLoaded.getNumberOfTriggers ());
+    assertNotNull (aLoaded.retrieveCalendar ("weekly"));
+
+    // Only into empty stores
+    try
+    {
+      aLoaded.loadSnapshot (aFile.toPath (), null);
+      fail ();
+    }
+    catch (final JobPersistenceException ex)
+    {
+      // expected
+    }
+  }
+
+  @Test
+  public void testTruncatedSnapshot () throws Exception
+  {
+    final File aFile = new File (m_aTempFolder.newFolder (), "store.snapshot");
+    _createFilledStore (RAMJobStore.TIME_INDEX_TREE).writeSnapshot (aFile.toPath ());
+    try (final FileChannel aChannel = FileChannel.open (aFile.toPath (), StandardOpenOption.WRITE))
+    {
+      aChannel.truncate (aChannel.size () - 100);
+    }
+
+    final RAMJobStore aStore = new RAMJobStore ();
+    aStore.initialize (null, new SampleSignaler ());
+    try
+    {
+      aStore.loadSnapshot (aFile.toPath (), null);
+      fail ();
+    }
+    catch (final JobPersistenceException ex)
+    {
+      // expected
+    }
+    // Nothing partially loaded
+    assertEquals (0, aStore.getNumberOfJobs ());
+    assertEquals (0, aStore.getNumberOfTriggers ());
+    assertTrue (aStore.acquireNextTriggers (Long.MAX_VALUE, 10, 0).isEmpty ());
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.simpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Date;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.quartz.AbstractJobStoreTest;
+import com.helger.quartz.IJobDetail;
+import com.helger.quartz.ITrigger.ETriggerState;
+import com.helger.quartz.JobBuilder;
+import com.helger.quartz.SimpleScheduleBuilder;
+import com.helger.quartz.TriggerBuilder;
+import com.helger.quartz.TriggerKey;
+import com.helger.quartz.impl.matchers.GroupMatcher;
+import com.helger.quartz.spi.IJobStore;
+import com.helger.quartz.spi.IOperableTrigger;
+
+/**
+ * Test class for class {@link TieredRAMJobStore}. The inherited tests run with
+ * a horizon of 0, so that all triggers are paged out.
+ *
+ * @author Philip Helger
+ */
+public final class TieredRAMJobStoreTest extends AbstractJobStoreTest
+{
+  private static final long MINUTE = 60_000;
+
+  @Rule
+  public final TemporaryFolder m_aTempFolder = new TemporaryFolder ();
+
+  private final ICommonsList <TieredRAMJobStore> m_aStores = new CommonsArrayList <> ();
+
+  @Override
+  protected IJobStore createJobStore (final String name)
+  {
+    try
+    {
+      final TieredRAMJobStore ret = new TieredRAMJobStore ();
+      ret.setDirectory (m_aTempFolder.newFolder ().getAbsolutePath ());
+      ret.setHorizon (0);
+      ret.setSegmentSize (2);
+      m_aStores.add (ret);
+      return ret;
+    }
+    catch (final IOException ex)
+    {
+      throw new IllegalStateException (ex);
+    }
+  }
+
+  @Override
+  protected void destroyJobStore (final String name)
+  {
+    for (final TieredRAMJobStore aStore : m_aStores)
+      aStore.shutdown ();
+    m_aStores.clear ();
+  }
+
+  private TieredRAMJobStore _open (final long nHorizon) throws Exception
+  {
+    final TieredRAMJobStore ret = new TieredRAMJobStore ();
+    ret.setDirectory (m_aTempFolder.newFolder ().getAbsolutePath ());
+    ret.setHorizon (nHorizon);
+    ret.setSegmentSize (10);
+    ret.initialize (null, new SampleSignaler ());
+    m_aStores.add (ret);
+    return ret;
+  }
+
+  private static IJobDetail _storeJob (final TieredRAMJobStore aStore,
+                                       final String sName,
+                                       final boolean bDurable) throws Exception
+  {
+    final IJobDetail ret = JobBuilder.newJob (MyJob.class)
+                                     .withIdentity (sName, "jobs")
+                                     .storeDurably (bDurable)
+                                     .build ();
+    aStore.storeJob (ret, false);
+    return ret;
+  }
+
+  private static IOperableTrigger _storeTrigger (final TieredRAMJobStore aStore,
+                                                 final String sName,
+                                                 final IJobDetail aJob,
+                                                 final long nStart,
+                                                 final boolean bReplaceExisting) throws Exception
+  {
+    final IOperableTrigger ret = TriggerBuilder.newTrigger ()
+                                               .withIdentity (sName, "group" + (sName.length () % 2))
+                                               .withSchedule (SimpleScheduleBuilder.repeatHourlyForTotalCount (3))
+                                               .forJob (aJob)
+                                               .startAt (new Date (nStart))
+                                               .build ();
+    ret.computeFirstFireTime (null);
+    aStore.storeTrigger (ret, bReplaceExisting);
+    return ret;
+  }
+
+  @Test
+  public void testPageOutAndPrefetch () throws Exception
+  {
+    final TieredRAMJobStore aStore = _open (30 * MINUTE);
+    final IJobDetail aJob = _storeJob (aStore, "job", true);
+    final long nNow = System.currentTimeMillis ();
+    // 3 triggers in memory, 25 paged out in 2 segments plus the buffer
+    for (int i = 0; i < 28; ++i)
+      _storeTrigger (aStore, "t" + i, aJob, nNow + (i * 10 + 5) * MINUTE, false);
+    assertEquals (28, aStore.getNumberOfTriggers ());
+    assertEquals (25, aStore.getNumberOfPagedOutTriggers ());
+    assertEquals (28, aStore.getTriggerKeys (GroupMatcher.anyTriggerGroup ()).size ());
+    assertEquals (28, aStore.getTriggersForJob (aJob.getKey ()).size ());
+    assertTrue (aStore.checkExists (new TriggerKey ("t27", "group1")));
+    assertEquals (ETriggerState.NORMAL, aStore.getTriggerState (new TriggerKey ("t27", "group1")));
+
+    // Read from disk
+    final IOperableTrigger aTrigger = aStore.retrieveTrigger (new TriggerKey ("t20", "group1"));
+    assertNotNull (aTrigger);
+    assertEquals (nNow + 205 * MINUTE, aTrigger.getNextFireTimeMillis ());
+    assertEquals (aJob.getKey (), aTrigger.getJobKey ());
+
+    // Move the horizon
+    aStore.setHorizon (100 * MINUTE);
+    assertEquals (7, aStore.prefetch ());
+    assertEquals (18, aStore.getNumberOfPagedOutTriggers ());
+    assertEquals (0, aStore.prefetch ());
+
+    // Due triggers are loaded synchronously
+    final ICommonsList <IOperableTrigger> aAcquired = aStore.acquireNextTriggers (nNow + 150 * MINUTE,
+                                                                                  100,
+                                                                                  150 * MINUTE);
+    assertEquals (16, aAcquired.size ());
+    for (int i = 1; i < aAcquired.size (); ++i)
+      assertTrue (aAcquired.get (i - 1).getNextFireTimeMillis () < aAcquired.get (i).getNextFireTimeMillis ());
+    assertEquals (0, aStore.getNumberOfPagedOutTriggers ());
+  }
+
+  @Test
+  public void testRemove () throws Exception
+  {
+    final TieredRAMJobStore aStore = _open (0);
+    final long nStart = System.currentTimeMillis () + 10 * MINUTE;
+    final IJobDetail aJob = _storeJob (aStore, "job", false);
+    for (int i = 0; i < 15; ++i)
+      _storeTrigger (aStore, "t" + i, aJob, nStart + i * MINUTE, false);
+    assertEquals (15, aStore.getNumberOfPagedOutTriggers ());
+
+    // Replace an existing trigger
+    _storeTrigger (aStore, "t2", aJob, nStart + 20 * MINUTE, true);
+    assertEquals (15, aStore.getNumberOfTriggers ());
+    assertEquals (nStart + 20 * MINUTE,
+                  aStore.retrieveTrigger (new TriggerKey ("t2", "group0")).getNextFireTimeMillis ());
+
+    for (int i = 0; i < 14; ++i)
+      assertTrue (aStore.removeTrigger (new TriggerKey ("t" + i, "group" + (("t" + i).length () % 2))));
+    assertTrue (aStore.checkExists (aJob.getKey ()));
+
+    // The non-durable job is removed with its last trigger
+    assertTrue (aStore.removeTrigger (new TriggerKey ("t14", "group1")));
+    assertFalse (aStore.checkExists (aJob.getKey ()));
+    assertEquals (0, aStore.getNumberOfTriggers ());
+    assertEquals (0, aStore.getNumberOfPagedOutTriggers ());
+
+    // Removing the job removes its paged out triggers
+    final IJobDetail aJob2 = _storeJob (aStore, "job2", true);
+    for (int i = 0; i < 5; ++i)
+      _storeTrigger (aStore, "u" + i, aJob2, nStart + i * MINUTE, false);
+    assertTrue (aStore.removeJob (aJob2.getKey ()));
+    assertEquals (0, aStore.getNumberOfTriggers ());
+    assertNull (aStore.retrieveTrigger (new TriggerKey ("u1", "group0")));
+  }
+
+  @Test
+  public void testPauseAndResume () throws Exception
+  {
+    final TieredRAMJobStore aStore = _open (0);
+    final long nStart = System.currentTimeMillis () + 10 * MINUTE;
+    final IJobDetail aJob = _storeJob (aStore, "job", true);
+    // t0 to t9 are in group0, t10 to t19 in group1
+    for (int i = 0; i < 20; ++i)
+      _storeTrigger (aStore, "t" + i, aJob, nStart + i * MINUTE, false);
+
+    // Pausing a group keeps the triggers paged out
+    aStore.pauseTriggers (GroupMatcher.triggerGroupEquals ("group0"));
+    assertEquals (20, aStore.getNumberOfPagedOutTriggers ());
+    assertEquals (ETriggerState.PAUSED, aStore.getTriggerState (new TriggerKey ("t5", "group0")));
+    assertEquals (ETriggerState.NORMAL, aStore.getTriggerState (new TriggerKey ("t15", "group1")));
+
+    // Pausing a single trigger loads it
+    aStore.pauseTrigger (new TriggerKey ("t15", "group1"));
+    assertEquals (19, aStore.getNumberOfPagedOutTriggers ());
+    assertEquals (ETriggerState.PAUSED, aStore.getTriggerState (new TriggerKey ("t15", "group1")));
+
+    // Paused triggers are not acquired
+    assertEquals (9, aStore.acquireNextTriggers (nStart + 100 * MINUTE, 100, 100 * MINUTE).size ());
+    assertEquals (ETriggerState.PAUSED, aStore.getTriggerState (new TriggerKey ("t5", "group0")));
+
+    aStore.resumeAll ();
+    assertEquals (ETriggerState.NORMAL, aStore.getTriggerState (new TriggerKey ("t5", "group0")));
+    assertEquals (11, aStore.acquireNextTriggers (nStart + 100 * MINUTE, 100, 100 * MINUTE).size ());
+    assertEquals (0, aStore.getNumberOfPagedOutTriggers ());
+  }
+
+  @Test
+  public void testSnapshot () throws Exception
+  {
+    final TieredRAMJobStore aStore = _open (30 * MINUTE);
+    final long nNow = System.currentTimeMillis ();
+    final IJobDetail aJob = _storeJob (aStore, "job", true);
+    for (int i = 0; i < 25; ++i)
+      _storeTrigger (aStore, "t" + i, aJob, nNow + (i * 10 + 5) * MINUTE, false);
+    assertEquals (22, aStore.getNumberOfPagedOutTriggers ());
+
+    final File aFile = new File (m_aTempFolder.newFolder (), "store.snapshot");
+    aStore.writeSnapshot (aFile.toPath ());
+
+    final RAMJobStore aLoaded = new RAMJobStore ();
+    aLoaded.initialize (null, new SampleSignaler ());
+    aLoaded.loadSnapshot (aFile.toPath (), null);
+    assertEquals (25, aLoaded.getNumberOfTriggers ());
+    assertEquals (nNow + 245 * MINUTE,
+                  aLoaded.retrieveTrigger (new TriggerKey ("t24", "group1")).getNextFireTimeMillis ());
+
+    // Loading into a tiered store pages the far triggers out again
+    final TieredRAMJobStore aTiered = _open (30 * MINUTE);
+    aTiered.loadSnapshot (aFile.toPath (), null);
+    assertEquals (25, aTiered.getNumberOfTriggers ());
+    assertEquals (22, aTiered.getNumberOfPagedOutTriggers ());
+  }
+}
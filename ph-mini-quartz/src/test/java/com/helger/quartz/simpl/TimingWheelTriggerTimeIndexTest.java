@@ -0,0 +1,144 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.simpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.quartz.TriggerKey;
+import com.helger.quartz.impl.triggers.SimpleTrigger;
+
+/**
+ * Test class for class {@link TimingWheelTriggerTimeIndex}.
+ *
+ * @author Philip Helger
+ */
+public final class TimingWheelTriggerTimeIndexTest
+{
+  private static final long NOW = 1_700_000_000_000L;
+
+  private static long _randomTime (final Random aRandom)
+  {
+    switch (aRandom.nextInt (6))
+    {
+      case 0:
+        // Same millisecond range
+        return NOW + aRandom.nextInt (64);
+      case 1:
+        return NOW + aRandom.nextInt (60_000);
+      case 2:
+        return NOW + aRandom.nextInt (86_400_000);
+      case 3:
+        return NOW + (aRandom.nextLong () & 0xff_ffff_ffffL);
+      case 4:
+        // Beyond the range of the wheel
+        return NOW + (aRandom.nextLong () & 0x3ff_ffff_ffffL);
+      default:
+        // In the past
+        return NOW - aRandom.nextInt (100_000);
+    }
+  }
+
+  private static TriggerWrapper _createTW (final int nIndex, final Random aRandom)
+  {
+    final SimpleTrigger aTrigger = new SimpleTrigger ();
+    aTrigger.setKey (new TriggerKey ("t" + nIndex, "g" + (nIndex % 3)));
+    aTrigger.setJobName ("job");
+    aTrigger.setPriority (aRandom.nextInt (3));
+    aTrigger.setNextFireTime (aRandom.nextInt (50) == 0 ? null : new Date (_randomTime (aRandom)));
+    return new TriggerWrapper (aTrigger);
+  }
+
+  @Test
+  public void testBasic ()
+  {
+    final TimingWheelTriggerTimeIndex aIndex = new TimingWheelTriggerTimeIndex ();
+    assertTrue (aIndex.isEmpty ());
+    assertNull (aIndex.first ());
+    assertNull (aIndex.pollFirst ());
+
+    final Random aRandom = new Random (1);
+    final TriggerWrapper aTW = _createTW (1, aRandom);
+    assertTrue (aIndex.add (aTW));
+    assertFalse (aIndex.add (aTW));
+    assertEquals (1, aIndex.size ());
+    assertSame (aTW, aIndex.first ());
+    assertTrue (aIndex.remove (aTW));
+    assertFalse (aIndex.remove (aTW));
+    assertTrue (aIndex.isEmpty ());
+  }
+
+  @Test
+  public void testSameOrderAsTreeSet ()
+  {
+    final Random aRandom = new Random (20260101);
+    final TimingWheelTriggerTimeIndex aWheel = new TimingWheelTriggerTimeIndex ();
+    final TreeSetTriggerTimeIndex aTree = new TreeSetTriggerTimeIndex ();
+    final ICommonsList <TriggerWrapper> aAll = new CommonsArrayList <> ();
+    for (int i = 0; i < 5000; ++i)
+    {
+      final TriggerWrapper aTW = _createTW (i, aRandom);
+      aAll.add (aTW);
+      assertTrue (aWheel.add (aTW));
+      assertTrue (aTree.add (aTW));
+    }
+
+    for (int nRound = 0; nRound < 20000; ++nRound)
+    {
+      final TriggerWrapper aTW = aAll.get (aRandom.nextInt (aAll.size ()));
+      switch (aRandom.nextInt (3))
+      {
+        case 0:
+          // Remove an arbitrary trigger
+          assertEquals (Boolean.valueOf (aTree.remove (aTW)), Boolean.valueOf (aWheel.remove (aTW)));
+          break;
+        case 1:
+          // (Re-)schedule an arbitrary trigger
+          if (aTree.remove (aTW))
+            assertTrue (aWheel.remove (aTW));
+          aTW.getTrigger ().setNextFireTime (new Date (_randomTime (aRandom)));
+          assertTrue (aTree.add (aTW));
+          assertTrue (aWheel.add (aTW));
+          break;
+        default:
+          // Take the next trigger
+          assertSame (aTree.first (), aWheel.first ());
+          assertSame (aTree.pollFirst (), aWheel.pollFirst ());
+          break;
+      }
+      assertEquals (aTree.size (), aWheel.size ());
+    }
+
+    assertEquals (aTree.getAllSorted (), aWheel.getAllSorted ());
+    while (!aTree.isEmpty ())
+      assertSame (aTree.pollFirst (), aWheel.pollFirst ());
+    assertTrue (aWheel.isEmpty ());
+    assertNull (aWheel.first ());
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Copyright (C) 2016-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.quartz.simpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.helger.base.concurrent.ThreadHelper;
+
+/**
+ * Test class for class {@link VirtualThreadPool}.
+ *
+ * @author Philip Helger
+ */
+public final class VirtualThreadPoolTest
+{
+  @Test
+  public void testConcurrencyLimit () throws Exception
+  {
+    final int nLimit = 4;
+    final VirtualThreadPool aPool = new VirtualThreadPool (nLimit);
+    aPool.setInstanceName ("testConcurrencyLimit");
+    aPool.initialize ();
+    assertEquals (nLimit, aPool.getPoolSize ());
+    assertEquals (nLimit, aPool.blockForAvailableThreads ());
+
+    final int nJobs = 100;
+    final AtomicInteger aRunning = new AtomicInteger ();
+    final AtomicInteger aMaxRunning = new AtomicInteger ();
+    final CountDownLatch aDone = new CountDownLatch (nJobs);
+    for (int i = 0; i < nJobs; ++i)
+    {
+      assertTrue (aPool.blockForAvailableThreads () > 0);
+      assertTrue (aPool.runInThread ( () -> {
+        final int nNow = aRunning.incrementAndGet ();
+        aMaxRunning.accumulateAndGet (nNow, Math::max);
+        ThreadHelper.sleep (2);
+        aRunning.decrementAndGet ();
+        aDone.countDown ();
+      }));
+    }
+    assertTrue (aDone.await (30, TimeUnit.SECONDS));
+    assertTrue (aMaxRunning.get () <= nLimit);
+
+    aPool.shutdown (true);
+    assertEquals (0, aPool.blockForAvailableThreads ());
+  }
+
+  @Test
+  public void testShutdownWaitsForJobs () throws Exception
+  {
+    final VirtualThreadPool aPool = new VirtualThreadPool (2);
+    aPool.initialize ();
+
+    final CountDownLatch aStarted = new CountDownLatch (1);
+    final AtomicInteger aFinished = new AtomicInteger ();
+    aPool.runInThread ( () -> {
+      aStarted.countDown ();
+      ThreadHelper.sleep (200);
+      aFinished.incrementAndGet ();
+    });
+    assertTrue (aStarted.await (10, TimeUnit.SECONDS));
+    aPool.shutdown (true);
+    assertEquals (1, aFinished.get ());
+
+    // Still runs jobs after shutdown
+    final CountDownLatch aLastJob = new CountDownLatch (1);
+    assertTrue (aPool.runInThread (aLastJob::countDown));
+    assertTrue (aLastJob.await (10, TimeUnit.SECONDS));
+    assertFalse (aPool.runInThread (null));
+  }
+}
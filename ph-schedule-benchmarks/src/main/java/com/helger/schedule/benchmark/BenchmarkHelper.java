@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.schedule.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Date;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.quartz.DisallowConcurrentExecution;
+import com.helger.quartz.IJob;
+import com.helger.quartz.IJobExecutionContext;
+import com.helger.quartz.ITrigger;
+import com.helger.quartz.JobKey;
+import com.helger.quartz.SchedulerConfigException;
+import com.helger.quartz.SchedulerException;
+import com.helger.quartz.simpl.ConcurrentRAMJobStore;
+import com.helger.quartz.simpl.RAMJobStore;
+import com.helger.quartz.spi.IJobStore;
+import com.helger.quartz.spi.ISchedulerSignaler;
+import com.helger.schedule.jobstore.BaseJobStore;
+
+/**
+ * Shared helper for the benchmarks.
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkHelper
+{
+  /** Job store type for {@link RAMJobStore} */
+  public static final String STORE_RAM = "ram";
+  /** Job store type for {@link BaseJobStore} */
+  public static final String STORE_BASE = "base";
+  /** Job store type for {@link ConcurrentRAMJobStore} */
+  public static final String STORE_CONCURRENT = "concurrent";
+
+  /**
+   * A job that does nothing.
+   */
+  public static final class NoOpJob implements IJob
+  {
+    public void execute (final IJobExecutionContext aContext)
+    {}
+  }
+
+  /**
+   * A job that does nothing and must not be executed concurrently.
+   */
+  @DisallowConcurrentExecution
+  public static final class NoOpNonConcurrentJob implements IJob
+  {
+    public void execute (final IJobExecutionContext aContext)
+    {}
+  }
+
+  /**
+   * A scheduler signaler that ignores everything.
+   */
+  public static final class NoOpSignaler implements ISchedulerSignaler
+  {
+    public void notifyTriggerListenersMisfired (final ITrigger trigger)
+    {}
+
+    public void notifySchedulerListenersFinalized (final ITrigger trigger)
+    {}
+
+    public void notifySchedulerListenersJobDeleted (final JobKey jobKey)
+    {}
+
+    public void signalSchedulingChange (final long candidateNewNextFireTime)
+    {}
+
+    public void notifySchedulerListenersError (final String string, final SchedulerException jpe)
+    {}
+  }
+
+  private BenchmarkHelper ()
+  {}
+
+  /**
+   * Create and initialize a new job store.
+   *
+   * @param sType
+   *        One of {@link #STORE_RAM}, {@link #STORE_BASE} or
+   *        {@link #STORE_CONCURRENT}.
+   * @return The initialized job store. Never <code>null</code>.
+   * @throws SchedulerConfigException
+   *         If initialization fails
+   */
+  @NonNull
+  public static IJobStore createJobStore (@NonNull final String sType) throws SchedulerConfigException
+  {
+    final IJobStore ret;
+    switch (sType)
+    {
+      case STORE_RAM:
+        ret = new RAMJobStore ();
+        break;
+      case STORE_BASE:
+        ret = new BaseJobStore ();
+        break;
+      case STORE_CONCURRENT:
+        ret = new ConcurrentRAMJobStore ();
+        break;
+      default:
+        throw new IllegalArgumentException ("Unsupported job store type '" + sType + "'");
+    }
+    ret.initialize (null, new NoOpSignaler ());
+    return ret;
+  }
+
+  /**
+   * @return The number of heap bytes in use after running the garbage
+   *         collector a few times.
+   */
+  public static long getUsedHeapAfterGC ()
+  {
+    final MemoryMXBean aMemory = ManagementFactory.getMemoryMXBean ();
+    long ret = Long.MAX_VALUE;
+    for (int i = 0; i < 5; ++i)
+    {
+      System.gc ();
+      ret = Math.min (ret, aMemory.getHeapMemoryUsage ().getUsed ());
+    }
+    return ret;
+  }
+
+  /**
+   * @param nOffsetMillis
+   *        The offset to add to the current time.
+   * @return A date relative to now.
+   */
+  @NonNull
+  public static Date inMillis (final long nOffsetMillis)
+  {
+    return new Date (System.currentTimeMillis () + nOffsetMillis);
+  }
+}
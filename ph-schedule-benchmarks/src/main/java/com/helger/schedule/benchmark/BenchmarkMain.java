@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.schedule.benchmark;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Main class of the benchmark uber JAR. It accepts the same command line
+ * options as the JMH main class, but always adds the {@link GCProfiler}, so
+ * that every benchmark also reports the allocation rate and the allocated
+ * bytes per operation (<code>gc.alloc.rate.norm</code>).
+ *
+ * @author Philip Helger
+ */
+public final class BenchmarkMain
+{
+  private BenchmarkMain ()
+  {}
+
+  public static void main (final String [] aArgs) throws RunnerException, IOException
+  {
+    final CommandLineOptions aCmdOptions;
+    try
+    {
+      aCmdOptions = new CommandLineOptions (aArgs);
+    }
+    catch (final CommandLineOptionException ex)
+    {
+      // Let JMH print the error message
+      Main.main (aArgs);
+      return;
+    }
+
+    if (aCmdOptions.shouldHelp () ||
+        aCmdOptions.shouldList () ||
+        aCmdOptions.shouldListWithParams () ||
+        aCmdOptions.shouldListProfilers () ||
+        aCmdOptions.shouldListResultFormats ())
+    {
+      // Nothing to run
+      Main.main (aArgs);
+      return;
+    }
+
+    final Options aOptions = new OptionsBuilder ().parent (aCmdOptions).addProfiler (GCProfiler.class).build ();
+    new Runner (aOptions).run ();
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.schedule.benchmark;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.quartz.CronExpression;
+
+/**
+ * Compares {@link CronExpression#getNextInvalidTimeAfter(Date)} with the
+ * previous implementation, that called
+ * {@link CronExpression#getTimeAfter(Date)} once per second of the matching
+ * range. The start time is always the first second of a matching range.
+ *
+ * @author Philip Helger
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+public class CronNextInvalidTimeBenchmark
+{
+  @Param ({ "* 0-4 * * * ?", "* * 0-7 ? * MON-FRI", "0-29 * 9-17 * * ?" })
+  public String expression;
+
+  private CronExpression m_aCronExpression;
+  private Date m_aStart;
+
+  @Setup
+  public void setup () throws ParseException
+  {
+    m_aCronExpression = new CronExpression (expression);
+    m_aCronExpression.setTimeZone (TimeZone.getTimeZone ("Europe/Vienna"));
+    // A Monday in June, so no daylight saving transition is involved
+    m_aStart = m_aCronExpression.getTimeAfter (new Date (1_717_970_400_000L));
+  }
+
+  @Benchmark
+  public Date rangeJump ()
+  {
+    return m_aCronExpression.getNextInvalidTimeAfter (m_aStart);
+  }
+
+  @Benchmark
+  public Date secondBySecond ()
+  {
+    long nLastTime = m_aStart.getTime ();
+    while (true)
+    {
+      final Date aNewDate = m_aCronExpression.getTimeAfter (new Date (nLastTime));
+      if (aNewDate == null || aNewDate.getTime () - nLastTime != 1000)
+        break;
+      nLastTime = aNewDate.getTime ();
+    }
+    return new Date (nLastTime + 1000);
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.schedule.benchmark;
+
+import java.text.ParseException;
+import java.util.Date;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.quartz.CronExpression;
+
+/**
+ * Measures {@link CronExpression#getTimeAfter(Date)} for typical expressions.
+ * <code>fixedStart</code> always starts at the same instant,
+ * <code>chained</code> walks the fire times one after the other like a
+ * {@link com.helger.quartz.ICronTrigger} does.
+ *
+ * @author Philip Helger
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.NANOSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+public class CronTimeAfterBenchmark
+{
+  // 2024-06-10T00:00:00+02:00, a Monday
+  private static final long START = 1_717_970_400_000L;
+
+  @Param ({ "0 0/5 * * * ?", "0 15 10 ? * MON-FRI", "0 0 12 L * ?", "0 0 9 ? * 6#3", "0 30 2 * * ?" })
+  public String expression;
+
+  @Param ({ "UTC", "Europe/Vienna" })
+  public String timeZone;
+
+  private CronExpression m_aCronExpression;
+  private Date m_aStart;
+  private Date m_aCurrent;
+
+  @Setup
+  public void setup () throws ParseException
+  {
+    m_aCronExpression = new CronExpression (expression);
+    m_aCronExpression.setTimeZone (TimeZone.getTimeZone (timeZone));
+    m_aStart = new Date (START);
+    m_aCurrent = m_aStart;
+  }
+
+  @Benchmark
+  public Date fixedStart ()
+  {
+    return m_aCronExpression.getTimeAfter (m_aStart);
+  }
+
+  @Benchmark
+  public Date chained ()
+  {
+    final Date ret = m_aCronExpression.getTimeAfter (m_aCurrent);
+    // Restart at the beginning if the end of the expression was reached
+    m_aCurrent = ret != null ? ret : m_aStart;
+    return ret;
+  }
+}
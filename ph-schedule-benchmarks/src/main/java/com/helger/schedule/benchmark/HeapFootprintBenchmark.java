@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.schedule.benchmark;
+
+import static com.helger.quartz.JobBuilder.newJob;
+import static com.helger.quartz.TriggerBuilder.newTrigger;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.quartz.IJobDetail;
+import com.helger.quartz.JobDataMap;
+import com.helger.quartz.JobKey;
+import com.helger.quartz.SchedulerException;
+import com.helger.quartz.impl.JobDetailTemplate;
+import com.helger.quartz.impl.triggers.OneShotTrigger;
+import com.helger.quartz.simpl.RAMJobStore;
+import com.helger.quartz.spi.IOperableTrigger;
+import com.helger.schedule.benchmark.BenchmarkHelper.NoOpJob;
+
+/**
+ * Measures the heap footprint of a {@link RAMJobStore} used as a delayed task
+ * engine: every task is a job of its own with a small job data map and a
+ * trigger that fires once. The classic representation (a
+ * <code>JobDetail</code> and a <code>SimpleTrigger</code> with a repeat count
+ * of 0) is compared with the compact one (a <code>TemplatedJobDetail</code>
+ * sharing one {@link JobDetailTemplate} and a {@link OneShotTrigger}). The
+ * time is the time to schedule all tasks, the retained heap is printed as
+ * "bytes per scheduled task" after each iteration.
+ *
+ * @author Philip Helger
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.SingleShotTime)
+@OutputTimeUnit (TimeUnit.MILLISECONDS)
+@Warmup (iterations = 1)
+@Measurement (iterations = 3)
+@Fork (value = 1, jvmArgsAppend = "-Xmx4g")
+public class HeapFootprintBenchmark
+{
+  public static final String REPRESENTATION_SIMPLE = "simple";
+  public static final String REPRESENTATION_COMPACT = "compact";
+
+  private static final String GROUP = "tasks";
+
+  @Param ({ REPRESENTATION_SIMPLE, REPRESENTATION_COMPACT })
+  public String representation;
+
+  @Param ({ "1000000" })
+  public int taskCount;
+
+  private long m_nBaseline;
+  private RAMJobStore m_aStore;
+
+  @Setup (Level.Iteration)
+  public void setup ()
+  {
+    m_aStore = null;
+    m_nBaseline = BenchmarkHelper.getUsedHeapAfterGC ();
+  }
+
+  @TearDown (Level.Iteration)
+  public void tearDown ()
+  {
+    // The store is still referenced at this point
+    final long nUsed = BenchmarkHelper.getUsedHeapAfterGC () - m_nBaseline;
+    System.out.println ("  " +
+                        representation +
+                        ": " +
+                        (nUsed / taskCount) +
+                        " bytes per scheduled task (" +
+                        m_aStore.getNumberOfTriggers () +
+                        " tasks)");
+    m_aStore = null;
+  }
+
+  @Benchmark
+  public RAMJobStore scheduleTasks () throws SchedulerException
+  {
+    final RAMJobStore aStore = (RAMJobStore) BenchmarkHelper.createJobStore (BenchmarkHelper.STORE_RAM);
+    final boolean bCompact = REPRESENTATION_COMPACT.equals (representation);
+    final JobDetailTemplate aTemplate = JobDetailTemplate.create (NoOpJob.class);
+    final long nNow = System.currentTimeMillis ();
+    for (int i = 0; i < taskCount; ++i)
+    {
+      final String sName = "task" + i;
+      // Spread the tasks over one day
+      final long nFireTime = nNow + 60_000 + (i * 7919L) % 86_400_000L;
+      final IJobDetail aJob;
+      final IOperableTrigger aTrigger;
+      if (bCompact)
+      {
+        final JobDataMap aData = new JobDataMap ();
+        aData.put ("id", i);
+        aJob = aTemplate.createJobDetail (new JobKey (sName, GROUP), aData);
+        aTrigger = OneShotTrigger.create (sName, GROUP, sName, GROUP, nFireTime);
+      }
+      else
+      {
+        aJob = newJob (NoOpJob.class).withIdentity (sName, GROUP).usingJobData ("id", Integer.valueOf (i)).build ();
+        aTrigger = (IOperableTrigger) newTrigger ().withIdentity (sName, GROUP)
+                                                   .forJob (aJob)
+                                                   .startAt (new Date (nFireTime))
+                                                   .build ();
+      }
+      aTrigger.computeFirstFireTime (null);
+      aStore.storeJob (aJob, false);
+      aStore.storeTrigger (aTrigger, false);
+    }
+    m_aStore = aStore;
+    return aStore;
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.schedule.benchmark;
+
+import static com.helger.quartz.JobBuilder.newJob;
+import static com.helger.quartz.SimpleScheduleBuilder.simpleSchedule;
+import static com.helger.quartz.TriggerBuilder.newTrigger;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.collection.commons.ICommonsList;
+import com.helger.quartz.IJobDetail;
+import com.helger.quartz.ITrigger.ECompletedExecutionInstruction;
+import com.helger.quartz.JobPersistenceException;
+import com.helger.quartz.SchedulerException;
+import com.helger.quartz.spi.IJobStore;
+import com.helger.quartz.spi.IOperableTrigger;
+import com.helger.quartz.spi.TriggerFiredBundle;
+import com.helger.quartz.spi.TriggerFiredResult;
+import com.helger.schedule.benchmark.BenchmarkHelper.NoOpJob;
+
+/**
+ * Measures the full life cycle of a one-shot trigger in a job store: store,
+ * acquire, fire and complete (which removes the trigger again), while the job
+ * store contains a large number of other triggers.
+ *
+ * @author Philip Helger
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.NANOSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (value = 1, jvmArgsAppend = "-Xmx4g")
+public class JobStoreCycleBenchmark
+{
+  /** Number of idle triggers per idle job */
+  private static final int TRIGGERS_PER_JOB = 100;
+
+  @Param ({ BenchmarkHelper.STORE_RAM, BenchmarkHelper.STORE_BASE })
+  public String store;
+
+  @Param ({ "10000", "100000", "1000000" })
+  public int triggerCount;
+
+  private IJobStore m_aStore;
+  private IJobDetail m_aHotJob;
+  private long m_nIndex;
+
+  @Setup
+  public void setup () throws SchedulerException
+  {
+    m_aStore = BenchmarkHelper.createJobStore (store);
+
+    // The other triggers fire far in the future
+    final Date aIdleStart = BenchmarkHelper.inMillis (TimeUnit.DAYS.toMillis (365));
+    IJobDetail aJob = null;
+    for (int i = 0; i < triggerCount; ++i)
+    {
+      if (i % TRIGGERS_PER_JOB == 0)
+      {
+        aJob = newJob (NoOpJob.class).withIdentity ("job" + i, "idle").build ();
+        m_aStore.storeJob (aJob, false);
+      }
+      final IOperableTrigger aTrigger = (IOperableTrigger) newTrigger ().withIdentity ("trigger" + i, "idle")
+                                                                         .forJob (aJob)
+                                                                         .startAt (aIdleStart)
+                                                                         .withSchedule (simpleSchedule ().withIntervalInHours (1)
+                                                                                                         .repeatForever ())
+                                                                         .build ();
+      aTrigger.computeFirstFireTime (null);
+      m_aStore.storeTrigger (aTrigger, false);
+    }
+
+    // Durable, so that it is not deleted together with its last trigger
+    m_aHotJob = newJob (NoOpJob.class).withIdentity ("hot", "hot").storeDurably ().build ();
+    m_aStore.storeJob (m_aHotJob, false);
+  }
+
+  @Benchmark
+  public ICommonsList <TriggerFiredResult> cycle () throws JobPersistenceException
+  {
+    final IOperableTrigger aTrigger = (IOperableTrigger) newTrigger ().withIdentity ("hot" + m_nIndex++, "hot")
+                                                                       .forJob (m_aHotJob)
+                                                                       .startNow ()
+                                                                       .build ();
+    aTrigger.computeFirstFireTime (null);
+    m_aStore.storeTrigger (aTrigger, false);
+
+    final ICommonsList <IOperableTrigger> aAcquired = m_aStore.acquireNextTriggers (System.currentTimeMillis () +
+                                                                                    1000,
+                                                                                    1,
+                                                                                    0L);
+    final ICommonsList <TriggerFiredResult> ret = m_aStore.triggersFired (aAcquired);
+    for (final TriggerFiredResult aResult : ret)
+    {
+      final TriggerFiredBundle aBundle = aResult.getTriggerFiredBundle ();
+      if (aBundle != null)
+        m_aStore.triggeredJobComplete (aBundle.getTrigger (),
+                                       m_aHotJob,
+                                       ECompletedExecutionInstruction.DELETE_TRIGGER);
+    }
+    return ret;
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.schedule.benchmark;
+
+import static com.helger.quartz.JobBuilder.newJob;
+import static com.helger.quartz.SimpleScheduleBuilder.simpleSchedule;
+import static com.helger.quartz.TriggerBuilder.newTrigger;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.collection.commons.ICommonsList;
+import com.helger.quartz.IJobDetail;
+import com.helger.quartz.ITrigger.ECompletedExecutionInstruction;
+import com.helger.quartz.JobPersistenceException;
+import com.helger.quartz.SchedulerException;
+import com.helger.quartz.spi.IJobStore;
+import com.helger.quartz.spi.IOperableTrigger;
+import com.helger.quartz.spi.TriggerFiredBundle;
+import com.helger.quartz.spi.TriggerFiredResult;
+import com.helger.schedule.benchmark.BenchmarkHelper.NoOpJob;
+import com.helger.schedule.benchmark.BenchmarkHelper.NoOpNonConcurrentJob;
+
+/**
+ * Measures one acquire/fire/complete cycle of a trigger of a job with
+ * {@link com.helger.quartz.DisallowConcurrentExecution}, while the job store
+ * contains a varying number of other triggers. The cost of a cycle should be
+ * independent of the total number of triggers.
+ *
+ * @author Philip Helger
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.NANOSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+public class JobStoreFiringBenchmark
+{
+  @Param ({ BenchmarkHelper.STORE_RAM, BenchmarkHelper.STORE_BASE, BenchmarkHelper.STORE_CONCURRENT })
+  public String store;
+
+  @Param ({ "1000", "10000", "100000" })
+  public int triggerCount;
+
+  private IJobStore m_aStore;
+  private IJobDetail m_aHotJob;
+
+  @Setup
+  public void setup () throws SchedulerException
+  {
+    m_aStore = BenchmarkHelper.createJobStore (store);
+
+    // The other triggers fire far in the future
+    final Date aIdleStart = BenchmarkHelper.inMillis (TimeUnit.DAYS.toMillis (365));
+    for (int i = 0; i < triggerCount; ++i)
+    {
+      final IJobDetail aJob = newJob (NoOpJob.class).withIdentity ("job" + i, "idle").build ();
+      m_aStore.storeJob (aJob, false);
+      final IOperableTrigger aTrigger = (IOperableTrigger) newTrigger ().withIdentity ("trigger" + i, "idle")
+                                                                         .forJob (aJob)
+                                                                         .startAt (aIdleStart)
+                                                                         .withSchedule (simpleSchedule ().withIntervalInHours (1)
+                                                                                                         .repeatForever ())
+                                                                         .build ();
+      aTrigger.computeFirstFireTime (null);
+      m_aStore.storeTrigger (aTrigger, false);
+    }
+
+    // The hot trigger is always the next one and never misfires
+    m_aHotJob = newJob (NoOpNonConcurrentJob.class).withIdentity ("hot", "hot").build ();
+    m_aStore.storeJob (m_aHotJob, false);
+    final IOperableTrigger aTrigger = (IOperableTrigger) newTrigger ().withIdentity ("hot", "hot")
+                                                                       .forJob (m_aHotJob)
+                                                                       .startAt (BenchmarkHelper.inMillis (TimeUnit.HOURS.toMillis (1)))
+                                                                       .withSchedule (simpleSchedule ().withIntervalInMilliseconds (1)
+                                                                                                       .repeatForever ())
+                                                                       .build ();
+    aTrigger.computeFirstFireTime (null);
+    m_aStore.storeTrigger (aTrigger, false);
+  }
+
+  @Benchmark
+  public ICommonsList <TriggerFiredResult> fireCycle () throws JobPersistenceException
+  {
+    final ICommonsList <IOperableTrigger> aAcquired = m_aStore.acquireNextTriggers (Long.MAX_VALUE, 1, 0L);
+    final ICommonsList <TriggerFiredResult> ret = m_aStore.triggersFired (aAcquired);
+    for (final TriggerFiredResult aResult : ret)
+    {
+      final TriggerFiredBundle aBundle = aResult.getTriggerFiredBundle ();
+      if (aBundle != null)
+        m_aStore.triggeredJobComplete (aBundle.getTrigger (), m_aHotJob, ECompletedExecutionInstruction.NOOP);
+    }
+    return ret;
+  }
+}
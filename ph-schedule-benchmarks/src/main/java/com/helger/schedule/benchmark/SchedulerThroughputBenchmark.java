@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.schedule.benchmark;
+
+import static com.helger.quartz.JobBuilder.newJob;
+import static com.helger.quartz.TriggerBuilder.newTrigger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.base.rt.NonBlockingProperties;
+import com.helger.quartz.IJob;
+import com.helger.quartz.IJobExecutionContext;
+import com.helger.quartz.IScheduler;
+import com.helger.quartz.JobKey;
+import com.helger.quartz.SchedulerException;
+import com.helger.quartz.impl.StdSchedulerFactory;
+import com.helger.quartz.simpl.ConcurrentRAMJobStore;
+import com.helger.quartz.simpl.RAMJobStore;
+import com.helger.quartz.simpl.SimpleThreadPool;
+import com.helger.schedule.jobstore.BaseJobStore;
+
+/**
+ * Measures the end-to-end throughput of a started scheduler: every operation
+ * schedules a one-shot trigger for a no-op job and the benchmark waits until
+ * all jobs of a batch were executed. The result is the number of fired jobs per
+ * second.
+ *
+ * @author Philip Helger
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.SECONDS)
+@Warmup (iterations = 3, time = 5)
+@Measurement (iterations = 5, time = 5)
+@Fork (1)
+public class SchedulerThroughputBenchmark
+{
+  private static final int BATCH = 1000;
+  private static final AtomicLong EXECUTED = new AtomicLong ();
+
+  /**
+   * A job that only counts its executions.
+   */
+  public static final class CountingJob implements IJob
+  {
+    public void execute (final IJobExecutionContext aContext)
+    {
+      EXECUTED.incrementAndGet ();
+    }
+  }
+
+  @Param ({ BenchmarkHelper.STORE_RAM, BenchmarkHelper.STORE_BASE, BenchmarkHelper.STORE_CONCURRENT })
+  public String store;
+
+  @Param ({ "10" })
+  public int threadCount;
+
+  @Param ({ "1", "10" })
+  public int maxBatchSize;
+
+  private IScheduler m_aScheduler;
+  private JobKey m_aJobKey;
+  private long m_nIndex;
+  private long m_nExpected;
+
+  @Setup
+  public void setup () throws SchedulerException
+  {
+    final String sJobStoreClass;
+    switch (store)
+    {
+      case BenchmarkHelper.STORE_RAM:
+        sJobStoreClass = RAMJobStore.class.getName ();
+        break;
+      case BenchmarkHelper.STORE_BASE:
+        sJobStoreClass = BaseJobStore.class.getName ();
+        break;
+      case BenchmarkHelper.STORE_CONCURRENT:
+        sJobStoreClass = ConcurrentRAMJobStore.class.getName ();
+        break;
+      default:
+        throw new IllegalArgumentException ("Unsupported job store type '" + store + "'");
+    }
+
+    final NonBlockingProperties aConfig = new NonBlockingProperties ();
+    aConfig.setProperty ("org.quartz.scheduler.instanceName", "ThroughputBenchmark");
+    aConfig.setProperty (StdSchedulerFactory.PROP_THREAD_POOL_CLASS, SimpleThreadPool.class.getName ());
+    aConfig.setProperty ("org.quartz.threadPool.threadCount", Integer.toString (threadCount));
+    aConfig.setProperty ("org.quartz.threadPool.makeThreadsDaemons", "true");
+    aConfig.setProperty (StdSchedulerFactory.PROP_JOB_STORE_CLASS, sJobStoreClass);
+    aConfig.setProperty (StdSchedulerFactory.PROP_SCHED_MAX_BATCH_SIZE, Integer.toString (maxBatchSize));
+    m_aScheduler = new StdSchedulerFactory ().initialize (aConfig).getScheduler ();
+
+    m_aJobKey = new JobKey ("counting", "benchmark");
+    m_aScheduler.addJob (newJob (CountingJob.class).withIdentity (m_aJobKey).storeDurably ().build (), false);
+    m_aScheduler.start ();
+    m_nExpected = EXECUTED.get ();
+  }
+
+  @TearDown
+  public void tearDown () throws SchedulerException
+  {
+    m_aScheduler.shutdown (true);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation (BATCH)
+  public long fire () throws SchedulerException
+  {
+    for (int i = 0; i < BATCH; ++i)
+      m_aScheduler.scheduleJob (newTrigger ().withIdentity ("t" + m_nIndex++, "benchmark")
+                                             .forJob (m_aJobKey)
+                                             .startNow ()
+                                             .build ());
+    m_nExpected += BATCH;
+    while (EXECUTED.get () < m_nExpected)
+      Thread.yield ();
+    return m_nExpected;
+  }
+}
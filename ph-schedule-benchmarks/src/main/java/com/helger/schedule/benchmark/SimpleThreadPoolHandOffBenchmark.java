@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.schedule.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.quartz.SchedulerConfigException;
+import com.helger.quartz.simpl.SimpleThreadPool;
+
+/**
+ * Measures how long it takes to hand a {@link Runnable} to a worker of the
+ * {@link SimpleThreadPool}. <code>roundTrip</code> waits until the single
+ * {@link Runnable} was executed, <code>burst</code> hands over a burst of
+ * {@link Runnable}s and waits for all of them.
+ *
+ * @author Philip Helger
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.NANOSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+public class SimpleThreadPoolHandOffBenchmark
+{
+  private static final int BURST = 100;
+
+  @Param ({ "1", "4", "16" })
+  public int threadCount;
+
+  private final AtomicLong m_aDone = new AtomicLong ();
+  private final Runnable m_aTask = m_aDone::incrementAndGet;
+  private SimpleThreadPool m_aPool;
+  private long m_nExpected;
+
+  @Setup
+  public void setup () throws SchedulerConfigException
+  {
+    m_aPool = new SimpleThreadPool (threadCount, Thread.NORM_PRIORITY);
+    m_aPool.setMakeThreadsDaemons (true);
+    m_aPool.initialize ();
+  }
+
+  @TearDown
+  public void tearDown ()
+  {
+    m_aPool.shutdown (true);
+  }
+
+  private void _awaitDone ()
+  {
+    while (m_aDone.get () < m_nExpected)
+      Thread.onSpinWait ();
+  }
+
+  @Benchmark
+  public long roundTrip ()
+  {
+    m_nExpected++;
+    m_aPool.runInThread (m_aTask);
+    _awaitDone ();
+    return m_nExpected;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation (BURST)
+  public long burst ()
+  {
+    for (int i = 0; i < BURST; ++i)
+    {
+      m_nExpected++;
+      m_aPool.runInThread (m_aTask);
+    }
+    _awaitDone ();
+    return m_nExpected;
+  }
+}
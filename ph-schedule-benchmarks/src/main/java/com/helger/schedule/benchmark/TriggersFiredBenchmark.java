@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.schedule.benchmark;
+
+import static com.helger.quartz.JobBuilder.newJob;
+import static com.helger.quartz.SimpleScheduleBuilder.simpleSchedule;
+import static com.helger.quartz.TriggerBuilder.newTrigger;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.collection.commons.ICommonsList;
+import com.helger.quartz.IJobDetail;
+import com.helger.quartz.ITrigger.ECompletedExecutionInstruction;
+import com.helger.quartz.JobPersistenceException;
+import com.helger.quartz.KeyInterner;
+import com.helger.quartz.SchedulerException;
+import com.helger.quartz.spi.IJobStore;
+import com.helger.quartz.spi.IOperableTrigger;
+import com.helger.quartz.spi.TriggerFiredBundle;
+import com.helger.quartz.spi.TriggerFiredResult;
+import com.helger.schedule.benchmark.BenchmarkHelper.NoOpJob;
+
+/**
+ * Measures the throughput of firing batches of due triggers (acquire,
+ * {@link IJobStore#triggersFired(java.util.List)} and complete), which is
+ * dominated by key lookups in the maps of the job store. The job and trigger
+ * groups are created as distinct string instances per key and are either
+ * interned via {@link KeyInterner} or not.
+ *
+ * @author Philip Helger
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.Throughput)
+@OutputTimeUnit (TimeUnit.SECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (value = 1, jvmArgsAppend = "-Xmx4g")
+public class TriggersFiredBenchmark
+{
+  /** Number of distinct job and trigger groups */
+  private static final int GROUPS = 10;
+
+  @Param ({ BenchmarkHelper.STORE_RAM, BenchmarkHelper.STORE_CONCURRENT })
+  public String store;
+
+  @Param ({ "true", "false" })
+  public boolean internGroups;
+
+  @Param ({ "100000" })
+  public int triggerCount;
+
+  @Param ({ "100" })
+  public int batchSize;
+
+  private IJobStore m_aStore;
+
+  @Setup
+  public void setup () throws SchedulerException
+  {
+    KeyInterner.setEnabled (internGroups);
+    m_aStore = BenchmarkHelper.createJobStore (store);
+
+    // All triggers fire every minute, spread over the minute, so that they
+    // never misfire and are fired round robin
+    final long nStart = System.currentTimeMillis () + TimeUnit.HOURS.toMillis (1);
+    for (int i = 0; i < triggerCount; ++i)
+    {
+      final IJobDetail aJob = newJob (NoOpJob.class).withIdentity ("job" + i, "jobs" + (i % GROUPS)).build ();
+      m_aStore.storeJob (aJob, false);
+      final String sTriggerGroup = "triggers" + (i % GROUPS);
+      final IOperableTrigger aTrigger = (IOperableTrigger) newTrigger ().withIdentity ("trigger" + i, sTriggerGroup)
+                                                                         .forJob (aJob)
+                                                                         .startAt (new Date (nStart + i % 60_000))
+                                                                         .withSchedule (simpleSchedule ().withIntervalInMinutes (1)
+                                                                                                         .repeatForever ())
+                                                                         .build ();
+      aTrigger.computeFirstFireTime (null);
+      m_aStore.storeTrigger (aTrigger, false);
+    }
+  }
+
+  @TearDown
+  public void tearDown ()
+  {
+    KeyInterner.setEnabled (true);
+  }
+
+  @Benchmark
+  public ICommonsList <TriggerFiredResult> fireBatch () throws JobPersistenceException
+  {
+    final ICommonsList <IOperableTrigger> aAcquired = m_aStore.acquireNextTriggers (Long.MAX_VALUE / 2,
+                                                                                    batchSize,
+                                                                                    TimeUnit.DAYS.toMillis (1));
+    final ICommonsList <TriggerFiredResult> ret = m_aStore.triggersFired (aAcquired);
+    for (final TriggerFiredResult aResult : ret)
+    {
+      final TriggerFiredBundle aBundle = aResult.getTriggerFiredBundle ();
+      if (aBundle != null)
+        m_aStore.triggeredJobComplete (aBundle.getTrigger (),
+                                       aBundle.getJobDetail (),
+                                       ECompletedExecutionInstruction.NOOP);
+    }
+    return ret;
+  }
+}
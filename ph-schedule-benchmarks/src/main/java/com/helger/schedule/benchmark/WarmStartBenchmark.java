@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger (www.helger.com)
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.schedule.benchmark;
+
+import static com.helger.quartz.CronScheduleBuilder.cronSchedule;
+import static com.helger.quartz.JobBuilder.newJob;
+import static com.helger.quartz.SimpleScheduleBuilder.simpleSchedule;
+import static com.helger.quartz.TriggerBuilder.newTrigger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.helger.quartz.IJobDetail;
+import com.helger.quartz.IScheduleBuilder;
+import com.helger.quartz.SchedulerException;
+import com.helger.quartz.simpl.RAMJobStore;
+import com.helger.quartz.spi.IMutableTrigger;
+import com.helger.quartz.spi.IOperableTrigger;
+import com.helger.schedule.benchmark.BenchmarkHelper.NoOpJob;
+
+/**
+ * Compares the two ways of filling a {@link RAMJobStore} at startup: storing
+ * every job and trigger via the API versus loading a binary snapshot
+ * file written by {@link RAMJobStore#writeSnapshot(Path)}.
+ *
+ * @author Philip Helger
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.SingleShotTime)
+@OutputTimeUnit (TimeUnit.MILLISECONDS)
+@Warmup (iterations = 2)
+@Measurement (iterations = 5)
+@Fork (value = 1, jvmArgsAppend = "-Xmx4g")
+public class WarmStartBenchmark
+{
+  private static final int TRIGGERS_PER_JOB = 100;
+
+  @Param ({ "100000", "1000000" })
+  public int triggerCount;
+
+  private Path m_aSnapshot;
+
+  @Setup (Level.Trial)
+  public void setup () throws SchedulerException, IOException
+  {
+    m_aSnapshot = Files.createTempFile ("warmstart", ".snapshot");
+    _storeAll ().writeSnapshot (m_aSnapshot);
+  }
+
+  @TearDown (Level.Trial)
+  public void tearDown () throws IOException
+  {
+    Files.deleteIfExists (m_aSnapshot);
+  }
+
+  /**
+   * What application code does at startup: build and store every job and
+   * trigger.
+   */
+  private RAMJobStore _storeAll () throws SchedulerException
+  {
+    final RAMJobStore ret = (RAMJobStore) BenchmarkHelper.createJobStore (BenchmarkHelper.STORE_RAM);
+    final long nNow = System.currentTimeMillis ();
+    IJobDetail aJob = null;
+    for (int i = 0; i < triggerCount; ++i)
+    {
+      if (i % TRIGGERS_PER_JOB == 0)
+      {
+        aJob = newJob (NoOpJob.class).withIdentity ("job" + i, "group" + (i % 10)).build ();
+        ret.storeJob (aJob, false);
+      }
+      // Every other trigger is a cron trigger, the fire times are spread over
+      // one day
+      final IScheduleBuilder <? extends IMutableTrigger> aSchedule = (i & 1) == 0 ? simpleSchedule ().withIntervalInHours (1)
+                                                                                                    .repeatForever ()
+                                                                                  : cronSchedule ("0 " +
+                                                                                                  (i % 60) +
+                                                                                                  " " +
+                                                                                                  (i % 24) +
+                                                                                                  " * * ?");
+      final IOperableTrigger aTrigger = (IOperableTrigger) newTrigger ().withIdentity ("trigger" + i,
+                                                                                        "group" + (i % 10))
+                                                                         .forJob (aJob)
+                                                                         .startAt (new Date (nNow +
+                                                                                             (i * 7919L) % 86_400_000L))
+                                                                         .withSchedule (aSchedule)
+                                                                         .build ();
+      aTrigger.computeFirstFireTime (null);
+      ret.storeTrigger (aTrigger, false);
+    }
+    return ret;
+  }
+
+  @Benchmark
+  public RAMJobStore storeEach () throws SchedulerException
+  {
+    return _storeAll ();
+  }
+
+  @Benchmark
+  public RAMJobStore loadSnapshot () throws SchedulerException
+  {
+    final RAMJobStore ret = (RAMJobStore) BenchmarkHelper.createJobStore (BenchmarkHelper.STORE_RAM);
+    ret.loadSnapshot (m_aSnapshot, null);
+    return ret;
+  }
+}
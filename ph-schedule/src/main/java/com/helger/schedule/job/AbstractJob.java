@@ -132,8 +132,8 @@ public abstract class AbstractJob implements IJob
     ESuccess eExecSuccess = ESuccess.FAILURE;
 
     // Create a local copy of the job data map to allow for modifications and
-    // alteration
-    final JobDataMap aJobDataMap = new JobDataMap (aContext.getMergedJobDataMap ());
+    // alteration. The data itself is only copied upon the first modification.
+    final JobDataMap aJobDataMap = aContext.getMergedJobDataMap ().getClone ();
 
     beforeExecute (aJobDataMap, aContext);
     try
@@ -18,7 +18,6 @@ package com.helger.schedule.jobstore;
 
 import java.util.Comparator;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -41,6 +40,7 @@ import com.helger.base.hashcode.HashCodeGenerator;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.CommonsHashMap;
 import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.CommonsLinkedHashMap;
 import com.helger.collection.commons.CommonsTreeSet;
 import com.helger.collection.commons.ICommonsCollection;
 import com.helger.collection.commons.ICommonsList;
@@ -88,7 +88,9 @@ public class BaseJobStore implements IJobStore
   private final ICommonsMap <String, ICommonsMap <TriggerKey, TriggerWrapper>> m_aTriggersByGroup = new CommonsHashMap <> (25);
   private final ICommonsNavigableSet <TriggerWrapper> m_aTimeTriggers = new CommonsTreeSet <> (new TriggerWrapperComparator ());
   private final ICommonsMap <String, ICalendar> m_aCalendarsByName = new CommonsHashMap <> (25);
-  private final ICommonsList <TriggerWrapper> m_aTriggers = new CommonsArrayList <> (1000);
+  // Secondary indices - the inner maps preserve the insertion order
+  private final ICommonsMap <JobKey, ICommonsMap <TriggerKey, TriggerWrapper>> m_aTriggersByJob = new CommonsHashMap <> (1000);
+  private final ICommonsMap <String, ICommonsMap <TriggerKey, TriggerWrapper>> m_aTriggersByCalendar = new CommonsHashMap <> (25);
   private final ICommonsSet <String> m_aPausedTriggerGroups = new CommonsHashSet <> ();
   private final ICommonsSet <String> m_aPausedJobGroups = new CommonsHashSet <> ();
   private final ICommonsSet <JobKey> m_aBlockedJobs = new CommonsHashSet <> ();
@@ -310,8 +312,8 @@ public class BaseJobStore implements IJobStore
     final TriggerWrapper tw = new TriggerWrapper (aNewTrigger.getClone ());
 
     m_aRWLock.writeLocked ( () -> {
-      // add to triggers array
-      m_aTriggers.add (tw);
+      // add to secondary indices
+      _addToSecondaryIndices (tw);
       // add to triggers by group
       final String sTriggerGroupName = aTriggerKey.getGroup ();
       final ICommonsMap <TriggerKey, TriggerWrapper> aGrpMap = m_aTriggersByGroup.computeIfAbsent (sTriggerGroupName,
@@ -356,7 +358,8 @@ public class BaseJobStore implements IJobStore
   {
     return m_aRWLock.writeLockedBoolean ( () -> {
       // remove from triggers by FQN map
-      if (m_aTriggersByKey.remove (key) == null)
+      final TriggerWrapper tw = m_aTriggersByKey.remove (key);
+      if (tw == null)
         return false;
 
       // remove from triggers by group
@@ -367,25 +370,14 @@ public class BaseJobStore implements IJobStore
         if (aGrpMap.isEmpty ())
           m_aTriggersByGroup.remove (key.getGroup ());
       }
-      // remove from triggers list
-      TriggerWrapper tw = null;
-      final Iterator <TriggerWrapper> tgs = m_aTriggers.iterator ();
-      while (tgs.hasNext ())
-      {
-        tw = tgs.next ();
-        if (key.equals (tw.getTriggerKey ()))
-        {
-          tgs.remove ();
-          break;
-        }
-      }
+      // remove from secondary indices
+      _removeFromSecondaryIndices (tw);
       m_aTimeTriggers.remove (tw);
 
       if (bRemoveOrphanedJob)
       {
         final JobWrapper jw = m_aJobsByKey.get (tw.getJobKey ());
-        final ICommonsList <IOperableTrigger> trigs = getTriggersForJob (tw.getJobKey ());
-        if ((trigs == null || trigs.isEmpty ()) && !jw.getJobDetail ().isDurable ())
+        if (!m_aTriggersByJob.containsKey (tw.getJobKey ()) && !jw.getJobDetail ().isDurable ())
         {
           if (removeJob (jw.getJobKey ()))
             m_aSignaler.notifySchedulerListenersJobDeleted (jw.getJobKey ());
@@ -424,18 +416,8 @@ public class BaseJobStore implements IJobStore
           m_aTriggersByGroup.remove (aTriggerKey.getGroup ());
       }
 
-      // remove from triggers array
-      tw = null;
-      final Iterator <TriggerWrapper> tgs = m_aTriggers.iterator ();
-      while (tgs.hasNext ())
-      {
-        tw = tgs.next ();
-        if (aTriggerKey.equals (tw.getTriggerKey ()))
-        {
-          tgs.remove ();
-          break;
-        }
-      }
+      // remove from secondary indices
+      _removeFromSecondaryIndices (tw);
       m_aTimeTriggers.remove (tw);
     }
     finally
@@ -560,15 +542,7 @@ public class BaseJobStore implements IJobStore
   public boolean removeCalendar (final String calName) throws JobPersistenceException
   {
     m_aRWLock.readLockedThrowing ( () -> {
-      int numRefs = 0;
-      for (final TriggerWrapper aTriggerWrapper : m_aTriggers)
-      {
-        final IOperableTrigger trigg = aTriggerWrapper.getTrigger ();
-        if (trigg.getCalendarName () != null && trigg.getCalendarName ().equals (calName))
-          numRefs++;
-      }
-
-      if (numRefs > 0)
+      if (m_aTriggersByCalendar.containsKey (calName))
         throw new JobPersistenceException ("Calender cannot be removed if it referenced by a Trigger!");
     });
 
@@ -590,7 +564,7 @@ public class BaseJobStore implements IJobStore
 
   public int getNumberOfTriggers ()
   {
-    return m_aRWLock.readLockedInt (m_aTriggers::size);
+    return m_aRWLock.readLockedInt (m_aTriggersByKey::size);
   }
 
   public int getNumberOfCalendars ()
@@ -680,8 +654,9 @@ public class BaseJobStore implements IJobStore
   {
     return m_aRWLock.readLockedGet ( () -> {
       final ICommonsList <IOperableTrigger> ret = new CommonsArrayList <> ();
-      for (final TriggerWrapper aTW : m_aTriggers)
-        if (aTW.getJobKey ().equals (aJobKey))
+      final ICommonsMap <TriggerKey, TriggerWrapper> aJobMap = m_aTriggersByJob.get (aJobKey);
+      if (aJobMap != null)
+        for (final TriggerWrapper aTW : aJobMap.values ())
           ret.add (aTW.getTrigger ().getClone ());
       return ret;
     });
@@ -692,11 +667,8 @@ public class BaseJobStore implements IJobStore
   protected ICommonsList <TriggerWrapper> getTriggerWrappersForJob (final JobKey aJobKey)
   {
     return m_aRWLock.readLockedGet ( () -> {
-      final ICommonsList <TriggerWrapper> ret = new CommonsArrayList <> ();
-      for (final TriggerWrapper aTW : m_aTriggers)
-        if (aTW.getJobKey ().equals (aJobKey))
-          ret.add (aTW);
-      return ret;
+      final ICommonsMap <TriggerKey, TriggerWrapper> aJobMap = m_aTriggersByJob.get (aJobKey);
+      return aJobMap == null ? new CommonsArrayList <> () : aJobMap.copyOfValues ();
     });
   }
 
@@ -705,17 +677,43 @@ public class BaseJobStore implements IJobStore
   protected ICommonsList <TriggerWrapper> getTriggerWrappersForCalendar (final String calName)
   {
     return m_aRWLock.readLockedGet ( () -> {
-      final ICommonsList <TriggerWrapper> ret = new CommonsArrayList <> ();
-      for (final TriggerWrapper tw : m_aTriggers)
-      {
-        final String tcalName = tw.getTrigger ().getCalendarName ();
-        if (tcalName != null && tcalName.equals (calName))
-          ret.add (tw);
-      }
-      return ret;
+      final ICommonsMap <TriggerKey, TriggerWrapper> aCalMap = m_aTriggersByCalendar.get (calName);
+      return aCalMap == null ? new CommonsArrayList <> () : aCalMap.copyOfValues ();
     });
   }
 
+  @MustBeLocked (ELockType.WRITE)
+  private void _addToSecondaryIndices (@NonNull final TriggerWrapper aTW)
+  {
+    final TriggerKey aTriggerKey = aTW.getTriggerKey ();
+    m_aTriggersByJob.computeIfAbsent (aTW.getJobKey (), k -> new CommonsLinkedHashMap <> ()).put (aTriggerKey, aTW);
+    final String sCalName = aTW.getTrigger ().getCalendarName ();
+    if (sCalName != null)
+      m_aTriggersByCalendar.computeIfAbsent (sCalName, k -> new CommonsLinkedHashMap <> ()).put (aTriggerKey, aTW);
+  }
+
+  private static <K> void _removeFromIndex (@NonNull final ICommonsMap <K, ICommonsMap <TriggerKey, TriggerWrapper>> aIndex,
+                                            @NonNull final K aIndexKey,
+                                            @NonNull final TriggerKey aTriggerKey)
+  {
+    final ICommonsMap <TriggerKey, TriggerWrapper> aMap = aIndex.get (aIndexKey);
+    if (aMap != null)
+    {
+      aMap.remove (aTriggerKey);
+      if (aMap.isEmpty ())
+        aIndex.remove (aIndexKey);
+    }
+  }
+
+  @MustBeLocked (ELockType.WRITE)
+  private void _removeFromSecondaryIndices (@NonNull final TriggerWrapper aTW)
+  {
+    _removeFromIndex (m_aTriggersByJob, aTW.getJobKey (), aTW.getTriggerKey ());
+    final String sCalName = aTW.getTrigger ().getCalendarName ();
+    if (sCalName != null)
+      _removeFromIndex (m_aTriggersByCalendar, sCalName, aTW.getTriggerKey ());
+  }
+
   /**
    * <p>
    * Pause the <code>{@link ITrigger}</code> with the given name.
@@ -964,9 +962,9 @@ public class BaseJobStore implements IJobStore
     if (getMisfireThreshold () > 0)
       misfireTime -= getMisfireThreshold ();
 
-    final Date tnft = tw.getTrigger ().getNextFireTime ();
-    if (tnft == null ||
-        tnft.getTime () > misfireTime ||
+    final long tnft = tw.getTrigger ().getNextFireTimeMillis ();
+    if (tnft == ITrigger.NO_FIRE_TIME ||
+        tnft > misfireTime ||
         tw.getTrigger ().getMisfireInstruction () == EMisfireInstruction.MISFIRE_INSTRUCTION_IGNORE_MISFIRE_POLICY)
     {
       return false;
@@ -982,14 +980,15 @@ public class BaseJobStore implements IJobStore
 
     tw.getTrigger ().updateAfterMisfire (cal);
 
-    if (tw.getTrigger ().getNextFireTime () == null)
+    final long nNewFireTime = tw.getTrigger ().getNextFireTimeMillis ();
+    if (nNewFireTime == ITrigger.NO_FIRE_TIME)
     {
       tw.setState (TriggerWrapper.STATE_COMPLETE);
       m_aSignaler.notifySchedulerListenersFinalized (tw.getTrigger ());
       m_aTimeTriggers.remove (tw);
     }
     else
-      if (tnft.equals (tw.getTrigger ().getNextFireTime ()))
+      if (tnft == nNewFireTime)
         return false;
 
     return true;
@@ -1029,17 +1028,18 @@ public class BaseJobStore implements IJobStore
           break;
         }
 
-        if (tw.getTrigger ().getNextFireTime () == null)
+        if (tw.getTrigger ().getNextFireTimeMillis () == ITrigger.NO_FIRE_TIME)
           continue;
 
         if (applyMisfire (tw))
         {
-          if (tw.getTrigger ().getNextFireTime () != null)
+          if (tw.getTrigger ().getNextFireTimeMillis () != ITrigger.NO_FIRE_TIME)
             m_aTimeTriggers.add (tw);
           continue;
         }
 
-        if (tw.getTrigger ().getNextFireTime ().getTime () > noLaterThan + timeWindow)
+        final long nNextFireTime = tw.getTrigger ().getNextFireTimeMillis ();
+        if (nNextFireTime > noLaterThan + timeWindow)
         {
           m_aTimeTriggers.add (tw);
           break;
@@ -1050,7 +1050,7 @@ public class BaseJobStore implements IJobStore
         // put it back into the timeTriggers set and continue to search for next
         // trigger.
         final JobKey jobKey = tw.getJobKey ();
-        final IJobDetail job = m_aJobsByKey.get (tw.getJobKey ()).getJobDetail ();
+        final IJobDetail job = m_aJobsByKey.get (jobKey).getJobDetail ();
         if (job.isConcurrentExectionDisallowed ())
         {
           if (!acquiredJobKeysForNoConcurrentExec.add (jobKey))
@@ -1066,7 +1066,7 @@ public class BaseJobStore implements IJobStore
         final IOperableTrigger trig = tw.getTrigger ().getClone ();
         ret.add (trig);
         if (firstAcquiredTriggerFireTime == 0)
-          firstAcquiredTriggerFireTime = tw.getTrigger ().getNextFireTime ().getTime ();
+          firstAcquiredTriggerFireTime = nNextFireTime;
 
         if (ret.size () == maxCount)
           break;
@@ -1165,7 +1165,7 @@ public class BaseJobStore implements IJobStore
           m_aBlockedJobs.add (job.getKey ());
         }
         else
-          if (tw.getTrigger ().getNextFireTime () != null)
+          if (tw.getTrigger ().getNextFireTimeMillis () != ITrigger.NO_FIRE_TIME)
             m_aTimeTriggers.add (tw);
 
         ret.add (new TriggerFiredResult (bndle));
@@ -1230,11 +1230,11 @@ public class BaseJobStore implements IJobStore
         if (triggerInstCode == ECompletedExecutionInstruction.DELETE_TRIGGER)
         {
 
-          if (trigger.getNextFireTime () == null)
+          if (trigger.getNextFireTimeMillis () == ITrigger.NO_FIRE_TIME)
           {
             // double check for possible reschedule within job
             // execution, which would cancel the need to delete...
-            if (tw.getTrigger ().getNextFireTime () == null)
+            if (tw.getTrigger ().getNextFireTimeMillis () == ITrigger.NO_FIRE_TIME)
             {
               removeTrigger (trigger.getKey ());
             }
@@ -1338,11 +1338,16 @@ public class BaseJobStore implements IJobStore
 
 final class TriggerWrapperComparator implements Comparator <TriggerWrapper>
 {
-  private final TriggerTimeComparator m_aComp = new TriggerTimeComparator ();
-
   public int compare (final TriggerWrapper trig1, final TriggerWrapper trig2)
   {
-    return m_aComp.compare (trig1.getTrigger (), trig2.getTrigger ());
+    final IOperableTrigger t1 = trig1.getTrigger ();
+    final IOperableTrigger t2 = trig2.getTrigger ();
+    return TriggerTimeComparator.compare (t1.getNextFireTimeMillis (),
+                                          t1.getPriority (),
+                                          trig1.getTriggerKey (),
+                                          t2.getNextFireTimeMillis (),
+                                          t2.getPriority (),
+                                          trig2.getTriggerKey ());
   }
 
   @Override